@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import org.apache.commons.pool2.impl.AbandonedConfig;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+/**
+ * A connection pool which runs a {@link PoolSizingController} after each eviction run, so the pool is resized on the
+ * evictor thread without a timer of its own.
+ *
+ * @since 2.15.0
+ */
+final class AdaptiveObjectPool extends GenericObjectPool<PoolableConnection> {
+
+    private final PoolableConnectionFactory factory;
+
+    private final PoolSizingController controller;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param factory The factory creating the pooled connections.
+     * @param config The pool configuration.
+     * @param abandonedConfig The abandoned connection configuration, may be null.
+     * @param controller The controller resizing the pool.
+     */
+    AdaptiveObjectPool(final PoolableConnectionFactory factory, final GenericObjectPoolConfig<PoolableConnection> config,
+            final AbandonedConfig abandonedConfig, final PoolSizingController controller) {
+        super(factory, config, abandonedConfig);
+        this.factory = factory;
+        this.controller = controller;
+    }
+
+    /**
+     * Evicts idle connections, then adjusts the pool size to the observed load.
+     */
+    @Override
+    public void evict() throws Exception {
+        super.evict();
+        controller.adjust(this, factory.getMeanCreateDuration());
+    }
+
+    /**
+     * Gets the controller resizing this pool.
+     *
+     * @return the controller resizing this pool.
+     */
+    PoolSizingController getController() {
+        return controller;
+    }
+}
@@ -16,9 +16,11 @@
  */
 package org.apache.commons.dbcp2;
 
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -28,14 +30,21 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
@@ -53,8 +62,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.AbandonedConfig;
-import org.apache.commons.pool2.impl.BaseObjectPoolConfig;
-import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
@@ -69,6 +76,14 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
  */
 public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBeanRegistration, AutoCloseable {
 
+    /**
+     * Borrows a connection from a {@link PoolingDataSource}.
+     */
+    @FunctionalInterface
+    private interface PoolingConnectionFunction {
+        Connection apply(PoolingDataSource<?> dataSource) throws SQLException;
+    }
+
     private static final Log log = LogFactory.getLog(BasicDataSource.class);
 
     static {
@@ -82,10 +97,12 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
             if (Utils.isSecurityEnabled()) {
                 final ClassLoader loader = BasicDataSource.class.getClassLoader();
                 final String dbcpPackageName = BasicDataSource.class.getPackage().getName();
+                loader.loadClass(dbcpPackageName + ".AdaptiveObjectPool");
                 loader.loadClass(dbcpPackageName + ".DelegatingCallableStatement");
                 loader.loadClass(dbcpPackageName + ".DelegatingDatabaseMetaData");
                 loader.loadClass(dbcpPackageName + ".DelegatingPreparedStatement");
                 loader.loadClass(dbcpPackageName + ".DelegatingResultSet");
+                loader.loadClass(dbcpPackageName + ".DirectResultSet");
                 loader.loadClass(dbcpPackageName + ".PoolableCallableStatement");
                 loader.loadClass(dbcpPackageName + ".PoolablePreparedStatement");
                 loader.loadClass(dbcpPackageName + ".PoolingConnection$StatementType");
@@ -124,250 +141,15 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     }
 
     /**
-     * The default auto-commit state of connections created by this pool.
-     */
-    private volatile Boolean defaultAutoCommit;
-
-    /**
-     * The default read-only state of connections created by this pool.
-     */
-    private transient Boolean defaultReadOnly;
-
-    /**
-     * The default TransactionIsolation state of connections created by this pool.
-     */
-    private volatile int defaultTransactionIsolation = PoolableConnectionFactory.UNKNOWN_TRANSACTION_ISOLATION;
-
-    private Duration defaultQueryTimeoutDuration;
-
-    /**
-     * The default "catalog" of connections created by this pool.
-     */
-    private volatile String defaultCatalog;
-
-    /**
-     * The default "schema" of connections created by this pool.
-     */
-    private volatile String defaultSchema;
-
-    /**
-     * The property that controls if the pooled connections cache some state rather than query the database for current
-     * state to improve performance.
-     */
-    private volatile boolean cacheState = true;
-
-    /**
-     * The instance of the JDBC Driver to use.
-     */
-    private Driver driver;
-
-    /**
-     * The fully qualified Java class name of the JDBC driver to be used.
-     */
-    private String driverClassName;
-
-    /**
-     * The class loader instance to use to load the JDBC driver. If not specified, {@link Class#forName(String)} is used
-     * to load the JDBC driver. If specified, {@link Class#forName(String, boolean, ClassLoader)} is used.
-     */
-    private ClassLoader driverClassLoader;
-
-    /**
-     * True means that borrowObject returns the most recently used ("last in") connection in the pool (if there are idle
-     * connections available). False means that the pool behaves as a FIFO queue - connections are taken from the idle
-     * instance pool in the order that they are returned to the pool.
-     */
-    private boolean lifo = BaseObjectPoolConfig.DEFAULT_LIFO;
-
-    /**
-     * The maximum number of active connections that can be allocated from this pool at the same time, or negative for
-     * no limit.
-     */
-    private int maxTotal = GenericObjectPoolConfig.DEFAULT_MAX_TOTAL;
-
-    /**
-     * The maximum number of connections that can remain idle in the pool, without extra ones being destroyed, or
-     * negative for no limit. If maxIdle is set too low on heavily loaded systems it is possible you will see
-     * connections being closed and almost immediately new connections being opened. This is a result of the active
-     * threads momentarily closing connections faster than they are opening them, causing the number of idle connections
-     * to rise above maxIdle. The best value for maxIdle for heavily loaded system will vary but the default is a good
-     * starting point.
-     */
-    private int maxIdle = GenericObjectPoolConfig.DEFAULT_MAX_IDLE;
-
-    /**
-     * The minimum number of active connections that can remain idle in the pool, without extra ones being created when
-     * the evictor runs, or 0 to create none. The pool attempts to ensure that minIdle connections are available when
-     * the idle object evictor runs. The value of this property has no effect unless
-     * {@link #durationBetweenEvictionRuns} has a positive value.
-     */
-    private int minIdle = GenericObjectPoolConfig.DEFAULT_MIN_IDLE;
-
-    /**
-     * The initial number of connections that are created when the pool is started.
-     */
-    private int initialSize;
-
-    /**
-     * The maximum Duration that the pool will wait (when there are no available connections) for a
-     * connection to be returned before throwing an exception, or <= 0 to wait indefinitely.
-     */
-    private Duration maxWaitDuration = BaseObjectPoolConfig.DEFAULT_MAX_WAIT;
-
-    /**
-     * Prepared statement pooling for this pool. When this property is set to {@code true} both PreparedStatements
-     * and CallableStatements are pooled.
-     */
-    private boolean poolPreparedStatements;
-
-    private volatile boolean clearStatementPoolOnReturn;
-
-    /**
-     * <p>
-     * The maximum number of open statements that can be allocated from the statement pool at the same time, or negative
-     * for no limit. Since a connection usually only uses one or two statements at a time, this is mostly used to help
-     * detect resource leaks.
-     * </p>
-     * <p>
-     * Note: As of version 1.3, CallableStatements (those produced by {@link Connection#prepareCall}) are pooled along
-     * with PreparedStatements (produced by {@link Connection#prepareStatement}) and
-     * {@code maxOpenPreparedStatements} limits the total number of prepared or callable statements that may be in
-     * use at a given time.
-     * </p>
-     */
-    private int maxOpenPreparedStatements = GenericKeyedObjectPoolConfig.DEFAULT_MAX_TOTAL;
-
-    /**
-     * The indication of whether objects will be validated as soon as they have been created by the pool. If the object
-     * fails to validate, the borrow operation that triggered the creation will fail.
-     */
-    private boolean testOnCreate;
-
-    /**
-     * The indication of whether objects will be validated before being borrowed from the pool. If the object fails to
-     * validate, it will be dropped from the pool, and we will attempt to borrow another.
-     */
-    private boolean testOnBorrow = true;
-
-    /**
-     * The indication of whether objects will be validated before being returned to the pool.
-     */
-    private boolean testOnReturn;
-
-    /**
-     * The number of milliseconds to sleep between runs of the idle object evictor thread. When non-positive, no idle
-     * object evictor thread will be run.
-     */
-    private Duration durationBetweenEvictionRuns = BaseObjectPoolConfig.DEFAULT_DURATION_BETWEEN_EVICTION_RUNS;
-
-    /**
-     * The number of objects to examine during each run of the idle object evictor thread (if any).
-     */
-    private int numTestsPerEvictionRun = BaseObjectPoolConfig.DEFAULT_NUM_TESTS_PER_EVICTION_RUN;
-
-    /**
-     * The minimum amount of time an object may sit idle in the pool before it is eligible for eviction by the idle
-     * object evictor (if any).
-     */
-    private Duration minEvictableIdleDuration = BaseObjectPoolConfig.DEFAULT_MIN_EVICTABLE_IDLE_DURATION;
-
-    /**
-     * The minimum amount of time a connection may sit idle in the pool before it is eligible for eviction by the idle
-     * object evictor, with the extra condition that at least "minIdle" connections remain in the pool. Note that
-     * {@code minEvictableIdleTimeMillis} takes precedence over this parameter. See
-     * {@link #getSoftMinEvictableIdleDuration()}.
-     */
-    private Duration softMinEvictableIdleDuration = BaseObjectPoolConfig.DEFAULT_SOFT_MIN_EVICTABLE_IDLE_DURATION;
-
-    private String evictionPolicyClassName = BaseObjectPoolConfig.DEFAULT_EVICTION_POLICY_CLASS_NAME;
-
-    /**
-     * The indication of whether objects will be validated by the idle object evictor (if any). If an object fails to
-     * validate, it will be dropped from the pool.
+     * The driver and pool configuration, replaced as a whole on each change so that it can be read without locking.
      */
-    private boolean testWhileIdle;
-
-    /**
-     * The connection password to be passed to our JDBC driver to establish a connection.
-     */
-    private volatile String password;
-
-    /**
-     * The connection string to be passed to our JDBC driver to establish a connection.
-     */
-    private String connectionString;
-
-    /**
-     * The connection user name to be passed to our JDBC driver to establish a connection.
-     */
-    private String userName;
-
-    /**
-     * The SQL query that will be used to validate connections from this pool before returning them to the caller. If
-     * specified, this query <strong>MUST</strong> be an SQL SELECT statement that returns at least one row. If not
-     * specified, {@link Connection#isValid(int)} will be used to validate connections.
-     */
-    private volatile String validationQuery;
-
-    /**
-     * Timeout in seconds before connection validation queries fail.
-     */
-    private volatile Duration validationQueryTimeoutDuration = Duration.ofSeconds(-1);
-
-    /**
-     * The fully qualified Java class name of a {@link ConnectionFactory} implementation.
-     */
-    private String connectionFactoryClassName;
-
-    /**
-     * These SQL statements run once after a Connection is created.
-     * <p>
-     * This property can be used for example to run ALTER SESSION SET NLS_SORT=XCYECH in an Oracle Database only once
-     * after connection creation.
-     * </p>
-     */
-    private volatile List<String> connectionInitSqls;
-
-    /**
-     * Controls access to the underlying connection.
-     */
-    private volatile boolean accessToUnderlyingConnectionAllowed;
-
-    private Duration maxConnDuration = Duration.ofMillis(-1);
-
-    private volatile boolean logExpiredConnections = true;
-
-    private String jmxName;
-
-    private volatile boolean registerConnectionMBean = true;
-
-    private volatile boolean autoCommitOnReturn = true;
-
-    private volatile boolean rollbackOnReturn = true;
-
-    private volatile Set<String> disconnectionSqlCodes;
-
-    /**
-     * A collection of SQL State codes that are not considered fatal disconnection codes.
-     *
-     * @since 2.13.0
-     */
-    private volatile Set<String> disconnectionIgnoreSqlCodes;
-
-    private volatile boolean fastFailValidation;
+    private volatile BasicDataSourceConfig config = new BasicDataSourceConfig();
 
     /**
      * The object pool that internally manages our connections.
      */
     private volatile GenericObjectPool<PoolableConnection> connectionPool;
 
-    /**
-     * The connection properties that will be sent to our JDBC driver when establishing new connections.
-     * <strong>NOTE</strong> - The "user" and "password" properties will be passed explicitly, so they do not need to be
-     * included here.
-     */
-    private Properties connectionProperties = new Properties();
-
     /**
      * The data source we will use to manage connections. This object should be acquired <strong>ONLY</strong> by calls
      * to the {@code createDataSource()} method.
@@ -380,9 +162,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     private volatile PrintWriter logWriter = new PrintWriter(
             new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
 
-    private AbandonedConfig abandonedConfig;
-
-    private boolean closed;
+    private volatile boolean closed;
 
     /**
      * Actual name under which this component has been registered.
@@ -405,7 +185,10 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param value Value of the custom connection property
      */
     public void addConnectionProperty(final String name, final String value) {
-        connectionProperties.put(name, value);
+        updateConfig(c -> {
+            c.connectionProperties = (Properties) c.connectionProperties.clone();
+            c.connectionProperties.put(name, value);
+        });
     }
 
     /**
@@ -424,27 +207,60 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * This method is idempotent - i.e., closing an already closed BasicDataSource has no effect and does not generate
      * exceptions.
      * </p>
+     * <p>
+     * If a {@link #setSnapshotFile(String) snapshot file} is set, the state of the pool is saved to it.
+     * </p>
      *
      * @throws SQLException if an error occurs closing idle connections
      */
     @Override
-    public synchronized void close() throws SQLException {
-        if (registeredJmxObjectName != null) {
-            registeredJmxObjectName.unregisterMBean();
-            registeredJmxObjectName = null;
-        }
-        closed = true;
-        final GenericObjectPool<?> oldPool = connectionPool;
-        connectionPool = null;
-        dataSource = null;
+    public void close() throws SQLException {
+        String snapshotFile = null;
+        PoolableConnectionFactory factory = null;
+        Map<String, Integer> statementSqlCounts = null;
+        int maxTotal = 0;
         try {
-            if (oldPool != null) {
-                oldPool.close();
+            synchronized (this) {
+                if (registeredJmxObjectName != null) {
+                    registeredJmxObjectName.unregisterMBean();
+                    registeredJmxObjectName = null;
+                }
+                closed = true;
+                final GenericObjectPool<?> oldPool = connectionPool;
+                connectionPool = null;
+                if (dataSource instanceof PoolingDataSource) {
+                    ((PoolingDataSource<?>) dataSource).closeAsyncBorrower();
+                }
+                dataSource = null;
+                snapshotFile = config.snapshotFile;
+                factory = oldPool != null && oldPool.getFactory() instanceof PoolableConnectionFactory
+                        ? (PoolableConnectionFactory) oldPool.getFactory()
+                        : null;
+                statementSqlCounts = snapshotFile != null && factory != null ? new ConcurrentHashMap<>() : null;
+                maxTotal = oldPool != null ? oldPool.getMaxTotal() : 0;
+                if (statementSqlCounts != null) {
+                    // Closing the pool destroys the idle connections, which counts their cached statements
+                    factory.setStatementSqlCounts(statementSqlCounts);
+                }
+                try {
+                    if (oldPool != null) {
+                        oldPool.close();
+                    }
+                } catch (final RuntimeException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw new SQLException(Utils.getMessage("pool.close.fail"), e);
+                } finally {
+                    if (statementSqlCounts != null) {
+                        factory.setStatementSqlCounts(null);
+                    }
+                }
+            }
+        } finally {
+            // Written without holding the lock, a slow disk must not block this data source.
+            if (statementSqlCounts != null) {
+                saveSnapshot(snapshotFile, new PoolStateSnapshot(factory.getPeakActive(), maxTotal, PoolStateSnapshot.rank(statementSqlCounts)));
             }
-        } catch (final RuntimeException e) {
-            throw e;
-        } catch (final Exception e) {
-            throw new SQLException(Utils.getMessage("pool.close.fail"), e);
         }
     }
 
@@ -476,8 +292,39 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @throws SQLException If the connection factory cannot be created
      */
     protected ConnectionFactory createConnectionFactory() throws SQLException {
+        return createConnectionFactory(config);
+    }
+
+    /**
+     * Creates a JDBC connection factory from the given configuration.
+     *
+     * @param config the configuration snapshot.
+     * @return A new connection factory.
+     * @throws SQLException If the connection factory cannot be created
+     */
+    private ConnectionFactory createConnectionFactory(final BasicDataSourceConfig config) throws SQLException {
         // Load the JDBC driver class
-        return ConnectionFactoryFactory.createConnectionFactory(this, DriverFactory.createDriver(this));
+        final Driver driver = DriverFactory.createDriver(this, config, config.connectionString);
+        return ConnectionFactoryFactory.createConnectionFactory(this, config, driver, config.connectionString, config.userName, config.password);
+    }
+
+    /**
+     * Creates a JDBC connection factory like {@link #createConnectionFactory()}, but for the given connection string
+     * and credentials instead of the ones of this data source, which are left unchanged.
+     *
+     * @param connectionString the JDBC connection string.
+     * @param userName the user name.
+     * @param password the password.
+     * @return A new connection factory.
+     * @throws SQLException If the connection factory cannot be created
+     * @see #rotateCredentials(String, String, String)
+     * @since 2.15.0
+     */
+    protected ConnectionFactory createConnectionFactory(final String connectionString, final String userName, final String password)
+            throws SQLException {
+        final BasicDataSourceConfig config = this.config;
+        return ConnectionFactoryFactory.createConnectionFactory(this, config, DriverFactory.createDriver(this, config, connectionString),
+                connectionString, userName, password);
     }
 
     /**
@@ -492,56 +339,78 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param factory The factory to use to create new connections for this pool.
      */
     protected void createConnectionPool(final PoolableConnectionFactory factory) {
+        createConnectionPool(factory, config);
+    }
+
+    /**
+     * Creates a connection pool from the given configuration.
+     *
+     * @param factory The factory to use to create new connections for this pool.
+     * @param config the configuration snapshot.
+     */
+    private void createConnectionPool(final PoolableConnectionFactory factory, final BasicDataSourceConfig config) {
         // Create an object pool to contain our active connections
-        final GenericObjectPoolConfig<PoolableConnection> config = new GenericObjectPoolConfig<>();
-        updateJmxName(config);
+        final GenericObjectPoolConfig<PoolableConnection> poolConfig = new GenericObjectPoolConfig<>();
+        updateJmxName(poolConfig);
         // Disable JMX on the underlying pool if the DS is not registered:
-        config.setJmxEnabled(registeredJmxObjectName != null);
-        // Set up usage tracking if enabled
-        if (getAbandonedUsageTracking() && abandonedConfig != null) {
-            abandonedConfig.setUseUsageTracking(true);
+        poolConfig.setJmxEnabled(registeredJmxObjectName != null);
+        final GenericObjectPool<PoolableConnection> gop = createObjectPool(factory, poolConfig, config);
+        gop.setMaxTotal(config.maxTotal);
+        gop.setMaxIdle(config.maxIdle);
+        gop.setMinIdle(config.minIdle);
+        gop.setMaxWait(config.maxWaitDuration);
+        gop.setTestOnCreate(config.testOnCreate);
+        gop.setTestOnBorrow(config.testOnBorrow);
+        gop.setTestOnReturn(config.testOnReturn);
+        gop.setNumTestsPerEvictionRun(config.numTestsPerEvictionRun);
+        gop.setMinEvictableIdleDuration(config.minEvictableIdleDuration);
+        gop.setSoftMinEvictableIdleDuration(config.softMinEvictableIdleDuration);
+        gop.setTestWhileIdle(config.testWhileIdle);
+        gop.setLifo(config.lifo);
+        gop.setSwallowedExceptionListener(new SwallowedExceptionLogger(log, config.logExpiredConnections));
+        gop.setEvictionPolicyClassName(config.evictionPolicyClassName);
+        if (config.replaceExpiringConnections) {
+            gop.setEvictionPolicy(new LifetimeEvictionPolicy(gop.getEvictionPolicy(), factory));
         }
-        final GenericObjectPool<PoolableConnection> gop = createObjectPool(factory, config, abandonedConfig);
-        gop.setMaxTotal(maxTotal);
-        gop.setMaxIdle(maxIdle);
-        gop.setMinIdle(minIdle);
-        gop.setMaxWait(maxWaitDuration);
-        gop.setTestOnCreate(testOnCreate);
-        gop.setTestOnBorrow(testOnBorrow);
-        gop.setTestOnReturn(testOnReturn);
-        gop.setNumTestsPerEvictionRun(numTestsPerEvictionRun);
-        gop.setMinEvictableIdleDuration(minEvictableIdleDuration);
-        gop.setSoftMinEvictableIdleDuration(softMinEvictableIdleDuration);
-        gop.setTestWhileIdle(testWhileIdle);
-        gop.setLifo(lifo);
-        gop.setSwallowedExceptionListener(new SwallowedExceptionLogger(log, logExpiredConnections));
-        gop.setEvictionPolicyClassName(evictionPolicyClassName);
         factory.setPool(gop);
         connectionPool = gop;
     }
 
     /**
      * Creates (if necessary) and return the internal data source we are using to manage our connections.
+     * <p>
+     * The pool is created from one snapshot of the configuration, read while holding the lock every setter takes.
+     * </p>
      *
      * @return The current internal DataSource or a newly created instance if it has not yet been created.
      * @throws SQLException if the object pool cannot be created.
      */
-    protected synchronized DataSource createDataSource() throws SQLException {
+    protected DataSource createDataSource() throws SQLException {
         if (closed) {
             throw new SQLException("Data source is closed");
         }
 
         // Return the pool if we have already created it
-        // This is double-checked locking. This is safe since dataSource is
-        // volatile and the code is targeted at Java 5 onwards.
-        if (dataSource != null) {
-            return dataSource;
+        // This is double-checked locking. This is safe since dataSource and
+        // closed are volatile, and it keeps borrowers off this monitor once
+        // the pool exists.
+        final DataSource current = dataSource;
+        if (current != null) {
+            return current;
         }
+        final BasicDataSourceConfig config;
+        final DataSource created;
+        final GenericObjectPool<PoolableConnection> warmUpPool;
         synchronized (this) {
+            if (closed) {
+                throw new SQLException("Data source is closed");
+            }
             if (dataSource != null) {
                 return dataSource;
             }
-            jmxRegister();
+            // Setters wait for this lock, so the overridable factory methods below see this snapshot as well.
+            config = this.config;
+            jmxRegister(config);
 
             // create factory which returns raw physical connections
             final ConnectionFactory driverConnectionFactory = createConnectionFactory();
@@ -550,17 +419,19 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
             final PoolableConnectionFactory poolableConnectionFactory;
             try {
                 poolableConnectionFactory = createPoolableConnectionFactory(driverConnectionFactory);
-                poolableConnectionFactory.setPoolStatements(poolPreparedStatements);
-                poolableConnectionFactory.setMaxOpenPreparedStatements(maxOpenPreparedStatements);
+                poolableConnectionFactory.setPoolStatements(config.poolPreparedStatements);
+                poolableConnectionFactory.setMaxOpenPreparedStatements(config.maxOpenPreparedStatements);
                 // create a pool for our connections
-                createConnectionPool(poolableConnectionFactory);
+                createConnectionPool(poolableConnectionFactory, config);
                 final DataSource newDataSource = createDataSourceInstance();
                 newDataSource.setLogWriter(logWriter);
-                connectionPool.addObjects(initialSize);
+                connectionPool.addObjects(config.initialSize);
                 // If timeBetweenEvictionRunsMillis > 0, start the pool's evictor
                 // task
-                startPoolMaintenance();
+                startPoolMaintenance(config);
                 dataSource = newDataSource;
+                created = newDataSource;
+                warmUpPool = config.snapshotFile != null ? connectionPool : null;
             } catch (final SQLException | RuntimeException se) {
                 closeConnectionPool();
                 throw se;
@@ -568,9 +439,12 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
                 closeConnectionPool();
                 throw new SQLException("Error creating connection factory", ex);
             }
-
-            return dataSource;
         }
+        if (warmUpPool != null) {
+            // The pool is published, warm it up without holding the lock so borrowers and setters do not wait.
+            warmUp(config, warmUpPool);
+        }
+        return created;
     }
 
     /**
@@ -581,8 +455,11 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return A new DataSource instance
      */
     protected DataSource createDataSourceInstance() throws SQLException {
+        final BasicDataSourceConfig config = this.config;
         final PoolingDataSource<PoolableConnection> pds = new PoolingDataSource<>(connectionPool);
-        pds.setAccessToUnderlyingConnectionAllowed(isAccessToUnderlyingConnectionAllowed());
+        pds.setAccessToUnderlyingConnectionAllowed(config.accessToUnderlyingConnectionAllowed);
+        pds.setPriorityLanes(config.priorityLanes);
+        pds.setPartitions(config.partitions);
         return pds;
     }
 
@@ -596,9 +473,30 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     protected GenericObjectPool<PoolableConnection> createObjectPool(final PoolableConnectionFactory factory,
             final GenericObjectPoolConfig<PoolableConnection> poolConfig, final AbandonedConfig abandonedConfig) {
+        final BasicDataSourceConfig config = this.config.copy();
+        config.abandonedConfig = abandonedConfig;
+        return createObjectPool(factory, poolConfig, config);
+    }
+
+    /**
+     * Creates an object pool from the given configuration.
+     *
+     * @param factory    the object factory
+     * @param poolConfig the object pool configuration
+     * @param config     the configuration snapshot.
+     * @return a non-null instance
+     */
+    private GenericObjectPool<PoolableConnection> createObjectPool(final PoolableConnectionFactory factory,
+            final GenericObjectPoolConfig<PoolableConnection> poolConfig, final BasicDataSourceConfig config) {
+        final AbandonedConfig abandonedConfig = config.abandonedConfig;
         final GenericObjectPool<PoolableConnection> gop;
-        if (abandonedConfig != null && (abandonedConfig.getRemoveAbandonedOnBorrow()
-                || abandonedConfig.getRemoveAbandonedOnMaintenance())) {
+        final boolean removeAbandoned = abandonedConfig != null && (abandonedConfig.getRemoveAbandonedOnBorrow()
+                || abandonedConfig.getRemoveAbandonedOnMaintenance());
+        if (config.adaptiveSizing) {
+            final PoolSizingController controller = new PoolSizingController(config.adaptiveMinTotal, config.maxTotal, config.minIdle, config.maxIdle,
+                    config.adaptiveTargetBorrowWait);
+            gop = new AdaptiveObjectPool(factory, poolConfig, removeAbandoned ? abandonedConfig : null, controller);
+        } else if (removeAbandoned) {
             gop = new GenericObjectPool<>(factory, poolConfig, abandonedConfig);
         } else {
             gop = new GenericObjectPool<>(factory, poolConfig);
@@ -616,32 +514,51 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     protected PoolableConnectionFactory createPoolableConnectionFactory(final ConnectionFactory driverConnectionFactory)
             throws SQLException {
+        return createPoolableConnectionFactory(driverConnectionFactory, config);
+    }
+
+    /**
+     * Creates the PoolableConnectionFactory from the given configuration.
+     *
+     * @param driverConnectionFactory JDBC connection factory
+     * @param config the configuration snapshot.
+     * @throws SQLException if an error occurs creating the PoolableConnectionFactory
+     * @return A new PoolableConnectionFactory
+     */
+    private PoolableConnectionFactory createPoolableConnectionFactory(final ConnectionFactory driverConnectionFactory,
+            final BasicDataSourceConfig config) throws SQLException {
         PoolableConnectionFactory connectionFactory = null;
         try {
-            if (registerConnectionMBean) {
+            if (config.registerConnectionMBean) {
                 connectionFactory = new PoolableConnectionFactory(driverConnectionFactory, ObjectNameWrapper.unwrap(registeredJmxObjectName));
             } else {
                 connectionFactory = new PoolableConnectionFactory(driverConnectionFactory, null);
             }
-            connectionFactory.setValidationQuery(validationQuery);
-            connectionFactory.setValidationQueryTimeout(validationQueryTimeoutDuration);
-            connectionFactory.setConnectionInitSql(connectionInitSqls);
-            connectionFactory.setDefaultReadOnly(defaultReadOnly);
-            connectionFactory.setDefaultAutoCommit(defaultAutoCommit);
-            connectionFactory.setDefaultTransactionIsolation(defaultTransactionIsolation);
-            connectionFactory.setDefaultCatalog(defaultCatalog);
-            connectionFactory.setDefaultSchema(defaultSchema);
-            connectionFactory.setCacheState(cacheState);
-            connectionFactory.setPoolStatements(poolPreparedStatements);
-            connectionFactory.setClearStatementPoolOnReturn(clearStatementPoolOnReturn);
-            connectionFactory.setMaxOpenPreparedStatements(maxOpenPreparedStatements);
-            connectionFactory.setMaxConn(maxConnDuration);
-            connectionFactory.setRollbackOnReturn(getRollbackOnReturn());
-            connectionFactory.setAutoCommitOnReturn(getAutoCommitOnReturn());
-            connectionFactory.setDefaultQueryTimeout(getDefaultQueryTimeoutDuration());
-            connectionFactory.setFastFailValidation(fastFailValidation);
-            connectionFactory.setDisconnectionSqlCodes(disconnectionSqlCodes);
-            connectionFactory.setDisconnectionIgnoreSqlCodes(disconnectionIgnoreSqlCodes);
+            connectionFactory.setValidationQuery(config.validationQuery);
+            connectionFactory.setValidationQueryTimeout(config.validationQueryTimeoutDuration);
+            connectionFactory.setConnectionInitSql(config.connectionInitSqls);
+            connectionFactory.setDefaultReadOnly(config.defaultReadOnly);
+            connectionFactory.setDefaultAutoCommit(config.defaultAutoCommit);
+            connectionFactory.setDefaultTransactionIsolation(config.defaultTransactionIsolation);
+            connectionFactory.setDefaultCatalog(config.defaultCatalog);
+            connectionFactory.setDefaultSchema(config.defaultSchema);
+            connectionFactory.setCacheState(config.cacheState);
+            connectionFactory.setPoolStatements(config.poolPreparedStatements);
+            connectionFactory.setClearStatementPoolOnReturn(config.clearStatementPoolOnReturn);
+            connectionFactory.setMaxOpenPreparedStatements(config.maxOpenPreparedStatements);
+            connectionFactory.setMaxConn(config.maxConnDuration);
+            connectionFactory.setMaxConnLifetimeJitter(config.maxConnLifetimeJitter);
+            connectionFactory.setRollbackOnReturn(config.rollbackOnReturn);
+            connectionFactory.setAutoCommitOnReturn(config.autoCommitOnReturn);
+            connectionFactory.setDefaultQueryTimeout(config.defaultQueryTimeoutDuration);
+            connectionFactory.setFastFailValidation(config.fastFailValidation);
+            connectionFactory.setDisconnectionSqlCodes(config.disconnectionSqlCodes);
+            connectionFactory.setDisconnectionIgnoreSqlCodes(config.disconnectionIgnoreSqlCodes);
+            connectionFactory.setThinResultSets(config.thinResultSets);
+            connectionFactory.setCheckClosedOnReturn(config.checkClosedOnReturn);
+            connectionFactory.setDirectResultSets(config.directResultSets);
+            connectionFactory.setDisconnectionWaveThreshold(config.disconnectionWaveThreshold);
+            connectionFactory.setDisconnectionWaveWindow(config.disconnectionWaveWindow);
             validateConnectionFactory(connectionFactory);
         } catch (final RuntimeException e) {
             throw e;
@@ -668,7 +585,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return The print writer used by this configuration to log information on abandoned objects.
      */
     public PrintWriter getAbandonedLogWriter() {
-        return abandonedConfig == null ? null : abandonedConfig.getLogWriter();
+        return config.abandonedConfig == null ? null : config.abandonedConfig.getLogWriter();
     }
 
     /**
@@ -680,7 +597,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getAbandonedUsageTracking() {
-        return abandonedConfig != null && abandonedConfig.getUseUsageTracking();
+        return config.abandonedConfig != null && config.abandonedConfig.getUseUsageTracking();
     }
 
     /**
@@ -691,7 +608,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return Whether or not connections being returned to the pool will be checked and configured with auto-commit.
      */
     public boolean getAutoCommitOnReturn() {
-        return autoCommitOnReturn;
+        return config.autoCommitOnReturn;
     }
 
     /**
@@ -701,7 +618,27 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getCacheState() {
-        return cacheState;
+        return config.cacheState;
+    }
+
+    private Connection getPoolingConnection(final DataSource ds, final PoolingConnectionFunction function) throws SQLException {
+        return ds instanceof PoolingDataSource ? function.apply((PoolingDataSource<?>) ds) : ds.getConnection();
+    }
+
+    private Connection getPoolingConnection(final PoolingConnectionFunction function) throws SQLException {
+        if (Utils.isSecurityEnabled()) {
+            final PrivilegedExceptionAction<Connection> action = () -> getPoolingConnection(createDataSource(), function);
+            try {
+                return AccessController.doPrivileged(action);
+            } catch (final PrivilegedActionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    throw (SQLException) cause;
+                }
+                throw new SQLException(e);
+            }
+        }
+        return getPoolingConnection(createDataSource(), function);
     }
 
     /**
@@ -727,6 +664,42 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         return createDataSource().getConnection();
     }
 
+    /**
+     * Creates (if necessary) and return a connection to the database, waiting with the given priority when
+     * {@link #setPriorityLanes(boolean) priority lanes} are enabled and the pool is exhausted.
+     *
+     * @param priority the borrower's priority.
+     * @throws SQLException if a database access error occurs
+     * @return a database connection
+     * @since 2.15.0
+     */
+    public Connection getConnection(final BorrowPriority priority) throws SQLException {
+        return getPoolingConnection(pds -> pds.getConnection(priority));
+    }
+
+    /**
+     * Creates (if necessary) the pool and returns a future connection to the database, completed once a connection is
+     * available or created instead of blocking the calling thread.
+     *
+     * @return a future connection, completed exceptionally with an {@link SQLException} if a connection cannot be
+     *         obtained.
+     * @see PoolingDataSource#getConnectionAsync()
+     * @since 2.15.0
+     */
+    public CompletableFuture<Connection> getConnectionAsync() {
+        try {
+            final DataSource ds = createDataSource();
+            if (ds instanceof PoolingDataSource) {
+                return ((PoolingDataSource<?>) ds).getConnectionAsync();
+            }
+            return CompletableFuture.completedFuture(ds.getConnection());
+        } catch (final SQLException e) {
+            final CompletableFuture<Connection> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
     /**
      * <strong>BasicDataSource does NOT support this method.</strong>
      *
@@ -743,6 +716,53 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         throw new UnsupportedOperationException("Not supported by BasicDataSource");
     }
 
+    /**
+     * Gets the lower bound of the effective maxTotal when adaptive sizing is enabled.
+     *
+     * @return the lower bound of the effective maxTotal.
+     * @see #setAdaptiveSizing(boolean)
+     * @since 2.15.0
+     */
+    @Override
+    public int getAdaptiveMinTotal() {
+        return config.adaptiveMinTotal;
+    }
+
+    /**
+     * Gets the mean borrow wait above which the pool grows when adaptive sizing is enabled.
+     *
+     * @return the target mean borrow wait.
+     * @see #setAdaptiveSizing(boolean)
+     * @since 2.15.0
+     */
+    public Duration getAdaptiveTargetBorrowWait() {
+        return config.adaptiveTargetBorrowWait;
+    }
+
+    /**
+     * Gets the priority lanes borrowers go through when the pool is exhausted, with their wait-time statistics.
+     *
+     * @return the priority lanes, null when priority lanes are disabled or the pool is not initialized.
+     * @see #setPriorityLanes(boolean)
+     * @since 2.15.0
+     */
+    public BorrowLanes getBorrowLanes() {
+        final DataSource ds = dataSource;
+        return ds instanceof PoolingDataSource ? ((PoolingDataSource<?>) ds).getBorrowLanes() : null;
+    }
+
+    /**
+     * Gets the bulkhead partitions the pool is split into, with their usage statistics.
+     *
+     * @return the bulkhead partitions, null when partitions are disabled or the pool is not initialized.
+     * @see #setPartitions(String)
+     * @since 2.15.0
+     */
+    public BulkheadPartitions getBulkheadPartitions() {
+        final DataSource ds = dataSource;
+        return ds instanceof PoolingDataSource ? ((PoolingDataSource<?>) ds).getBulkheadPartitions() : null;
+    }
+
     /**
      * Gets the ConnectionFactoryClassName that has been configured for use by this pool.
      * <p>
@@ -753,7 +773,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.7.0
      */
     public String getConnectionFactoryClassName() {
-        return this.connectionFactoryClassName;
+        return config.connectionFactoryClassName;
     }
 
     /**
@@ -763,7 +783,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return initialization SQL statements
      */
     public List<String> getConnectionInitSqls() {
-        final List<String> result = connectionInitSqls;
+        final List<String> result = config.connectionInitSqls;
         return result == null ? Collections.emptyList() : result;
     }
 
@@ -786,7 +806,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     }
 
     Properties getConnectionProperties() {
-        return connectionProperties;
+        return config.connectionProperties;
     }
 
     /**
@@ -796,7 +816,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public Boolean getDefaultAutoCommit() {
-        return defaultAutoCommit;
+        return config.defaultAutoCommit;
     }
 
     /**
@@ -806,7 +826,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public String getDefaultCatalog() {
-        return this.defaultCatalog;
+        return config.defaultCatalog;
     }
 
     /**
@@ -818,7 +838,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     public Integer getDefaultQueryTimeout() {
-        return defaultQueryTimeoutDuration == null ? null : (int) defaultQueryTimeoutDuration.getSeconds();
+        return config.defaultQueryTimeoutDuration == null ? null : (int) config.defaultQueryTimeoutDuration.getSeconds();
     }
 
     /**
@@ -829,7 +849,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public Duration getDefaultQueryTimeoutDuration() {
-        return defaultQueryTimeoutDuration;
+        return config.defaultQueryTimeoutDuration;
     }
 
     /**
@@ -839,7 +859,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public Boolean getDefaultReadOnly() {
-        return defaultReadOnly;
+        return config.defaultReadOnly;
     }
 
     /**
@@ -850,7 +870,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public String getDefaultSchema() {
-        return this.defaultSchema;
+        return config.defaultSchema;
     }
 
     /**
@@ -861,7 +881,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public int getDefaultTransactionIsolation() {
-        return this.defaultTransactionIsolation;
+        return config.defaultTransactionIsolation;
     }
 
     /**
@@ -876,7 +896,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.13.0
      */
     public Set<String> getDisconnectionIgnoreSqlCodes() {
-        final Set<String> result = disconnectionIgnoreSqlCodes;
+        final Set<String> result = config.disconnectionIgnoreSqlCodes;
         return result == null ? Collections.emptySet() : result;
     }
 
@@ -898,7 +918,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.1
      */
     public Set<String> getDisconnectionSqlCodes() {
-        final Set<String> result = disconnectionSqlCodes;
+        final Set<String> result = config.disconnectionSqlCodes;
         return result == null ? Collections.emptySet() : result;
     }
 
@@ -912,6 +932,30 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         return getDisconnectionSqlCodes().toArray(Utils.EMPTY_STRING_ARRAY);
     }
 
+    /**
+     * Gets the number of fatal disconnection exceptions within {@link #getDisconnectionWaveWindow()} which start an
+     * invalidation wave.
+     *
+     * @return the threshold, 0 or less when invalidation waves are disabled.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    @Override
+    public int getDisconnectionWaveThreshold() {
+        return config.disconnectionWaveThreshold;
+    }
+
+    /**
+     * Gets the window in which fatal disconnection exceptions are counted towards an invalidation wave.
+     *
+     * @return the window.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public Duration getDisconnectionWaveWindow() {
+        return config.disconnectionWaveWindow;
+    }
+
     /**
      * Gets the JDBC Driver that has been configured for use by this pool.
      * <p>
@@ -921,8 +965,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      *
      * @return the JDBC Driver that has been configured for use by this pool
      */
-    public synchronized Driver getDriver() {
-        return driver;
+    public Driver getDriver() {
+        return config.driver;
     }
 
     /**
@@ -935,8 +979,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      *
      * @return The class loader specified for loading the JDBC driver.
      */
-    public synchronized ClassLoader getDriverClassLoader() {
-        return this.driverClassLoader;
+    public ClassLoader getDriverClassLoader() {
+        return config.driverClassLoader;
     }
 
     /**
@@ -949,8 +993,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the JDBC driver class name
      */
     @Override
-    public synchronized String getDriverClassName() {
-        return this.driverClassName;
+    public String getDriverClassName() {
+        return config.driverClassName;
     }
 
     /**
@@ -960,8 +1004,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setDurationBetweenEvictionRuns(Duration)
      * @since 2.10.0
      */
-    public synchronized Duration getDurationBetweenEvictionRuns() {
-        return this.durationBetweenEvictionRuns;
+    public Duration getDurationBetweenEvictionRuns() {
+        return config.durationBetweenEvictionRuns;
     }
 
     /**
@@ -974,7 +1018,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     public boolean getEnableAutoCommitOnReturn() {
-        return autoCommitOnReturn;
+        return config.autoCommitOnReturn;
     }
 
     /**
@@ -982,8 +1026,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      *
      * @return The EvictionPolicy implementation in use with this connection pool.
      */
-    public synchronized String getEvictionPolicyClassName() {
-        return evictionPolicyClassName;
+    public String getEvictionPolicyClassName() {
+        return config.evictionPolicyClassName;
     }
 
     /**
@@ -997,7 +1041,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getFastFailValidation() {
-        return fastFailValidation;
+        return config.fastFailValidation;
     }
 
     /**
@@ -1006,8 +1050,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the number of connections created when the pool is initialized
      */
     @Override
-    public synchronized int getInitialSize() {
-        return this.initialSize;
+    public int getInitialSize() {
+        return config.initialSize;
     }
 
     /**
@@ -1017,7 +1061,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return The JMX name that has been requested for this DataSource.
      */
     public String getJmxName() {
-        return jmxName;
+        return config.jmxName;
     }
 
     /**
@@ -1026,8 +1070,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return true if connection pool behaves as a LIFO queue.
      */
     @Override
-    public synchronized boolean getLifo() {
-        return this.lifo;
+    public boolean getLifo() {
+        return config.lifo;
     }
 
     /**
@@ -1042,7 +1086,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getLogAbandoned() {
-        return abandonedConfig != null && abandonedConfig.getLogAbandoned();
+        return config.abandonedConfig != null && config.abandonedConfig.getLogAbandoned();
     }
 
     /**
@@ -1053,7 +1097,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getLogExpiredConnections() {
-        return logExpiredConnections;
+        return config.logExpiredConnections;
     }
 
     /**
@@ -1099,7 +1143,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public Duration getMaxConnDuration() {
-        return maxConnDuration;
+        return config.maxConnDuration;
     }
 
     /**
@@ -1111,7 +1155,18 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     @Override
     @Deprecated
     public long getMaxConnLifetimeMillis() {
-        return maxConnDuration.toMillis();
+        return config.maxConnDuration.toMillis();
+    }
+
+    /**
+     * Gets the maximum random reduction applied to the maximum lifetime of each connection.
+     *
+     * @return the maximum lifetime jitter.
+     * @see #setMaxConnLifetimeJitter(Duration)
+     * @since 2.15.0
+     */
+    public Duration getMaxConnLifetimeJitter() {
+        return config.maxConnLifetimeJitter;
     }
 
     /**
@@ -1124,8 +1179,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the maximum number of idle connections
      */
     @Override
-    public synchronized int getMaxIdle() {
-        return this.maxIdle;
+    public int getMaxIdle() {
+        return config.maxIdle;
     }
 
     /**
@@ -1134,8 +1189,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the maximum number of open statements
      */
     @Override
-    public synchronized int getMaxOpenPreparedStatements() {
-        return this.maxOpenPreparedStatements;
+    public int getMaxOpenPreparedStatements() {
+        return config.maxOpenPreparedStatements;
     }
 
     /**
@@ -1147,8 +1202,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the maximum number of active connections
      */
     @Override
-    public synchronized int getMaxTotal() {
-        return this.maxTotal;
+    public int getMaxTotal() {
+        return config.maxTotal;
     }
 
     /**
@@ -1158,8 +1213,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the maxWaitDuration property value.
      * @since 2.10.0
      */
-    public synchronized Duration getMaxWaitDuration() {
-        return this.maxWaitDuration;
+    public Duration getMaxWaitDuration() {
+        return config.maxWaitDuration;
     }
 
     /**
@@ -1171,8 +1226,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     @Override
-    public synchronized long getMaxWaitMillis() {
-        return this.maxWaitDuration.toMillis();
+    public long getMaxWaitMillis() {
+        return config.maxWaitDuration.toMillis();
     }
 
     /**
@@ -1182,8 +1237,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setMinEvictableIdle(Duration)
      * @since 2.10.0
      */
-    public synchronized Duration getMinEvictableIdleDuration() {
-        return this.minEvictableIdleDuration;
+    public Duration getMinEvictableIdleDuration() {
+        return config.minEvictableIdleDuration;
     }
 
     /**
@@ -1195,8 +1250,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     @Override
-    public synchronized long getMinEvictableIdleTimeMillis() {
-        return this.minEvictableIdleDuration.toMillis();
+    public long getMinEvictableIdleTimeMillis() {
+        return config.minEvictableIdleDuration.toMillis();
     }
 
     /**
@@ -1208,8 +1263,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see GenericObjectPool#getMinIdle()
      */
     @Override
-    public synchronized int getMinIdle() {
-        return this.minIdle;
+    public int getMinIdle() {
+        return config.minIdle;
     }
 
     /**
@@ -1243,8 +1298,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setNumTestsPerEvictionRun(int)
      */
     @Override
-    public synchronized int getNumTestsPerEvictionRun() {
-        return this.numTestsPerEvictionRun;
+    public int getNumTestsPerEvictionRun() {
+        return config.numTestsPerEvictionRun;
     }
 
     @Override
@@ -1252,6 +1307,52 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         throw new SQLFeatureNotSupportedException();
     }
 
+    /**
+     * Creates (if necessary) and return a connection to the database from the given bulkhead partition when
+     * {@link #setPartitions(String) partitions} are enabled.
+     *
+     * @param partition the borrower's partition, null to use the shared overflow only.
+     * @throws SQLException if a database access error occurs
+     * @return a database connection
+     * @since 2.15.0
+     */
+    public Connection getPartitionConnection(final String partition) throws SQLException {
+        return getPoolingConnection(pds -> pds.getPartitionConnection(partition));
+    }
+
+    /**
+     * Gets the bulkhead partitions and their share of maxTotal.
+     *
+     * @return the partitions in the format given to {@link #setPartitions(String)}, empty when disabled.
+     * @since 2.15.0
+     */
+    @Override
+    public String getPartitions() {
+        return config.partitions.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining(";"));
+    }
+
+    /**
+     * Gets the factory of the pool.
+     *
+     * @return the factory of the pool, null if the pool has not been initialized.
+     */
+    private PoolableConnectionFactory getPoolableConnectionFactory() {
+        final GenericObjectPool<PoolableConnection> pool = connectionPool;
+        return pool != null && pool.getFactory() instanceof PoolableConnectionFactory ? (PoolableConnectionFactory) pool.getFactory() : null;
+    }
+
+    /**
+     * Gets the controller adjusting the pool size to the observed load.
+     *
+     * @return the controller, null when adaptive sizing is disabled or the pool is not initialized.
+     * @see #setAdaptiveSizing(boolean)
+     * @since 2.15.0
+     */
+    public PoolSizingController getPoolSizingController() {
+        final GenericObjectPool<PoolableConnection> pool = connectionPool;
+        return pool instanceof AdaptiveObjectPool ? ((AdaptiveObjectPool) pool).getController() : null;
+    }
+
     /**
      * Gets the password passed to the JDBC driver to establish connections.
      *
@@ -1261,7 +1362,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     @Deprecated
     @Override
     public String getPassword() {
-        return this.password;
+        return config.password;
     }
 
     /**
@@ -1296,7 +1397,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getRemoveAbandonedOnBorrow() {
-        return abandonedConfig != null && abandonedConfig.getRemoveAbandonedOnBorrow();
+        return config.abandonedConfig != null && config.abandonedConfig.getRemoveAbandonedOnBorrow();
     }
 
     /**
@@ -1313,7 +1414,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public boolean getRemoveAbandonedOnMaintenance() {
-        return abandonedConfig != null && abandonedConfig.getRemoveAbandonedOnMaintenance();
+        return config.abandonedConfig != null && config.abandonedConfig.getRemoveAbandonedOnMaintenance();
     }
 
     /**
@@ -1364,7 +1465,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public Duration getRemoveAbandonedTimeoutDuration() {
-        return abandonedConfig == null ? Duration.ofSeconds(300) : abandonedConfig.getRemoveAbandonedTimeoutDuration();
+        return config.abandonedConfig == null ? Duration.ofSeconds(300) : config.abandonedConfig.getRemoveAbandonedTimeoutDuration();
     }
 
     /**
@@ -1374,7 +1475,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return whether a connection will be rolled back when it is returned to the pool.
      */
     public boolean getRollbackOnReturn() {
-        return rollbackOnReturn;
+        return config.rollbackOnReturn;
     }
 
     /**
@@ -1392,8 +1493,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      *         there are minIdle idle connections in the pool
      * @since 2.10.0
      */
-    public synchronized Duration getSoftMinEvictableIdleDuration() {
-        return softMinEvictableIdleDuration;
+    public Duration getSoftMinEvictableIdleDuration() {
+        return config.softMinEvictableIdleDuration;
     }
 
     /**
@@ -1413,8 +1514,20 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     @Override
-    public synchronized long getSoftMinEvictableIdleTimeMillis() {
-        return softMinEvictableIdleDuration.toMillis();
+    public long getSoftMinEvictableIdleTimeMillis() {
+        return config.softMinEvictableIdleDuration.toMillis();
+    }
+
+    /**
+     * Gets the file the pool state is saved to on close and warmed up from on start.
+     *
+     * @return the snapshot file, null if disabled.
+     * @see #setSnapshotFile(String)
+     * @since 2.15.0
+     */
+    @Override
+    public String getSnapshotFile() {
+        return config.snapshotFile;
     }
 
     /**
@@ -1424,8 +1537,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setTestOnBorrow(boolean)
      */
     @Override
-    public synchronized boolean getTestOnBorrow() {
-        return this.testOnBorrow;
+    public boolean getTestOnBorrow() {
+        return config.testOnBorrow;
     }
 
     /**
@@ -1435,8 +1548,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setTestOnCreate(boolean)
      */
     @Override
-    public synchronized boolean getTestOnCreate() {
-        return this.testOnCreate;
+    public boolean getTestOnCreate() {
+        return config.testOnCreate;
     }
 
     /**
@@ -1445,8 +1558,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return true if objects are validated before being returned to the pool
      * @see #setTestOnReturn(boolean)
      */
-    public synchronized boolean getTestOnReturn() {
-        return this.testOnReturn;
+    public boolean getTestOnReturn() {
+        return config.testOnReturn;
     }
 
     /**
@@ -1456,8 +1569,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setTestWhileIdle(boolean)
      */
     @Override
-    public synchronized boolean getTestWhileIdle() {
-        return this.testWhileIdle;
+    public boolean getTestWhileIdle() {
+        return config.testWhileIdle;
     }
 
     /**
@@ -1469,8 +1582,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     @Override
-    public synchronized long getTimeBetweenEvictionRunsMillis() {
-        return this.durationBetweenEvictionRuns.toMillis();
+    public long getTimeBetweenEvictionRunsMillis() {
+        return config.durationBetweenEvictionRuns.toMillis();
     }
 
     /**
@@ -1479,8 +1592,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the {code connectionString} passed to the JDBC driver to establish connections
      */
     @Override
-    public synchronized String getUrl() {
-        return this.connectionString;
+    public String getUrl() {
+        return config.connectionString;
     }
 
     /**
@@ -1492,7 +1605,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     @Deprecated
     @Override
     public String getUsername() {
-        return this.userName;
+        return config.userName;
     }
 
     /**
@@ -1503,7 +1616,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Override
     public String getValidationQuery() {
-        return this.validationQuery;
+        return config.validationQuery;
     }
 
     /**
@@ -1515,7 +1628,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     @Deprecated
     @Override
     public int getValidationQueryTimeout() {
-        return (int) validationQueryTimeoutDuration.getSeconds();
+        return (int) config.validationQueryTimeoutDuration.getSeconds();
     }
 
     /**
@@ -1524,7 +1637,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @return the timeout in seconds before connection validation queries fail.
      */
     public Duration getValidationQueryTimeoutDuration() {
-        return validationQueryTimeoutDuration;
+        return config.validationQueryTimeoutDuration;
     }
 
     /**
@@ -1563,54 +1676,126 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     }
 
     /**
-     * Gets the value of the accessToUnderlyingConnectionAllowed property.
+     * Gets the value of the accessToUnderlyingConnectionAllowed property.
+     *
+     * @return true if access to the underlying connection is allowed, false otherwise.
+     */
+    @Override
+    public boolean isAccessToUnderlyingConnectionAllowed() {
+        return config.accessToUnderlyingConnectionAllowed;
+    }
+
+    /**
+     * Tests whether the pool size is adjusted to the observed load on each eviction run.
+     *
+     * @return whether adaptive sizing is enabled.
+     * @see #setAdaptiveSizing(boolean)
+     * @since 2.15.0
+     */
+    @Override
+    public boolean isAdaptiveSizing() {
+        return config.adaptiveSizing;
+    }
+
+    /**
+     * Tests whether connections call the driver's {@link Connection#isClosed()} when they are returned to the pool.
+     *
+     * @return whether connections check the driver on return.
+     * @see #setCheckClosedOnReturn(boolean)
+     * @since 2.15.0
+     */
+    @Override
+    public boolean isCheckClosedOnReturn() {
+        return config.checkClosedOnReturn;
+    }
+
+    /**
+     * Returns true if the statement pool is cleared when the connection is returned to its pool.
+     *
+     * @return true if the statement pool is cleared at connection return
+     * @since 2.8.0
+     */
+    @Override
+    public boolean isClearStatementPoolOnReturn() {
+        return config.clearStatementPoolOnReturn;
+    }
+
+    /**
+     * If true, this data source is closed and no more connections can be retrieved from this data source.
+     *
+     * @return true, if the data source is closed; false otherwise
+     */
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Delegates in a null-safe manner to {@link String#isEmpty()}.
+     *
+     * @param value the string to test, may be null.
+     * @return boolean false if value is null, otherwise {@link String#isEmpty()}.
+     */
+    private boolean isEmpty(final String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Tests whether statements hand out the driver's result sets behind a minimal close-tracking wrapper.
      *
-     * @return true if access to the underlying connection is allowed, false otherwise.
+     * @return whether direct result sets are used.
+     * @see DelegatingConnection#setDirectResultSets(boolean)
+     * @since 2.15.0
      */
     @Override
-    public synchronized boolean isAccessToUnderlyingConnectionAllowed() {
-        return this.accessToUnderlyingConnectionAllowed;
+    public boolean isDirectResultSets() {
+        return config.directResultSets;
     }
 
     /**
-     * Returns true if the statement pool is cleared when the connection is returned to its pool.
+     * Tests whether borrowers wait in priority lanes when the pool is exhausted.
      *
-     * @return true if the statement pool is cleared at connection return
-     * @since 2.8.0
+     * @return whether borrowers wait in priority lanes.
+     * @see #setPriorityLanes(boolean)
+     * @since 2.15.0
      */
     @Override
-    public boolean isClearStatementPoolOnReturn() {
-        return clearStatementPoolOnReturn;
+    public boolean isPriorityLanes() {
+        return config.priorityLanes;
     }
 
     /**
-     * If true, this data source is closed and no more connections can be retrieved from this data source.
+     * Returns true if we are pooling statements.
      *
-     * @return true, if the data source is closed; false otherwise
+     * @return true if prepared and callable statements are pooled
      */
     @Override
-    public synchronized boolean isClosed() {
-        return closed;
+    public boolean isPoolPreparedStatements() {
+        return config.poolPreparedStatements;
     }
 
     /**
-     * Delegates in a null-safe manner to {@link String#isEmpty()}.
+     * Tests whether the evictor retires idle connections before they reach their maximum lifetime.
      *
-     * @param value the string to test, may be null.
-     * @return boolean false if value is null, otherwise {@link String#isEmpty()}.
+     * @return whether expiring connections are replaced by the evictor.
+     * @see #setReplaceExpiringConnections(boolean)
+     * @since 2.15.0
      */
-    private boolean isEmpty(final String value) {
-        return value == null || value.trim().isEmpty();
+    @Override
+    public boolean isReplaceExpiringConnections() {
+        return config.replaceExpiringConnections;
     }
 
     /**
-     * Returns true if we are pooling statements.
+     * Tests whether statements recycle an untraced result set wrapper instead of creating a traced one per result set.
      *
-     * @return true if prepared and callable statements are pooled
+     * @return whether thin result set wrappers are used.
+     * @see DelegatingConnection#setThinResultSets(boolean)
+     * @since 2.15.0
      */
     @Override
-    public synchronized boolean isPoolPreparedStatements() {
-        return this.poolPreparedStatements;
+    public boolean isThinResultSets() {
+        return config.thinResultSets;
     }
 
     @Override
@@ -1618,13 +1803,13 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         return iface != null && iface.isInstance(this);
     }
 
-    private void jmxRegister() {
+    private void jmxRegister(final BasicDataSourceConfig config) {
         // Return immediately if this DataSource has already been registered
         if (registeredJmxObjectName != null) {
             return;
         }
         // Return immediately if no JMX name has been specified
-        final String requestedName = getJmxName();
+        final String requestedName = config.jmxName;
         if (requestedName == null) {
             return;
         }
@@ -1705,7 +1890,10 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #addConnectionProperty(String, String)
      */
     public void removeConnectionProperty(final String name) {
-        connectionProperties.remove(name);
+        updateConfig(c -> {
+            c.connectionProperties = (Properties) c.connectionProperties.clone();
+            c.connectionProperties.remove(name);
+        });
     }
 
     /**
@@ -1733,14 +1921,91 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         start();
     }
 
-    private <T> void setAbandoned(final BiConsumer<AbandonedConfig, T> consumer, final T object) {
-        if (abandonedConfig == null) {
-            abandonedConfig = new AbandonedConfig();
+    /**
+     * Retires the connections opened so far, so that settings which only apply to new connections take effect without
+     * the latency of a {@link #restart()}.
+     * <p>
+     * Connections keep serving borrowers: each retired connection is closed when it is next returned to the pool, or in
+     * the background while idle, and the pool opens new connections as they are needed. To avoid reopening every connection at once, connections are
+     * retired at a bounded rate over the {@link #getMaxConnLifetimeJitter() lifetime jitter}, or over a few seconds
+     * without jitter, a retired connection returned before its turn serving again. Does nothing if the pool has not
+     * been initialized.
+     * </p>
+     *
+     * @see PoolableConnectionFactory#retireConnections()
+     * @since 2.15.0
+     */
+    @Override
+    public void retireConnections() {
+        final PoolableConnectionFactory factory = getPoolableConnectionFactory();
+        if (factory != null) {
+            factory.retireConnections();
+        }
+    }
+
+    /**
+     * Switches to a new URL, user name or password without the latency of a {@link #restart()}.
+     * <p>
+     * Once the pool has been initialized, this method first opens a connection with the new values, failing and
+     * keeping the current values if that fails. It then makes new connections with the new values and
+     * {@link #retireConnections() retires} the connections opened so far, which keep serving borrowers until their
+     * turn to be closed comes, and tops the idle connections up to {@link #getMinIdle() minIdle} so that borrowers find
+     * new connections ready. The URL, user name and password of this data source only change once the new ones work.
+     * </p>
+     *
+     * @param connectionString the new JDBC connection string.
+     * @param userName the new user name.
+     * @param password the new password.
+     * @throws SQLException if a connection cannot be opened with the new values.
+     * @see PoolableConnectionFactory#rotateConnectionFactory(ConnectionFactory)
+     * @since 2.15.0
+     */
+    public void rotateCredentials(final String connectionString, final String userName, final String password) throws SQLException {
+        final PoolableConnectionFactory factory;
+        final ConnectionFactory connectionFactory;
+        synchronized (this) {
+            factory = getPoolableConnectionFactory();
+            if (factory == null) {
+                updateCredentials(connectionString, userName, password);
+                return;
+            }
+            // This data source keeps its current settings until the new ones are tested.
+            connectionFactory = createConnectionFactory(connectionString, userName, password);
+        }
+        // Connect outside of the lock, a slow or unreachable server must not block this data source.
+        try (Connection conn = connectionFactory.createConnection()) {
+            if (conn == null) {
+                throw new SQLException("Connection factory returned null from createConnection");
+            }
+        }
+        final GenericObjectPool<PoolableConnection> pool;
+        synchronized (this) {
+            if (factory != getPoolableConnectionFactory()) {
+                throw new SQLException("Data source restarted or closed while rotating credentials");
+            }
+            updateCredentials(connectionString, userName, password);
+            factory.rotateConnectionFactory(connectionFactory);
+            pool = connectionPool;
+        }
+        try {
+            final int missing = pool.getMinIdle() - pool.getNumIdle();
+            for (int i = 0; i < missing; i++) {
+                pool.addObject();
+            }
+        } catch (final Exception e) {
+            throw new SQLException("Error preparing connections with the new credentials", e);
         }
-        consumer.accept(abandonedConfig, object);
+    }
+
+    private synchronized <T> void setAbandoned(final BiConsumer<AbandonedConfig, T> consumer, final T object) {
+        updateConfig(c -> {
+            // Published configurations are never modified, change a copy.
+            c.abandonedConfig = c.abandonedConfig == null ? new AbandonedConfig() : AbandonedConfig.copy(c.abandonedConfig);
+            consumer.accept(c.abandonedConfig, object);
+        });
         final GenericObjectPool<?> gop = this.connectionPool;
         if (gop != null) {
-            gop.setAbandonedConfig(abandonedConfig);
+            gop.setAbandonedConfig(config.abandonedConfig);
         }
     }
 
@@ -1777,7 +2042,55 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param allow Access to the underlying connection is granted when true.
      */
     public synchronized void setAccessToUnderlyingConnectionAllowed(final boolean allow) {
-        this.accessToUnderlyingConnectionAllowed = allow;
+        updateConfig(c -> c.accessToUnderlyingConnectionAllowed = allow);
+    }
+
+    /**
+     * Sets the lower bound of the effective maxTotal when adaptive sizing is enabled. Once the pool has been
+     * initialized, the new value applies from the next eviction run.
+     *
+     * @param adaptiveMinTotal the lower bound of the effective maxTotal, at least 1.
+     * @see #setAdaptiveSizing(boolean)
+     * @since 2.15.0
+     */
+    public synchronized void setAdaptiveMinTotal(final int adaptiveMinTotal) {
+        updateConfig(c -> c.adaptiveMinTotal = adaptiveMinTotal);
+    }
+
+    /**
+     * Sets whether the pool size is adjusted to the observed load. When enabled, a {@link PoolSizingController} runs
+     * after each eviction run and adjusts the pool's effective maxTotal between {@link #getAdaptiveMinTotal()} and
+     * {@link #getMaxTotal()}, its maxIdle up to {@link #getMaxIdle()} and its minIdle down to {@link #getMinIdle()},
+     * based on borrow wait times, utilization and the time taken to create connections. The getters of this class keep
+     * returning the configured bounds.
+     * <p>
+     * The controller only runs when {@link #setDurationBetweenEvictionRuns(Duration) durationBetweenEvictionRuns} is
+     * positive.
+     * </p>
+     * <p>
+     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
+     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * </p>
+     *
+     * @param adaptiveSizing whether the pool size is adjusted to the observed load.
+     * @since 2.15.0
+     */
+    public synchronized void setAdaptiveSizing(final boolean adaptiveSizing) {
+        updateConfig(c -> c.adaptiveSizing = adaptiveSizing);
+    }
+
+    /**
+     * Sets the mean borrow wait above which the pool grows when adaptive sizing is enabled. Connections taking longer
+     * than this to create also make the controller keep more idle connections. Once the pool has been initialized, the
+     * new value applies from the next eviction run.
+     *
+     * @param adaptiveTargetBorrowWait the target mean borrow wait.
+     * @see #setAdaptiveSizing(boolean)
+     * @since 2.15.0
+     */
+    public synchronized void setAdaptiveTargetBorrowWait(final Duration adaptiveTargetBorrowWait) {
+        updateConfig(c -> c.adaptiveTargetBorrowWait = Objects.requireNonNull(adaptiveTargetBorrowWait, "adaptiveTargetBorrowWait"));
     }
 
     /**
@@ -1790,27 +2103,58 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.6.0
      */
     public void setAutoCommitOnReturn(final boolean autoCommitOnReturn) {
-        this.autoCommitOnReturn = autoCommitOnReturn;
+        updateConfig(c -> c.autoCommitOnReturn = autoCommitOnReturn);
+        setConnectionFactory(PoolableConnectionFactory::setAutoCommitOnReturn, autoCommitOnReturn);
     }
 
     /**
      * Sets the state caching flag.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
      *
      * @param cacheState The new value for the state caching flag
      */
     public void setCacheState(final boolean cacheState) {
-        this.cacheState = cacheState;
+        updateConfig(c -> c.cacheState = cacheState);
+        setConnectionFactory(PoolableConnectionFactory::setCacheState, cacheState);
+    }
+
+    /**
+     * Sets whether connections call the driver's {@link Connection#isClosed()} when they are returned to the pool. Some
+     * drivers implement it with a network round trip. When false, only connections which threw a fatal disconnection
+     * exception are destroyed on return and other dead connections are left to validation, so enable
+     * {@link #setTestOnBorrow(boolean) testOnBorrow} or {@link #setTestWhileIdle(boolean) testWhileIdle}. Default is
+     * true.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
+     *
+     * @param checkClosedOnReturn whether connections check the driver on return.
+     * @see PoolableConnection#setCheckClosedOnReturn(boolean)
+     * @since 2.15.0
+     */
+    public void setCheckClosedOnReturn(final boolean checkClosedOnReturn) {
+        updateConfig(c -> c.checkClosedOnReturn = checkClosedOnReturn);
+        setConnectionFactory(PoolableConnectionFactory::setCheckClosedOnReturn, checkClosedOnReturn);
     }
 
     /**
      * Sets whether the pool of statements (which was enabled with {@link #setPoolPreparedStatements(boolean)}) should
      * be cleared when the connection is returned to its pool. Default is false.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
      *
      * @param clearStatementPoolOnReturn clear or not
      * @since 2.8.0
      */
     public void setClearStatementPoolOnReturn(final boolean clearStatementPoolOnReturn) {
-        this.clearStatementPoolOnReturn = clearStatementPoolOnReturn;
+        updateConfig(c -> c.clearStatementPoolOnReturn = clearStatementPoolOnReturn);
+        setConnectionFactory(PoolableConnectionFactory::setClearStatementPoolOnReturn, clearStatementPoolOnReturn);
     }
 
     /**
@@ -1820,15 +2164,14 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.7.0
      */
     public void setConnectionFactoryClassName(final String connectionFactoryClassName) {
-        this.connectionFactoryClassName = isEmpty(connectionFactoryClassName) ? null : connectionFactoryClassName;
+        updateConfig(c -> c.connectionFactoryClassName = isEmpty(connectionFactoryClassName) ? null : connectionFactoryClassName);
     }
 
     /**
      * Sets the collection of SQL statements to be executed when a physical connection is first created.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
      * </p>
      *
      * @param connectionInitSqls Collection of SQL statements to execute on connection creation
@@ -1836,15 +2179,15 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
     public void setConnectionInitSqls(final Collection<String> connectionInitSqls) {
         final List<String> collect = Utils.isEmpty(connectionInitSqls) ? null
                 : connectionInitSqls.stream().filter(s -> !isEmpty(s)).collect(Collectors.toList());
-        this.connectionInitSqls = Utils.isEmpty(collect) ? null : collect;
+        updateConfig(c -> c.connectionInitSqls = Utils.isEmpty(collect) ? null : collect);
+        setConnectionFactory(PoolableConnectionFactory::setConnectionInitSql, config.connectionInitSqls);
     }
 
     /**
      * Sets the list of SQL statements to be executed when a physical connection is first created.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
      * </p>
      *
      * @param connectionInitSqls List of SQL statements to execute on connection creation
@@ -1854,6 +2197,65 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         setConnectionInitSqls((Collection<String>) connectionInitSqls);
     }
 
+    /**
+     * Saves the state of a pool being closed, logging a failure.
+     *
+     * @param snapshotFile the snapshot file.
+     * @param snapshot the pool state.
+     */
+    private void saveSnapshot(final String snapshotFile, final PoolStateSnapshot snapshot) {
+        try {
+            snapshot.write(Paths.get(snapshotFile));
+        } catch (final IOException | RuntimeException e) {
+            log.warn(Utils.getMessage("basicDataSource.snapshot.writeFail", snapshotFile), e);
+        }
+    }
+
+    /**
+     * Applies a setting to the factory of the pool, if the pool has been initialized.
+     *
+     * @param <T> The setting type.
+     * @param consumer The factory setter.
+     * @param object The setting value.
+     */
+    private <T> void setConnectionFactory(final BiConsumer<PoolableConnectionFactory, T> consumer, final T object) {
+        final PoolableConnectionFactory factory = getPoolableConnectionFactory();
+        if (factory != null) {
+            consumer.accept(factory, object);
+        }
+    }
+
+    /**
+     * Publishes a changed copy of the configuration.
+     *
+     * @param update changes the copy.
+     */
+    private synchronized void updateConfig(final Consumer<BasicDataSourceConfig> update) {
+        final BasicDataSourceConfig next = config.copy();
+        update.accept(next);
+        config = next;
+        final PoolSizingController controller = getPoolSizingController();
+        if (controller != null) {
+            // The controller adjusts the pool within the bounds configured now, not the ones it was created with.
+            controller.setBounds(next.adaptiveMinTotal, next.maxTotal, next.minIdle, next.maxIdle, next.adaptiveTargetBorrowWait);
+        }
+    }
+
+    /**
+     * Publishes a new URL, user name and password together.
+     *
+     * @param connectionString the JDBC connection string.
+     * @param userName the user name.
+     * @param password the password.
+     */
+    private void updateCredentials(final String connectionString, final String userName, final String password) {
+        updateConfig(c -> {
+            c.connectionString = connectionString;
+            c.userName = userName;
+            c.password = password;
+        });
+    }
+
     private <T> void setConnectionPool(final BiConsumer<GenericObjectPool<PoolableConnection>, T> consumer, final T object) {
         if (connectionPool != null) {
             consumer.accept(connectionPool, object);
@@ -1887,35 +2289,33 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
                 properties.setProperty(entry, "");
             }
         });
-        this.connectionProperties = properties;
+        updateConfig(c -> c.connectionProperties = properties);
     }
 
     /**
      * Sets default auto-commit state of connections returned by this datasource.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to connections as they are next borrowed.
      * </p>
      *
      * @param defaultAutoCommit default auto-commit value
      */
     public void setDefaultAutoCommit(final Boolean defaultAutoCommit) {
-        this.defaultAutoCommit = defaultAutoCommit;
+        updateConfig(c -> c.defaultAutoCommit = defaultAutoCommit);
+        setConnectionFactory(PoolableConnectionFactory::setDefaultAutoCommit, defaultAutoCommit);
     }
 
     /**
      * Sets the default catalog.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to connections as they are next borrowed.
      * </p>
      *
      * @param defaultCatalog the default catalog
      */
     public void setDefaultCatalog(final String defaultCatalog) {
-        this.defaultCatalog = isEmpty(defaultCatalog) ? null : defaultCatalog;
+        updateConfig(c -> c.defaultCatalog = isEmpty(defaultCatalog) ? null : defaultCatalog);
+        setConnectionFactory(PoolableConnectionFactory::setDefaultCatalog, config.defaultCatalog);
     }
 
     /**
@@ -1926,7 +2326,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public void setDefaultQueryTimeout(final Duration defaultQueryTimeoutDuration) {
-        this.defaultQueryTimeoutDuration = defaultQueryTimeoutDuration;
+        updateConfig(c -> c.defaultQueryTimeoutDuration = defaultQueryTimeoutDuration);
+        setConnectionFactory(PoolableConnectionFactory::setDefaultQueryTimeout, defaultQueryTimeoutDuration);
     }
 
     /**
@@ -1938,51 +2339,66 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     public void setDefaultQueryTimeout(final Integer defaultQueryTimeoutSeconds) {
-        this.defaultQueryTimeoutDuration = defaultQueryTimeoutSeconds == null ? null : Duration.ofSeconds(defaultQueryTimeoutSeconds);
+        updateConfig(c -> c.defaultQueryTimeoutDuration = defaultQueryTimeoutSeconds == null ? null : Duration.ofSeconds(defaultQueryTimeoutSeconds));
+        setConnectionFactory(PoolableConnectionFactory::setDefaultQueryTimeout, config.defaultQueryTimeoutDuration);
     }
 
     /**
      * Sets defaultReadonly property.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to connections as they are next borrowed.
      * </p>
      *
      * @param defaultReadOnly default read-only value
      */
     public void setDefaultReadOnly(final Boolean defaultReadOnly) {
-        this.defaultReadOnly = defaultReadOnly;
+        updateConfig(c -> c.defaultReadOnly = defaultReadOnly);
+        setConnectionFactory(PoolableConnectionFactory::setDefaultReadOnly, defaultReadOnly);
     }
 
     /**
      * Sets the default schema.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to connections as they are next borrowed.
      * </p>
      *
      * @param defaultSchema the default catalog
      * @since 2.5.0
      */
     public void setDefaultSchema(final String defaultSchema) {
-        this.defaultSchema = isEmpty(defaultSchema) ? null : defaultSchema;
+        updateConfig(c -> c.defaultSchema = isEmpty(defaultSchema) ? null : defaultSchema);
+        setConnectionFactory(PoolableConnectionFactory::setDefaultSchema, config.defaultSchema);
     }
 
     /**
      * Sets the default transaction isolation state for returned connections.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to connections as they are next borrowed.
      * </p>
      *
      * @param defaultTransactionIsolation the default transaction isolation state
      * @see Connection#getTransactionIsolation
      */
     public void setDefaultTransactionIsolation(final int defaultTransactionIsolation) {
-        this.defaultTransactionIsolation = defaultTransactionIsolation;
+        updateConfig(c -> c.defaultTransactionIsolation = defaultTransactionIsolation);
+        setConnectionFactory(PoolableConnectionFactory::setDefaultTransactionIsolation, defaultTransactionIsolation);
+    }
+
+    /**
+     * Sets whether statements hand out the driver's result sets behind a minimal close-tracking wrapper instead of a
+     * {@link DelegatingResultSet}.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
+     *
+     * @param directResultSets whether to use direct result sets.
+     * @see DelegatingConnection#setDirectResultSets(boolean)
+     * @since 2.15.0
+     */
+    public void setDirectResultSets(final boolean directResultSets) {
+        updateConfig(c -> c.directResultSets = directResultSets);
+        setConnectionFactory(PoolableConnectionFactory::setDirectResultSets, directResultSets);
     }
 
     /**
@@ -1999,20 +2415,22 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * during such checks.
      * </p>
      * <p>
-     * Note: This method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@code getConnection, setLogwriter, setLoginTimeout,
-     * getLoginTimeout, getLogWriter}.
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
      * </p>
      *
      * @param disconnectionIgnoreSqlCodes SQL State codes that should be ignored in disconnection checks
-     * @throws IllegalArgumentException if any SQL state codes overlap with those in {@link #disconnectionSqlCodes}.
+     * @throws IllegalArgumentException if any SQL state codes overlap with those in {@link #getDisconnectionSqlCodes()}.
      * @since 2.13.0
      */
     public void setDisconnectionIgnoreSqlCodes(final Collection<String> disconnectionIgnoreSqlCodes) {
-        Utils.checkSqlCodes(disconnectionIgnoreSqlCodes, this.disconnectionSqlCodes);
         final Set<String> collect = Utils.isEmpty(disconnectionIgnoreSqlCodes) ? null
                 : disconnectionIgnoreSqlCodes.stream().filter(s -> !isEmpty(s)).collect(toLinkedHashSet());
-        this.disconnectionIgnoreSqlCodes = Utils.isEmpty(collect) ? null : collect;
+        updateConfig(c -> {
+            Utils.checkSqlCodes(disconnectionIgnoreSqlCodes, c.disconnectionSqlCodes);
+            c.disconnectionIgnoreSqlCodes = Utils.isEmpty(collect) ? null : collect;
+        });
+        setConnectionFactory(PoolableConnectionFactory::setDisconnectionIgnoreSqlCodes, config.disconnectionIgnoreSqlCodes);
     }
 
     /**
@@ -2028,20 +2446,51 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * If {@link #getFastFailValidation()} is {@code false} setting this property has no effect.
      * </p>
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@code getConnection, setLogwriter,
-     * setLoginTimeout, getLoginTimeout, getLogWriter}.
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
      * </p>
      *
      * @param disconnectionSqlCodes SQL State codes considered to signal fatal conditions
-     * @throws IllegalArgumentException if any SQL state codes overlap with those in {@link #disconnectionIgnoreSqlCodes}.
+     * @throws IllegalArgumentException if any SQL state codes overlap with those in {@link #getDisconnectionIgnoreSqlCodes()}.
      * @since 2.1
      */
     public void setDisconnectionSqlCodes(final Collection<String> disconnectionSqlCodes) {
-        Utils.checkSqlCodes(disconnectionSqlCodes, this.disconnectionIgnoreSqlCodes);
         final Set<String> collect = Utils.isEmpty(disconnectionSqlCodes) ? null
                 : disconnectionSqlCodes.stream().filter(s -> !isEmpty(s)).collect(toLinkedHashSet());
-        this.disconnectionSqlCodes = Utils.isEmpty(collect) ? null : collect;
+        updateConfig(c -> {
+            Utils.checkSqlCodes(disconnectionSqlCodes, c.disconnectionIgnoreSqlCodes);
+            c.disconnectionSqlCodes = Utils.isEmpty(collect) ? null : collect;
+        });
+        setConnectionFactory(PoolableConnectionFactory::setDisconnectionSqlCodes, config.disconnectionSqlCodes);
+    }
+
+    /**
+     * Sets the number of fatal disconnection exceptions, thrown by any connection of the pool within
+     * {@link #getDisconnectionWaveWindow()}, which start an invalidation wave. A wave destroys all idle connections at
+     * once and validates every connection created before the wave when it is next borrowed, so that after a database
+     * failover the pool does not hand out each stale connection in turn. The default value is 0, which disables waves.
+     *
+     * @param disconnectionWaveThreshold the threshold, 0 or less to disable invalidation waves.
+     * @see #setDisconnectionSqlCodes(Collection)
+     * @see PoolableConnectionFactory#setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public void setDisconnectionWaveThreshold(final int disconnectionWaveThreshold) {
+        updateConfig(c -> c.disconnectionWaveThreshold = disconnectionWaveThreshold);
+        setConnectionFactory(PoolableConnectionFactory::setDisconnectionWaveThreshold, disconnectionWaveThreshold);
+    }
+
+    /**
+     * Sets the window in which fatal disconnection exceptions are counted towards an invalidation wave. The default
+     * value is 10 seconds.
+     *
+     * @param disconnectionWaveWindow the window.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public void setDisconnectionWaveWindow(final Duration disconnectionWaveWindow) {
+        updateConfig(c -> c.disconnectionWaveWindow = Objects.requireNonNull(disconnectionWaveWindow, "disconnectionWaveWindow"));
+        setConnectionFactory(PoolableConnectionFactory::setDisconnectionWaveWindow, disconnectionWaveWindow);
     }
 
     /**
@@ -2055,7 +2504,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param driver The JDBC Driver instance to use for this pool.
      */
     public synchronized void setDriver(final Driver driver) {
-        this.driver = driver;
+        updateConfig(c -> c.driver = driver);
     }
 
     /**
@@ -2069,7 +2518,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param driverClassLoader the class loader with which to load the JDBC driver
      */
     public synchronized void setDriverClassLoader(final ClassLoader driverClassLoader) {
-        this.driverClassLoader = driverClassLoader;
+        updateConfig(c -> c.driverClassLoader = driverClassLoader);
     }
 
     /**
@@ -2083,7 +2532,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param driverClassName the class name of the JDBC driver
      */
     public synchronized void setDriverClassName(final String driverClassName) {
-        this.driverClassName = isEmpty(driverClassName) ? null : driverClassName;
+        updateConfig(c -> c.driverClassName = isEmpty(driverClassName) ? null : driverClassName);
     }
 
     /**
@@ -2094,7 +2543,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public synchronized void setDurationBetweenEvictionRuns(final Duration timeBetweenEvictionRunsMillis) {
-        this.durationBetweenEvictionRuns = timeBetweenEvictionRunsMillis;
+        updateConfig(c -> c.durationBetweenEvictionRuns = timeBetweenEvictionRunsMillis);
         setConnectionPool(GenericObjectPool::setDurationBetweenEvictionRuns, timeBetweenEvictionRunsMillis);
     }
 
@@ -2109,7 +2558,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     public void setEnableAutoCommitOnReturn(final boolean autoCommitOnReturn) {
-        this.autoCommitOnReturn = autoCommitOnReturn;
+        updateConfig(c -> c.autoCommitOnReturn = autoCommitOnReturn);
     }
 
     /**
@@ -2119,18 +2568,23 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     public synchronized void setEvictionPolicyClassName(final String evictionPolicyClassName) {
         setConnectionPool(GenericObjectPool::setEvictionPolicyClassName, evictionPolicyClassName);
-        this.evictionPolicyClassName = evictionPolicyClassName;
+        updateConfig(c -> c.evictionPolicyClassName = evictionPolicyClassName);
     }
 
     /**
      * Sets whether connections created by this factory will fast fail validation.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
      *
      * @param fastFailValidation true means connections created by this factory will fast fail validation.
      * @see #getFastFailValidation()
      * @since 2.1
      */
     public void setFastFailValidation(final boolean fastFailValidation) {
-        this.fastFailValidation = fastFailValidation;
+        updateConfig(c -> c.fastFailValidation = fastFailValidation);
+        setConnectionFactory(PoolableConnectionFactory::setFastFailValidation, fastFailValidation);
     }
 
     /**
@@ -2144,7 +2598,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param initialSize the number of connections created when the pool is initialized
      */
     public synchronized void setInitialSize(final int initialSize) {
-        this.initialSize = initialSize;
+        updateConfig(c -> c.initialSize = initialSize);
     }
 
     /**
@@ -2156,7 +2610,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param jmxName The JMX name that has been requested for this DataSource
      */
     public void setJmxName(final String jmxName) {
-        this.jmxName = jmxName;
+        updateConfig(c -> c.jmxName = jmxName);
     }
 
     /**
@@ -2165,7 +2619,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param lifo the new value for the LIFO property
      */
     public synchronized void setLifo(final boolean lifo) {
-        this.lifo = lifo;
+        updateConfig(c -> c.lifo = lifo);
         setConnectionPool(GenericObjectPool::setLifo, lifo);
     }
 
@@ -2187,7 +2641,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      *                              maximum lifetime exceeded.
      */
     public void setLogExpiredConnections(final boolean logExpiredConnections) {
-        this.logExpiredConnections = logExpiredConnections;
+        updateConfig(c -> c.logExpiredConnections = logExpiredConnections);
     }
 
     /**
@@ -2231,25 +2685,43 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * Sets the maximum permitted lifetime of a connection. A value of zero or less indicates an
      * infinite lifetime.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, connections exceeding a new, shorter lifetime are closed as they
+     * are next borrowed, returned or validated.
      * </p>
      *
      * @param maxConnDuration The maximum permitted lifetime of a connection.
      * @since 2.10.0
      */
     public void setMaxConn(final Duration maxConnDuration) {
-        this.maxConnDuration = maxConnDuration;
+        updateConfig(c -> c.maxConnDuration = maxConnDuration);
+        setConnectionFactory(PoolableConnectionFactory::setMaxConn, maxConnDuration);
+    }
+
+    /**
+     * Sets the maximum random reduction applied to the maximum lifetime of each connection. Each new connection draws
+     * its own reduction between zero and this value, capped at half of {@link #getMaxConnDuration()}, so that
+     * connections opened together, for example when the pool warms up, do not all expire and reconnect together. The
+     * default value is zero, no jitter.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
+     *
+     * @param maxConnLifetimeJitter the maximum lifetime jitter.
+     * @see #setReplaceExpiringConnections(boolean)
+     * @since 2.15.0
+     */
+    public void setMaxConnLifetimeJitter(final Duration maxConnLifetimeJitter) {
+        updateConfig(c -> c.maxConnLifetimeJitter = Objects.requireNonNull(maxConnLifetimeJitter, "maxConnLifetimeJitter"));
+        setConnectionFactory(PoolableConnectionFactory::setMaxConnLifetimeJitter, maxConnLifetimeJitter);
     }
 
     /**
      * Sets the maximum permitted lifetime of a connection in milliseconds. A value of zero or less indicates an
      * infinite lifetime.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, connections exceeding a new, shorter lifetime are closed as they
+     * are next borrowed, returned or validated.
      * </p>
      *
      * @param maxConnLifetimeMillis The maximum permitted lifetime of a connection in milliseconds.
@@ -2257,7 +2729,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     public void setMaxConnLifetimeMillis(final long maxConnLifetimeMillis) {
-        this.maxConnDuration = Duration.ofMillis(maxConnLifetimeMillis);
+        updateConfig(c -> c.maxConnDuration = Duration.ofMillis(maxConnLifetimeMillis));
+        setConnectionFactory(PoolableConnectionFactory::setMaxConn, config.maxConnDuration);
     }
 
     /**
@@ -2268,22 +2741,22 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param maxIdle the new value for maxIdle
      */
     public synchronized void setMaxIdle(final int maxIdle) {
-        this.maxIdle = maxIdle;
+        updateConfig(c -> c.maxIdle = maxIdle);
         setConnectionPool(GenericObjectPool::setMaxIdle, maxIdle);
     }
 
     /**
      * Sets the value of the {@code maxOpenPreparedStatements} property.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
      * </p>
      *
      * @param maxOpenStatements the new maximum number of prepared statements
      */
     public synchronized void setMaxOpenPreparedStatements(final int maxOpenStatements) {
-        this.maxOpenPreparedStatements = maxOpenStatements;
+        updateConfig(c -> c.maxOpenPreparedStatements = maxOpenStatements);
+        setConnectionFactory(PoolableConnectionFactory::setMaxOpenPreparedStatements, maxOpenStatements);
     }
 
     /**
@@ -2294,7 +2767,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #getMaxTotal()
      */
     public synchronized void setMaxTotal(final int maxTotal) {
-        this.maxTotal = maxTotal;
+        updateConfig(c -> c.maxTotal = maxTotal);
         setConnectionPool(GenericObjectPool::setMaxTotal, maxTotal);
     }
 
@@ -2306,7 +2779,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public synchronized void setMaxWait(final Duration maxWaitDuration) {
-        this.maxWaitDuration = maxWaitDuration;
+        updateConfig(c -> c.maxWaitDuration = maxWaitDuration);
         setConnectionPool(GenericObjectPool::setMaxWait, maxWaitDuration);
     }
 
@@ -2330,7 +2803,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public synchronized void setMinEvictableIdle(final Duration minEvictableIdleDuration) {
-        this.minEvictableIdleDuration = minEvictableIdleDuration;
+        updateConfig(c -> c.minEvictableIdleDuration = minEvictableIdleDuration);
         setConnectionPool(GenericObjectPool::setMinEvictableIdleDuration, minEvictableIdleDuration);
     }
 
@@ -2355,7 +2828,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see GenericObjectPool#setMinIdle(int)
      */
     public synchronized void setMinIdle(final int minIdle) {
-        this.minIdle = minIdle;
+        updateConfig(c -> c.minIdle = minIdle);
         setConnectionPool(GenericObjectPool::setMinIdle, minIdle);
     }
 
@@ -2366,14 +2839,15 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @see #setNumTestsPerEvictionRun(int)
      */
     public synchronized void setNumTestsPerEvictionRun(final int numTestsPerEvictionRun) {
-        this.numTestsPerEvictionRun = numTestsPerEvictionRun;
+        updateConfig(c -> c.numTestsPerEvictionRun = numTestsPerEvictionRun);
         setConnectionPool(GenericObjectPool::setNumTestsPerEvictionRun, numTestsPerEvictionRun);
     }
 
     /**
      * Sets the {code password}.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * Note: this method currently has no effect once the pool has been initialized, use
+     * {@link #rotateCredentials(String, String, String)} to switch a running pool. The pool is initialized the first
      * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
      * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
      * </p>
@@ -2381,7 +2855,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param password new value for the password
      */
     public void setPassword(final String password) {
-        this.password = password;
+        updateConfig(c -> c.password = password);
     }
 
     /**
@@ -2395,7 +2869,91 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param poolingStatements pooling on or off
      */
     public synchronized void setPoolPreparedStatements(final boolean poolingStatements) {
-        this.poolPreparedStatements = poolingStatements;
+        updateConfig(c -> c.poolPreparedStatements = poolingStatements);
+    }
+
+    /**
+     * Splits the pool into named bulkhead partitions, each with its own share of maxTotal. The connections not
+     * assigned to any partition form a shared overflow, used by partitions whose share is exhausted and by borrowers
+     * without a partition. A single busy partition therefore cannot take the connections reserved for the others,
+     * while all partitions share the connection factory, evictor and JMX registration of this data source.
+     * <p>
+     * Format of the string must be [partitionName=share;]*, an empty string disables partitions. Borrowers choose their
+     * partition with {@link #getPartitionConnection(String)} or {@link BulkheadPartitions#setCurrentPartition(String)}.
+     * </p>
+     * <p>
+     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
+     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * </p>
+     *
+     * @param partitions the partitions and their share of maxTotal.
+     * @throws IllegalArgumentException if a share is not a positive integer.
+     * @see PoolingDataSource#setPartitions(Map)
+     * @since 2.15.0
+     */
+    public void setPartitions(final String partitions) {
+        Objects.requireNonNull(partitions, "partitions");
+        final Map<String, Integer> map = new LinkedHashMap<>();
+        Stream.of(partitions.split(";")).map(String::trim).filter(e -> !e.isEmpty()).forEach(entry -> {
+            final int index = entry.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Partition entry must be name=share: " + entry);
+            }
+            final int share;
+            try {
+                share = Integer.parseInt(entry.substring(index + 1).trim());
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Partition share must be an integer: " + entry, e);
+            }
+            if (share <= 0) {
+                throw new IllegalArgumentException("Partition share must be positive: " + entry);
+            }
+            map.put(entry.substring(0, index).trim(), share);
+        });
+        updateConfig(c -> c.partitions = Collections.unmodifiableMap(map));
+    }
+
+    /**
+     * Sets whether borrowers wait in priority lanes when the pool is exhausted. When enabled, connections returned to
+     * an exhausted pool go to the waiting borrower with the highest {@link BorrowPriority}, given with
+     * {@link #getConnection(BorrowPriority)} or {@link BorrowPriority#setCurrent(BorrowPriority)}, instead of to the
+     * longest waiting borrower. {@link #getBorrowLanes()} exposes wait times per priority.
+     * <p>
+     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
+     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * </p>
+     *
+     * @param priorityLanes whether borrowers wait in priority lanes.
+     * @see PoolingDataSource#setPriorityLanes(boolean)
+     * @since 2.15.0
+     */
+    public void setPriorityLanes(final boolean priorityLanes) {
+        updateConfig(c -> c.priorityLanes = priorityLanes);
+    }
+
+    /**
+     * Sets whether the evictor retires idle connections before they reach their maximum lifetime. When enabled, each
+     * eviction run retires the idle connections it examines which would exceed their maximum lifetime before the next
+     * run, looking ahead at most half of a connection's lifetime when runs are further apart. When retiring a connection would leave fewer than {@link #getMinIdle()} idle connections, a replacement is
+     * created first, so lifetime expiry neither drops the pool below minIdle nor makes borrowers wait for new
+     * connections. Combine with {@link #setMaxConnLifetimeJitter(Duration)} to spread replacements over time.
+     * <p>
+     * This has no effect unless {@link #getMaxConnDuration()} and {@link #getDurationBetweenEvictionRuns()} are
+     * positive.
+     * </p>
+     * <p>
+     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
+     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * </p>
+     *
+     * @param replaceExpiringConnections whether expiring connections are replaced by the evictor.
+     * @since 2.15.0
+     */
+    public void setReplaceExpiringConnections(final boolean replaceExpiringConnections) {
+        updateConfig(c -> c.replaceExpiringConnections = replaceExpiringConnections);
     }
 
     /**
@@ -2405,7 +2963,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param registerConnectionMBean connection tracking requested for this DataSource.
      */
     public void setRegisterConnectionMBean(final boolean registerConnectionMBean) {
-        this.registerConnectionMBean = registerConnectionMBean;
+        updateConfig(c -> c.registerConnectionMBean = registerConnectionMBean);
     }
 
     /**
@@ -2470,7 +3028,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param rollbackOnReturn whether a connection will be rolled back when it is returned to the pool.
      */
     public void setRollbackOnReturn(final boolean rollbackOnReturn) {
-        this.rollbackOnReturn = rollbackOnReturn;
+        updateConfig(c -> c.rollbackOnReturn = rollbackOnReturn);
+        setConnectionFactory(PoolableConnectionFactory::setRollbackOnReturn, rollbackOnReturn);
     }
 
     /**
@@ -2484,7 +3043,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @since 2.10.0
      */
     public synchronized void setSoftMinEvictableIdle(final Duration softMinEvictableIdleTimeMillis) {
-        this.softMinEvictableIdleDuration = softMinEvictableIdleTimeMillis;
+        updateConfig(c -> c.softMinEvictableIdleDuration = softMinEvictableIdleTimeMillis);
         setConnectionPool(GenericObjectPool::setSoftMinEvictableIdleDuration, softMinEvictableIdleTimeMillis);
     }
 
@@ -2503,6 +3062,24 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         setSoftMinEvictableIdle(Duration.ofMillis(softMinEvictableIdleTimeMillis));
     }
 
+    /**
+     * Sets the file the pool state is saved to when this data source is closed, and warmed up from when it starts:
+     * the largest number of connections seen active at once, the effective maxTotal and the SQL of the prepared
+     * statements cached by the idle connections, when {@link #setPoolPreparedStatements(boolean) poolPreparedStatements}
+     * is enabled.
+     * <p>
+     * On start, the pool opens as many connections as were active at the peak, bounded by maxTotal and maxIdle, and
+     * prepares the cached statements on each of them, the hottest first up to maxOpenPreparedStatements. A missing or
+     * unreadable file only means a cold start. The file is replaced on each close, restarts included.
+     * </p>
+     *
+     * @param snapshotFile the snapshot file, null to disable.
+     * @since 2.15.0
+     */
+    public synchronized void setSnapshotFile(final String snapshotFile) {
+        updateConfig(c -> c.snapshotFile = snapshotFile);
+    }
+
     /**
      * Sets the {code testOnBorrow} property. This property determines whether or not the pool will validate objects
      * before they are borrowed from the pool.
@@ -2510,7 +3087,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param testOnBorrow new value for testOnBorrow property
      */
     public synchronized void setTestOnBorrow(final boolean testOnBorrow) {
-        this.testOnBorrow = testOnBorrow;
+        updateConfig(c -> c.testOnBorrow = testOnBorrow);
         setConnectionPool(GenericObjectPool::setTestOnBorrow, testOnBorrow);
     }
 
@@ -2521,7 +3098,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param testOnCreate new value for testOnCreate property
      */
     public synchronized void setTestOnCreate(final boolean testOnCreate) {
-        this.testOnCreate = testOnCreate;
+        updateConfig(c -> c.testOnCreate = testOnCreate);
         setConnectionPool(GenericObjectPool::setTestOnCreate, testOnCreate);
     }
 
@@ -2532,7 +3109,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param testOnReturn new value for testOnReturn property
      */
     public synchronized void setTestOnReturn(final boolean testOnReturn) {
-        this.testOnReturn = testOnReturn;
+        updateConfig(c -> c.testOnReturn = testOnReturn);
         setConnectionPool(GenericObjectPool::setTestOnReturn, testOnReturn);
     }
 
@@ -2543,7 +3120,7 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param testWhileIdle new value for testWhileIdle property
      */
     public synchronized void setTestWhileIdle(final boolean testWhileIdle) {
-        this.testWhileIdle = testWhileIdle;
+        updateConfig(c -> c.testWhileIdle = testWhileIdle);
         setConnectionPool(GenericObjectPool::setTestWhileIdle, testWhileIdle);
     }
 
@@ -2559,10 +3136,27 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
         setDurationBetweenEvictionRuns(Duration.ofMillis(timeBetweenEvictionRunsMillis));
     }
 
+    /**
+     * Sets whether statements recycle an untraced result set wrapper instead of creating a traced one per result set.
+     * <p>
+     * Note: once the pool has been initialized, a new value only applies to connections created afterwards. Call
+     * {@link #retireConnections()} to replace the existing connections.
+     * </p>
+     *
+     * @param thinResultSets whether to use thin result set wrappers.
+     * @see DelegatingConnection#setThinResultSets(boolean)
+     * @since 2.15.0
+     */
+    public void setThinResultSets(final boolean thinResultSets) {
+        updateConfig(c -> c.thinResultSets = thinResultSets);
+        setConnectionFactory(PoolableConnectionFactory::setThinResultSets, thinResultSets);
+    }
+
     /**
      * Sets the {code connection string}.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * Note: this method currently has no effect once the pool has been initialized, use
+     * {@link #rotateCredentials(String, String, String)} to switch a running pool. The pool is initialized the first
      * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
      * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
      * </p>
@@ -2570,13 +3164,14 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param connectionString the new value for the JDBC connection connectionString
      */
     public synchronized void setUrl(final String connectionString) {
-        this.connectionString = connectionString;
+        updateConfig(c -> c.connectionString = connectionString);
     }
 
     /**
      * Sets the {code userName}.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
+     * Note: this method currently has no effect once the pool has been initialized, use
+     * {@link #rotateCredentials(String, String, String)} to switch a running pool. The pool is initialized the first
      * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
      * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
      * </p>
@@ -2584,46 +3179,42 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * @param userName the new value for the JDBC connection user name
      */
     public void setUsername(final String userName) {
-        this.userName = userName;
+        updateConfig(c -> c.userName = userName);
     }
 
     /**
      * Sets the {code validationQuery}.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to the next validation.
      * </p>
      *
      * @param validationQuery the new value for the validation query
      */
     public void setValidationQuery(final String validationQuery) {
-        this.validationQuery = isEmpty(validationQuery) ? null : validationQuery;
+        updateConfig(c -> c.validationQuery = isEmpty(validationQuery) ? null : validationQuery);
+        setConnectionFactory(PoolableConnectionFactory::setValidationQuery, config.validationQuery);
     }
 
     /**
      * Sets the validation query timeout, the amount of time, in seconds, that connection validation will wait for a
      * response from the database when executing a validation query. Use a value less than or equal to 0 for no timeout.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to the next validation.
      * </p>
      *
      * @param validationQueryTimeoutDuration new validation query timeout value in seconds
      * @since 2.10.0
      */
     public void setValidationQueryTimeout(final Duration validationQueryTimeoutDuration) {
-        this.validationQueryTimeoutDuration = validationQueryTimeoutDuration;
+        updateConfig(c -> c.validationQueryTimeoutDuration = validationQueryTimeoutDuration);
+        setConnectionFactory(PoolableConnectionFactory::setValidationQueryTimeout, validationQueryTimeoutDuration);
     }
 
     /**
      * Sets the validation query timeout, the amount of time, in seconds, that connection validation will wait for a
      * response from the database when executing a validation query. Use a value less than or equal to 0 for no timeout.
      * <p>
-     * Note: this method currently has no effect once the pool has been initialized. The pool is initialized the first
-     * time one of the following methods is invoked: {@link #getConnection()}, {@link #setLogWriter(PrintWriter)},
-     * {@link #setLoginTimeout(int)}, {@link #getLoginTimeout()}, {@link #getLogWriter()}.
+     * Note: once the pool has been initialized, a new value applies to the next validation.
      * </p>
      *
      * @param validationQueryTimeoutSeconds new validation query timeout value in seconds
@@ -2631,7 +3222,8 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      */
     @Deprecated
     public void setValidationQueryTimeout(final int validationQueryTimeoutSeconds) {
-        this.validationQueryTimeoutDuration = Duration.ofSeconds(validationQueryTimeoutSeconds);
+        updateConfig(c -> c.validationQueryTimeoutDuration = Duration.ofSeconds(validationQueryTimeoutSeconds));
+        setConnectionFactory(PoolableConnectionFactory::setValidationQueryTimeout, config.validationQueryTimeoutDuration);
     }
 
     /**
@@ -2661,8 +3253,76 @@ public class BasicDataSource implements DataSource, BasicDataSourceMXBean, MBean
      * Starts the connection pool maintenance task, if configured.
      */
     protected void startPoolMaintenance() {
-        if (connectionPool != null && durationBetweenEvictionRuns.compareTo(Duration.ZERO) > 0) {
-            connectionPool.setDurationBetweenEvictionRuns(durationBetweenEvictionRuns);
+        startPoolMaintenance(config);
+    }
+
+    /**
+     * Starts the connection pool maintenance task, if configured in the given configuration.
+     *
+     * @param config the configuration snapshot.
+     */
+    private void startPoolMaintenance(final BasicDataSourceConfig config) {
+        if (connectionPool != null && config.durationBetweenEvictionRuns.compareTo(Duration.ZERO) > 0) {
+            connectionPool.setDurationBetweenEvictionRuns(config.durationBetweenEvictionRuns);
+        }
+    }
+
+    /**
+     * Warms up a new pool from the snapshot saved when it last closed: opens as many connections as were active at the
+     * peak and, when statements are pooled, prepares the hottest statements on each of them. Failures are logged, the
+     * pool then starts cold. Runs once the pool is published, without the lock of this data source, and takes no
+     * connection a borrower waits for.
+     *
+     * @param config the configuration of the new pool.
+     * @param pool the new pool.
+     */
+    private void warmUp(final BasicDataSourceConfig config, final GenericObjectPool<PoolableConnection> pool) {
+        final PoolStateSnapshot snapshot;
+        try {
+            snapshot = PoolStateSnapshot.read(Paths.get(config.snapshotFile));
+        } catch (final IOException | RuntimeException e) {
+            log.warn(Utils.getMessage("basicDataSource.snapshot.readFail", config.snapshotFile), e);
+            return;
+        }
+        if (snapshot == null) {
+            return;
+        }
+        int size = snapshot.getPeakActive();
+        for (final int limit : new int[] { snapshot.getMaxTotal(), config.maxTotal, config.maxIdle }) {
+            if (limit >= 0) {
+                size = Math.min(size, limit);
+            }
+        }
+        List<String> statements = config.poolPreparedStatements ? snapshot.getStatements() : Collections.emptyList();
+        if (config.maxOpenPreparedStatements >= 0 && statements.size() > config.maxOpenPreparedStatements) {
+            statements = statements.subList(0, config.maxOpenPreparedStatements);
+        }
+        final List<PoolableConnection> connections = new ArrayList<>();
+        try {
+            pool.addObjects(size - pool.getNumIdle());
+            if (!statements.isEmpty()) {
+                for (int i = 0; i < size; i++) {
+                    final PoolableConnection connection;
+                    try {
+                        // Never wait, borrowers come first.
+                        connection = pool.borrowObject(Duration.ZERO);
+                    } catch (final NoSuchElementException e) {
+                        break;
+                    }
+                    connections.add(connection);
+                    for (final String sql : statements) {
+                        try {
+                            connection.prepareStatement(sql).close();
+                        } catch (final SQLException e) {
+                            // The schema may have changed since the snapshot was saved
+                        }
+                    }
+                }
+            }
+        } catch (final Exception e) {
+            log.warn(Utils.getMessage("basicDataSource.snapshot.warmUpFail", config.snapshotFile), e);
+        } finally {
+            connections.forEach(c -> Utils.closeQuietly((AutoCloseable) c));
         }
     }
 
@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.pool2.impl.AbandonedConfig;
+import org.apache.commons.pool2.impl.BaseObjectPoolConfig;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+/**
+ * The configuration of a {@link BasicDataSource}.
+ * <p>
+ * An instance is never modified once published: {@link BasicDataSource} copies the current instance, changes the copy
+ * and publishes it through a volatile field, so configuration reads need no lock and see a consistent set of values.
+ * The mutable {@link #connectionProperties} and {@link #abandonedConfig} are replaced by changed copies as well.
+ * </p>
+ *
+ * @since 2.15.0
+ */
+final class BasicDataSourceConfig implements Cloneable {
+
+    /**
+     * The instance of the JDBC Driver to use.
+     */
+    Driver driver;
+
+    /**
+     * The fully qualified Java class name of the JDBC driver to be used.
+     */
+    String driverClassName;
+
+    /**
+     * The class loader instance to use to load the JDBC driver. If not specified, {@link Class#forName(String)} is used
+     * to load the JDBC driver. If specified, {@link Class#forName(String, boolean, ClassLoader)} is used.
+     */
+    ClassLoader driverClassLoader;
+
+    /**
+     * True means that borrowObject returns the most recently used ("last in") connection in the pool (if there are idle
+     * connections available). False means that the pool behaves as a FIFO queue - connections are taken from the idle
+     * instance pool in the order that they are returned to the pool.
+     */
+    boolean lifo = BaseObjectPoolConfig.DEFAULT_LIFO;
+
+    /**
+     * The maximum number of active connections that can be allocated from this pool at the same time, or negative for
+     * no limit.
+     */
+    int maxTotal = GenericObjectPoolConfig.DEFAULT_MAX_TOTAL;
+
+    /**
+     * The maximum number of connections that can remain idle in the pool, without extra ones being destroyed, or
+     * negative for no limit. If maxIdle is set too low on heavily loaded systems it is possible you will see
+     * connections being closed and almost immediately new connections being opened. This is a result of the active
+     * threads momentarily closing connections faster than they are opening them, causing the number of idle connections
+     * to rise above maxIdle. The best value for maxIdle for heavily loaded system will vary but the default is a good
+     * starting point.
+     */
+    int maxIdle = GenericObjectPoolConfig.DEFAULT_MAX_IDLE;
+
+    /**
+     * The minimum number of active connections that can remain idle in the pool, without extra ones being created when
+     * the evictor runs, or 0 to create none. The pool attempts to ensure that minIdle connections are available when
+     * the idle object evictor runs. The value of this property has no effect unless
+     * {@link #durationBetweenEvictionRuns} has a positive value.
+     */
+    int minIdle = GenericObjectPoolConfig.DEFAULT_MIN_IDLE;
+
+    /**
+     * The initial number of connections that are created when the pool is started.
+     */
+    int initialSize;
+
+    /**
+     * The maximum Duration that the pool will wait (when there are no available connections) for a
+     * connection to be returned before throwing an exception, or <= 0 to wait indefinitely.
+     */
+    Duration maxWaitDuration = BaseObjectPoolConfig.DEFAULT_MAX_WAIT;
+
+    /**
+     * Prepared statement pooling for this pool. When this property is set to {@code true} both PreparedStatements
+     * and CallableStatements are pooled.
+     */
+    boolean poolPreparedStatements;
+
+    /**
+     * <p>
+     * The maximum number of open statements that can be allocated from the statement pool at the same time, or negative
+     * for no limit. Since a connection usually only uses one or two statements at a time, this is mostly used to help
+     * detect resource leaks.
+     * </p>
+     * <p>
+     * Note: As of version 1.3, CallableStatements (those produced by {@link Connection#prepareCall}) are pooled along
+     * with PreparedStatements (produced by {@link Connection#prepareStatement}) and
+     * {@code maxOpenPreparedStatements} limits the total number of prepared or callable statements that may be in
+     * use at a given time.
+     * </p>
+     */
+    int maxOpenPreparedStatements = GenericKeyedObjectPoolConfig.DEFAULT_MAX_TOTAL;
+
+    /**
+     * The indication of whether objects will be validated as soon as they have been created by the pool. If the object
+     * fails to validate, the borrow operation that triggered the creation will fail.
+     */
+    boolean testOnCreate;
+
+    /**
+     * The indication of whether objects will be validated before being borrowed from the pool. If the object fails to
+     * validate, it will be dropped from the pool, and we will attempt to borrow another.
+     */
+    boolean testOnBorrow = true;
+
+    /**
+     * The indication of whether objects will be validated before being returned to the pool.
+     */
+    boolean testOnReturn;
+
+    /**
+     * The number of milliseconds to sleep between runs of the idle object evictor thread. When non-positive, no idle
+     * object evictor thread will be run.
+     */
+    Duration durationBetweenEvictionRuns = BaseObjectPoolConfig.DEFAULT_DURATION_BETWEEN_EVICTION_RUNS;
+
+    /**
+     * The number of objects to examine during each run of the idle object evictor thread (if any).
+     */
+    int numTestsPerEvictionRun = BaseObjectPoolConfig.DEFAULT_NUM_TESTS_PER_EVICTION_RUN;
+
+    /**
+     * The minimum amount of time an object may sit idle in the pool before it is eligible for eviction by the idle
+     * object evictor (if any).
+     */
+    Duration minEvictableIdleDuration = BaseObjectPoolConfig.DEFAULT_MIN_EVICTABLE_IDLE_DURATION;
+
+    /**
+     * The minimum amount of time a connection may sit idle in the pool before it is eligible for eviction by the idle
+     * object evictor, with the extra condition that at least "minIdle" connections remain in the pool. Note that
+     * {@code minEvictableIdleTimeMillis} takes precedence over this parameter. See
+     * {@link BasicDataSource#getSoftMinEvictableIdleDuration()}.
+     */
+    Duration softMinEvictableIdleDuration = BaseObjectPoolConfig.DEFAULT_SOFT_MIN_EVICTABLE_IDLE_DURATION;
+
+    String evictionPolicyClassName = BaseObjectPoolConfig.DEFAULT_EVICTION_POLICY_CLASS_NAME;
+
+    /**
+     * The indication of whether objects will be validated by the idle object evictor (if any). If an object fails to
+     * validate, it will be dropped from the pool.
+     */
+    boolean testWhileIdle;
+
+    /**
+     * The connection string to be passed to our JDBC driver to establish a connection.
+     */
+    String connectionString;
+
+    /**
+     * Whether the pool size is adjusted to the observed load on each eviction run.
+     */
+    boolean adaptiveSizing;
+
+    /**
+     * The lower bound of the effective maxTotal when {@link #adaptiveSizing} is enabled.
+     */
+    int adaptiveMinTotal = 1;
+
+    /**
+     * The mean borrow wait above which the pool grows when {@link #adaptiveSizing} is enabled.
+     */
+    Duration adaptiveTargetBorrowWait = Duration.ofMillis(10);
+
+    /**
+     * The file the pool state is saved to on close and warmed up from on start, null to disable.
+     */
+    String snapshotFile;
+
+    /**
+     * The default auto-commit state of connections created by this pool.
+     */
+    Boolean defaultAutoCommit;
+
+    /**
+     * The default read-only state of connections created by this pool.
+     */
+    Boolean defaultReadOnly;
+
+    /**
+     * The default TransactionIsolation state of connections created by this pool.
+     */
+    int defaultTransactionIsolation = PoolableConnectionFactory.UNKNOWN_TRANSACTION_ISOLATION;
+
+    Duration defaultQueryTimeoutDuration;
+
+    /**
+     * The default "catalog" of connections created by this pool.
+     */
+    String defaultCatalog;
+
+    /**
+     * The default "schema" of connections created by this pool.
+     */
+    String defaultSchema;
+
+    /**
+     * The property that controls if the pooled connections cache some state rather than query the database for current
+     * state to improve performance.
+     */
+    boolean cacheState = true;
+
+    boolean clearStatementPoolOnReturn;
+
+    /**
+     * The connection password to be passed to our JDBC driver to establish a connection.
+     */
+    String password;
+
+    /**
+     * The connection user name to be passed to our JDBC driver to establish a connection.
+     */
+    String userName;
+
+    /**
+     * The SQL query that will be used to validate connections from this pool before returning them to the caller. If
+     * specified, this query <strong>MUST</strong> be an SQL SELECT statement that returns at least one row. If not
+     * specified, {@link Connection#isValid(int)} will be used to validate connections.
+     */
+    String validationQuery;
+
+    /**
+     * Timeout in seconds before connection validation queries fail.
+     */
+    Duration validationQueryTimeoutDuration = Duration.ofSeconds(-1);
+
+    /**
+     * The fully qualified Java class name of a {@link ConnectionFactory} implementation.
+     */
+    String connectionFactoryClassName;
+
+    /**
+     * These SQL statements run once after a Connection is created.
+     * <p>
+     * This property can be used for example to run ALTER SESSION SET NLS_SORT=XCYECH in an Oracle Database only once
+     * after connection creation.
+     * </p>
+     */
+    List<String> connectionInitSqls;
+
+    /**
+     * Controls access to the underlying connection.
+     */
+    boolean accessToUnderlyingConnectionAllowed;
+
+    Duration maxConnDuration = Duration.ofMillis(-1);
+
+    Duration maxConnLifetimeJitter = Duration.ZERO;
+
+    /**
+     * Whether the evictor retires idle connections before they reach their maximum lifetime.
+     */
+    boolean replaceExpiringConnections;
+
+    boolean logExpiredConnections = true;
+
+    String jmxName;
+
+    boolean registerConnectionMBean = true;
+
+    boolean autoCommitOnReturn = true;
+
+    boolean rollbackOnReturn = true;
+
+    Set<String> disconnectionSqlCodes;
+
+    /**
+     * A collection of SQL State codes that are not considered fatal disconnection codes.
+     *
+     * @since 2.13.0
+     */
+    Set<String> disconnectionIgnoreSqlCodes;
+
+    int disconnectionWaveThreshold;
+
+    Duration disconnectionWaveWindow = Duration.ofSeconds(10);
+
+    boolean fastFailValidation;
+
+    /**
+     * Whether connections ask the driver if they are closed when they are returned to the pool.
+     */
+    boolean checkClosedOnReturn = true;
+
+    /**
+     * Whether statements recycle an untraced result set wrapper instead of creating a traced one per result set.
+     */
+    boolean thinResultSets;
+
+    /**
+     * Whether statements hand out the driver's result sets behind a minimal close-tracking wrapper.
+     */
+    boolean directResultSets;
+
+    /**
+     * Whether borrowers wait in priority lanes when the pool is exhausted.
+     */
+    boolean priorityLanes;
+
+    /**
+     * The bulkhead partitions and their share of maxTotal, empty when partitions are disabled.
+     */
+    Map<String, Integer> partitions = Collections.emptyMap();
+
+    /**
+     * The connection properties that will be sent to our JDBC driver when establishing new connections.
+     * <strong>NOTE</strong> - The "user" and "password" properties will be passed explicitly, so they do not need to be
+     * included here.
+     */
+    Properties connectionProperties = new Properties();
+
+    AbandonedConfig abandonedConfig;
+
+    /**
+     * Copies this instance, to be changed before it is published.
+     *
+     * @return a copy of this instance.
+     */
+    BasicDataSourceConfig copy() {
+        try {
+            return (BasicDataSourceConfig) clone();
+        } catch (final CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
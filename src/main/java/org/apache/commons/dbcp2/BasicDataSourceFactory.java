@@ -116,6 +116,19 @@ public class BasicDataSourceFactory implements ObjectFactory {
     private static final String PROP_ENABLE_AUTO_COMMIT_ON_RETURN = "enableAutoCommitOnReturn";
     private static final String PROP_DEFAULT_QUERY_TIMEOUT = "defaultQueryTimeout";
     private static final String PROP_FAST_FAIL_VALIDATION = "fastFailValidation";
+    private static final String PROP_THIN_RESULT_SETS = "thinResultSets";
+    private static final String PROP_DIRECT_RESULT_SETS = "directResultSets";
+    private static final String PROP_PRIORITY_LANES = "priorityLanes";
+    private static final String PROP_PARTITIONS = "partitions";
+    private static final String PROP_ADAPTIVE_SIZING = "adaptiveSizing";
+    private static final String PROP_ADAPTIVE_MIN_TOTAL = "adaptiveMinTotal";
+    private static final String PROP_ADAPTIVE_TARGET_BORROW_WAIT_MILLIS = "adaptiveTargetBorrowWaitMillis";
+    private static final String PROP_DISCONNECTION_WAVE_THRESHOLD = "disconnectionWaveThreshold";
+    private static final String PROP_DISCONNECTION_WAVE_WINDOW_MILLIS = "disconnectionWaveWindowMillis";
+    private static final String PROP_MAX_CONN_LIFETIME_JITTER_MILLIS = "maxConnLifetimeJitterMillis";
+    private static final String PROP_REPLACE_EXPIRING_CONNECTIONS = "replaceExpiringConnections";
+    private static final String PROP_CHECK_CLOSED_ON_RETURN = "checkClosedOnReturn";
+    private static final String PROP_SNAPSHOT_FILE = "snapshotFile";
 
     /**
      * Value string must be of the form [STATE_CODE,]*
@@ -169,7 +182,11 @@ public class BasicDataSourceFactory implements ObjectFactory {
             PROP_MAX_CONN_LIFETIME_MILLIS, PROP_LOG_EXPIRED_CONNECTIONS, PROP_ROLLBACK_ON_RETURN,
             PROP_ENABLE_AUTO_COMMIT_ON_RETURN, PROP_DEFAULT_QUERY_TIMEOUT, PROP_FAST_FAIL_VALIDATION,
             PROP_DISCONNECTION_SQL_CODES, PROP_DISCONNECTION_IGNORE_SQL_CODES, PROP_JMX_NAME,
-            PROP_REGISTER_CONNECTION_MBEAN, PROP_CONNECTION_FACTORY_CLASS_NAME
+            PROP_REGISTER_CONNECTION_MBEAN, PROP_CONNECTION_FACTORY_CLASS_NAME, PROP_THIN_RESULT_SETS,
+            PROP_DIRECT_RESULT_SETS, PROP_PRIORITY_LANES, PROP_PARTITIONS,
+            PROP_ADAPTIVE_SIZING, PROP_ADAPTIVE_MIN_TOTAL, PROP_ADAPTIVE_TARGET_BORROW_WAIT_MILLIS,
+            PROP_DISCONNECTION_WAVE_THRESHOLD, PROP_DISCONNECTION_WAVE_WINDOW_MILLIS, PROP_MAX_CONN_LIFETIME_JITTER_MILLIS,
+            PROP_REPLACE_EXPIRING_CONNECTIONS, PROP_CHECK_CLOSED_ON_RETURN, PROP_SNAPSHOT_FILE
     )));
 
     /**
@@ -334,6 +351,19 @@ public class BasicDataSourceFactory implements ObjectFactory {
         acceptBoolean(properties, PROP_ROLLBACK_ON_RETURN, dataSource::setRollbackOnReturn);
         acceptDurationOfSeconds(properties, PROP_DEFAULT_QUERY_TIMEOUT, dataSource::setDefaultQueryTimeout);
         acceptBoolean(properties, PROP_FAST_FAIL_VALIDATION, dataSource::setFastFailValidation);
+        acceptBoolean(properties, PROP_THIN_RESULT_SETS, dataSource::setThinResultSets);
+        acceptBoolean(properties, PROP_DIRECT_RESULT_SETS, dataSource::setDirectResultSets);
+        acceptBoolean(properties, PROP_PRIORITY_LANES, dataSource::setPriorityLanes);
+        acceptString(properties, PROP_PARTITIONS, dataSource::setPartitions);
+        acceptBoolean(properties, PROP_ADAPTIVE_SIZING, dataSource::setAdaptiveSizing);
+        acceptInt(properties, PROP_ADAPTIVE_MIN_TOTAL, dataSource::setAdaptiveMinTotal);
+        acceptDurationOfMillis(properties, PROP_ADAPTIVE_TARGET_BORROW_WAIT_MILLIS, dataSource::setAdaptiveTargetBorrowWait);
+        acceptInt(properties, PROP_DISCONNECTION_WAVE_THRESHOLD, dataSource::setDisconnectionWaveThreshold);
+        acceptDurationOfMillis(properties, PROP_DISCONNECTION_WAVE_WINDOW_MILLIS, dataSource::setDisconnectionWaveWindow);
+        acceptDurationOfMillis(properties, PROP_MAX_CONN_LIFETIME_JITTER_MILLIS, dataSource::setMaxConnLifetimeJitter);
+        acceptBoolean(properties, PROP_REPLACE_EXPIRING_CONNECTIONS, dataSource::setReplaceExpiringConnections);
+        acceptBoolean(properties, PROP_CHECK_CLOSED_ON_RETURN, dataSource::setCheckClosedOnReturn);
+        acceptString(properties, PROP_SNAPSHOT_FILE, dataSource::setSnapshotFile);
         getOptional(properties, PROP_DISCONNECTION_SQL_CODES).ifPresent(v -> dataSource.setDisconnectionSqlCodes(parseList(v, ',')));
         getOptional(properties, PROP_DISCONNECTION_IGNORE_SQL_CODES).ifPresent(v -> dataSource.setDisconnectionIgnoreSqlCodes(parseList(v, ',')));
         acceptString(properties, PROP_CONNECTION_FACTORY_CLASS_NAME, dataSource::setConnectionFactoryClassName);
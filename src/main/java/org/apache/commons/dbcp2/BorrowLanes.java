@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Admits connection borrowers to a pool through one wait lane per {@link BorrowPriority}.
+ * <p>
+ * At most {@code maxTotal} borrowers hold a permit at any time. When none is available, borrowers wait in the lane of
+ * their priority. A released permit goes to the longest waiting borrower of the highest priority lane, so a backlog of
+ * low priority borrowers cannot delay high priority ones. Borrowers that arrive while others of the same or a higher
+ * priority wait queue behind them.
+ * </p>
+ * <p>
+ * Wait times are recorded per lane.
+ * </p>
+ *
+ * @see PoolingDataSource#setPriorityLanes(boolean)
+ * @since 2.15.0
+ */
+public final class BorrowLanes {
+
+    private static final BorrowPriority[] PRIORITIES = BorrowPriority.values();
+
+    private final IntSupplier maxTotal;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition[] conditions = new Condition[PRIORITIES.length];
+
+    private final int[] waiting = new int[PRIORITIES.length];
+
+    private final long[] borrowCount = new long[PRIORITIES.length];
+
+    private final long[] timeoutCount = new long[PRIORITIES.length];
+
+    private final long[] totalWaitNanos = new long[PRIORITIES.length];
+
+    private final long[] maxWaitNanos = new long[PRIORITIES.length];
+
+    private int active;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxTotal supplies the maximum number of permits, a negative value for no limit.
+     */
+    BorrowLanes(final IntSupplier maxTotal) {
+        this.maxTotal = maxTotal;
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = lock.newCondition();
+        }
+    }
+
+    /**
+     * Acquires a permit, waiting in the lane of the given priority if none is available.
+     *
+     * @param priority the borrower's priority.
+     * @param maxWait the maximum duration to wait, a negative value to wait forever.
+     * @return true if a permit was acquired, false if the wait timed out.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    boolean acquire(final BorrowPriority priority, final Duration maxWait) throws InterruptedException {
+        final int lane = priority.ordinal();
+        final long startNanos = System.nanoTime();
+        lock.lock();
+        try {
+            if (!canEnter(lane + 1)) {
+                final boolean forever = maxWait.isNegative();
+                long remainingNanos = forever ? 0 : maxWait.toNanos();
+                waiting[lane]++;
+                try {
+                    while (!canEnter(lane)) {
+                        if (forever) {
+                            conditions[lane].await();
+                        } else if (remainingNanos <= 0) {
+                            timeoutCount[lane]++;
+                            return false;
+                        } else {
+                            remainingNanos = conditions[lane].awaitNanos(remainingNanos);
+                        }
+                    }
+                } finally {
+                    waiting[lane]--;
+                    // Pass on a signal we may have consumed without taking the permit.
+                    signalNext();
+                }
+            }
+            active++;
+            final long waitNanos = System.nanoTime() - startNanos;
+            borrowCount[lane]++;
+            totalWaitNanos[lane] += waitNanos;
+            maxWaitNanos[lane] = Math.max(maxWaitNanos[lane], waitNanos);
+            signalNext();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires a permit without waiting, unless a borrower of the same or a higher priority is waiting for one.
+     *
+     * @param priority the borrower's priority.
+     * @return true if a permit was acquired.
+     */
+    boolean tryAcquire(final BorrowPriority priority) {
+        final int lane = priority.ordinal();
+        lock.lock();
+        try {
+            if (!canEnter(lane + 1)) {
+                return false;
+            }
+            active++;
+            borrowCount[lane]++;
+            signalNext();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tests whether a borrower may take a permit now.
+     *
+     * @param blockingLanes the number of lanes, starting with the highest priority, whose waiters go first.
+     * @return whether the borrower may take a permit.
+     */
+    private boolean canEnter(final int blockingLanes) {
+        if (!hasCapacity()) {
+            return false;
+        }
+        for (int i = 0; i < blockingLanes; i++) {
+            if (waiting[i] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of permits currently held.
+     *
+     * @return the number of permits currently held.
+     */
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of permits granted in the given lane.
+     *
+     * @param priority the lane.
+     * @return the number of permits granted in the given lane.
+     */
+    public long getBorrowCount(final BorrowPriority priority) {
+        lock.lock();
+        try {
+            return borrowCount[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the longest time a borrower waited for a permit in the given lane.
+     *
+     * @param priority the lane.
+     * @return the longest time a borrower waited for a permit in the given lane.
+     */
+    public Duration getMaxWaitDuration(final BorrowPriority priority) {
+        lock.lock();
+        try {
+            return Duration.ofNanos(maxWaitNanos[priority.ordinal()]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the mean time borrowers waited for a permit in the given lane.
+     *
+     * @param priority the lane.
+     * @return the mean time borrowers waited for a permit in the given lane.
+     */
+    public Duration getMeanWaitDuration(final BorrowPriority priority) {
+        lock.lock();
+        try {
+            final int lane = priority.ordinal();
+            return borrowCount[lane] == 0 ? Duration.ZERO : Duration.ofNanos(totalWaitNanos[lane] / borrowCount[lane]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of borrowers in the given lane that timed out waiting for a permit.
+     *
+     * @param priority the lane.
+     * @return the number of borrowers in the given lane that timed out.
+     */
+    public long getTimeoutCount(final BorrowPriority priority) {
+        lock.lock();
+        try {
+            return timeoutCount[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of borrowers currently waiting in the given lane.
+     *
+     * @param priority the lane.
+     * @return the number of borrowers currently waiting in the given lane.
+     */
+    public int getWaiting(final BorrowPriority priority) {
+        lock.lock();
+        try {
+            return waiting[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasCapacity() {
+        final int max = maxTotal.getAsInt();
+        return max < 0 || active < max;
+    }
+
+    /**
+     * Releases a permit, handing it to the longest waiting borrower of the highest priority lane.
+     */
+    void release() {
+        lock.lock();
+        try {
+            active--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up the longest waiting borrower of the highest priority lane if a permit is available. Call with the lock
+     * held.
+     */
+    private void signalNext() {
+        if (hasCapacity()) {
+            for (int i = 0; i < waiting.length; i++) {
+                if (waiting[i] > 0) {
+                    conditions[i].signal();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(getClass().getSimpleName()).append(" [active=").append(getActive());
+        for (final BorrowPriority priority : PRIORITIES) {
+            builder.append(", ").append(priority).append("[waiting=").append(getWaiting(priority)).append(", borrowCount=")
+                    .append(getBorrowCount(priority)).append(", meanWait=").append(getMeanWaitDuration(priority)).append(']');
+        }
+        return builder.append(']').toString();
+    }
+}
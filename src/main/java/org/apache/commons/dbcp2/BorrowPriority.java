@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+/**
+ * The priority of a connection borrower, used by {@link BorrowLanes} to decide who is served first when the pool is
+ * exhausted.
+ * <p>
+ * A priority can be given explicitly with {@link PoolingDataSource#getConnection(BorrowPriority)} or set for the
+ * current thread with {@link #setCurrent(BorrowPriority)}, in which case {@link PoolingDataSource#getConnection()} uses
+ * it.
+ * </p>
+ *
+ * @since 2.15.0
+ */
+public enum BorrowPriority {
+
+    /** Latency critical borrowers, served before all others. */
+    HIGH,
+
+    /** The default priority. */
+    NORMAL,
+
+    /** Background borrowers, served only when no other borrower waits. */
+    LOW;
+
+    private static final ThreadLocal<BorrowPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Gets the borrow priority of the current thread.
+     *
+     * @return the borrow priority of the current thread, {@link #NORMAL} if none is set.
+     */
+    public static BorrowPriority current() {
+        final BorrowPriority priority = CURRENT.get();
+        return priority != null ? priority : NORMAL;
+    }
+
+    /**
+     * Sets the borrow priority of the current thread.
+     *
+     * @param priority the borrow priority of the current thread, null to reset it to {@link #NORMAL}.
+     */
+    public static void setCurrent(final BorrowPriority priority) {
+        if (priority == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(priority);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Splits the connections of a single pool into named bulkhead partitions.
+ * <p>
+ * Each partition owns a share of the pool's {@code maxTotal}. The connections not assigned to any partition form a
+ * shared overflow which partitions use once their own share is exhausted. Borrowers without a partition, or with an
+ * unknown one, only use the overflow. A partition which exhausted both its share and the overflow waits, so a single
+ * busy partition cannot take the connections reserved for the others.
+ * </p>
+ * <p>
+ * The partition of a borrower is given with {@link PoolingDataSource#getPartitionConnection(String)} or set for the
+ * current thread with {@link #setCurrentPartition(String)}.
+ * </p>
+ *
+ * @see PoolingDataSource#setPartitions(Map)
+ * @since 2.15.0
+ */
+public final class BulkheadPartitions {
+
+    /**
+     * Tracks the connections of one partition.
+     */
+    private static final class Partition {
+
+        private final int share;
+        private final Condition released;
+        private int active;
+        private int overflowActive;
+        private int waiting;
+        private long timeoutCount;
+
+        Partition(final int share, final Condition released) {
+            this.share = share;
+            this.released = released;
+        }
+    }
+
+    private static final ThreadLocal<String> CURRENT_PARTITION = new ThreadLocal<>();
+
+    /**
+     * Gets the partition of the current thread.
+     *
+     * @return the partition of the current thread, may be null.
+     */
+    public static String getCurrentPartition() {
+        return CURRENT_PARTITION.get();
+    }
+
+    /**
+     * Sets the partition of the current thread.
+     *
+     * @param partition the partition of the current thread, null to use the overflow only.
+     */
+    public static void setCurrentPartition(final String partition) {
+        if (partition == null) {
+            CURRENT_PARTITION.remove();
+        } else {
+            CURRENT_PARTITION.set(partition);
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String, Partition> partitions = new LinkedHashMap<>();
+
+    /** Tracks borrowers without a known partition, which only use the overflow. */
+    private final Partition unassigned = new Partition(0, lock.newCondition());
+
+    private final int reserved;
+
+    private final IntSupplier maxTotal;
+
+    private int overflowActive;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param shares the share of each partition.
+     * @param maxTotal supplies the pool's maximum number of connections, a negative value for no limit.
+     * @throws IllegalArgumentException if a share is not positive or the shares add up to more than maxTotal.
+     */
+    BulkheadPartitions(final Map<String, Integer> shares, final IntSupplier maxTotal) {
+        int sum = 0;
+        for (final Map.Entry<String, Integer> entry : shares.entrySet()) {
+            final int share = entry.getValue();
+            if (share <= 0) {
+                throw new IllegalArgumentException("Partition " + entry.getKey() + " share must be positive: " + share);
+            }
+            partitions.put(entry.getKey(), new Partition(share, lock.newCondition()));
+            sum += share;
+        }
+        final int max = maxTotal.getAsInt();
+        if (max >= 0 && sum > max) {
+            throw new IllegalArgumentException("Partition shares add up to " + sum + ", more than maxTotal " + max);
+        }
+        this.reserved = sum;
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Acquires a connection slot in the given partition, waiting if both its share and the overflow are exhausted.
+     *
+     * @param name the partition, may be null.
+     * @param maxWait the maximum duration to wait, a negative value to wait forever.
+     * @return true if a slot was acquired, false if the wait timed out.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    boolean acquire(final String name, final Duration maxWait) throws InterruptedException {
+        final Partition partition = getPartition(name);
+        final boolean forever = maxWait.isNegative();
+        long remainingNanos = forever ? 0 : maxWait.toNanos();
+        lock.lock();
+        try {
+            partition.waiting++;
+            boolean acquired = false;
+            try {
+                while (true) {
+                    if (partition.active < partition.share) {
+                        partition.active++;
+                        acquired = true;
+                        return true;
+                    }
+                    if (hasOverflow()) {
+                        partition.active++;
+                        partition.overflowActive++;
+                        overflowActive++;
+                        acquired = true;
+                        return true;
+                    }
+                    if (forever) {
+                        partition.released.await();
+                    } else if (remainingNanos <= 0) {
+                        partition.timeoutCount++;
+                        return false;
+                    } else {
+                        remainingNanos = partition.released.awaitNanos(remainingNanos);
+                    }
+                }
+            } finally {
+                partition.waiting--;
+                if (!acquired) {
+                    // Pass on a signal we may have consumed without taking the slot.
+                    signalNext(partition);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires a connection slot in the given partition without waiting.
+     *
+     * @param name the partition, may be null.
+     * @return true if a slot was acquired.
+     */
+    boolean tryAcquire(final String name) {
+        final Partition partition = getPartition(name);
+        lock.lock();
+        try {
+            if (partition.active < partition.share) {
+                partition.active++;
+                return true;
+            }
+            if (hasOverflow()) {
+                partition.active++;
+                partition.overflowActive++;
+                overflowActive++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connections currently held by borrowers of the given partition.
+     *
+     * @param name the partition, null for borrowers without a known partition.
+     * @return the number of connections currently held.
+     */
+    public int getActive(final String name) {
+        lock.lock();
+        try {
+            return getPartition(name).active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connections not assigned to any partition.
+     *
+     * @return the size of the shared overflow, -1 for no limit.
+     */
+    public int getOverflow() {
+        final int max = maxTotal.getAsInt();
+        return max < 0 ? -1 : Math.max(0, max - reserved);
+    }
+
+    /**
+     * Gets the number of overflow connections currently held.
+     *
+     * @return the number of overflow connections currently held.
+     */
+    public int getOverflowActive() {
+        lock.lock();
+        try {
+            return overflowActive;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Partition getPartition(final String name) {
+        final Partition partition = name != null ? partitions.get(name) : null;
+        return partition != null ? partition : unassigned;
+    }
+
+    /**
+     * Gets the names of the partitions.
+     *
+     * @return the names of the partitions.
+     */
+    public Set<String> getPartitionNames() {
+        return Collections.unmodifiableSet(partitions.keySet());
+    }
+
+    /**
+     * Gets the number of connections reserved for the given partition.
+     *
+     * @param name the partition.
+     * @return the number of connections reserved for the given partition, 0 for an unknown partition.
+     */
+    public int getShare(final String name) {
+        return getPartition(name).share;
+    }
+
+    /**
+     * Gets the number of borrowers of the given partition that timed out waiting for a connection slot.
+     *
+     * @param name the partition, null for borrowers without a known partition.
+     * @return the number of borrowers that timed out.
+     */
+    public long getTimeoutCount(final String name) {
+        lock.lock();
+        try {
+            return getPartition(name).timeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of borrowers of the given partition currently waiting for a connection slot.
+     *
+     * @param name the partition, null for borrowers without a known partition.
+     * @return the number of borrowers currently waiting.
+     */
+    public int getWaiting(final String name) {
+        lock.lock();
+        try {
+            return getPartition(name).waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasOverflow() {
+        final int overflow = getOverflow();
+        return overflow < 0 || overflowActive < overflow;
+    }
+
+    /**
+     * Releases a connection slot of the given partition, overflow slots first.
+     *
+     * @param name the partition given to {@link #acquire(String, Duration)}.
+     */
+    void release(final String name) {
+        final Partition partition = getPartition(name);
+        lock.lock();
+        try {
+            partition.active--;
+            if (partition.overflowActive > 0) {
+                partition.overflowActive--;
+                overflowActive--;
+            }
+            signalNext(partition);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up one borrower that can use a free slot: a waiter of the given partition if its share has room, else any
+     * waiter if the overflow has room. Call with the lock held.
+     *
+     * @param partition the partition whose slot was freed.
+     */
+    private void signalNext(final Partition partition) {
+        if (partition.waiting > 0 && (partition.active < partition.share || hasOverflow())) {
+            partition.released.signal();
+        } else if (hasOverflow()) {
+            for (final Partition other : partitions.values()) {
+                if (other.waiting > 0) {
+                    other.released.signal();
+                    return;
+                }
+            }
+            if (unassigned.waiting > 0) {
+                unassigned.released.signal();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            final StringBuilder builder = new StringBuilder(getClass().getSimpleName()).append(" [overflow=").append(getOverflow())
+                    .append(", overflowActive=").append(overflowActive);
+            partitions.forEach((name, partition) -> builder.append(", ").append(name).append("[share=").append(partition.share)
+                    .append(", active=").append(partition.active).append(", waiting=").append(partition.waiting).append(']'));
+            return builder.append(']').toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -29,33 +29,34 @@ final class ConnectionFactoryFactory {
 
     /**
      * Creates a new {@link DriverConnectionFactory} allowing for an override through
-     * {@link BasicDataSource#getDriverClassName()}.
+     * {@link BasicDataSource#getConnectionFactoryClassName()}.
      *
-     * @param basicDataSource Configures creation.
+     * @param basicDataSource Logs failures.
+     * @param config          Configures creation, other than the connection string and credentials.
      * @param driver          The JDBC driver.
-     * @return a new {@link DriverConnectionFactory} allowing for a {@link BasicDataSource#getDriverClassName()}
-     *         override.
+     * @param url             The JDBC connection string.
+     * @param user            The user name, may be null.
+     * @param pwd             The password, may be null.
+     * @return a new connection factory.
      * @throws SQLException Thrown when instantiation fails.
      */
-    static ConnectionFactory createConnectionFactory(final BasicDataSource basicDataSource, final Driver driver)
-            throws SQLException {
-        final Properties connectionProperties = basicDataSource.getConnectionProperties();
-        final String url = basicDataSource.getUrl();
+    static ConnectionFactory createConnectionFactory(final BasicDataSource basicDataSource, final BasicDataSourceConfig config,
+            final Driver driver, final String url, final String user, final String pwd) throws SQLException {
+        // Copy, the properties of a published configuration are never modified.
+        final Properties connectionProperties = (Properties) config.connectionProperties.clone();
         // Set up the driver connection factory we will use
-        final String user = basicDataSource.getUserName();
         if (user != null) {
             connectionProperties.put(Constants.KEY_USER, user);
         } else {
             basicDataSource.log(String.format("DBCP DataSource configured without a '%s'", Constants.KEY_USER));
         }
 
-        final String pwd = basicDataSource.getPassword();
         if (pwd != null) {
             connectionProperties.put(Constants.KEY_PASSWORD, pwd);
         } else {
             basicDataSource.log(String.format("DBCP DataSource configured without a '%s'", Constants.KEY_PASSWORD));
         }
-        final String connectionFactoryClassName = basicDataSource.getConnectionFactoryClassName();
+        final String connectionFactoryClassName = config.connectionFactoryClassName;
         if (connectionFactoryClassName != null) {
             try {
                 final Class<?> connectionFactoryFromCCL = Class.forName(connectionFactoryClassName);
@@ -320,6 +320,16 @@ public interface DataSourceMXBean {
      */
     boolean isAccessToUnderlyingConnectionAllowed();
 
+    /**
+     * See {@link BasicDataSource#isCheckClosedOnReturn()}.
+     *
+     * @return {@link BasicDataSource#isCheckClosedOnReturn()}.
+     * @since 2.15.0
+     */
+    default boolean isCheckClosedOnReturn() {
+        return true;
+    }
+
     /**
      * See {@link BasicDataSource#isClearStatementPoolOnReturn()}.
      *
@@ -337,6 +347,16 @@ public interface DataSourceMXBean {
      */
     boolean isClosed();
 
+    /**
+     * See {@link BasicDataSource#isDirectResultSets()}.
+     *
+     * @return {@link BasicDataSource#isDirectResultSets()}.
+     * @since 2.15.0
+     */
+    default boolean isDirectResultSets() {
+        return false;
+    }
+
     /**
      * See {@link BasicDataSource#isPoolPreparedStatements()}.
      *
@@ -344,6 +364,86 @@ public interface DataSourceMXBean {
      */
     boolean isPoolPreparedStatements();
 
+    /**
+     * See {@link BasicDataSource#getAdaptiveMinTotal()}.
+     *
+     * @return {@link BasicDataSource#getAdaptiveMinTotal()}.
+     * @since 2.15.0
+     */
+    default int getAdaptiveMinTotal() {
+        return 1;
+    }
+
+    /**
+     * See {@link BasicDataSource#isAdaptiveSizing()}.
+     *
+     * @return {@link BasicDataSource#isAdaptiveSizing()}.
+     * @since 2.15.0
+     */
+    default boolean isAdaptiveSizing() {
+        return false;
+    }
+
+    /**
+     * See {@link BasicDataSource#getDisconnectionWaveThreshold()}.
+     *
+     * @return {@link BasicDataSource#getDisconnectionWaveThreshold()}.
+     * @since 2.15.0
+     */
+    default int getDisconnectionWaveThreshold() {
+        return 0;
+    }
+
+    /**
+     * See {@link BasicDataSource#getPartitions()}.
+     *
+     * @return {@link BasicDataSource#getPartitions()}.
+     * @since 2.15.0
+     */
+    default String getPartitions() {
+        return "";
+    }
+
+    /**
+     * See {@link BasicDataSource#getSnapshotFile()}.
+     *
+     * @return {@link BasicDataSource#getSnapshotFile()}.
+     * @since 2.15.0
+     */
+    default String getSnapshotFile() {
+        return null;
+    }
+
+    /**
+     * See {@link BasicDataSource#isReplaceExpiringConnections()}.
+     *
+     * @return {@link BasicDataSource#isReplaceExpiringConnections()}.
+     * @since 2.15.0
+     */
+    default boolean isReplaceExpiringConnections() {
+        return false;
+    }
+
+    /**
+     * See {@link BasicDataSource#isPriorityLanes()}.
+     *
+     * @return {@link BasicDataSource#isPriorityLanes()}.
+     * @since 2.15.0
+     */
+    default boolean isPriorityLanes() {
+        return false;
+    }
+
+    /**
+     * See {@link BasicDataSource#isThinResultSets()}.
+     *
+     * @return {@link BasicDataSource#isThinResultSets()}.
+     * @since 2.15.0
+     */
+    default boolean isThinResultSets() {
+        return false;
+    }
+
     /**
      * See {@link BasicDataSource#restart()}
      *
@@ -354,6 +454,15 @@ public interface DataSourceMXBean {
         // do nothing by default?
     }
 
+    /**
+     * See {@link BasicDataSource#retireConnections()}
+     *
+     * @since 2.15.0
+     */
+    default void retireConnections() {
+        // do nothing
+    }
+
     /**
      * See {@link BasicDataSource#start()}
      *
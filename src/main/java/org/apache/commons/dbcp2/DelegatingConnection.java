@@ -72,7 +72,18 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     private Boolean cachedReadOnly;
     private String cachedCatalog;
     private String cachedSchema;
+    private Integer cachedTransactionIsolation;
+    private Integer cachedHoldability;
+    private Integer cachedNetworkTimeout;
     private Duration defaultQueryTimeoutDuration;
+    private volatile boolean thinResultSets;
+    private volatile boolean directResultSets;
+
+    /** Whether a transaction may have been opened since the last passivation, new connections are unknown. */
+    private volatile boolean transactionDirty = true;
+
+    /** Whether warnings may have been added since the last passivation, new connections are unknown. */
+    private volatile boolean warningsDirty = true;
 
     /**
      * Creates a wrapper for the Connection which traces this Connection in the AbandonedObjectPool.
@@ -129,10 +140,14 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
      * directly.
      */
     public void clearCachedState() {
+        markTransactionDirty();
         cachedAutoCommit = null;
         cachedReadOnly = null;
         cachedSchema = null;
         cachedCatalog = null;
+        cachedTransactionIsolation = null;
+        cachedHoldability = null;
+        cachedNetworkTimeout = null;
         if (connection instanceof DelegatingConnection) {
             ((DelegatingConnection<?>) connection).clearCachedState();
         }
@@ -200,6 +215,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void commit() throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.commit();
         } catch (final SQLException e) {
@@ -210,6 +226,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Array createArrayOf(final String typeName, final Object[] elements) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.createArrayOf(typeName, elements);
         } catch (final SQLException e) {
@@ -221,6 +238,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Blob createBlob() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.createBlob();
         } catch (final SQLException e) {
@@ -232,6 +250,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Clob createClob() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.createClob();
         } catch (final SQLException e) {
@@ -243,6 +262,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public NClob createNClob() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.createNClob();
         } catch (final SQLException e) {
@@ -254,6 +274,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public SQLXML createSQLXML() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.createSQLXML();
         } catch (final SQLException e) {
@@ -266,6 +287,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Statement createStatement() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingStatement(this, connection.createStatement()));
         } catch (final SQLException e) {
@@ -278,6 +300,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Statement createStatement(final int resultSetType, final int resultSetConcurrency) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingStatement(this, connection.createStatement(resultSetType, resultSetConcurrency)));
         } catch (final SQLException e) {
@@ -291,6 +314,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public Statement createStatement(final int resultSetType, final int resultSetConcurrency,
             final int resultSetHoldability) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingStatement(this,
                 connection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability)));
@@ -303,6 +327,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Struct createStruct(final String typeName, final Object[] attributes) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.createStruct(typeName, attributes);
         } catch (final SQLException e) {
@@ -333,6 +358,9 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
      * <li>catalog</li>
      * <li>schema</li>
      * <li>read-only</li>
+     * <li>transaction isolation</li>
+     * <li>holdability</li>
+     * <li>network timeout</li>
      * </ul>
      *
      * @return the state caching flag
@@ -407,6 +435,8 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
      * @return my underlying {@link Connection}.
      */
     public C getDelegate() {
+        // The caller may run statements behind my back.
+        markTransactionDirty();
         return getDelegateInternal();
     }
 
@@ -422,8 +452,12 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public int getHoldability() throws SQLException {
         checkOpen();
+        if (cacheState && cachedHoldability != null) {
+            return cachedHoldability;
+        }
         try {
-            return connection.getHoldability();
+            cachedHoldability = connection.getHoldability();
+            return cachedHoldability;
         } catch (final SQLException e) {
             handleException(e);
             return 0;
@@ -445,6 +479,8 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
      * @return innermost delegate.
      */
     public Connection getInnermostDelegate() {
+        // The caller may run statements behind my back.
+        markTransactionDirty();
         return getInnermostDelegateInternal();
     }
 
@@ -469,6 +505,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public DatabaseMetaData getMetaData() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return new DelegatingDatabaseMetaData(this, connection.getMetaData());
         } catch (final SQLException e) {
@@ -480,8 +517,12 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public int getNetworkTimeout() throws SQLException {
         checkOpen();
+        if (cacheState && cachedNetworkTimeout != null) {
+            return cachedNetworkTimeout;
+        }
         try {
-            return Jdbc41Bridge.getNetworkTimeout(connection);
+            cachedNetworkTimeout = Jdbc41Bridge.getNetworkTimeout(connection);
+            return cachedNetworkTimeout;
         } catch (final SQLException e) {
             handleException(e);
             return 0;
@@ -506,8 +547,12 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public int getTransactionIsolation() throws SQLException {
         checkOpen();
+        if (cacheState && cachedTransactionIsolation != null) {
+            return cachedTransactionIsolation;
+        }
         try {
-            return connection.getTransactionIsolation();
+            cachedTransactionIsolation = connection.getTransactionIsolation();
+            return cachedTransactionIsolation;
         } catch (final SQLException e) {
             handleException(e);
             return -1;
@@ -648,6 +693,48 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
         return isValid(Duration.ofSeconds(timeoutSeconds));
     }
 
+    /**
+     * Tests whether statements created by this connection hand out the driver's result sets behind a minimal
+     * close-tracking wrapper instead of a {@link DelegatingResultSet}. A wrapper uses direct result sets when its
+     * delegate does.
+     *
+     * @return whether direct result sets are used.
+     * @since 2.15.0
+     */
+    public boolean isDirectResultSets() {
+        return directResultSets || connection instanceof DelegatingConnection && ((DelegatingConnection<?>) connection).isDirectResultSets();
+    }
+
+    /**
+     * Tests whether statements created by this connection recycle an untraced result set wrapper instead of creating
+     * and tracing a new {@link DelegatingResultSet} for each result set. A wrapper uses thin result sets when its
+     * delegate does.
+     *
+     * @return whether thin result set wrappers are used.
+     * @since 2.15.0
+     */
+    public boolean isThinResultSets() {
+        return thinResultSets || connection instanceof DelegatingConnection && ((DelegatingConnection<?>) connection).isThinResultSets();
+    }
+
+    /**
+     * Tests whether a transaction may have been opened through this connection since it was last passivated.
+     *
+     * @return whether a transaction may be open.
+     */
+    boolean isTransactionDirty() {
+        return transactionDirty;
+    }
+
+    /**
+     * Tests whether warnings may have been added through this connection since it was last passivated.
+     *
+     * @return whether warnings may be present.
+     */
+    boolean isWarningsDirty() {
+        return warningsDirty;
+    }
+
     @Override
     public boolean isWrapperFor(final Class<?> iface) throws SQLException {
         if (iface.isAssignableFrom(getClass()) || iface.isAssignableFrom(connection.getClass())) {
@@ -656,9 +743,36 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
         return connection.isWrapperFor(iface);
     }
 
+    /**
+     * Records that a transaction may have been opened, for example because a statement was created, which also means
+     * warnings may have been added. My delegates are marked too, since they may be passivated on their own.
+     *
+     * @since 2.15.0
+     */
+    protected void markTransactionDirty() {
+        transactionDirty = true;
+        warningsDirty = true;
+        if (connection instanceof DelegatingConnection) {
+            ((DelegatingConnection<?>) connection).markTransactionDirty();
+        }
+    }
+
+    /**
+     * Records that warnings may have been added, for example because a session property was set.
+     *
+     * @since 2.15.0
+     */
+    protected void markWarningsDirty() {
+        warningsDirty = true;
+        if (connection instanceof DelegatingConnection) {
+            ((DelegatingConnection<?>) connection).markWarningsDirty();
+        }
+    }
+
     @Override
     public String nativeSQL(final String sql) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             return connection.nativeSQL(sql);
         } catch (final SQLException e) {
@@ -686,12 +800,15 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
             }
         }
         setLastUsed(Instant.EPOCH);
+        transactionDirty = false;
+        warningsDirty = false;
     }
 
     @SuppressWarnings("resource") // Caller is responsible for closing the resource.
     @Override
     public CallableStatement prepareCall(final String sql) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingCallableStatement(this, connection.prepareCall(sql)));
         } catch (final SQLException e) {
@@ -705,6 +822,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public CallableStatement prepareCall(final String sql, final int resultSetType, final int resultSetConcurrency)
         throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingCallableStatement(this,
                 connection.prepareCall(sql, resultSetType, resultSetConcurrency)));
@@ -719,6 +837,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public CallableStatement prepareCall(final String sql, final int resultSetType, final int resultSetConcurrency,
             final int resultSetHoldability) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingCallableStatement(this,
                 connection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability)));
@@ -732,6 +851,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public PreparedStatement prepareStatement(final String sql) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingPreparedStatement(this, connection.prepareStatement(sql)));
         } catch (final SQLException e) {
@@ -744,6 +864,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public PreparedStatement prepareStatement(final String sql, final int autoGeneratedKeys) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingPreparedStatement(this, connection.prepareStatement(sql, autoGeneratedKeys)));
         } catch (final SQLException e) {
@@ -757,6 +878,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public PreparedStatement prepareStatement(final String sql, final int resultSetType, final int resultSetConcurrency)
         throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingPreparedStatement(this,
                 connection.prepareStatement(sql, resultSetType, resultSetConcurrency)));
@@ -771,6 +893,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public PreparedStatement prepareStatement(final String sql, final int resultSetType, final int resultSetConcurrency,
             final int resultSetHoldability) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingPreparedStatement(this,
                 connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability)));
@@ -784,6 +907,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public PreparedStatement prepareStatement(final String sql, final int[] columnIndexes) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingPreparedStatement(this, connection.prepareStatement(sql, columnIndexes)));
         } catch (final SQLException e) {
@@ -796,6 +920,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public PreparedStatement prepareStatement(final String sql, final String[] columnNames) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return init(new DelegatingPreparedStatement(this, connection.prepareStatement(sql, columnNames)));
         } catch (final SQLException e) {
@@ -807,6 +932,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void releaseSavepoint(final Savepoint savepoint) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.releaseSavepoint(savepoint);
         } catch (final SQLException e) {
@@ -817,6 +943,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void rollback() throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.rollback();
         } catch (final SQLException e) {
@@ -827,6 +954,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void rollback(final Savepoint savepoint) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.rollback(savepoint);
         } catch (final SQLException e) {
@@ -837,6 +965,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setAutoCommit(final boolean autoCommit) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.setAutoCommit(autoCommit);
             if (cacheState) {
@@ -855,6 +984,9 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
      * <li>catalog</li>
      * <li>schema</li>
      * <li>read-only</li>
+     * <li>transaction isolation</li>
+     * <li>holdability</li>
+     * <li>network timeout</li>
      * </ul>
      *
      * @param cacheState The new value for the state caching flag
@@ -866,6 +998,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setCatalog(final String catalog) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.setCatalog(catalog);
             if (cacheState) {
@@ -881,6 +1014,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public void setClientInfo(final Properties properties) throws SQLClientInfoException {
         try {
             checkOpen();
+            markWarningsDirty();
             connection.setClientInfo(properties);
         } catch (final SQLClientInfoException e) {
             throw e;
@@ -893,6 +1027,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     public void setClientInfo(final String name, final String value) throws SQLClientInfoException {
         try {
             checkOpen();
+            markWarningsDirty();
             connection.setClientInfo(name, value);
         } catch (final SQLClientInfoException e) {
             throw e;
@@ -935,6 +1070,23 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
         this.defaultQueryTimeoutDuration = defaultQueryTimeoutSeconds == null ? null : Duration.ofSeconds(defaultQueryTimeoutSeconds);
     }
 
+    /**
+     * Sets whether statements created by this connection hand out the driver's result sets behind a minimal
+     * close-tracking wrapper instead of a {@link DelegatingResultSet}.
+     * <p>
+     * Calls on the wrapper go straight to the driver, without a closed check. Closing the statement or connection still
+     * closes the result set. Driver exceptions thrown by calls other than {@code close()} are not passed to the
+     * connection's fatal SQL state detection. Takes precedence over
+     * {@link #setThinResultSets(boolean) thin result sets}.
+     * </p>
+     *
+     * @param directResultSets whether to use direct result sets.
+     * @since 2.15.0
+     */
+    public void setDirectResultSets(final boolean directResultSets) {
+        this.directResultSets = directResultSets;
+    }
+
     /**
      * Sets my delegate.
      *
@@ -948,9 +1100,14 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setHoldability(final int holdability) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.setHoldability(holdability);
+            if (cacheState) {
+                cachedHoldability = connection.getHoldability();
+            }
         } catch (final SQLException e) {
+            cachedHoldability = null;
             handleException(e);
         }
     }
@@ -958,9 +1115,14 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setNetworkTimeout(final Executor executor, final int milliseconds) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             Jdbc41Bridge.setNetworkTimeout(connection, executor, milliseconds);
+            if (cacheState) {
+                cachedNetworkTimeout = Jdbc41Bridge.getNetworkTimeout(connection);
+            }
         } catch (final SQLException e) {
+            cachedNetworkTimeout = null;
             handleException(e);
         }
     }
@@ -968,6 +1130,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setReadOnly(final boolean readOnly) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.setReadOnly(readOnly);
             if (cacheState) {
@@ -982,6 +1145,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Savepoint setSavepoint() throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.setSavepoint();
         } catch (final SQLException e) {
@@ -993,6 +1157,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public Savepoint setSavepoint(final String name) throws SQLException {
         checkOpen();
+        markTransactionDirty();
         try {
             return connection.setSavepoint(name);
         } catch (final SQLException e) {
@@ -1004,6 +1169,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setSchema(final String schema) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             Jdbc41Bridge.setSchema(connection, schema);
             if (cacheState) {
@@ -1015,12 +1181,32 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
         }
     }
 
+    /**
+     * Sets whether statements created by this connection recycle an untraced result set wrapper instead of creating
+     * and tracing a new {@link DelegatingResultSet} for each result set.
+     * <p>
+     * A statement recycles its wrapper only once the application closed it, so code that holds on to a closed result
+     * set must not use thin result sets. Result sets are still closed when their statement or connection is closed.
+     * </p>
+     *
+     * @param thinResultSets whether to use thin result set wrappers.
+     * @since 2.15.0
+     */
+    public void setThinResultSets(final boolean thinResultSets) {
+        this.thinResultSets = thinResultSets;
+    }
+
     @Override
     public void setTransactionIsolation(final int level) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.setTransactionIsolation(level);
+            if (cacheState) {
+                cachedTransactionIsolation = connection.getTransactionIsolation();
+            }
         } catch (final SQLException e) {
+            cachedTransactionIsolation = null;
             handleException(e);
         }
     }
@@ -1028,6 +1214,7 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
     @Override
     public void setTypeMap(final Map<String, Class<?>> map) throws SQLException {
         checkOpen();
+        markWarningsDirty();
         try {
             connection.setTypeMap(map);
         } catch (final SQLException e) {
@@ -1072,6 +1259,8 @@ public class DelegatingConnection<C extends Connection> extends AbandonedTrace i
         if (iface.isAssignableFrom(getClass())) {
             return iface.cast(this);
         }
+        // The caller may run statements behind my back.
+        markTransactionDirty();
         if (iface.isAssignableFrom(connection.getClass())) {
             return iface.cast(connection);
         }
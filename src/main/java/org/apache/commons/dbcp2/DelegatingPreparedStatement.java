@@ -120,7 +120,7 @@ public class DelegatingPreparedStatement extends DelegatingStatement implements
             getConnectionInternal().setLastUsed();
         }
         try {
-            return DelegatingResultSet.wrapResultSet(this, getDelegatePreparedStatement().executeQuery());
+            return wrapResultSet(getDelegatePreparedStatement().executeQuery());
         } catch (final SQLException e) {
             handleException(e);
             throw new AssertionError();
@@ -184,6 +184,7 @@ public class DelegatingPreparedStatement extends DelegatingStatement implements
             final List<Exception> thrownList = FastList.newList();
             traceList.forEach(trace -> trace.close(thrownList::add));
             clearTrace();
+            closeThinResultSet(thrownList::add);
             if (!thrownList.isEmpty()) {
                 throw new SQLExceptionList(thrownList);
             }
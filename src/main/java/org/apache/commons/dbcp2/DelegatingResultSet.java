@@ -49,6 +49,10 @@ import java.util.Map;
  * Extends AbandonedTrace to implement result set tracking and logging of code which created the ResultSet. Tracking the
  * ResultSet ensures that the Statement which created it can close any open ResultSet's on Statement close.
  * </p>
+ * <p>
+ * When the creating connection uses {@link DelegatingConnection#setThinResultSets(boolean) thin result sets}, a
+ * statement hands out a single untraced wrapper which it recycles for its next result set once the wrapper is closed.
+ * </p>
  *
  * @since 2.0
  */
@@ -86,8 +90,22 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
         return new DelegatingResultSet(statement, resultSet);
     }
 
+    /**
+     * Wraps the given result set in a thin delegate which is not traced by the given statement and may be recycled by
+     * it with {@link #recycle(ResultSet)} once closed.
+     *
+     * @param statement
+     *            The Statement which created the ResultSet and which is responsible for closing the thin delegate.
+     * @param resultSet
+     *            The ResultSet to wrap, not null.
+     * @return a new thin delegate.
+     */
+    static DelegatingResultSet wrapThinResultSet(final Statement statement, final ResultSet resultSet) {
+        return new DelegatingResultSet(statement, resultSet, true);
+    }
+
     /** My delegate. **/
-    private final ResultSet resultSet;
+    private ResultSet resultSet;
 
     /** The Statement that created me, if any. **/
     private Statement statement;
@@ -95,6 +113,12 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
     /** The Connection that created me, if any. **/
     private Connection connection;
 
+    /** Whether I am a thin delegate, not traced by my statement. **/
+    private final boolean thin;
+
+    /** Whether I am a thin delegate that has been closed and can be recycled. **/
+    private boolean released;
+
     /**
      * Creates a wrapper for the ResultSet which traces this ResultSet to the Connection which created it (via, for
      * example DatabaseMetadata), and the code which created it.
@@ -111,6 +135,7 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
         super((AbandonedTrace) connection);
         this.connection = connection;
         this.resultSet = resultSet;
+        this.thin = false;
     }
 
     /**
@@ -129,6 +154,26 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
         super((AbandonedTrace) statement);
         this.statement = statement;
         this.resultSet = resultSet;
+        this.thin = false;
+    }
+
+    /**
+     * Creates a thin wrapper for the ResultSet which is not traced by the Statement which created it.
+     * <p>
+     * Private to ensure all construction is {@link #wrapThinResultSet(Statement, ResultSet)}
+     * </p>
+     *
+     * @param statement
+     *            The Statement which created the ResultSet.
+     * @param resultSet
+     *            The ResultSet to wrap.
+     * @param thin
+     *            Always true.
+     */
+    private DelegatingResultSet(final Statement statement, final ResultSet resultSet, final boolean thin) {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.thin = thin;
     }
 
     @Override
@@ -184,7 +229,10 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
     @Override
     public void close() throws SQLException {
         try {
-            if (statement != null) {
+            if (thin) {
+                // Not traced, the statement holds on to me for recycling.
+                released = true;
+            } else if (statement != null) {
                 removeThisTrace(statement);
                 statement = null;
             }
@@ -1120,6 +1168,15 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
         }
     }
 
+    /**
+     * Tests whether this is a thin delegate that has been closed and may be recycled.
+     *
+     * @return whether this is a thin delegate that has been closed.
+     */
+    boolean isReleased() {
+        return thin && released;
+    }
+
     @Override
     public boolean isWrapperFor(final Class<?> iface) throws SQLException {
         if (iface.isAssignableFrom(getClass()) || iface.isAssignableFrom(resultSet.getClass())) {
@@ -1176,6 +1233,17 @@ public final class DelegatingResultSet extends AbandonedTrace implements ResultS
         }
     }
 
+    /**
+     * Points this released thin delegate at a new result set created by the same statement.
+     *
+     * @param resultSet
+     *            The ResultSet to wrap, not null.
+     */
+    void recycle(final ResultSet resultSet) {
+        this.resultSet = resultSet;
+        this.released = false;
+    }
+
     @Override
     public void refreshRow() throws SQLException {
         try {
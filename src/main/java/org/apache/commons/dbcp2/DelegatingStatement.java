@@ -24,6 +24,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A base delegating implementation of {@link Statement}.
@@ -46,6 +47,9 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
 
     private volatile boolean closed;
 
+    /** The untraced result set wrapper recycled when the connection uses thin result sets. */
+    private DelegatingResultSet thinResultSet;
+
     /**
      * Create a wrapper for the Statement which traces this Statement to the Connection which created it and the code
      * which created it.
@@ -144,24 +148,21 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
             // ResultSet's when it is closed.
             // FIXME The PreparedStatement we're wrapping should handle this for us.
             // See bug 17301 for what could happen when ResultSets are closed twice.
-            final List<AbandonedTrace> traceList = getTrace();
-            if (traceList != null) {
-                traceList.forEach(trace -> trace.close(e -> {
-                    if (connection != null) {
-                        // Does not rethrow e.
-                        connection.handleExceptionNoThrow(e);
-                    }
-                    thrownList.add(e);
-                }));
-                clearTrace();
-            }
-            Utils.close(statement, e -> {
+            final Consumer<Exception> exceptionHandler = e -> {
                 if (connection != null) {
                     // Does not rethrow e.
                     connection.handleExceptionNoThrow(e);
                 }
                 thrownList.add(e);
-            });
+            };
+            final List<AbandonedTrace> traceList = getTrace();
+            if (traceList != null) {
+                traceList.forEach(trace -> trace.close(exceptionHandler));
+                clearTrace();
+            }
+            closeThinResultSet(exceptionHandler);
+            thinResultSet = null;
+            Utils.close(statement, exceptionHandler);
         } finally {
             closed = true;
             statement = null;
@@ -171,6 +172,17 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
         }
     }
 
+    /**
+     * Closes the recycled thin result set wrapper if the application left it open, keeping it for reuse.
+     *
+     * @param exceptionHandler Consumes exception thrown closing the result set.
+     */
+    void closeThinResultSet(final Consumer<Exception> exceptionHandler) {
+        if (thinResultSet != null && !thinResultSet.isReleased()) {
+            thinResultSet.close(exceptionHandler);
+        }
+    }
+
     @Override
     public void closeOnCompletion() throws SQLException {
         checkOpen();
@@ -322,7 +334,7 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
         checkOpen();
         setLastUsedInParent();
         try {
-            return DelegatingResultSet.wrapResultSet(this, statement.executeQuery(sql));
+            return wrapResultSet(statement.executeQuery(sql));
         } catch (final SQLException e) {
             handleException(e);
             throw new AssertionError();
@@ -443,7 +455,7 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
     public ResultSet getGeneratedKeys() throws SQLException {
         checkOpen();
         try {
-            return DelegatingResultSet.wrapResultSet(this, statement.getGeneratedKeys());
+            return wrapResultSet(statement.getGeneratedKeys());
         } catch (final SQLException e) {
             handleException(e);
             throw new AssertionError();
@@ -565,7 +577,7 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
     public ResultSet getResultSet() throws SQLException {
         checkOpen();
         try {
-            return DelegatingResultSet.wrapResultSet(this, statement.getResultSet());
+            return wrapResultSet(statement.getResultSet());
         } catch (final SQLException e) {
             handleException(e);
             throw new AssertionError();
@@ -838,4 +850,37 @@ public class DelegatingStatement extends AbandonedTrace implements Statement {
         }
         return statement.unwrap(iface);
     }
+
+    /**
+     * Wraps a result set created by this statement.
+     * <p>
+     * When the connection uses {@link DelegatingConnection#isDirectResultSets() direct result sets}, the driver result
+     * set is returned behind a close-tracking wrapper. When the connection uses
+     * {@link DelegatingConnection#isThinResultSets() thin result sets}, this statement
+     * recycles one untraced wrapper as long as the application closes it before asking for the next result set, and
+     * falls back to a traced {@link DelegatingResultSet} otherwise.
+     * </p>
+     *
+     * @param resultSet The result set to wrap, may be null.
+     * @return The wrapped result set, or null.
+     * @since 2.15.0
+     */
+    protected ResultSet wrapResultSet(final ResultSet resultSet) {
+        if (resultSet != null && connection != null && connection.isDirectResultSets()) {
+            return DirectResultSet.wrapResultSet(this, resultSet);
+        }
+        if (resultSet == null || connection == null || !connection.isThinResultSets()) {
+            return DelegatingResultSet.wrapResultSet(this, resultSet);
+        }
+        if (thinResultSet == null) {
+            thinResultSet = DelegatingResultSet.wrapThinResultSet(this, resultSet);
+            return thinResultSet;
+        }
+        if (thinResultSet.isReleased()) {
+            thinResultSet.recycle(resultSet);
+            return thinResultSet;
+        }
+        // The recycled wrapper is still in use, trace this one so close semantics are preserved.
+        return DelegatingResultSet.wrapResultSet(this, resultSet);
+    }
 }
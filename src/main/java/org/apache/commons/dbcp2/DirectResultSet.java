@@ -0,0 +1,1136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * A close-tracking {@link ResultSet} handed out by a {@link DelegatingStatement} when its connection uses
+ * {@link DelegatingConnection#setDirectResultSets(boolean) direct result sets}.
+ * <p>
+ * Unlike {@link DelegatingResultSet}, all calls go straight to the driver result set without a try/catch, so that
+ * {@code next()} and the getters stay small enough to be inlined when reading many rows. {@link SQLException}s thrown
+ * by these calls are not passed to the statement's exception handling. The result set is traced by the statement which
+ * created it, so closing the statement or its connection still closes the result set.
+ * </p>
+ *
+ * @since 2.15.0
+ */
+final class DirectResultSet extends AbandonedTrace implements ResultSet {
+
+    /**
+     * Wraps the given result set in a close-tracking delegate.
+     *
+     * @param statement
+     *            The Statement which created the ResultSet.
+     * @param resultSet
+     *            The ResultSet to wrap, may be null.
+     * @return a new delegate, or null.
+     */
+    static ResultSet wrapResultSet(final DelegatingStatement statement, final ResultSet resultSet) {
+        if (resultSet == null) {
+            return null;
+        }
+        if (resultSet instanceof DirectResultSet) {
+            // Call the driver directly, closing still goes through the nested statement's result set.
+            return new DirectResultSet(statement, resultSet, ((DirectResultSet) resultSet).resultSet);
+        }
+        return new DirectResultSet(statement, resultSet, resultSet);
+    }
+
+    /** The Statement that created me. **/
+    private DelegatingStatement statement;
+
+    /** The result set closed by {@link #close()}, may be the direct result set of a nested statement. **/
+    private final ResultSet closeTarget;
+
+    /** The driver result set all other calls go to. **/
+    private final ResultSet resultSet;
+
+    /**
+     * Creates a wrapper for the ResultSet which traces this ResultSet to the Statement which created it.
+     *
+     * @param statement
+     *            The Statement which created the ResultSet.
+     * @param closeTarget
+     *            The ResultSet to close.
+     * @param resultSet
+     *            The driver ResultSet.
+     */
+    private DirectResultSet(final DelegatingStatement statement, final ResultSet closeTarget, final ResultSet resultSet) {
+        super(statement);
+        this.statement = statement;
+        this.closeTarget = closeTarget;
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public boolean absolute(final int row) throws SQLException {
+        return resultSet.absolute(row);
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        resultSet.afterLast();
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        resultSet.beforeFirst();
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        resultSet.cancelRowUpdates();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        resultSet.clearWarnings();
+    }
+
+    /**
+     * Removes this result set from its statement's trace and closes it.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (statement != null) {
+            removeThisTrace(statement);
+        }
+        try {
+            closeTarget.close();
+        } catch (final SQLException e) {
+            if (statement == null) {
+                throw e;
+            }
+            statement.handleException(e);
+        } finally {
+            statement = null;
+        }
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        resultSet.deleteRow();
+    }
+
+    @Override
+    public int findColumn(final String columnName) throws SQLException {
+        return resultSet.findColumn(columnName);
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        return resultSet.first();
+    }
+
+    @Override
+    public Array getArray(final int i) throws SQLException {
+        return resultSet.getArray(i);
+    }
+
+    @Override
+    public Array getArray(final String colName) throws SQLException {
+        return resultSet.getArray(colName);
+    }
+
+    @Override
+    public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+        return resultSet.getAsciiStream(columnIndex);
+    }
+
+    @Override
+    public InputStream getAsciiStream(final String columnName) throws SQLException {
+        return resultSet.getAsciiStream(columnName);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+        return resultSet.getBigDecimal(columnIndex);
+    }
+
+    /** @deprecated Use {@link #getBigDecimal(int)} */
+    @Deprecated
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+        return resultSet.getBigDecimal(columnIndex);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final String columnName) throws SQLException {
+        return resultSet.getBigDecimal(columnName);
+    }
+
+    /** @deprecated Use {@link #getBigDecimal(String)} */
+    @Deprecated
+    @Override
+    public BigDecimal getBigDecimal(final String columnName, final int scale) throws SQLException {
+        return resultSet.getBigDecimal(columnName);
+    }
+
+    @Override
+    public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+        return resultSet.getBinaryStream(columnIndex);
+    }
+
+    @Override
+    public InputStream getBinaryStream(final String columnName) throws SQLException {
+        return resultSet.getBinaryStream(columnName);
+    }
+
+    @Override
+    public Blob getBlob(final int i) throws SQLException {
+        return resultSet.getBlob(i);
+    }
+
+    @Override
+    public Blob getBlob(final String colName) throws SQLException {
+        return resultSet.getBlob(colName);
+    }
+
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        return resultSet.getBoolean(columnIndex);
+    }
+
+    @Override
+    public boolean getBoolean(final String columnName) throws SQLException {
+        return resultSet.getBoolean(columnName);
+    }
+
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return resultSet.getByte(columnIndex);
+    }
+
+    @Override
+    public byte getByte(final String columnName) throws SQLException {
+        return resultSet.getByte(columnName);
+    }
+
+    @Override
+    public byte[] getBytes(final int columnIndex) throws SQLException {
+        return resultSet.getBytes(columnIndex);
+    }
+
+    @Override
+    public byte[] getBytes(final String columnName) throws SQLException {
+        return resultSet.getBytes(columnName);
+    }
+
+    @Override
+    public Reader getCharacterStream(final int columnIndex) throws SQLException {
+        return resultSet.getCharacterStream(columnIndex);
+    }
+
+    @Override
+    public Reader getCharacterStream(final String columnName) throws SQLException {
+        return resultSet.getCharacterStream(columnName);
+    }
+
+    @Override
+    public Clob getClob(final int i) throws SQLException {
+        return resultSet.getClob(i);
+    }
+
+    @Override
+    public Clob getClob(final String colName) throws SQLException {
+        return resultSet.getClob(colName);
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        return resultSet.getConcurrency();
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        return resultSet.getCursorName();
+    }
+
+    @Override
+    public Date getDate(final int columnIndex) throws SQLException {
+        return resultSet.getDate(columnIndex);
+    }
+
+    @Override
+    public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
+        return resultSet.getDate(columnIndex, cal);
+    }
+
+    @Override
+    public Date getDate(final String columnName) throws SQLException {
+        return resultSet.getDate(columnName);
+    }
+
+    @Override
+    public Date getDate(final String columnName, final Calendar cal) throws SQLException {
+        return resultSet.getDate(columnName, cal);
+    }
+
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        return resultSet.getDouble(columnIndex);
+    }
+
+    @Override
+    public double getDouble(final String columnName) throws SQLException {
+        return resultSet.getDouble(columnName);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return resultSet.getFetchDirection();
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return resultSet.getFetchSize();
+    }
+
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return resultSet.getFloat(columnIndex);
+    }
+
+    @Override
+    public float getFloat(final String columnName) throws SQLException {
+        return resultSet.getFloat(columnName);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return resultSet.getHoldability();
+    }
+
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return resultSet.getInt(columnIndex);
+    }
+
+    @Override
+    public int getInt(final String columnName) throws SQLException {
+        return resultSet.getInt(columnName);
+    }
+
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        return resultSet.getLong(columnIndex);
+    }
+
+    @Override
+    public long getLong(final String columnName) throws SQLException {
+        return resultSet.getLong(columnName);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return resultSet.getMetaData();
+    }
+
+    @Override
+    public Reader getNCharacterStream(final int columnIndex) throws SQLException {
+        return resultSet.getNCharacterStream(columnIndex);
+    }
+
+    @Override
+    public Reader getNCharacterStream(final String columnLabel) throws SQLException {
+        return resultSet.getNCharacterStream(columnLabel);
+    }
+
+    @Override
+    public NClob getNClob(final int columnIndex) throws SQLException {
+        return resultSet.getNClob(columnIndex);
+    }
+
+    @Override
+    public NClob getNClob(final String columnLabel) throws SQLException {
+        return resultSet.getNClob(columnLabel);
+    }
+
+    @Override
+    public String getNString(final int columnIndex) throws SQLException {
+        return resultSet.getNString(columnIndex);
+    }
+
+    @Override
+    public String getNString(final String columnLabel) throws SQLException {
+        return resultSet.getNString(columnLabel);
+    }
+
+    @Override
+    public Object getObject(final int columnIndex) throws SQLException {
+        return resultSet.getObject(columnIndex);
+    }
+
+    @Override
+    public <T> T getObject(final int columnIndex, final Class<T> type) throws SQLException {
+        return Jdbc41Bridge.getObject(resultSet, columnIndex, type);
+    }
+
+    @Override
+    public Object getObject(final int i, final Map<String, Class<?>> map) throws SQLException {
+        return resultSet.getObject(i, map);
+    }
+
+    @Override
+    public Object getObject(final String columnName) throws SQLException {
+        return resultSet.getObject(columnName);
+    }
+
+    @Override
+    public <T> T getObject(final String columnLabel, final Class<T> type) throws SQLException {
+        return Jdbc41Bridge.getObject(resultSet, columnLabel, type);
+    }
+
+    @Override
+    public Object getObject(final String colName, final Map<String, Class<?>> map) throws SQLException {
+        return resultSet.getObject(colName, map);
+    }
+
+    @Override
+    public Ref getRef(final int i) throws SQLException {
+        return resultSet.getRef(i);
+    }
+
+    @Override
+    public Ref getRef(final String colName) throws SQLException {
+        return resultSet.getRef(colName);
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        return resultSet.getRow();
+    }
+
+    @Override
+    public RowId getRowId(final int columnIndex) throws SQLException {
+        return resultSet.getRowId(columnIndex);
+    }
+
+    @Override
+    public RowId getRowId(final String columnLabel) throws SQLException {
+        return resultSet.getRowId(columnLabel);
+    }
+
+    @Override
+    public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+        return resultSet.getSQLXML(columnIndex);
+    }
+
+    @Override
+    public SQLXML getSQLXML(final String columnLabel) throws SQLException {
+        return resultSet.getSQLXML(columnLabel);
+    }
+
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return resultSet.getShort(columnIndex);
+    }
+
+    @Override
+    public short getShort(final String columnName) throws SQLException {
+        return resultSet.getShort(columnName);
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        return statement;
+    }
+
+    @Override
+    public String getString(final int columnIndex) throws SQLException {
+        return resultSet.getString(columnIndex);
+    }
+
+    @Override
+    public String getString(final String columnName) throws SQLException {
+        return resultSet.getString(columnName);
+    }
+
+    @Override
+    public Time getTime(final int columnIndex) throws SQLException {
+        return resultSet.getTime(columnIndex);
+    }
+
+    @Override
+    public Time getTime(final int columnIndex, final Calendar cal) throws SQLException {
+        return resultSet.getTime(columnIndex, cal);
+    }
+
+    @Override
+    public Time getTime(final String columnName) throws SQLException {
+        return resultSet.getTime(columnName);
+    }
+
+    @Override
+    public Time getTime(final String columnName, final Calendar cal) throws SQLException {
+        return resultSet.getTime(columnName, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+        return resultSet.getTimestamp(columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex, final Calendar cal) throws SQLException {
+        return resultSet.getTimestamp(columnIndex, cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String columnName) throws SQLException {
+        return resultSet.getTimestamp(columnName);
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String columnName, final Calendar cal) throws SQLException {
+        return resultSet.getTimestamp(columnName, cal);
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        return resultSet.getType();
+    }
+
+    @Override
+    public java.net.URL getURL(final int columnIndex) throws SQLException {
+        return resultSet.getURL(columnIndex);
+    }
+
+    @Override
+    public java.net.URL getURL(final String columnName) throws SQLException {
+        return resultSet.getURL(columnName);
+    }
+
+    /** @deprecated Use {@link #getCharacterStream(int)} */
+    @Deprecated
+    @Override
+    public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+        return resultSet.getUnicodeStream(columnIndex);
+    }
+
+    /** @deprecated Use {@link #getCharacterStream(String)} */
+    @Deprecated
+    @Override
+    public InputStream getUnicodeStream(final String columnName) throws SQLException {
+        return resultSet.getUnicodeStream(columnName);
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return resultSet.getWarnings();
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        resultSet.insertRow();
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        return resultSet.isAfterLast();
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        return resultSet.isBeforeFirst();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return resultSet.isClosed();
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        return resultSet.isFirst();
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        return resultSet.isLast();
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+        if (iface.isAssignableFrom(getClass()) || iface.isAssignableFrom(resultSet.getClass())) {
+            return true;
+        }
+        return resultSet.isWrapperFor(iface);
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        return resultSet.last();
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        resultSet.moveToCurrentRow();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        resultSet.moveToInsertRow();
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        return resultSet.next();
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        return resultSet.previous();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        resultSet.refreshRow();
+    }
+
+    @Override
+    public boolean relative(final int rows) throws SQLException {
+        return resultSet.relative(rows);
+    }
+
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        return resultSet.rowDeleted();
+    }
+
+    @Override
+    public boolean rowInserted() throws SQLException {
+        return resultSet.rowInserted();
+    }
+
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        return resultSet.rowUpdated();
+    }
+
+    @Override
+    public void setFetchDirection(final int direction) throws SQLException {
+        resultSet.setFetchDirection(direction);
+    }
+
+    @Override
+    public void setFetchSize(final int rows) throws SQLException {
+        resultSet.setFetchSize(rows);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return super.toString() + "[resultSet=" + resultSet + ", statement=" + statement + "]";
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isAssignableFrom(getClass())) {
+            return iface.cast(this);
+        }
+        if (iface.isAssignableFrom(resultSet.getClass())) {
+            return iface.cast(resultSet);
+        }
+        return resultSet.unwrap(iface);
+    }
+
+    @Override
+    public void updateArray(final int columnIndex, final Array x) throws SQLException {
+        resultSet.updateArray(columnIndex, x);
+    }
+
+    @Override
+    public void updateArray(final String columnName, final Array x) throws SQLException {
+        resultSet.updateArray(columnName, x);
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream inputStream) throws SQLException {
+        resultSet.updateAsciiStream(columnIndex, inputStream);
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+        resultSet.updateAsciiStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream inputStream, final long length)
+            throws SQLException {
+        resultSet.updateAsciiStream(columnIndex, inputStream, length);
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream inputStream) throws SQLException {
+        resultSet.updateAsciiStream(columnLabel, inputStream);
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnName, final InputStream x, final int length) throws SQLException {
+        resultSet.updateAsciiStream(columnName, x, length);
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream inputStream, final long length)
+            throws SQLException {
+        resultSet.updateAsciiStream(columnLabel, inputStream, length);
+    }
+
+    @Override
+    public void updateBigDecimal(final int columnIndex, final BigDecimal x) throws SQLException {
+        resultSet.updateBigDecimal(columnIndex, x);
+    }
+
+    @Override
+    public void updateBigDecimal(final String columnName, final BigDecimal x) throws SQLException {
+        resultSet.updateBigDecimal(columnName, x);
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream inputStream) throws SQLException {
+        resultSet.updateBinaryStream(columnIndex, inputStream);
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+        resultSet.updateBinaryStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream inputStream, final long length)
+            throws SQLException {
+        resultSet.updateBinaryStream(columnIndex, inputStream, length);
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream inputStream) throws SQLException {
+        resultSet.updateBinaryStream(columnLabel, inputStream);
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnName, final InputStream x, final int length) throws SQLException {
+        resultSet.updateBinaryStream(columnName, x, length);
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream inputStream, final long length)
+            throws SQLException {
+        resultSet.updateBinaryStream(columnLabel, inputStream, length);
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final Blob x) throws SQLException {
+        resultSet.updateBlob(columnIndex, x);
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final InputStream inputStream) throws SQLException {
+        resultSet.updateBlob(columnIndex, inputStream);
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final InputStream inputStream, final long length)
+            throws SQLException {
+        resultSet.updateBlob(columnIndex, inputStream, length);
+    }
+
+    @Override
+    public void updateBlob(final String columnName, final Blob x) throws SQLException {
+        resultSet.updateBlob(columnName, x);
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final InputStream inputStream) throws SQLException {
+        resultSet.updateBlob(columnLabel, inputStream);
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final InputStream inputStream, final long length)
+            throws SQLException {
+        resultSet.updateBlob(columnLabel, inputStream, length);
+    }
+
+    @Override
+    public void updateBoolean(final int columnIndex, final boolean x) throws SQLException {
+        resultSet.updateBoolean(columnIndex, x);
+    }
+
+    @Override
+    public void updateBoolean(final String columnName, final boolean x) throws SQLException {
+        resultSet.updateBoolean(columnName, x);
+    }
+
+    @Override
+    public void updateByte(final int columnIndex, final byte x) throws SQLException {
+        resultSet.updateByte(columnIndex, x);
+    }
+
+    @Override
+    public void updateByte(final String columnName, final byte x) throws SQLException {
+        resultSet.updateByte(columnName, x);
+    }
+
+    @Override
+    public void updateBytes(final int columnIndex, final byte[] x) throws SQLException {
+        resultSet.updateBytes(columnIndex, x);
+    }
+
+    @Override
+    public void updateBytes(final String columnName, final byte[] x) throws SQLException {
+        resultSet.updateBytes(columnName, x);
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader reader) throws SQLException {
+        resultSet.updateCharacterStream(columnIndex, reader);
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader x, final int length) throws SQLException {
+        resultSet.updateCharacterStream(columnIndex, x, length);
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader reader, final long length)
+            throws SQLException {
+        resultSet.updateCharacterStream(columnIndex, reader, length);
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader) throws SQLException {
+        resultSet.updateCharacterStream(columnLabel, reader);
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnName, final Reader reader, final int length)
+            throws SQLException {
+        resultSet.updateCharacterStream(columnName, reader, length);
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader, final long length)
+            throws SQLException {
+        resultSet.updateCharacterStream(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Clob x) throws SQLException {
+        resultSet.updateClob(columnIndex, x);
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Reader reader) throws SQLException {
+        resultSet.updateClob(columnIndex, reader);
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        resultSet.updateClob(columnIndex, reader, length);
+    }
+
+    @Override
+    public void updateClob(final String columnName, final Clob x) throws SQLException {
+        resultSet.updateClob(columnName, x);
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Reader reader) throws SQLException {
+        resultSet.updateClob(columnLabel, reader);
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        resultSet.updateClob(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateDate(final int columnIndex, final Date x) throws SQLException {
+        resultSet.updateDate(columnIndex, x);
+    }
+
+    @Override
+    public void updateDate(final String columnName, final Date x) throws SQLException {
+        resultSet.updateDate(columnName, x);
+    }
+
+    @Override
+    public void updateDouble(final int columnIndex, final double x) throws SQLException {
+        resultSet.updateDouble(columnIndex, x);
+    }
+
+    @Override
+    public void updateDouble(final String columnName, final double x) throws SQLException {
+        resultSet.updateDouble(columnName, x);
+    }
+
+    @Override
+    public void updateFloat(final int columnIndex, final float x) throws SQLException {
+        resultSet.updateFloat(columnIndex, x);
+    }
+
+    @Override
+    public void updateFloat(final String columnName, final float x) throws SQLException {
+        resultSet.updateFloat(columnName, x);
+    }
+
+    @Override
+    public void updateInt(final int columnIndex, final int x) throws SQLException {
+        resultSet.updateInt(columnIndex, x);
+    }
+
+    @Override
+    public void updateInt(final String columnName, final int x) throws SQLException {
+        resultSet.updateInt(columnName, x);
+    }
+
+    @Override
+    public void updateLong(final int columnIndex, final long x) throws SQLException {
+        resultSet.updateLong(columnIndex, x);
+    }
+
+    @Override
+    public void updateLong(final String columnName, final long x) throws SQLException {
+        resultSet.updateLong(columnName, x);
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, final Reader reader) throws SQLException {
+        resultSet.updateNCharacterStream(columnIndex, reader);
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, final Reader reader, final long length)
+            throws SQLException {
+        resultSet.updateNCharacterStream(columnIndex, reader, length);
+    }
+
+    @Override
+    public void updateNCharacterStream(final String columnLabel, final Reader reader) throws SQLException {
+        resultSet.updateNCharacterStream(columnLabel, reader);
+    }
+
+    @Override
+    public void updateNCharacterStream(final String columnLabel, final Reader reader, final long length)
+            throws SQLException {
+        resultSet.updateNCharacterStream(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final NClob value) throws SQLException {
+        resultSet.updateNClob(columnIndex, value);
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final Reader reader) throws SQLException {
+        resultSet.updateNClob(columnIndex, reader);
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        resultSet.updateNClob(columnIndex, reader, length);
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final NClob value) throws SQLException {
+        resultSet.updateNClob(columnLabel, value);
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final Reader reader) throws SQLException {
+        resultSet.updateNClob(columnLabel, reader);
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        resultSet.updateNClob(columnLabel, reader, length);
+    }
+
+    @Override
+    public void updateNString(final int columnIndex, final String value) throws SQLException {
+        resultSet.updateNString(columnIndex, value);
+    }
+
+    @Override
+    public void updateNString(final String columnLabel, final String value) throws SQLException {
+        resultSet.updateNString(columnLabel, value);
+    }
+
+    @Override
+    public void updateNull(final int columnIndex) throws SQLException {
+        resultSet.updateNull(columnIndex);
+    }
+
+    @Override
+    public void updateNull(final String columnName) throws SQLException {
+        resultSet.updateNull(columnName);
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x) throws SQLException {
+        resultSet.updateObject(columnIndex, x);
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final int scale) throws SQLException {
+        resultSet.updateObject(columnIndex, x);
+    }
+
+    /**
+     * @since 2.5.0
+     */
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final SQLType targetSqlType) throws SQLException {
+        resultSet.updateObject(columnIndex, x, targetSqlType);
+    }
+
+    /**
+     * @since 2.5.0
+     */
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final SQLType targetSqlType, final int scaleOrLength) throws SQLException {
+        resultSet.updateObject(columnIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void updateObject(final String columnName, final Object x) throws SQLException {
+        resultSet.updateObject(columnName, x);
+    }
+
+    @Override
+    public void updateObject(final String columnName, final Object x, final int scale) throws SQLException {
+        resultSet.updateObject(columnName, x);
+    }
+
+    /**
+     * @since 2.5.0
+     */
+    @Override
+    public void updateObject(final String columnLabel, final Object x, final SQLType targetSqlType) throws SQLException {
+        resultSet.updateObject(columnLabel, x, targetSqlType);
+    }
+
+    /**
+     * @since 2.5.0
+     */
+    @Override
+    public void updateObject(final String columnLabel, final Object x, final SQLType targetSqlType, final int scaleOrLength)
+            throws SQLException {
+        resultSet.updateObject(columnLabel, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void updateRef(final int columnIndex, final Ref x) throws SQLException {
+        resultSet.updateRef(columnIndex, x);
+    }
+
+    @Override
+    public void updateRef(final String columnName, final Ref x) throws SQLException {
+        resultSet.updateRef(columnName, x);
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        resultSet.updateRow();
+    }
+
+    @Override
+    public void updateRowId(final int columnIndex, final RowId value) throws SQLException {
+        resultSet.updateRowId(columnIndex, value);
+    }
+
+    @Override
+    public void updateRowId(final String columnLabel, final RowId value) throws SQLException {
+        resultSet.updateRowId(columnLabel, value);
+    }
+
+    @Override
+    public void updateSQLXML(final int columnIndex, final SQLXML value) throws SQLException {
+        resultSet.updateSQLXML(columnIndex, value);
+    }
+
+    @Override
+    public void updateSQLXML(final String columnLabel, final SQLXML value) throws SQLException {
+        resultSet.updateSQLXML(columnLabel, value);
+    }
+
+    @Override
+    public void updateShort(final int columnIndex, final short x) throws SQLException {
+        resultSet.updateShort(columnIndex, x);
+    }
+
+    @Override
+    public void updateShort(final String columnName, final short x) throws SQLException {
+        resultSet.updateShort(columnName, x);
+    }
+
+    @Override
+    public void updateString(final int columnIndex, final String x) throws SQLException {
+        resultSet.updateString(columnIndex, x);
+    }
+
+    @Override
+    public void updateString(final String columnName, final String x) throws SQLException {
+        resultSet.updateString(columnName, x);
+    }
+
+    @Override
+    public void updateTime(final int columnIndex, final Time x) throws SQLException {
+        resultSet.updateTime(columnIndex, x);
+    }
+
+    @Override
+    public void updateTime(final String columnName, final Time x) throws SQLException {
+        resultSet.updateTime(columnName, x);
+    }
+
+    @Override
+    public void updateTimestamp(final int columnIndex, final Timestamp x) throws SQLException {
+        resultSet.updateTimestamp(columnIndex, x);
+    }
+
+    @Override
+    public void updateTimestamp(final String columnName, final Timestamp x) throws SQLException {
+        resultSet.updateTimestamp(columnName, x);
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        return resultSet.wasNull();
+    }
+}
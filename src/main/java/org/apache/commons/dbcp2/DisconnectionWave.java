@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Counts fatal disconnection exceptions across the connections of a pool and starts an invalidation wave when too many
+ * occur within a window.
+ * <p>
+ * Each wave starts a new generation. Connections created in an earlier generation are suspect: the idle ones are
+ * cleared from the pool when the wave starts, the others are validated before they are borrowed again.
+ * </p>
+ * <p>
+ * Each connection counts once toward a wave, and the idle connections are cleared on a background thread so the
+ * application thread which saw the exception is not held up closing dead sockets.
+ * </p>
+ *
+ * @see PoolableConnectionFactory#setDisconnectionWaveThreshold(int)
+ * @since 2.15.0
+ */
+final class DisconnectionWave {
+
+    private static final long CLEARER_KEEP_ALIVE_SECONDS = 10;
+
+    /**
+     * Runs the waves of all pools, its thread stops when idle.
+     */
+    private static final ThreadPoolExecutor CLEARER;
+
+    static {
+        CLEARER = new ThreadPoolExecutor(1, 1, CLEARER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "commons-dbcp2-disconnection-wave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CLEARER.allowCoreThreadTimeOut(true);
+    }
+
+    private final LongConsumer onWave;
+
+    private final Deque<Long> fatalNanos = new ArrayDeque<>();
+
+    private volatile int threshold;
+
+    private volatile Duration window = Duration.ofSeconds(10);
+
+    private volatile long generation;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param onWave called on a background thread with the new generation when a wave starts.
+     */
+    DisconnectionWave(final LongConsumer onWave) {
+        this.onWave = onWave;
+    }
+
+    /**
+     * Records a connection's first fatal disconnection exception, starting a wave when the threshold is reached within
+     * the window.
+     *
+     * @return whether a wave started.
+     */
+    boolean fatalExceptionThrown() {
+        final int max = threshold;
+        if (max <= 0) {
+            return false;
+        }
+        final long nowNanos = System.nanoTime();
+        final long waveGeneration;
+        synchronized (fatalNanos) {
+            final long windowNanos = window.toNanos();
+            while (!fatalNanos.isEmpty() && nowNanos - fatalNanos.peekFirst() > windowNanos) {
+                fatalNanos.removeFirst();
+            }
+            fatalNanos.addLast(nowNanos);
+            if (fatalNanos.size() < max) {
+                return false;
+            }
+            fatalNanos.clear();
+            waveGeneration = ++generation;
+        }
+        CLEARER.execute(() -> onWave.accept(waveGeneration));
+        return true;
+    }
+
+    /**
+     * Gets the current generation, the number of waves started so far.
+     *
+     * @return the current generation.
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    int getThreshold() {
+        return threshold;
+    }
+
+    Duration getWindow() {
+        return window;
+    }
+
+    void setThreshold(final int threshold) {
+        this.threshold = threshold;
+    }
+
+    void setWindow(final Duration window) {
+        this.window = window;
+    }
+}
@@ -27,12 +27,15 @@ import java.sql.SQLException;
  */
 final class DriverFactory {
 
-    static Driver createDriver(final BasicDataSource basicDataSource) throws SQLException {
+    /**
+     * Creates the driver configured in the given data source configuration for the given connection string, which may
+     * not be the one of the configuration.
+     */
+    static Driver createDriver(final BasicDataSource basicDataSource, final BasicDataSourceConfig config, final String url) throws SQLException {
         // Load the JDBC driver class
-        Driver driverToUse = basicDataSource.getDriver();
-        final String driverClassName = basicDataSource.getDriverClassName();
-        final ClassLoader driverClassLoader = basicDataSource.getDriverClassLoader();
-        final String url = basicDataSource.getUrl();
+        Driver driverToUse = config.driver;
+        final String driverClassName = config.driverClassName;
+        final ClassLoader driverClassLoader = config.driverClassLoader;
 
         if (driverToUse == null) {
             Class<?> driverFromCCL = null;
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * A {@link ConnectionFactory} which tells the endpoint each new {@link Connection} was made to. A
+ * {@link PoolableConnectionFactory} records it in the {@link PoolableConnection} so that the connections to an endpoint
+ * which failed are closed.
+ *
+ * @see MultiEndpointConnectionFactory
+ * @see PoolableConnection#getEndpoint()
+ * @since 2.15.0
+ */
+public interface EndpointAwareConnectionFactory extends ConnectionFactory {
+
+    /**
+     * Creates a new {@link Connection} and tells the endpoint it was made to.
+     *
+     * @return the new connection and its endpoint, or a null endpoint if it is not known.
+     * @throws SQLException if a database error occurs creating the connection.
+     */
+    Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connect() throws SQLException;
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.pool2.ObjectPool;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.EvictionConfig;
+import org.apache.commons.pool2.impl.EvictionPolicy;
+
+/**
+ * Retires idle connections on the evictor thread before they reach their maximum lifetime, creating a replacement
+ * first when retiring a connection would take the pool below {@code minIdle}. Other connections are passed to the
+ * wrapped policy.
+ *
+ * @see BasicDataSource#setReplaceExpiringConnections(boolean)
+ * @since 2.15.0
+ */
+final class LifetimeEvictionPolicy implements EvictionPolicy<PoolableConnection> {
+
+    private static final Log log = LogFactory.getLog(LifetimeEvictionPolicy.class);
+
+    private final EvictionPolicy<PoolableConnection> policy;
+
+    private final PoolableConnectionFactory factory;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param policy The policy deciding for connections which are not about to expire.
+     * @param factory The factory knowing the lifetime of the connections.
+     */
+    LifetimeEvictionPolicy(final EvictionPolicy<PoolableConnection> policy, final PoolableConnectionFactory factory) {
+        this.policy = policy;
+        this.factory = factory;
+    }
+
+    @Override
+    public boolean evict(final EvictionConfig config, final PooledObject<PoolableConnection> underTest, final int idleCount) {
+        if (factory.isLifetimeExpiring(underTest)) {
+            if (idleCount <= config.getMinIdle()) {
+                final ObjectPool<PoolableConnection> pool = factory.getPool();
+                try {
+                    pool.addObject();
+                } catch (final Exception e) {
+                    log.warn(Utils.getMessage("lifetimeEvictionPolicy.replaceFail"), e);
+                }
+            }
+            return true;
+        }
+        return policy.evict(config, underTest, idleCount);
+    }
+}
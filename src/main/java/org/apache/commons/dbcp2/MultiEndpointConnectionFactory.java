@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link Driver}-based implementation of {@link ConnectionFactory} connecting to one of several database endpoints,
+ * for example the replicas of a database.
+ * <p>
+ * Each connection goes to the available endpoint with the lowest expected connect time, its mean connect time divided
+ * by its success rate, an endpoint not connected to yet first. An endpoint failing to connect, or whose connections
+ * throw fatal disconnection exceptions from {@link #setDisconnectionThreshold(int) several} distinct connections, is
+ * avoided for a {@link #setCooldown(Duration) cooldown} and the next endpoint is tried. Endpoints cooling down are only
+ * tried when all others fail.
+ * </p>
+ * <p>
+ * As an {@link EndpointAwareConnectionFactory}, a {@link PoolableConnectionFactory} records the endpoint of each {@link PoolableConnection}. When an endpoint fails,
+ * the pooled connections made to it before are closed as they are next borrowed, returned or validated, the
+ * connections to other endpoints are not affected.
+ * </p>
+ *
+ * @see PoolableConnection#getEndpoint()
+ * @since 2.15.0
+ */
+public class MultiEndpointConnectionFactory implements EndpointAwareConnectionFactory {
+
+    /**
+     * A database endpoint with its observed connect time and error rate.
+     */
+    public static final class Endpoint {
+
+        /** The weight of the latest observation in the moving averages. */
+        private static final double WEIGHT = 0.2;
+
+        /** Above the score of any available endpoint, about 30 years. */
+        private static final double COOLING_DOWN_SCORE = 1e18;
+
+        private final MultiEndpointConnectionFactory factory;
+
+        private final String connectionString;
+
+        private double connectNanos;
+
+        private double errorRate;
+
+        private long cooldownEndNanos;
+
+        private boolean coolingDown;
+
+        private volatile long failureCount;
+
+        /** The number of connections which threw a fatal disconnection exception since the window start. */
+        private int disconnections;
+
+        private long disconnectionWindowStartNanos;
+
+        private Endpoint(final MultiEndpointConnectionFactory factory, final String connectionString) {
+            this.factory = factory;
+            this.connectionString = connectionString;
+        }
+
+        synchronized void connected(final long nanos) {
+            connectNanos = connectNanos == 0 ? nanos : connectNanos + WEIGHT * (nanos - connectNanos);
+            errorRate -= WEIGHT * errorRate;
+            coolingDown = false;
+        }
+
+        /**
+         * Records a connection which threw a fatal disconnection exception, failing this endpoint when enough distinct
+         * connections did within a cooldown. The caller reports each connection once.
+         */
+        synchronized void disconnected() {
+            final long nowNanos = System.nanoTime();
+            if (disconnections == 0 || nowNanos - disconnectionWindowStartNanos > factory.cooldown.toNanos()) {
+                disconnections = 0;
+                disconnectionWindowStartNanos = nowNanos;
+            }
+            if (++disconnections >= factory.disconnectionThreshold) {
+                disconnections = 0;
+                failed();
+            }
+        }
+
+        /**
+         * Records a failure to connect or enough fatal disconnection exceptions, which starts a cooldown and fails the
+         * connections made so far.
+         */
+        synchronized void failed() {
+            errorRate += WEIGHT * (1 - errorRate);
+            cooldownEndNanos = System.nanoTime() + factory.cooldown.toNanos();
+            coolingDown = true;
+            failureCount++;
+        }
+
+        /**
+         * Gets the connection string of this endpoint.
+         *
+         * @return the connection string.
+         */
+        public String getConnectionString() {
+            return connectionString;
+        }
+
+        /**
+         * Gets the moving average of the time to connect to this endpoint.
+         *
+         * @return the mean connect time, zero if not connected to yet.
+         */
+        public synchronized Duration getConnectDuration() {
+            return Duration.ofNanos((long) connectNanos);
+        }
+
+        /**
+         * Gets the moving average of the failure rate of this endpoint, from 0 to 1.
+         *
+         * @return the error rate.
+         */
+        public synchronized double getErrorRate() {
+            return errorRate;
+        }
+
+        /**
+         * Gets the number of failures of this endpoint, the connections made to it before a failure are closed.
+         *
+         * @return the number of failures.
+         */
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Gets the expected nanoseconds to make a connection, failed attempts included. Endpoints cooling down come
+         * after all others, the one recovering first first.
+         */
+        private synchronized double getScore(final long nowNanos) {
+            final long remainingNanos = cooldownEndNanos - nowNanos;
+            if (coolingDown && remainingNanos > 0) {
+                return COOLING_DOWN_SCORE + remainingNanos;
+            }
+            return connectNanos / Math.max(0.01, 1 - errorRate);
+        }
+
+        /**
+         * Tests whether this endpoint is available, that is not cooling down after a failure.
+         *
+         * @return whether this endpoint is available.
+         */
+        public synchronized boolean isAvailable() {
+            return !coolingDown || cooldownEndNanos - System.nanoTime() <= 0;
+        }
+
+        @Override
+        public String toString() {
+            return connectionString;
+        }
+    }
+
+    private final Driver driver;
+
+    private final List<Endpoint> endpoints;
+
+    private final Properties properties;
+
+    private volatile Duration cooldown = Duration.ofSeconds(30);
+
+    private volatile int disconnectionThreshold = 3;
+
+    /**
+     * Constructs a connection factory for a given Driver and endpoints.
+     *
+     * @param driver The Driver.
+     * @param connectionStrings The connection strings of the endpoints.
+     * @param properties The connection properties.
+     */
+    public MultiEndpointConnectionFactory(final Driver driver, final List<String> connectionStrings, final Properties properties) {
+        if (connectionStrings.isEmpty()) {
+            throw new IllegalArgumentException("No endpoint");
+        }
+        this.driver = driver;
+        this.endpoints = Collections.unmodifiableList(connectionStrings.stream().map(s -> new Endpoint(this, s)).collect(Collectors.toList()));
+        this.properties = properties;
+    }
+
+    /**
+     * Constructs a connection factory for a given Driver and endpoints, as {@link BasicDataSource} does when its
+     * {@link BasicDataSource#setConnectionFactoryClassName(String) connectionFactoryClassName} names this class.
+     *
+     * @param driver The Driver.
+     * @param connectionStrings The connection strings of the endpoints, separated by white space.
+     * @param properties The connection properties.
+     */
+    public MultiEndpointConnectionFactory(final Driver driver, final String connectionStrings, final Properties properties) {
+        this(driver, Arrays.asList(connectionStrings.trim().split("\\s+")), properties);
+    }
+
+    /**
+     * Connects to the best available endpoint, trying the others in turn when it fails.
+     *
+     * @return the connection and its endpoint.
+     * @throws SQLException if no endpoint accepts the connection, the first failure with the others suppressed.
+     */
+    @Override
+    public Map.Entry<Connection, Endpoint> connect() throws SQLException {
+        final long nowNanos = System.nanoTime();
+        final List<Endpoint> candidates = endpoints.stream().map(e -> new SimpleImmutableEntry<>(e, e.getScore(nowNanos)))
+                .sorted(Map.Entry.comparingByValue()).map(Map.Entry::getKey).collect(Collectors.toList());
+        SQLException failure = null;
+        for (final Endpoint endpoint : candidates) {
+            final long startNanos = System.nanoTime();
+            try {
+                final Connection conn = driver.connect(endpoint.connectionString, properties);
+                if (conn == null) {
+                    throw new SQLException("Driver does not accept the connection string " + endpoint.connectionString);
+                }
+                endpoint.connected(System.nanoTime() - startNanos);
+                return new SimpleImmutableEntry<>(conn, endpoint);
+            } catch (final SQLException e) {
+                endpoint.failed();
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Connects to the best available endpoint, trying the others in turn when it fails.
+     *
+     * @throws SQLException if no endpoint accepts the connection, the first failure with the others suppressed.
+     */
+    @Override
+    public Connection createConnection() throws SQLException {
+        return connect().getKey();
+    }
+
+    /**
+     * Gets the duration an endpoint is avoided after a failure.
+     *
+     * @return the cooldown duration.
+     */
+    public Duration getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * Gets the number of distinct connections to an endpoint which throw a fatal disconnection exception within a
+     * cooldown before the endpoint fails.
+     *
+     * @return the disconnection threshold.
+     */
+    public int getDisconnectionThreshold() {
+        return disconnectionThreshold;
+    }
+
+    /**
+     * Gets the JDBC Driver.
+     *
+     * @return The JDBC Driver.
+     */
+    public Driver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Gets the endpoints, in the order given.
+     *
+     * @return the endpoints.
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Gets the properties.
+     *
+     * @return The properties.
+     */
+    public Properties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Sets the duration an endpoint is avoided after a failure. The default value is 30 seconds.
+     *
+     * @param cooldown the cooldown duration.
+     */
+    public void setCooldown(final Duration cooldown) {
+        this.cooldown = Objects.requireNonNull(cooldown, "cooldown");
+    }
+
+    /**
+     * Sets the number of distinct connections to an endpoint which throw a fatal disconnection exception within a
+     * {@link #setCooldown(Duration) cooldown} before the endpoint fails, so that a single broken connection does not
+     * close the connections to a healthy endpoint. A failure to connect fails the endpoint at once. The default value
+     * is 3.
+     *
+     * @param disconnectionThreshold the disconnection threshold, 1 to fail an endpoint on its first fatal disconnection
+     *        exception.
+     * @throws IllegalArgumentException if the threshold is not positive.
+     */
+    public void setDisconnectionThreshold(final int disconnectionThreshold) {
+        if (disconnectionThreshold < 1) {
+            throw new IllegalArgumentException("disconnectionThreshold must be positive: " + disconnectionThreshold);
+        }
+        this.disconnectionThreshold = disconnectionThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + " [" + driver + ";" + endpoints + ";" + Utils.cloneWithoutCredentials(properties) + "]";
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.time.Duration;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+/**
+ * Adjusts the effective {@code maxTotal}, {@code maxIdle} and {@code minIdle} of a {@link GenericObjectPool} within
+ * configured bounds, based on observed load.
+ * <p>
+ * {@link #adjust(GenericObjectPool, Duration)} is called once per eviction run. Each call:
+ * </p>
+ * <ul>
+ * <li>grows the effective {@code maxTotal} by a quarter, or enough to serve all waiting borrowers, when borrowers wait,
+ * the mean borrow wait exceeds the target or more than 90% of the connections are in use, up to the configured
+ * {@code maxTotal};</li>
+ * <li>shrinks it by a tenth when less than half of the connections are in use, down to the configured minimum and
+ * never below the number of connections in use;</li>
+ * <li>sets {@code minIdle} to a share of the connections in use, a larger share when creating a connection takes longer
+ * than the target borrow wait, so that the evictor pre-creates connections ahead of demand;</li>
+ * <li>sets {@code maxIdle} to half the connections in use, smoothed over recent runs with a moving average which
+ * follows increases at once, so idle connections are released gradually as load drops rather than on a single quiet
+ * sample.</li>
+ * </ul>
+ * <p>
+ * The configured {@code minIdle} and {@code maxIdle} bound the adjusted values. The bounds are read again on each
+ * call, so changing them on a running {@link BasicDataSource} takes effect at the next eviction run.
+ * </p>
+ *
+ * @see BasicDataSource#setAdaptiveSizing(boolean)
+ * @since 2.15.0
+ */
+public final class PoolSizingController {
+
+    private static final double HIGH_UTILIZATION = 0.9;
+
+    private static final double LOW_UTILIZATION = 0.5;
+
+    private static final double IDLE_HEADROOM = 0.1;
+
+    private static final double SLOW_CREATE_IDLE_HEADROOM = 0.25;
+
+    /** The weight of the latest sample in the moving average of the connections in use. */
+    private static final double ACTIVE_WEIGHT = 0.2;
+
+    private static int clamp(final int value, final int min, final int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private int minTotal;
+
+    private int maxTotal;
+
+    private int minIdle;
+
+    private int maxIdle;
+
+    private Duration targetBorrowWait;
+
+    private volatile int effectiveMaxTotal;
+
+    private volatile long growCount;
+
+    private volatile long shrinkCount;
+
+    private long lastBorrowedCount;
+
+    /** The moving average of the connections in use, negative before the first call to adjust. */
+    private double smoothedActive = -1;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param minTotal the lower bound of the effective {@code maxTotal}.
+     * @param maxTotal the upper bound of the effective {@code maxTotal}, negative for no limit, in which case
+     *        {@code maxTotal} is not adjusted.
+     * @param minIdle the lower bound of {@code minIdle}.
+     * @param maxIdle the upper bound of {@code maxIdle}, negative for no limit.
+     * @param targetBorrowWait the mean borrow wait above which the pool grows.
+     */
+    PoolSizingController(final int minTotal, final int maxTotal, final int minIdle, final int maxIdle, final Duration targetBorrowWait) {
+        setBounds(minTotal, maxTotal, minIdle, maxIdle, targetBorrowWait);
+        this.effectiveMaxTotal = maxTotal;
+    }
+
+    /**
+     * Adjusts the given pool to its observed load.
+     *
+     * @param pool the pool to adjust.
+     * @param meanCreateDuration the recent mean time to create a connection.
+     */
+    synchronized void adjust(final GenericObjectPool<?> pool, final Duration meanCreateDuration) {
+        final int active = pool.getNumActive();
+        final int waiters = pool.getNumWaiters();
+        // The pool's mean borrow wait covers its last borrows, ignore it when nothing was borrowed since the last run.
+        final long borrowedCount = pool.getBorrowedCount();
+        final boolean slowBorrows = borrowedCount != lastBorrowedCount && pool.getMeanBorrowWaitDuration().compareTo(targetBorrowWait) > 0;
+        lastBorrowedCount = borrowedCount;
+        int effective = effectiveMaxTotal;
+        if (maxTotal < 0) {
+            effective = maxTotal;
+            effectiveMaxTotal = effective;
+        } else {
+            // The bounds may have changed since the last run.
+            effective = clamp(effective < 0 ? maxTotal : effective, minTotal, maxTotal);
+            final boolean pressure = waiters > 0 || slowBorrows || active >= effective * HIGH_UTILIZATION;
+            if (pressure && effective < maxTotal) {
+                effective = Math.min(maxTotal, Math.max(effective + Math.max(1, effective / 4), active + waiters));
+                growCount++;
+            } else if (!pressure && active < effective * LOW_UTILIZATION && effective > minTotal) {
+                effective = Math.max(Math.max(minTotal, active), effective - Math.max(1, effective / 10));
+                shrinkCount++;
+            }
+            effectiveMaxTotal = effective;
+            pool.setMaxTotal(effective);
+        }
+        final int idleLimit = effective < 0 ? maxIdle : maxIdle < 0 ? effective : Math.min(maxIdle, effective);
+        final int idleCeiling = idleLimit < 0 ? Integer.MAX_VALUE : idleLimit;
+        final double headroom = meanCreateDuration.compareTo(targetBorrowWait) > 0 ? SLOW_CREATE_IDLE_HEADROOM : IDLE_HEADROOM;
+        final int newMinIdle = clamp((int) Math.ceil(active * headroom), Math.min(minIdle, idleCeiling), idleCeiling);
+        smoothedActive = smoothedActive < 0 || active > smoothedActive ? active : smoothedActive + (active - smoothedActive) * ACTIVE_WEIGHT;
+        if (smoothedActive - active < 0.5) {
+            // Settle on the sample once within half a connection of it.
+            smoothedActive = active;
+        }
+        final int newMaxIdle = clamp((int) Math.ceil(smoothedActive * LOW_UTILIZATION), newMinIdle, idleCeiling);
+        // Lower maxIdle last when shrinking and raise it first when growing, keeping minIdle <= maxIdle throughout.
+        if (newMaxIdle >= pool.getMaxIdle()) {
+            pool.setMaxIdle(newMaxIdle);
+            pool.setMinIdle(newMinIdle);
+        } else {
+            pool.setMinIdle(newMinIdle);
+            pool.setMaxIdle(newMaxIdle);
+        }
+    }
+
+    /**
+     * Sets the configured bounds, used from the next call to {@link #adjust(GenericObjectPool, Duration)}.
+     *
+     * @param minTotal the lower bound of the effective {@code maxTotal}.
+     * @param maxTotal the upper bound of the effective {@code maxTotal}, negative for no limit, in which case
+     *        {@code maxTotal} is not adjusted.
+     * @param minIdle the lower bound of {@code minIdle}.
+     * @param maxIdle the upper bound of {@code maxIdle}, negative for no limit.
+     * @param targetBorrowWait the mean borrow wait above which the pool grows.
+     */
+    synchronized void setBounds(final int minTotal, final int maxTotal, final int minIdle, final int maxIdle, final Duration targetBorrowWait) {
+        this.maxTotal = maxTotal;
+        this.minTotal = maxTotal < 0 ? Math.max(1, minTotal) : clamp(minTotal, 1, maxTotal);
+        this.minIdle = Math.max(0, minIdle);
+        this.maxIdle = maxIdle;
+        this.targetBorrowWait = targetBorrowWait;
+    }
+
+    /**
+     * Gets the effective {@code maxTotal} last set on the pool.
+     *
+     * @return the effective {@code maxTotal}, negative for no limit.
+     */
+    public int getEffectiveMaxTotal() {
+        return effectiveMaxTotal;
+    }
+
+    /**
+     * Gets the number of times the effective {@code maxTotal} was increased.
+     *
+     * @return the number of times the effective {@code maxTotal} was increased.
+     */
+    public long getGrowCount() {
+        return growCount;
+    }
+
+    /**
+     * Gets the number of times the effective {@code maxTotal} was decreased.
+     *
+     * @return the number of times the effective {@code maxTotal} was decreased.
+     */
+    public long getShrinkCount() {
+        return shrinkCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getClass().getSimpleName() + " [effectiveMaxTotal=" + effectiveMaxTotal + ", minTotal=" + minTotal + ", maxTotal=" + maxTotal
+                + ", growCount=" + growCount + ", shrinkCount=" + shrinkCount + "]";
+    }
+}
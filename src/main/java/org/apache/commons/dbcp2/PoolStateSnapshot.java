@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * The state of a connection pool saved by {@link BasicDataSource#close()} to warm up the pool the next time it starts,
+ * in a {@link Properties} file.
+ *
+ * @see BasicDataSource#setSnapshotFile(String)
+ * @since 2.15.0
+ */
+final class PoolStateSnapshot {
+
+    private static final String PEAK_ACTIVE = "peakActive";
+
+    private static final String MAX_TOTAL = "maxTotal";
+
+    private static final String STATEMENT_PREFIX = "statement.";
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param file the snapshot file.
+     * @return the snapshot, null if the file does not exist.
+     * @throws IOException if the file cannot be read.
+     */
+    static PoolStateSnapshot read(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+        final List<String> statements = new ArrayList<>();
+        for (int i = 0; properties.containsKey(STATEMENT_PREFIX + i); i++) {
+            statements.add(properties.getProperty(STATEMENT_PREFIX + i));
+        }
+        try {
+            return new PoolStateSnapshot(Integer.parseInt(properties.getProperty(PEAK_ACTIVE, "0")),
+                    Integer.parseInt(properties.getProperty(MAX_TOTAL, "-1")), statements);
+        } catch (final NumberFormatException e) {
+            throw new IOException("Invalid pool state snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Orders the SQL of cached statements by the number of connections caching them, most first.
+     *
+     * @param counts the number of connections caching each SQL.
+     * @return the SQL, hottest first.
+     */
+    static List<String> rank(final Map<String, Integer> counts) {
+        return counts.entrySet().stream().sorted(Map.Entry.<String, Integer>comparingByValue().reversed()).map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private final int peakActive;
+
+    private final int maxTotal;
+
+    private final List<String> statements;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param peakActive the largest number of connections seen active at once.
+     * @param maxTotal the effective maximum number of connections of the pool, negative for no limit.
+     * @param statements the SQL of the statements cached by the connections, hottest first.
+     */
+    PoolStateSnapshot(final int peakActive, final int maxTotal, final List<String> statements) {
+        this.peakActive = peakActive;
+        this.maxTotal = maxTotal;
+        this.statements = Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Gets the effective maximum number of connections of the pool when it closed.
+     *
+     * @return the effective maxTotal, negative for no limit.
+     */
+    int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Gets the largest number of connections seen active at once.
+     *
+     * @return the peak active count.
+     */
+    int getPeakActive() {
+        return peakActive;
+    }
+
+    /**
+     * Gets the SQL of the statements cached by the connections, hottest first.
+     *
+     * @return the statement SQL.
+     */
+    List<String> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Writes this snapshot, replacing the file at once so a crash never leaves it half written.
+     *
+     * @param file the snapshot file.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(PEAK_ACTIVE, Integer.toString(peakActive));
+        properties.setProperty(MAX_TOTAL, Integer.toString(maxTotal));
+        for (int i = 0; i < statements.size(); i++) {
+            properties.setProperty(STATEMENT_PREFIX + i, statements.get(i));
+        }
+        final Path parent = file.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Apache Commons DBCP pool state");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.time.Duration;
 import java.util.Collection;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -90,6 +91,39 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
 
     private final Lock lock = new ReentrantLock();
 
+    /** Notified of fatal disconnection exceptions, may be null. */
+    private volatile DisconnectionWave disconnectionWave;
+
+    /** The invalidation wave generation this connection was last known good in. */
+    private volatile long disconnectionWaveGeneration;
+
+    /** The retire generation of the factory when this connection was made. */
+    private volatile long retireGeneration;
+
+    /** The endpoint this connection was made to, null if its factory has no endpoints. */
+    private volatile MultiEndpointConnectionFactory.Endpoint endpoint;
+
+    /** The failure count of the endpoint when this connection was made. */
+    private volatile long endpointFailureCount;
+
+    /** The random reduction of this connection's maximum lifetime. */
+    private volatile long lifetimeJitterNanos;
+
+    /** Whether {@link #close()} asks the driver if the underlying connection is closed. */
+    private volatile boolean checkClosedOnReturn = true;
+
+    /** The holdability before the current borrower changed it, restored on return, null if unchanged. */
+    private Integer holdabilityToRestore;
+
+    /** The network timeout before the current borrower changed it, restored on return, null if unchanged. */
+    private Integer networkTimeoutToRestore;
+
+    /** The executor given with the current borrower's network timeout, used to restore it. */
+    private Executor networkTimeoutExecutor;
+
+    /** Releases the priority lane and partition permits of the current borrower, null if none are held. */
+    private final AtomicReference<Runnable> borrowPermits = new AtomicReference<>();
+
     /**
      * Constructs a new instance.
      *
@@ -190,7 +224,8 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
 
             boolean isUnderlyingConnectionClosed;
             try {
-                isUnderlyingConnectionClosed = getDelegateInternal().isClosed();
+                // Without the driver check, only a fatal exception tells a broken connection, validation catches the rest.
+                isUnderlyingConnectionClosed = checkClosedOnReturn ? getDelegateInternal().isClosed() : fatalSqlExceptionThrown.get();
             } catch (final SQLException e) {
                 try {
                     pool.invalidateObject(this);
@@ -251,6 +286,18 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
         return disconnectionSqlCodes;
     }
 
+    /**
+     * Gets the connection string of the endpoint this connection was made to by a
+     * {@link MultiEndpointConnectionFactory}.
+     *
+     * @return the connection string of the endpoint, null if the connection factory has no endpoints.
+     * @since 2.15.0
+     */
+    public String getEndpoint() {
+        final MultiEndpointConnectionFactory.Endpoint e = endpoint;
+        return e != null ? e.getConnectionString() : null;
+    }
+
     /**
      * Gets the value of the {@link #toString()} method via a bean getter, so it can be read as a property via JMX.
      */
@@ -259,9 +306,32 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
         return toString();
     }
 
+    long getDisconnectionWaveGeneration() {
+        return disconnectionWaveGeneration;
+    }
+
+    long getLifetimeJitterNanos() {
+        return lifetimeJitterNanos;
+    }
+
+    long getRetireGeneration() {
+        return retireGeneration;
+    }
+
     @Override
     protected void handleException(final SQLException e) throws SQLException {
-        fatalSqlExceptionThrown.compareAndSet(false, isFatalException(e));
+        if (isFatalException(e)) {
+            final boolean first = !fatalSqlExceptionThrown.getAndSet(true);
+            final DisconnectionWave wave = disconnectionWave;
+            if (first && wave != null) {
+                // A connection counts once toward a wave, however many fatal exceptions it throws
+                wave.fatalExceptionThrown();
+            }
+            final MultiEndpointConnectionFactory.Endpoint failedEndpoint = endpoint;
+            if (first && failedEndpoint != null) {
+                failedEndpoint.disconnected();
+            }
+        }
         super.handleException(e);
     }
 
@@ -317,6 +387,14 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
         return fatalException;
     }
 
+    /**
+     * Tests whether the endpoint of this connection failed since this connection was made.
+     */
+    boolean isEndpointFailed() {
+        final MultiEndpointConnectionFactory.Endpoint e = endpoint;
+        return e != null && e.getFailureCount() > endpointFailureCount;
+    }
+
     /**
      * Tests whether to fail-fast.
      *
@@ -363,6 +441,42 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
         }
     }
 
+    /**
+     * Releases the permits the current borrower took to borrow this connection, once, when the connection goes back to
+     * the pool or is destroyed, including when it is reclaimed as abandoned.
+     */
+    void releaseBorrowPermits() {
+        final Runnable release = borrowPermits.getAndSet(null);
+        if (release != null) {
+            release.run();
+        }
+    }
+
+    /**
+     * Restores the holdability and network timeout the borrower changed to the values the connection had before, which
+     * are the values it was made with since they are restored on every return.
+     *
+     * @throws SQLException if a value cannot be restored.
+     */
+    void restoreSessionSettings() throws SQLException {
+        final Integer holdability = holdabilityToRestore;
+        if (holdability != null) {
+            holdabilityToRestore = null;
+            if (getHoldability() != holdability) {
+                super.setHoldability(holdability);
+            }
+        }
+        final Integer networkTimeout = networkTimeoutToRestore;
+        if (networkTimeout != null) {
+            final Executor executor = networkTimeoutExecutor;
+            networkTimeoutToRestore = null;
+            networkTimeoutExecutor = null;
+            if (getNetworkTimeout() != networkTimeout) {
+                super.setNetworkTimeout(executor, networkTimeout);
+            }
+        }
+    }
+
     /**
      * Closes the underlying {@link Connection}.
      */
@@ -379,6 +493,79 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
         super.closeInternal();
     }
 
+    /**
+     * Sets whether {@link #close()} calls the driver's {@link Connection#isClosed()} before returning this connection
+     * to the pool. When {@code false}, a connection is only invalidated on close if it threw a fatal disconnection
+     * exception; other dead connections are found by validation.
+     *
+     * @param checkClosedOnReturn whether to ask the driver if the underlying connection is closed.
+     * @since 2.15.0
+     */
+    public void setCheckClosedOnReturn(final boolean checkClosedOnReturn) {
+        this.checkClosedOnReturn = checkClosedOnReturn;
+    }
+
+    void setDisconnectionWave(final DisconnectionWave disconnectionWave) {
+        this.disconnectionWave = disconnectionWave;
+    }
+
+    /**
+     * Sets how to release the permits the current borrower took to borrow this connection.
+     *
+     * @param borrowPermits releases the permits, may be null.
+     * @see #releaseBorrowPermits()
+     */
+    void setBorrowPermits(final Runnable borrowPermits) {
+        this.borrowPermits.set(borrowPermits);
+    }
+
+    void setDisconnectionWaveGeneration(final long disconnectionWaveGeneration) {
+        this.disconnectionWaveGeneration = disconnectionWaveGeneration;
+    }
+
+    void setEndpoint(final MultiEndpointConnectionFactory.Endpoint endpoint, final long endpointFailureCount) {
+        this.endpoint = endpoint;
+        this.endpointFailureCount = endpointFailureCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The holdability in effect before is restored when this connection is returned to the pool.
+     * </p>
+     */
+    @Override
+    public void setHoldability(final int holdability) throws SQLException {
+        if (holdabilityToRestore == null) {
+            holdabilityToRestore = getHoldability();
+        }
+        super.setHoldability(holdability);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The network timeout in effect before is restored, with the given executor, when this connection is returned to
+     * the pool.
+     * </p>
+     */
+    @Override
+    public void setNetworkTimeout(final Executor executor, final int milliseconds) throws SQLException {
+        if (networkTimeoutToRestore == null) {
+            networkTimeoutToRestore = getNetworkTimeout();
+        }
+        networkTimeoutExecutor = executor;
+        super.setNetworkTimeout(executor, milliseconds);
+    }
+
+    void setLifetimeJitterNanos(final long lifetimeJitterNanos) {
+        this.lifetimeJitterNanos = lifetimeJitterNanos;
+    }
+
+    void setRetireGeneration(final long retireGeneration) {
+        this.retireGeneration = retireGeneration;
+    }
+
     @Override
     public void setLastUsed() {
         super.setLastUsed();
@@ -424,6 +611,8 @@ public class PoolableConnection extends DelegatingConnection<Connection> impleme
             return;
         }
 
+        // The validation query may open a transaction when auto-commit is off.
+        markTransactionDirty();
         if (!sql.equals(lastValidationSql)) {
             lastValidationSql = sql;
             // Has to be the innermost delegate else the prepared statement will
@@ -20,9 +20,19 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
@@ -34,9 +44,12 @@ import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.ObjectPool;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.PooledObjectState;
+import org.apache.commons.pool2.impl.BaseGenericObjectPool;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.apache.commons.pool2.impl.GenericObjectPool;
 
 /**
  * A {@link PooledObjectFactory} that creates {@link PoolableConnection}s.
@@ -45,6 +58,58 @@ import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
  */
 public class PoolableConnectionFactory implements PooledObjectFactory<PoolableConnection> {
 
+    /**
+     * A call to {@link PoolableConnectionFactory#retireConnections(Duration)}: connections made in an earlier
+     * generation are retired at a rate bounded by the spread.
+     */
+    private static final class Retirement {
+
+        private final long generation;
+
+        private final long startNanos;
+
+        private final long spreadNanos;
+
+        /** The number of connections of the pool when retired. */
+        private final int count;
+
+        private final AtomicInteger retired = new AtomicInteger();
+
+        private Retirement(final long generation, final long startNanos, final long spreadNanos, final int count) {
+            this.generation = generation;
+            this.startNanos = startNanos;
+            this.spreadNanos = spreadNanos;
+            this.count = count;
+        }
+
+        /**
+         * Claims the turn to retire a connection, the first one at once and the others in proportion of the time
+         * elapsed in the spread.
+         *
+         * @return whether a connection may be retired now.
+         */
+        private boolean tryRetire() {
+            final long elapsedNanos = System.nanoTime() - startNanos;
+            final long allowed = elapsedNanos >= spreadNanos ? Long.MAX_VALUE
+                    : Math.max(1, (long) Math.ceil((double) count * elapsedNanos / spreadNanos));
+            int current;
+            do {
+                current = retired.get();
+                if (current >= allowed) {
+                    return false;
+                }
+            } while (!retired.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * Gives back a turn claimed by {@link #tryRetire()} which was not used.
+         */
+        private void untryRetire() {
+            retired.decrementAndGet();
+        }
+    }
+
     private static final Log log = LogFactory.getLog(PoolableConnectionFactory.class);
 
     /**
@@ -52,7 +117,30 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
      */
     static final int UNKNOWN_TRANSACTION_ISOLATION = -1;
 
-    private final ConnectionFactory connectionFactory;
+    /** The duration in seconds over which {@link #retireConnections()} retires connections without lifetime jitter. */
+    static final long DEFAULT_RETIRE_SPREAD_SECONDS = 10;
+
+    /** The minimum interval in milliseconds between two scans for retired idle connections. */
+    private static final long RETIRED_SCAN_MIN_INTERVAL_MILLIS = 1000;
+
+    private static final long RETIRED_REAPER_KEEP_ALIVE_SECONDS = 10;
+
+    /**
+     * Closes the retired idle connections of all pools, its thread stops when idle.
+     */
+    private static final ScheduledThreadPoolExecutor RETIRED_REAPER;
+
+    static {
+        RETIRED_REAPER = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "commons-dbcp2-retired-connection-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RETIRED_REAPER.setKeepAliveTime(RETIRED_REAPER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        RETIRED_REAPER.allowCoreThreadTimeOut(true);
+    }
+
+    private volatile ConnectionFactory connectionFactory;
 
     private final ObjectName dataSourceJmxObjectName;
 
@@ -60,19 +148,19 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
 
     private volatile Duration validationQueryTimeoutDuration = Duration.ofSeconds(-1);
 
-    private Collection<String> connectionInitSqls;
+    private volatile Collection<String> connectionInitSqls;
 
-    private Collection<String> disconnectionSqlCodes;
+    private volatile Collection<String> disconnectionSqlCodes;
 
-    private Collection<String> disconnectionIgnoreSqlCodes;
+    private volatile Collection<String> disconnectionIgnoreSqlCodes;
 
     private volatile boolean fastFailValidation = true;
 
     private volatile ObjectPool<PoolableConnection> pool;
 
-    private Boolean defaultReadOnly;
+    private volatile Boolean defaultReadOnly;
 
-    private Boolean defaultAutoCommit;
+    private volatile Boolean defaultAutoCommit;
 
     private volatile boolean autoCommitOnReturn = true;
 
@@ -80,9 +168,9 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
 
     private volatile int defaultTransactionIsolation = UNKNOWN_TRANSACTION_ISOLATION;
 
-    private String defaultCatalog;
+    private volatile String defaultCatalog;
 
-    private String defaultSchema;
+    private volatile String defaultSchema;
 
     private volatile boolean cacheState;
 
@@ -92,11 +180,37 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
 
     private volatile int maxOpenPreparedStatements = GenericKeyedObjectPoolConfig.DEFAULT_MAX_TOTAL_PER_KEY;
 
-    private Duration maxConnDuration = Duration.ofMillis(-1);
+    private volatile Duration maxConnDuration = Duration.ofMillis(-1);
+
+    private volatile Duration maxConnLifetimeJitter = Duration.ZERO;
 
     private final AtomicLong connectionIndex = new AtomicLong();
 
-    private Duration defaultQueryTimeoutDuration;
+    /** Starts an invalidation wave when too many fatal disconnection exceptions occur. */
+    private final DisconnectionWave disconnectionWave = new DisconnectionWave(this::clearIdleConnections);
+
+    /** The connections made by this factory and not destroyed yet, for invalidation waves to find the idle ones. */
+    private final Set<PooledObject<PoolableConnection>> pooledObjects = ConcurrentHashMap.newKeySet();
+
+    /** Replaced by {@link #retireConnections(Duration)}, connections made in an earlier generation are retired. */
+    private final AtomicReference<Retirement> retirement = new AtomicReference<>(new Retirement(0, 0, 0, 0));
+
+    /** Moving average of the time taken by {@link #makeObject()}, 0 until a connection was made. */
+    private final AtomicLong meanCreateNanos = new AtomicLong();
+
+    /** The largest number of connections seen active at once, updated on borrow. */
+    private volatile int peakActive;
+
+    /** Counts the SQL of the statements cached by the connections destroyed while set, for a pool state snapshot. */
+    private volatile Map<String, Integer> statementSqlCounts;
+
+    private volatile Duration defaultQueryTimeoutDuration;
+
+    private volatile boolean thinResultSets;
+
+    private volatile boolean directResultSets;
+
+    private volatile boolean checkClosedOnReturn = true;
 
     /**
      * Creates a new {@link PoolableConnectionFactory}.
@@ -115,7 +229,22 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
     public void activateObject(final PooledObject<PoolableConnection> p) throws SQLException {
         validateLifetime(p);
         final PoolableConnection poolableConnection = p.getObject();
+        validateEndpoint(poolableConnection);
+        final ObjectPool<PoolableConnection> currentPool = pool;
+        if (currentPool != null) {
+            // A lost update under contention only misses a peak by one borrow
+            final int active = currentPool.getNumActive();
+            if (active > peakActive) {
+                peakActive = active;
+            }
+        }
         poolableConnection.activate();
+        final long generation = disconnectionWave.getGeneration();
+        if (poolableConnection.getDisconnectionWaveGeneration() < generation) {
+            // Created before the last invalidation wave, the server may be gone.
+            validateConnection(poolableConnection);
+            poolableConnection.setDisconnectionWaveGeneration(generation);
+        }
         if (defaultAutoCommit != null && poolableConnection.getAutoCommit() != defaultAutoCommit) {
             poolableConnection.setAutoCommit(defaultAutoCommit);
         }
@@ -136,6 +265,9 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
 
     @Override
     public void destroyObject(final PooledObject<PoolableConnection> p) throws SQLException {
+        pooledObjects.remove(p);
+        p.getObject().releaseBorrowPermits();
+        countStatementSql(p.getObject());
         p.getObject().reallyClose();
     }
 
@@ -144,13 +276,32 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
      */
     @Override
     public void destroyObject(final PooledObject<PoolableConnection> p, final DestroyMode mode) throws SQLException {
+        pooledObjects.remove(p);
+        p.getObject().releaseBorrowPermits();
         if (mode == DestroyMode.ABANDONED) {
             Jdbc41Bridge.abort(p.getObject().getInnermostDelegate(), Runnable::run);
         } else {
+            countStatementSql(p.getObject());
             p.getObject().reallyClose();
         }
     }
 
+    /**
+     * Counts the SQL of the statements cached by a connection about to be destroyed, when collecting them.
+     *
+     * @param conn the connection.
+     */
+    private void countStatementSql(final PoolableConnection conn) {
+        final Map<String, Integer> counts = statementSqlCounts;
+        if (counts != null && conn.getDelegateInternal() instanceof PoolingConnection) {
+            final KeyedObjectPool<PStmtKey, DelegatingPreparedStatement> statementPool = ((PoolingConnection) conn.getDelegateInternal()).getStatementPool();
+            if (statementPool instanceof GenericKeyedObjectPool) {
+                ((GenericKeyedObjectPool<PStmtKey, DelegatingPreparedStatement>) statementPool).getKeys()
+                        .forEach(key -> counts.merge(key.getSql(), 1, Integer::sum));
+            }
+        }
+    }
+
     /**
      * Gets the cache state to propagate in {@link #makeObject()}.
      *
@@ -283,6 +434,33 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         return defaultSchema;
     }
 
+    /**
+     * Destroys the idle connections of the pool created before an invalidation wave when it starts. Like an eviction
+     * run, each idle connection is claimed before it is destroyed, so connections in use are left alone, and
+     * connections created or validated since the wave started stay in the pool. The pool may replace a destroyed
+     * connection; once a replacement fails the server is likely still gone, so the scan stops and leaves the remaining
+     * idle connections to validation on borrow.
+     *
+     * @param generation the generation of the wave.
+     */
+    private void clearIdleConnections(final long generation) {
+        final ObjectPool<PoolableConnection> p = pool;
+        log.warn(Utils.getMessage("poolableConnectionFactory.disconnectionWave", disconnectionWave.getThreshold(),
+                disconnectionWave.getWindow()));
+        if (p != null) {
+            for (final PooledObject<PoolableConnection> pooledObject : pooledObjects) {
+                if (pooledObject.getObject().getDisconnectionWaveGeneration() < generation && pooledObject.startEvictionTest()) {
+                    try {
+                        p.invalidateObject(pooledObject.getObject());
+                    } catch (final Exception e) {
+                        log.warn(Utils.getMessage("poolableConnectionFactory.disconnectionWave.clearFail"), e);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Gets the default transaction isolation.
      *
@@ -308,6 +486,40 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         return disconnectionIgnoreSqlCodes;
     }
 
+    /**
+     * Gets the number of fatal disconnection exceptions within the {@link #getDisconnectionWaveWindow() window} which
+     * start an invalidation wave.
+     *
+     * @return the threshold, 0 or less when invalidation waves are disabled.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public int getDisconnectionWaveThreshold() {
+        return disconnectionWave.getThreshold();
+    }
+
+    /**
+     * Gets the number of invalidation waves started so far.
+     *
+     * @return the number of invalidation waves started so far.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public long getDisconnectionWaveCount() {
+        return disconnectionWave.getGeneration();
+    }
+
+    /**
+     * Gets the window in which fatal disconnection exceptions are counted towards an invalidation wave.
+     *
+     * @return the window.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public Duration getDisconnectionWaveWindow() {
+        return disconnectionWave.getWindow();
+    }
+
     /**
      * Gets SQL State codes considered to signal fatal conditions.
      * <p>
@@ -338,6 +550,17 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         return maxConnDuration;
     }
 
+    /**
+     * Gets the recent mean time taken to create and initialize a connection, an exponential moving average which
+     * favors the latest connections.
+     *
+     * @return the recent mean time taken to create a connection, zero if none was created yet.
+     * @since 2.15.0
+     */
+    public Duration getMeanCreateDuration() {
+        return Duration.ofNanos(meanCreateNanos.get());
+    }
+
     /**
      * Gets the Maximum connection lifetime in milliseconds.
      *
@@ -348,6 +571,26 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         return maxConnDuration.toMillis();
     }
 
+    /**
+     * Gets the maximum random reduction applied to the maximum lifetime of each connection.
+     *
+     * @return the maximum lifetime jitter.
+     * @see #setMaxConnLifetimeJitter(Duration)
+     * @since 2.15.0
+     */
+    public Duration getMaxConnLifetimeJitter() {
+        return maxConnLifetimeJitter;
+    }
+
+    /**
+     * Gets the largest number of connections seen active at once since this factory was created.
+     *
+     * @return the peak active count.
+     */
+    int getPeakActive() {
+        return peakActive;
+    }
+
     /**
      * Gets the maximum number of open prepared statements.
      *
@@ -439,6 +682,17 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         return autoCommitOnReturn;
     }
 
+    /**
+     * Tests whether connections created by this factory use direct result sets.
+     *
+     * @return Whether connections created by this factory use direct result sets.
+     * @see DelegatingConnection#setDirectResultSets(boolean)
+     * @since 2.15.0
+     */
+    public boolean isDirectResultSets() {
+        return directResultSets;
+    }
+
     /**
      * Tests whether to set auto-commit on {@link #passivateObject(PooledObject)}.
      *
@@ -472,9 +726,35 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         return rollbackOnReturn;
     }
 
+    /**
+     * Tests whether connections created by this factory call the driver's {@link Connection#isClosed()} when they are
+     * returned to the pool.
+     *
+     * @return Whether connections created by this factory check the driver on return.
+     * @see PoolableConnection#setCheckClosedOnReturn(boolean)
+     * @since 2.15.0
+     */
+    public boolean isCheckClosedOnReturn() {
+        return checkClosedOnReturn;
+    }
+
+    /**
+     * Tests whether connections created by this factory use thin result set wrappers.
+     *
+     * @return Whether connections created by this factory use thin result set wrappers.
+     * @see DelegatingConnection#setThinResultSets(boolean)
+     * @since 2.15.0
+     */
+    public boolean isThinResultSets() {
+        return thinResultSets;
+    }
+
     @Override
     public PooledObject<PoolableConnection> makeObject() throws SQLException {
-        Connection conn = connectionFactory.createConnection();
+        final long startNanos = System.nanoTime();
+        final long generation = getRetireGeneration();
+        final Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connected = connect();
+        Connection conn = connected.getKey();
         if (conn == null) {
             throw new IllegalStateException("Connection factory returned null from createConnection");
         }
@@ -487,6 +767,8 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
             throw e;
         }
 
+        final long createNanos = System.nanoTime() - startNanos;
+        meanCreateNanos.accumulateAndGet(createNanos, (mean, latest) -> mean == 0 ? latest : mean + (latest - mean) / 8);
         final long connIndex = connectionIndex.getAndIncrement();
 
         if (poolStatements) {
@@ -511,6 +793,8 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
             poolingConn.setStatementPool(stmtPool);
             poolingConn.setClearStatementPoolOnReturn(clearStatementPoolOnReturn);
             poolingConn.setCacheState(cacheState);
+            poolingConn.setThinResultSets(thinResultSets);
+            poolingConn.setDirectResultSets(directResultSets);
         }
 
         // Register this connection with JMX
@@ -530,25 +814,39 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         final PoolableConnection pc = new PoolableConnection(conn, pool, connJmxName,
                 disconnectionSqlCodes, disconnectionIgnoreSqlCodes, fastFailValidation);
         pc.setCacheState(cacheState);
-
-        return new DefaultPooledObject<>(pc);
+        pc.setThinResultSets(thinResultSets);
+        pc.setCheckClosedOnReturn(checkClosedOnReturn);
+        pc.setDirectResultSets(directResultSets);
+        return initializePoolableConnection(pc, generation, connected.getValue());
     }
 
     @Override
     public void passivateObject(final PooledObject<PoolableConnection> p) throws SQLException {
 
+        // The borrower is done with the connection, let the next one through the gates.
+        p.getObject().releaseBorrowPermits();
         validateLifetime(p);
 
         final PoolableConnection conn = p.getObject();
+        if (isRetiring(conn)) {
+            throw new LifetimeExceededException(Utils.getMessage("poolableConnectionFactory.retired", conn));
+        }
+        validateEndpoint(conn);
         Boolean connAutoCommit = null;
-        if (rollbackOnReturn) {
+        // Skip the resets the borrower's use of the connection made unnecessary.
+        if (rollbackOnReturn && conn.isTransactionDirty()) {
             connAutoCommit = conn.getAutoCommit();
             if (!connAutoCommit && !conn.isReadOnly()) {
                 conn.rollback();
             }
         }
 
-        conn.clearWarnings();
+        if (conn.isWarningsDirty()) {
+            conn.clearWarnings();
+        }
+
+        // Do not leak the borrower's holdability and network timeout to the next borrower.
+        conn.restoreSessionSettings();
 
         // DBCP-97 / DBCP-399 / DBCP-351 Idle connections in the pool should
         // have autoCommit enabled
@@ -564,6 +862,125 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         conn.passivate();
     }
 
+    /**
+     * Retires the connections made so far, spread over the {@link #setMaxConnLifetimeJitter(Duration) lifetime jitter},
+     * or over {@value #DEFAULT_RETIRE_SPREAD_SECONDS} seconds without jitter.
+     *
+     * @see #retireConnections(Duration)
+     * @since 2.15.0
+     */
+    public void retireConnections() {
+        final Duration jitter = maxConnLifetimeJitter;
+        retireConnections(jitter.compareTo(Duration.ZERO) > 0 ? jitter : Duration.ofSeconds(DEFAULT_RETIRE_SPREAD_SECONDS));
+    }
+
+    /**
+     * Retires the connections made so far, so that they are replaced by connections made with the current settings
+     * of this factory. A retired connection is not closed while in use: it is closed when it is next returned to the
+     * pool, or by a background scan when idle, and the pool makes new connections as they are needed.
+     * <p>
+     * To avoid reconnecting every connection at once, connections are retired at a bounded rate spread over the given
+     * duration: the first one at once, then the others in proportion of the elapsed time. A retired connection returned
+     * before its turn keeps serving borrowers until a later return, and the scan for idle ones runs at most every
+     * second.
+     * </p>
+     *
+     * @param spread the duration over which to retire the connections, zero to retire them all at once.
+     * @see #makeObject()
+     * @since 2.15.0
+     */
+    public void retireConnections(final Duration spread) {
+        final long spreadNanos = Objects.requireNonNull(spread, "spread").toNanos();
+        final ObjectPool<PoolableConnection> op = pool;
+        final int count = op != null ? Math.max(0, op.getNumActive()) + Math.max(0, op.getNumIdle()) : 0;
+        final long startNanos = System.nanoTime();
+        final Retirement current = retirement.updateAndGet(r -> new Retirement(r.generation + 1, startNanos, spreadNanos, count));
+        if (count > 0) {
+            final long intervalNanos = Math.max(spreadNanos / count, TimeUnit.MILLISECONDS.toNanos(RETIRED_SCAN_MIN_INTERVAL_MILLIS));
+            scheduleRetiredScan(current, intervalNanos);
+        }
+    }
+
+    /**
+     * Closes the idle connections of the given retirement whose turn has come, claiming each one as an eviction run
+     * does, and schedules the next scan while connections of an earlier generation remain. A newer retirement or a
+     * closed pool stops the scans.
+     *
+     * @param current the retirement.
+     * @param intervalNanos the interval between two scans.
+     */
+    private void scanRetiredConnections(final Retirement current, final long intervalNanos) {
+        final ObjectPool<PoolableConnection> op = pool;
+        if (op == null || retirement.get() != current || op instanceof BaseGenericObjectPool && ((BaseGenericObjectPool<?>) op).isClosed()) {
+            return;
+        }
+        boolean remaining = false;
+        for (final PooledObject<PoolableConnection> pooledObject : pooledObjects) {
+            if (pooledObject.getObject().getRetireGeneration() >= current.generation) {
+                continue;
+            }
+            remaining = true;
+            if (pooledObject.getState() == PooledObjectState.IDLE && current.tryRetire()) {
+                if (!pooledObject.startEvictionTest()) {
+                    // Borrowed meanwhile, it is retired when returned.
+                    current.untryRetire();
+                    continue;
+                }
+                try {
+                    op.invalidateObject(pooledObject.getObject());
+                } catch (final Exception e) {
+                    log.warn(Utils.getMessage("poolableConnectionFactory.retireFail"), e);
+                    break;
+                }
+            }
+        }
+        if (remaining) {
+            scheduleRetiredScan(current, intervalNanos);
+        }
+    }
+
+    private void scheduleRetiredScan(final Retirement current, final long intervalNanos) {
+        RETIRED_REAPER.schedule(() -> scanRetiredConnections(current, intervalNanos), intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Replaces the factory making the physical connections, for example to switch to a new URL or new credentials,
+     * and {@link #retireConnections() retires} the connections made so far.
+     *
+     * @param connectionFactory the new connection factory.
+     * @since 2.15.0
+     */
+    public void rotateConnectionFactory(final ConnectionFactory connectionFactory) {
+        this.connectionFactory = Objects.requireNonNull(connectionFactory, "connectionFactory");
+        retireConnections();
+    }
+
+    /**
+     * Sets the number of fatal disconnection exceptions, thrown by any connection of the pool within the
+     * {@link #setDisconnectionWaveWindow(Duration) window}, which start an invalidation wave. A wave destroys the idle
+     * connections created before it at once and validates every connection created before the wave when it is next borrowed, instead of
+     * letting each connection to a failed server fail on its own. The default value is 0, which disables waves.
+     *
+     * @param disconnectionWaveThreshold the threshold, 0 or less to disable invalidation waves.
+     * @see #setDisconnectionSqlCodes(Collection)
+     * @since 2.15.0
+     */
+    public void setDisconnectionWaveThreshold(final int disconnectionWaveThreshold) {
+        disconnectionWave.setThreshold(disconnectionWaveThreshold);
+    }
+
+    /**
+     * Sets the window in which fatal disconnection exceptions are counted towards an invalidation wave. The default
+     * value is 10 seconds.
+     *
+     * @param disconnectionWaveWindow the window.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @since 2.15.0
+     */
+    public void setDisconnectionWaveWindow(final Duration disconnectionWaveWindow) {
+        disconnectionWave.setWindow(Objects.requireNonNull(disconnectionWaveWindow, "disconnectionWaveWindow"));
+    }
+
     /**
      * Sets whether to set auto-commit on {@link #passivateObject(PooledObject)}.
      *
@@ -582,6 +999,20 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         this.cacheState = cacheState;
     }
 
+    /**
+     * Sets whether connections created by this factory call the driver's {@link Connection#isClosed()} when they are
+     * returned to the pool. Some drivers implement it with a network round trip. When disabled, only connections which
+     * threw a fatal disconnection exception are destroyed on return and other dead connections are left to validation,
+     * so enable {@code testOnBorrow} or {@code testWhileIdle}. The default value is true.
+     *
+     * @param checkClosedOnReturn Whether connections created by this factory check the driver on return.
+     * @see PoolableConnection#setCheckClosedOnReturn(boolean)
+     * @since 2.15.0
+     */
+    public void setCheckClosedOnReturn(final boolean checkClosedOnReturn) {
+        this.checkClosedOnReturn = checkClosedOnReturn;
+    }
+
     /**
      * Sets whether the pool of statements (which was enabled with {@link #setPoolStatements(boolean)}) should
      * be cleared when the connection is returned to its pool. Default is false.
@@ -676,6 +1107,17 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         this.defaultTransactionIsolation = defaultTransactionIsolation;
     }
 
+    /**
+     * Sets whether connections created by this factory use direct result sets.
+     *
+     * @param directResultSets Whether connections created by this factory use direct result sets.
+     * @see DelegatingConnection#setDirectResultSets(boolean)
+     * @since 2.15.0
+     */
+    public void setDirectResultSets(final boolean directResultSets) {
+        this.directResultSets = directResultSets;
+    }
+
     /**
      * Sets the disconnection SQL codes to ignore.
      *
@@ -725,6 +1167,19 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         this.fastFailValidation = fastFailValidation;
     }
 
+    /**
+     * Sets the maximum random reduction applied to the maximum lifetime of each connection. Each new connection draws
+     * its own reduction between zero and this value, capped at half the maximum lifetime, so that connections created
+     * together do not all expire together. The default value is zero, no jitter.
+     *
+     * @param maxConnLifetimeJitter the maximum lifetime jitter.
+     * @see #setMaxConn(Duration)
+     * @since 2.15.0
+     */
+    public void setMaxConnLifetimeJitter(final Duration maxConnLifetimeJitter) {
+        this.maxConnLifetimeJitter = Objects.requireNonNull(maxConnLifetimeJitter, "maxConnLifetimeJitter");
+    }
+
     /**
      * Sets the maximum lifetime in milliseconds of a connection after which the connection will always fail activation,
      * passivation and validation. A value of zero or less indicates an infinite lifetime. The default value is -1.
@@ -803,6 +1258,27 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         this.rollbackOnReturn = rollbackOnReturn;
     }
 
+    /**
+     * Sets the map counting the SQL of the statements cached by the connections destroyed from now on, null to stop
+     * counting.
+     *
+     * @param statementSqlCounts a thread-safe map from SQL to the number of connections caching it, or null.
+     */
+    void setStatementSqlCounts(final Map<String, Integer> statementSqlCounts) {
+        this.statementSqlCounts = statementSqlCounts;
+    }
+
+    /**
+     * Sets whether connections created by this factory use thin result set wrappers.
+     *
+     * @param thinResultSets Whether connections created by this factory use thin result set wrappers.
+     * @see DelegatingConnection#setThinResultSets(boolean)
+     * @since 2.15.0
+     */
+    public void setThinResultSets(final boolean thinResultSets) {
+        this.thinResultSets = thinResultSets;
+    }
+
     /**
      * Sets the query I use to {@link #validateObject validate} {@link Connection}s. Should return at least one row. If
      * not specified, {@link Connection#isValid(int)} will be used to validate connections.
@@ -851,14 +1327,141 @@ public class PoolableConnectionFactory implements PooledObjectFactory<PoolableCo
         conn.validate(validationQuery, validationQueryTimeoutDuration);
     }
 
+    /**
+     * Creates a physical connection with the connection factory, with the endpoint it was made to when the connection
+     * factory is an {@link EndpointAwareConnectionFactory}. Subclasses creating their own connections call this from
+     * {@link #makeObject()} and pass the endpoint to {@link #initializePoolableConnection(PoolableConnection, long,
+     * MultiEndpointConnectionFactory.Endpoint)}.
+     *
+     * @return the new connection and its endpoint, null if not known.
+     * @throws SQLException if the connection cannot be created.
+     * @since 2.15.0
+     */
+    protected Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connect() throws SQLException {
+        final ConnectionFactory factory = connectionFactory;
+        if (factory instanceof EndpointAwareConnectionFactory) {
+            return ((EndpointAwareConnectionFactory) factory).connect();
+        }
+        return new SimpleImmutableEntry<>(factory.createConnection(), null);
+    }
+
+    /**
+     * Gets the current retire generation. Subclasses creating their own connections read it before creating the
+     * physical connection, so that a connection made while {@link #retireConnections(Duration)} is called belongs to
+     * the earlier generation, and pass it to {@link #initializePoolableConnection(PoolableConnection, long)}.
+     *
+     * @return the current retire generation.
+     * @since 2.15.0
+     */
+    protected long getRetireGeneration() {
+        return retirement.get().generation;
+    }
+
+    /**
+     * Prepares a new connection for this factory: reports its fatal disconnection exceptions to this factory's
+     * invalidation wave, marks it as created in the current wave and in the given retire generation, records its
+     * endpoint and draws its lifetime jitter. Subclasses creating their own connections call this from
+     * {@link #makeObject()}.
+     *
+     * @param conn the new connection.
+     * @param retireGeneration the {@link #getRetireGeneration() retire generation} read before creating the physical
+     *        connection.
+     * @param endpoint the endpoint the physical connection was made to, as told by {@link #connect()}, null if not
+     *        known.
+     * @return the pooled object for {@link #makeObject()} to return, known to this factory until it is destroyed so an
+     *         invalidation wave can find it while idle.
+     * @see #setDisconnectionWaveThreshold(int)
+     * @see #setMaxConnLifetimeJitter(Duration)
+     * @since 2.15.0
+     */
+    protected PooledObject<PoolableConnection> initializePoolableConnection(final PoolableConnection conn, final long retireGeneration,
+            final MultiEndpointConnectionFactory.Endpoint endpoint) {
+        conn.setEndpoint(endpoint, endpoint != null ? endpoint.getFailureCount() : 0);
+        conn.setDisconnectionWave(disconnectionWave);
+        conn.setDisconnectionWaveGeneration(disconnectionWave.getGeneration());
+        conn.setRetireGeneration(retireGeneration);
+        final long jitterNanos = maxConnLifetimeJitter.toNanos();
+        if (jitterNanos > 0) {
+            conn.setLifetimeJitterNanos(ThreadLocalRandom.current().nextLong(jitterNanos + 1));
+        }
+        final PooledObject<PoolableConnection> pooledObject = new DefaultPooledObject<>(conn);
+        pooledObjects.add(pooledObject);
+        return pooledObject;
+    }
+
+    /**
+     * Tests whether the given idle connection is retired and its turn to be closed has come, or reaches its maximum
+     * lifetime before the next eviction run. The look-ahead
+     * is capped at half of the connection's lifetime, so an eviction interval as long as the lifetime does not retire
+     * every connection on each run.
+     *
+     * @param p the idle connection.
+     * @return whether the connection should be retired now.
+     */
+    boolean isLifetimeExpiring(final PooledObject<PoolableConnection> p) {
+        if (isRetiring(p.getObject())) {
+            return true;
+        }
+        final Duration maxLifetime = getMaxLifetime(p.getObject());
+        if (maxLifetime.compareTo(Duration.ZERO) <= 0) {
+            return false;
+        }
+        Duration margin = Duration.ZERO;
+        final ObjectPool<PoolableConnection> op = pool;
+        if (op instanceof GenericObjectPool<?> && !((GenericObjectPool<?>) op).getDurationBetweenEvictionRuns().isNegative()) {
+            margin = ((GenericObjectPool<?>) op).getDurationBetweenEvictionRuns();
+            final Duration maxMargin = maxLifetime.dividedBy(2);
+            if (margin.compareTo(maxMargin) > 0) {
+                margin = maxMargin;
+            }
+        }
+        return Duration.between(p.getCreateInstant(), Instant.now()).compareTo(maxLifetime.minus(margin)) >= 0;
+    }
+
+    /**
+     * Tests whether the given connection is retired and its turn to be closed has come, counting it as closed if so.
+     *
+     * @param conn the connection.
+     * @return whether the connection should be closed now.
+     */
+    private boolean isRetiring(final PoolableConnection conn) {
+        final Retirement current = retirement.get();
+        return conn.getRetireGeneration() < current.generation && current.tryRetire();
+    }
+
+    /**
+     * Gets the maximum lifetime of the given connection, the maximum connection duration less its jitter.
+     *
+     * @param conn the connection.
+     * @return the maximum lifetime of the connection, zero or less for an infinite lifetime.
+     */
+    private Duration getMaxLifetime(final PoolableConnection conn) {
+        final Duration max = maxConnDuration;
+        if (max.compareTo(Duration.ZERO) <= 0) {
+            return max;
+        }
+        // Jitter shortens a lifetime by at most half
+        return max.minusNanos(Math.min(conn.getLifetimeJitterNanos(), max.toNanos() / 2));
+    }
+
+    /**
+     * Fails connections made to an endpoint before it failed, connections to other endpoints are not affected.
+     */
+    private void validateEndpoint(final PoolableConnection conn) throws SQLException {
+        if (conn.isEndpointFailed()) {
+            throw new SQLException(Utils.getMessage("poolableConnectionFactory.endpointFailed", conn.getEndpoint()));
+        }
+    }
+
     private void validateLifetime(final PooledObject<PoolableConnection> p) throws LifetimeExceededException {
-        Utils.validateLifetime(p, maxConnDuration);
+        Utils.validateLifetime(p, getMaxLifetime(p.getObject()));
     }
 
     @Override
     public boolean validateObject(final PooledObject<PoolableConnection> p) {
         try {
             validateLifetime(p);
+            validateEndpoint(p.getObject());
             validateConnection(p.getObject());
             return true;
         } catch (final Exception e) {
@@ -23,6 +23,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.KeyedPooledObjectFactory;
@@ -78,6 +80,9 @@ public class PoolingConnection extends DelegatingConnection<Connection>
 
     private volatile boolean clearStatementPoolOnReturn;
 
+    /** Guards {@link #close()}, which closes the connection, without pinning a virtual thread's carrier. */
+    private final Lock lock = new ReentrantLock();
+
     /**
      * Constructs a new instance.
      *
@@ -107,7 +112,8 @@ public class PoolingConnection extends DelegatingConnection<Connection>
      * underlying connection.
      */
     @Override
-    public synchronized void close() throws SQLException {
+    public void close() throws SQLException {
+        lock.lock();
         try {
             if (null != stmtPool) {
                 final KeyedObjectPool<PStmtKey, DelegatingPreparedStatement> oldPool = stmtPool;
@@ -129,6 +135,7 @@ public class PoolingConnection extends DelegatingConnection<Connection>
                 }
             } finally {
                 setClosedInternal(true);
+                lock.unlock();
             }
         }
     }
@@ -619,15 +626,20 @@ public class PoolingConnection extends DelegatingConnection<Connection>
     }
 
     @Override
-    public synchronized String toString() {
-        if (stmtPool instanceof GenericKeyedObjectPool) {
-            // DBCP-596 PoolingConnection.toString() causes StackOverflowError
-            final GenericKeyedObjectPool<?, ?> gkop = (GenericKeyedObjectPool<?, ?>) stmtPool;
-            if (gkop.getFactory() == this) {
-                return "PoolingConnection: " + stmtPool.getClass() + "@" + System.identityHashCode(stmtPool);
+    public String toString() {
+        lock.lock();
+        try {
+            if (stmtPool instanceof GenericKeyedObjectPool) {
+                // DBCP-596 PoolingConnection.toString() causes StackOverflowError
+                final GenericKeyedObjectPool<?, ?> gkop = (GenericKeyedObjectPool<?, ?>) stmtPool;
+                if (gkop.getFactory() == this) {
+                    return "PoolingConnection: " + stmtPool.getClass() + "@" + System.identityHashCode(stmtPool);
+                }
             }
+            return "PoolingConnection: " + Objects.toString(stmtPool);
+        } finally {
+            lock.unlock();
         }
-        return "PoolingConnection: " + Objects.toString(stmtPool);
     }
 
     /**
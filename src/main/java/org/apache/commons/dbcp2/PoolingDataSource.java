@@ -20,8 +20,24 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -48,15 +64,33 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
      */
     private final class PoolGuardConnectionWrapper<D extends Connection> extends DelegatingConnection<D> {
 
-        PoolGuardConnectionWrapper(final D delegate) {
+        /**
+         * Releases the permits taken to borrow the delegate on close, may be null. A {@link PoolableConnection}
+         * delegate releases them itself when it goes back to the pool or is destroyed.
+         */
+        private Runnable releasePermits;
+
+        PoolGuardConnectionWrapper(final D delegate, final Runnable releasePermits) {
             super(delegate);
+            this.releasePermits = releasePermits;
         }
 
         @Override
         public void close() throws SQLException {
             if (getDelegateInternal() != null) {
-                super.close();
-                super.setDelegate(null);
+                try {
+                    super.close();
+                    super.setDelegate(null);
+                } finally {
+                    if (releasePermits != null) {
+                        releasePermits.run();
+                        releasePermits = null;
+                    }
+                    if (!waiters.isEmpty()) {
+                        // The delegate is back in the pool or destroyed, hand its place to a queued borrow.
+                        serveWaiters();
+                    }
+                }
             }
         }
 
@@ -82,8 +116,176 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
         }
     }
 
+    /**
+     * An asynchronous borrow, queued while the pool is exhausted, or waiting on the pool on an executor thread.
+     */
+    private final class AsyncBorrow implements Runnable {
+
+        private final CompletableFuture<Connection> future = new CompletableFuture<>();
+        private final Executor completionExecutor;
+        private final String partition;
+        private final BorrowPriority priority;
+        private final Duration maxWait;
+        private final long startNanos = System.nanoTime();
+
+        /** Set by whichever comes first: a connection, a failure, a timeout or a cancellation. */
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        /** Fails the borrow once it waited maxWait in the queue, null if not queued or waiting forever. */
+        private volatile ScheduledFuture<?> timeout;
+
+        /** The thread waiting on the pool, interrupted if the future is cancelled meanwhile. */
+        private Thread borrower;
+
+        AsyncBorrow(final Executor completionExecutor) {
+            this.completionExecutor = completionExecutor;
+            this.partition = BulkheadPartitions.getCurrentPartition();
+            this.priority = BorrowPriority.current();
+            this.maxWait = getMaxWaitDuration();
+            future.whenComplete((conn, e) -> {
+                if (future.isCancelled()) {
+                    settle();
+                    waiters.remove(this);
+                    interruptBorrower();
+                }
+            });
+        }
+
+        /**
+         * Completes the future with the given connection, or closes the connection if the borrow is already settled.
+         *
+         * @param conn the connection.
+         */
+        void complete(final Connection conn) {
+            if (!settle()) {
+                Utils.closeQuietly((AutoCloseable) conn);
+                return;
+            }
+            complete(() -> {
+                if (!future.complete(conn)) {
+                    Utils.closeQuietly((AutoCloseable) conn);
+                }
+            });
+        }
+
+        private void complete(final Runnable completion) {
+            try {
+                completionExecutor.execute(completion);
+            } catch (final RejectedExecutionException e) {
+                completion.run();
+            }
+        }
+
+        void fail(final Throwable cause) {
+            if (settle()) {
+                complete(() -> future.completeExceptionally(cause));
+            }
+        }
+
+        private synchronized void interruptBorrower() {
+            if (borrower != null) {
+                borrower.interrupt();
+            }
+        }
+
+        boolean isSettled() {
+            return settled.get();
+        }
+
+        /**
+         * Queues this borrow until a connection comes back to the pool, failing it once maxWait elapses.
+         */
+        void park() {
+            waiters.add(this);
+            if (!maxWait.isNegative()) {
+                timeout = ASYNC_BORROW_TIMER.schedule(() -> {
+                    waiters.remove(this);
+                    fail(new SQLException("Cannot get a connection, pool error Timeout waiting for idle object"));
+                }, remaining(maxWait, startNanos).toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                borrower = Thread.currentThread();
+            }
+            final Connection conn;
+            try {
+                if (future.isDone()) {
+                    // Cancelled by the borrower.
+                    return;
+                }
+                if (closed) {
+                    fail(new SQLException("Cannot get a connection, data source closed"));
+                    return;
+                }
+                // The wait started when the borrow was queued.
+                conn = getConnection(partition, priority, maxWait, startNanos);
+            } catch (final SQLException | RuntimeException e) {
+                fail(e);
+                return;
+            } finally {
+                synchronized (this) {
+                    borrower = null;
+                    // Clears the interrupt of a cancellation which came too late to stop the borrow.
+                    Thread.interrupted();
+                }
+            }
+            complete(conn);
+        }
+
+        private boolean settle() {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            final ScheduledFuture<?> pending = timeout;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            return true;
+        }
+    }
+
     private static final Log log = LogFactory.getLog(PoolingDataSource.class);
 
+    /** How long the idle threads of the asynchronous borrow executors linger. */
+    private static final long ASYNC_BORROW_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * How often queued asynchronous borrows are retried, in case a connection was freed without notice, for example
+     * when the pool destroys a connection after {@link PoolableConnection#releaseBorrowPermits()} ran.
+     */
+    private static final long ASYNC_BORROW_RECHECK_MILLIS = 100;
+
+    /** Times out and retries the queued asynchronous borrows of all data sources, its thread stops when idle. */
+    private static final ScheduledThreadPoolExecutor ASYNC_BORROW_TIMER;
+
+    /**
+     * Waits on pools which cannot be tried without blocking for the asynchronous borrows of all data sources, its
+     * threads stop when idle.
+     */
+    private static final ThreadPoolExecutor ASYNC_BORROWER;
+
+    static {
+        ASYNC_BORROW_TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "commons-dbcp2-async-borrow-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ASYNC_BORROW_TIMER.setKeepAliveTime(ASYNC_BORROW_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        ASYNC_BORROW_TIMER.allowCoreThreadTimeOut(true);
+        ASYNC_BORROW_TIMER.setRemoveOnCancelPolicy(true);
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ASYNC_BORROWER = new ThreadPoolExecutor(threads, threads, ASYNC_BORROW_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "commons-dbcp2-async-borrower");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        ASYNC_BORROWER.allowCoreThreadTimeOut(true);
+    }
+
     /** Controls access to the underlying connection */
     private boolean accessToUnderlyingConnectionAllowed;
 
@@ -92,6 +294,23 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
 
     private final ObjectPool<C> pool;
 
+    /** Admits borrowers by priority, null when priority lanes are disabled. */
+    private volatile BorrowLanes borrowLanes;
+
+    /** Splits the pool into bulkhead partitions, null when partitions are disabled. */
+    private volatile BulkheadPartitions bulkheadPartitions;
+
+    /** The asynchronous borrows waiting for a connection, first come first served. */
+    private final Queue<AsyncBorrow> waiters = new ConcurrentLinkedQueue<>();
+
+    /** Counts the requests to serve the waiters, the thread raising it from zero serves them until it drops back. */
+    private final AtomicInteger serveRequests = new AtomicInteger();
+
+    /** Retries the waiters while any are queued, null otherwise. */
+    private ScheduledFuture<?> recheck;
+
+    private volatile boolean closed;
+
     /**
      * Constructs a new instance backed by the given connection pool.
      *
@@ -114,6 +333,30 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
         }
     }
 
+    private void acquirePartition(final BulkheadPartitions partitions, final String partition, final Duration maxWait) throws SQLException {
+        try {
+            if (!partitions.acquire(partition, maxWait)) {
+                throw new SQLException("Cannot get a connection, pool error Timeout waiting for a connection in partition " + partition);
+            }
+        } catch (final InterruptedException e) {
+            // Reset the interrupt status so it is visible to callers
+            Thread.currentThread().interrupt();
+            throw new SQLException("Cannot get a connection, general error", e);
+        }
+    }
+
+    private void acquirePermit(final BorrowLanes lanes, final BorrowPriority priority, final Duration maxWait) throws SQLException {
+        try {
+            if (!lanes.acquire(priority, maxWait)) {
+                throw new SQLException("Cannot get a connection, pool error Timeout waiting for a " + priority + " priority permit");
+            }
+        } catch (final InterruptedException e) {
+            // Reset the interrupt status so it is visible to callers
+            Thread.currentThread().interrupt();
+            throw new SQLException("Cannot get a connection, general error", e);
+        }
+    }
+
     /**
      * Closes and free all {@link Connection}s from the pool.
      *
@@ -121,6 +364,7 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
      */
     @Override
     public void close() throws SQLException {
+        closeAsyncBorrower();
         try {
             pool.close();
         } catch (final Exception e) {
@@ -128,18 +372,203 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
         }
     }
 
+    /**
+     * Stops serving asynchronous borrows, failing the pending ones.
+     */
+    void closeAsyncBorrower() {
+        closed = true;
+        failWaiters();
+    }
+
+    private void failWaiters() {
+        AsyncBorrow borrow;
+        while ((borrow = waiters.poll()) != null) {
+            borrow.fail(new SQLException("Cannot get a connection, data source closed"));
+        }
+    }
+
+    /**
+     * Gets the priority lanes borrowers go through when the pool is exhausted.
+     *
+     * @return the priority lanes, null when priority lanes are disabled.
+     * @see #setPriorityLanes(boolean)
+     * @since 2.15.0
+     */
+    public BorrowLanes getBorrowLanes() {
+        return borrowLanes;
+    }
+
+    /**
+     * Gets the bulkhead partitions the pool is split into.
+     *
+     * @return the bulkhead partitions, null when partitions are disabled.
+     * @see #setPartitions(Map)
+     * @since 2.15.0
+     */
+    public BulkheadPartitions getBulkheadPartitions() {
+        return bulkheadPartitions;
+    }
+
     /**
      * Returns a {@link Connection} from my pool, according to the contract specified by
      * {@link ObjectPool#borrowObject}.
+     * <p>
+     * When priority lanes are enabled, the borrower waits with the {@link BorrowPriority#current() current thread's
+     * priority}. When partitions are enabled, the borrower uses the
+     * {@link BulkheadPartitions#getCurrentPartition() current thread's partition}.
+     * </p>
      */
     @Override
     public Connection getConnection() throws SQLException {
+        return getConnection(BulkheadPartitions.getCurrentPartition(), BorrowPriority.current(), getMaxWaitDuration(), System.nanoTime());
+    }
+
+    /**
+     * Returns a {@link Connection} from my pool, according to the contract specified by
+     * {@link ObjectPool#borrowObject}, waiting with the given priority when priority lanes are enabled and the pool is
+     * exhausted.
+     *
+     * @param priority the borrower's priority.
+     * @return a connection.
+     * @throws SQLException if a connection cannot be obtained.
+     * @see #setPriorityLanes(boolean)
+     * @since 2.15.0
+     */
+    public Connection getConnection(final BorrowPriority priority) throws SQLException {
+        return getConnection(BulkheadPartitions.getCurrentPartition(), priority, getMaxWaitDuration(), System.nanoTime());
+    }
+
+    /**
+     * Returns a future {@link Connection} from my pool, completed once a connection is available or created instead of
+     * blocking the calling thread.
+     * <p>
+     * Equivalent to {@link #getConnectionAsync(Executor)} with {@link ForkJoinPool#commonPool()}.
+     * </p>
+     *
+     * @return a future connection.
+     * @since 2.15.0
+     */
+    public CompletableFuture<Connection> getConnectionAsync() {
+        return getConnectionAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a future {@link Connection} from my pool, completed once a connection is available or created instead of
+     * blocking the calling thread.
+     * <p>
+     * The pool is first tried without waiting, with the current thread's priority and partition. If it is exhausted,
+     * the borrow is queued without holding a thread and served first come first served when a connection comes back
+     * to the pool or is destroyed; a queued borrow whose partition or priority lane is full lets the ones behind it
+     * through. A queued borrow fails once it waited maxWait, which starts when the borrow is submitted. Borrowers
+     * blocked in {@link #getConnection()} are not queued and may get a returned connection first. Pools other than
+     * {@link GenericObjectPool} cannot be tried without waiting, their borrows wait on a small shared set of daemon
+     * threads instead. The future completes on the given executor, so dependent stages never run on the borrowing
+     * thread. Cancelling the future drops its borrow, and a connection obtained for a cancelled future is closed.
+     * </p>
+     *
+     * @param completionExecutor the executor completing the future.
+     * @return a future connection, completed exceptionally with an {@link SQLException} if a connection cannot be
+     *         obtained.
+     * @since 2.15.0
+     */
+    public CompletableFuture<Connection> getConnectionAsync(final Executor completionExecutor) {
+        Objects.requireNonNull(completionExecutor, "completionExecutor");
+        final AsyncBorrow borrow = new AsyncBorrow(completionExecutor);
+        if (closed) {
+            borrow.fail(new SQLException("Cannot get a connection, data source closed"));
+            return borrow.future;
+        }
+        if (!(pool instanceof GenericObjectPool<?>)) {
+            try {
+                ASYNC_BORROWER.execute(borrow);
+            } catch (final RejectedExecutionException e) {
+                borrow.fail(new SQLException("Cannot get a connection, borrow rejected", e));
+            }
+            return borrow.future;
+        }
+        final Connection conn;
+        try {
+            conn = tryGetConnection(borrow.partition, borrow.priority);
+        } catch (final SQLException | RuntimeException e) {
+            borrow.fail(e);
+            return borrow.future;
+        }
+        if (conn != null) {
+            borrow.complete(conn);
+        } else if (!((GenericObjectPool<?>) pool).getBlockWhenExhausted()) {
+            borrow.fail(new SQLException("Cannot get a connection, pool error Pool exhausted"));
+        } else {
+            borrow.park();
+            scheduleRecheck();
+            // A connection may have come back, or the data source closed, before the borrow was queued.
+            serveWaiters();
+        }
+        return borrow.future;
+    }
+
+    /**
+     * Returns a future {@link Connection} from my pool like {@link #getConnectionAsync(Executor)}, waiting on the pool
+     * on a thread of the given borrow executor.
+     * <p>
+     * A borrow occupies a thread of the borrow executor until it obtains a connection or fails, so a borrow executor
+     * with fewer threads than concurrent borrowers makes borrows wait behind each other, whatever their priority or
+     * partition.
+     * </p>
+     *
+     * @param borrowExecutor the executor waiting on the pool.
+     * @param completionExecutor the executor completing the future.
+     * @return a future connection, completed exceptionally with an {@link SQLException} if a connection cannot be
+     *         obtained.
+     * @since 2.15.0
+     */
+    public CompletableFuture<Connection> getConnectionAsync(final Executor borrowExecutor, final Executor completionExecutor) {
+        Objects.requireNonNull(borrowExecutor, "borrowExecutor");
+        Objects.requireNonNull(completionExecutor, "completionExecutor");
+        final AsyncBorrow borrow = new AsyncBorrow(completionExecutor);
+        if (closed) {
+            borrow.fail(new SQLException("Cannot get a connection, data source closed"));
+            return borrow.future;
+        }
+        try {
+            borrowExecutor.execute(borrow);
+        } catch (final RejectedExecutionException e) {
+            borrow.fail(new SQLException("Cannot get a connection, borrow rejected", e));
+        }
+        return borrow.future;
+    }
+
+    /**
+     * Borrows a connection through the partition and priority lane gates, all within a single maxWait.
+     *
+     * @param partition the borrower's partition.
+     * @param priority the borrower's priority.
+     * @param maxWait the maximum duration to wait, a negative value to wait forever.
+     * @param startNanos when the wait started.
+     * @return a connection.
+     * @throws SQLException if a connection cannot be obtained.
+     */
+    @SuppressWarnings("unchecked")
+    private Connection getConnection(final String partition, final BorrowPriority priority, final Duration maxWait, final long startNanos)
+            throws SQLException {
+        final BulkheadPartitions partitions = bulkheadPartitions;
+        final BorrowLanes lanes = borrowLanes;
+        boolean partitionAcquired = false;
+        boolean permitAcquired = false;
+        boolean handedOff = false;
         try {
-            final C conn = pool.borrowObject();
-            if (conn == null) {
-                return null;
+            if (partitions != null) {
+                acquirePartition(partitions, partition, remaining(maxWait, startNanos));
+                partitionAcquired = true;
             }
-            return new PoolGuardConnectionWrapper<>(conn);
+            if (lanes != null) {
+                acquirePermit(lanes, priority, remaining(maxWait, startNanos));
+                permitAcquired = true;
+            }
+            final C conn = pool instanceof GenericObjectPool<?> ? ((GenericObjectPool<C>) pool).borrowObject(remaining(maxWait, startNanos))
+                    : pool.borrowObject();
+            final Connection guard = guard(conn, partitions, partition, lanes);
+            handedOff = true;
+            return guard;
         } catch (final NoSuchElementException e) {
             throw new SQLException("Cannot get a connection, pool error " + e.getMessage(), e);
         } catch (final SQLException | RuntimeException e) {
@@ -150,7 +579,110 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
             throw new SQLException("Cannot get a connection, general error", e);
         } catch (final Exception e) {
             throw new SQLException("Cannot get a connection, general error", e);
+        } finally {
+            if (!handedOff) {
+                if (permitAcquired) {
+                    lanes.release();
+                }
+                if (partitionAcquired) {
+                    partitions.release(partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection through the partition and priority lane gates without waiting.
+     *
+     * @param partition the borrower's partition.
+     * @param priority the borrower's priority.
+     * @return a connection, null if a gate is full or the pool is exhausted.
+     * @throws SQLException if a connection cannot be created.
+     */
+    @SuppressWarnings("unchecked")
+    private Connection tryGetConnection(final String partition, final BorrowPriority priority) throws SQLException {
+        final BulkheadPartitions partitions = bulkheadPartitions;
+        final BorrowLanes lanes = borrowLanes;
+        boolean partitionAcquired = false;
+        boolean permitAcquired = false;
+        boolean handedOff = false;
+        try {
+            if (partitions != null) {
+                if (!partitions.tryAcquire(partition)) {
+                    return null;
+                }
+                partitionAcquired = true;
+            }
+            if (lanes != null) {
+                if (!lanes.tryAcquire(priority)) {
+                    return null;
+                }
+                permitAcquired = true;
+            }
+            final Connection guard = guard(((GenericObjectPool<C>) pool).borrowObject(Duration.ZERO), partitions, partition, lanes);
+            handedOff = true;
+            return guard;
+        } catch (final NoSuchElementException e) {
+            return null;
+        } catch (final SQLException | RuntimeException e) {
+            throw e;
+        } catch (final InterruptedException e) {
+            // Reset the interrupt status, the queued borrow is retried later
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final Exception e) {
+            throw new SQLException("Cannot get a connection, general error", e);
+        } finally {
+            if (!handedOff) {
+                if (permitAcquired) {
+                    lanes.release();
+                }
+                if (partitionAcquired) {
+                    partitions.release(partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps a borrowed connection, handing it the permits taken to borrow it.
+     *
+     * @param conn the borrowed connection, may be null.
+     * @param partitions the bulkhead partitions the connection was borrowed through, may be null.
+     * @param partition the borrower's partition.
+     * @param lanes the priority lanes the connection was borrowed through, may be null.
+     * @return the wrapped connection, null if the connection is null.
+     */
+    private Connection guard(final C conn, final BulkheadPartitions partitions, final String partition, final BorrowLanes lanes) {
+        if (conn == null) {
+            return null;
+        }
+        final Runnable releasePermits = releasePermits(partitions, partition, lanes);
+        if (conn instanceof PoolableConnection) {
+            // Released when the connection is returned or destroyed, also if the pool reclaims it as abandoned.
+            ((PoolableConnection) conn).setBorrowPermits(() -> {
+                if (releasePermits != null) {
+                    releasePermits.run();
+                }
+                signalWaiters();
+            });
+            return new PoolGuardConnectionWrapper<>(conn, null);
         }
+        return new PoolGuardConnectionWrapper<>(conn, releasePermits);
+    }
+
+    /**
+     * Returns a {@link Connection} from my pool, according to the contract specified by
+     * {@link ObjectPool#borrowObject}, using the given bulkhead partition when partitions are enabled.
+     *
+     * @param partition the borrower's partition, null to use the shared overflow only.
+     * @return a connection.
+     * @throws SQLException if a connection cannot be obtained.
+     * @see #setPartitions(Map)
+     * @since 2.15.0
+     */
+    public Connection getPartitionConnection(final String partition) throws SQLException {
+        return getConnection(partition, BorrowPriority.current(), getMaxWaitDuration(), System.nanoTime());
     }
 
     /**
@@ -186,6 +718,10 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
         return logWriter;
     }
 
+    private Duration getMaxWaitDuration() {
+        return pool instanceof GenericObjectPool<?> ? ((GenericObjectPool<?>) pool).getMaxWaitDuration() : Duration.ofMillis(-1);
+    }
+
     @Override
     public Logger getParentLogger() throws SQLFeatureNotSupportedException {
         throw new SQLFeatureNotSupportedException();
@@ -214,6 +750,104 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
         return iface != null && iface.isInstance(this);
     }
 
+    private Runnable releasePermits(final BulkheadPartitions partitions, final String partition, final BorrowLanes lanes) {
+        if (partitions == null) {
+            return lanes != null ? lanes::release : null;
+        }
+        return () -> {
+            if (lanes != null) {
+                lanes.release();
+            }
+            partitions.release(partition);
+        };
+    }
+
+    /**
+     * Retries the queued asynchronous borrows every {@value #ASYNC_BORROW_RECHECK_MILLIS} milliseconds while any are
+     * queued.
+     */
+    private synchronized void scheduleRecheck() {
+        if (recheck == null && !waiters.isEmpty()) {
+            recheck = ASYNC_BORROW_TIMER.schedule(() -> {
+                synchronized (this) {
+                    recheck = null;
+                }
+                serveWaiters();
+                scheduleRecheck();
+            }, ASYNC_BORROW_RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Serves the queued asynchronous borrows on the timer thread, as the pool may not have taken the connection back
+     * yet.
+     */
+    private void signalWaiters() {
+        if (!waiters.isEmpty()) {
+            ASYNC_BORROW_TIMER.execute(this::serveWaiters);
+        }
+    }
+
+    /**
+     * Gets what is left of a maximum wait.
+     *
+     * @param maxWait the maximum duration to wait, a negative value to wait forever.
+     * @param startNanos when the wait started.
+     * @return the remaining duration, zero once elapsed, negative to wait forever.
+     */
+    private static Duration remaining(final Duration maxWait, final long startNanos) {
+        if (maxWait.isNegative()) {
+            return maxWait;
+        }
+        final Duration remaining = maxWait.minusNanos(System.nanoTime() - startNanos);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Serves the queued asynchronous borrows in order, until the pool is exhausted. Only one thread serves them at a
+     * time, a request made meanwhile makes it go over the queue again.
+     */
+    private void serveWaiters() {
+        if (serveRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            serveQueuedBorrows();
+            missed = serveRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void serveQueuedBorrows() {
+        if (closed) {
+            failWaiters();
+            return;
+        }
+        // A borrow held up by its partition or priority lane does not hold up the ones behind it.
+        final boolean gated = bulkheadPartitions != null || borrowLanes != null;
+        for (final Iterator<AsyncBorrow> it = waiters.iterator(); it.hasNext();) {
+            final AsyncBorrow borrow = it.next();
+            if (borrow.isSettled()) {
+                it.remove();
+                continue;
+            }
+            final Connection conn;
+            try {
+                conn = tryGetConnection(borrow.partition, borrow.priority);
+            } catch (final SQLException | RuntimeException e) {
+                it.remove();
+                borrow.fail(e);
+                continue;
+            }
+            if (conn != null) {
+                it.remove();
+                borrow.complete(conn);
+            } else if (!gated) {
+                return;
+            }
+        }
+    }
+
     /**
      * Sets the value of the accessToUnderlyingConnectionAllowed property. It controls if the PoolGuard allows access to
      * the underlying connection. (Default: false)
@@ -225,6 +859,49 @@ public class PoolingDataSource<C extends Connection> implements DataSource, Auto
         this.accessToUnderlyingConnectionAllowed = allow;
     }
 
+    /**
+     * Splits the pool into named {@link BulkheadPartitions bulkhead partitions}. Each partition is given a share of
+     * {@link GenericObjectPool#getMaxTotal() maxTotal}; the connections not assigned to any partition are shared by
+     * all borrowers once their partition's share is exhausted. Pools other than {@link GenericObjectPool} have an
+     * unlimited overflow.
+     * <p>
+     * Set the partitions before handing out connections, connections borrowed before do not release their slot.
+     * </p>
+     *
+     * @param shares the share of each partition by name, null or empty to disable partitions.
+     * @throws IllegalArgumentException if a share is not positive or the shares add up to more than maxTotal.
+     * @since 2.15.0
+     */
+    public void setPartitions(final Map<String, Integer> shares) {
+        if (shares == null || shares.isEmpty()) {
+            bulkheadPartitions = null;
+        } else {
+            bulkheadPartitions = new BulkheadPartitions(shares,
+                    pool instanceof GenericObjectPool<?> ? ((GenericObjectPool<?>) pool)::getMaxTotal : () -> -1);
+        }
+    }
+
+    /**
+     * Sets whether borrowers go through {@link BorrowLanes priority lanes}. When enabled, at most
+     * {@link GenericObjectPool#getMaxTotal() maxTotal} connections are handed out and, when the pool is exhausted,
+     * returned connections go to waiting borrowers by {@link BorrowPriority priority} instead of in the pool's single
+     * first-in first-out order. Pools other than {@link GenericObjectPool} are not limited.
+     * <p>
+     * Enable priority lanes before handing out connections, connections borrowed before do not release a permit.
+     * </p>
+     *
+     * @param priorityLanes whether borrowers go through priority lanes.
+     * @since 2.15.0
+     */
+    public void setPriorityLanes(final boolean priorityLanes) {
+        if (!priorityLanes) {
+            borrowLanes = null;
+        } else if (borrowLanes == null) {
+            borrowLanes = new BorrowLanes(
+                    pool instanceof GenericObjectPool<?> ? ((GenericObjectPool<?>) pool)::getMaxTotal : () -> -1);
+        }
+    }
+
     /**
      * Throws {@link UnsupportedOperationException}.
      *
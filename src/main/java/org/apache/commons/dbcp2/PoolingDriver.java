@@ -23,8 +23,11 @@ import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.apache.commons.pool2.ObjectPool;
@@ -84,9 +87,21 @@ public class PoolingDriver implements Driver {
         }
     }
 
-    /** The map of registered pools. */
+    /**
+     * The map of registered pools.
+     *
+     * @deprecated Lookups use a concurrent registry, this map is kept up to date for subclasses and only consulted when
+     *             the registry has no pool of the requested name. Synchronize on it to read or change it.
+     */
+    @Deprecated
     protected static final HashMap<String, ObjectPool<? extends Connection>> pools = new HashMap<>();
 
+    /** The registered pools by name, read without locking. */
+    private static final ConcurrentHashMap<String, ObjectPool<? extends Connection>> REGISTRY = new ConcurrentHashMap<>();
+
+    /** The registered pools by connection URL, saves extracting the pool name from the URL on each connect. */
+    private static final ConcurrentHashMap<String, ObjectPool<? extends Connection>> URL_CACHE = new ConcurrentHashMap<>();
+
     /**
      * The Apache Commons connection string prefix {@value}.
      */
@@ -140,11 +155,14 @@ public class PoolingDriver implements Driver {
      * @throws SQLException
      *             Thrown when a problem is caught closing the pool.
      */
-    public synchronized void closePool(final String name) throws SQLException {
-        @SuppressWarnings("resource")
-        final ObjectPool<? extends Connection> pool = pools.get(name);
-        if (pool != null) {
+    public void closePool(final String name) throws SQLException {
+        final ObjectPool<? extends Connection> pool;
+        synchronized (pools) {
+            pool = REGISTRY.remove(name);
             pools.remove(name);
+            URL_CACHE.clear();
+        }
+        if (pool != null) {
             try {
                 pool.close();
             } catch (final Exception e) {
@@ -153,10 +171,25 @@ public class PoolingDriver implements Driver {
         }
     }
 
+    /**
+     * Caches the pool of a connection URL, unless the registry changed since the pool was looked up.
+     */
+    private void cacheUrl(final String url, final ObjectPool<? extends Connection> pool) {
+        synchronized (pools) {
+            if (REGISTRY.get(url.substring(URL_PREFIX_LEN)) == pool) {
+                URL_CACHE.put(url, pool);
+            }
+        }
+    }
+
     @Override
     public Connection connect(final String url, final Properties info) throws SQLException {
         if (acceptsURL(url)) {
-            final ObjectPool<? extends Connection> pool = getConnectionPool(url.substring(URL_PREFIX_LEN));
+            ObjectPool<? extends Connection> pool = URL_CACHE.get(url);
+            if (pool == null) {
+                pool = getConnectionPool(url.substring(URL_PREFIX_LEN));
+                cacheUrl(url, pool);
+            }
             try {
                 final Connection conn = pool.borrowObject();
                 if (conn == null) {
@@ -183,10 +216,16 @@ public class PoolingDriver implements Driver {
      * @throws SQLException
      *             Thrown when the named pool is not registered.
      */
-    public synchronized ObjectPool<? extends Connection> getConnectionPool(final String name) throws SQLException {
-        final ObjectPool<? extends Connection> pool = pools.get(name);
+    public ObjectPool<? extends Connection> getConnectionPool(final String name) throws SQLException {
+        ObjectPool<? extends Connection> pool = REGISTRY.get(name);
         if (null == pool) {
-            throw new SQLException("Pool not registered: " + name);
+            // Subclasses may still register straight into the deprecated map
+            synchronized (pools) {
+                pool = pools.get(name);
+            }
+            if (null == pool) {
+                throw new SQLException("Pool not registered: " + name);
+            }
         }
         return pool;
     }
@@ -211,8 +250,12 @@ public class PoolingDriver implements Driver {
      *
      * @return the pool names.
      */
-    public synchronized String[] getPoolNames() {
-        return pools.keySet().toArray(Utils.EMPTY_STRING_ARRAY);
+    public String[] getPoolNames() {
+        final Set<String> names = new LinkedHashSet<>(REGISTRY.keySet());
+        synchronized (pools) {
+            names.addAll(pools.keySet());
+        }
+        return names.toArray(Utils.EMPTY_STRING_ARRAY);
     }
 
     @Override
@@ -265,7 +308,11 @@ public class PoolingDriver implements Driver {
      * @param pool
      *            The pool.
      */
-    public synchronized void registerPool(final String name, final ObjectPool<? extends Connection> pool) {
-        pools.put(name, pool);
+    public void registerPool(final String name, final ObjectPool<? extends Connection> pool) {
+        synchronized (pools) {
+            REGISTRY.put(name, pool);
+            pools.put(name, pool);
+            URL_CACHE.clear();
+        }
     }
 }
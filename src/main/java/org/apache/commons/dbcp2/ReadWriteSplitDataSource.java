@@ -0,0 +1,647 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@link DataSource} splitting reads from writes across one primary {@link BasicDataSource} and replica
+ * {@link BasicDataSource}s.
+ * <p>
+ * {@link #getConnection()} returns a connection of the primary. When such a connection is set
+ * {@link Connection#setReadOnly(boolean) read-only} while it has no open statement and is in auto-commit mode, it
+ * switches to a connection of a replica, and back to the primary when set read-write again. Callers may also ask for a
+ * replica connection up front with {@link #getReadOnlyConnection()}, which does not borrow from the primary while a
+ * replica is available. The catalog, schema, transaction isolation, holdability, network timeout and client info set on
+ * a connection are set again on the connection it switches to, and the connection does not switch if they cannot be.
+ * </p>
+ * <p>
+ * Reads go to the available replica with the fewest active connections. A replica is taken out of rotation when it
+ * fails to make or validate a connection, but not when its pool is merely exhausted, or when a health check fails: the
+ * check, run in the background at most every {@link #setReplicaCheckInterval(Duration) replicaCheckInterval},
+ * validates a connection and, if a {@link #setReplicaLagQuery(String) replicaLagQuery} is set, compares the replica lag
+ * to {@link #setMaxReplicaLag(Duration) maxReplicaLag}. With a replicaLagQuery, a replica serves reads only once
+ * checked. Reads go to the primary when no replica is available.
+ * </p>
+ * <p>
+ * Closing this data source closes the primary and replica data sources.
+ * </p>
+ *
+ * @since 2.15.0
+ */
+public class ReadWriteSplitDataSource implements DataSource, AutoCloseable {
+
+    /**
+     * A replica data source with its last known health.
+     */
+    private static final class Replica {
+
+        private final BasicDataSource dataSource;
+
+        private final AtomicBoolean checking = new AtomicBoolean();
+
+        private volatile boolean available = true;
+
+        private volatile Duration lag = Duration.ZERO;
+
+        private volatile long lastCheckNanos = System.nanoTime();
+
+        /** Whether a health check completed, a replica is not used before its first check when its lag is measured. */
+        private volatile boolean checked;
+
+        private Replica(final BasicDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * A session setting made by the caller of a {@link RoutingConnection}, applied again when switching.
+     */
+    @FunctionalInterface
+    private interface SessionSetting {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A connection of the primary or of a replica, switching between them as it is set read-only or read-write.
+     */
+    private final class RoutingConnection extends DelegatingConnection<Connection> {
+
+        /** The replica of the delegate, null for the primary. */
+        private Replica replica;
+
+        /** The session settings made by the caller, by property, the latest last. */
+        private final Map<String, SessionSetting> sessionSettings = new LinkedHashMap<>();
+
+        private RoutingConnection(final Connection connection, final Replica replica) {
+            super(connection);
+            this.replica = replica;
+            // The delegate changes when switching, do not cache its state.
+            setCacheState(false);
+        }
+
+        /**
+         * Applies the session settings made by the caller to a new delegate.
+         *
+         * @return whether all settings apply, the connection is closed otherwise.
+         */
+        private boolean applySessionSettings(final Connection connection) {
+            try {
+                for (final SessionSetting setting : sessionSettings.values()) {
+                    setting.apply(connection);
+                }
+                return true;
+            } catch (final SQLException | RuntimeException e) {
+                Utils.closeQuietly((AutoCloseable) connection);
+                return false;
+            }
+        }
+
+        private void recordSessionSetting(final String property, final SessionSetting setting) {
+            sessionSettings.remove(property);
+            sessionSettings.put(property, setting);
+        }
+
+        @Override
+        public void setCatalog(final String catalog) throws SQLException {
+            super.setCatalog(catalog);
+            recordSessionSetting("catalog", c -> c.setCatalog(catalog));
+        }
+
+        @Override
+        public void setClientInfo(final Properties properties) throws SQLClientInfoException {
+            super.setClientInfo(properties);
+            // Replaces the client info set so far.
+            sessionSettings.keySet().removeIf(property -> property.startsWith("clientInfo"));
+            recordSessionSetting("clientInfo", c -> c.setClientInfo(properties));
+        }
+
+        @Override
+        public void setClientInfo(final String name, final String value) throws SQLClientInfoException {
+            super.setClientInfo(name, value);
+            recordSessionSetting("clientInfo." + name, c -> c.setClientInfo(name, value));
+        }
+
+        @Override
+        public void setHoldability(final int holdability) throws SQLException {
+            super.setHoldability(holdability);
+            recordSessionSetting("holdability", c -> c.setHoldability(holdability));
+        }
+
+        @Override
+        public void setNetworkTimeout(final Executor executor, final int milliseconds) throws SQLException {
+            super.setNetworkTimeout(executor, milliseconds);
+            recordSessionSetting("networkTimeout", c -> c.setNetworkTimeout(executor, milliseconds));
+        }
+
+        /**
+         * Switches to a connection of a replica when set read-only, or of the primary when set read-write, carrying over
+         * the catalog, schema, transaction isolation, holdability, network timeout and client info set on this
+         * connection. Stays on the current connection when these cannot be set on the new one.
+         */
+        @Override
+        public void setReadOnly(final boolean readOnly) throws SQLException {
+            checkOpen();
+            // Only switch between statements and transactions.
+            if (readOnly == (replica == null) && getTrace().isEmpty() && getAutoCommit()) {
+                final Replica target = readOnly ? chooseReplica(Collections.emptySet()) : null;
+                if (readOnly == (target != null)) {
+                    final Connection connection = target != null ? getReplicaConnection(target) : primary.getConnection();
+                    if (connection != null && applySessionSettings(connection)) {
+                        final Connection previous = getDelegateInternal();
+                        setDelegate(connection);
+                        replica = target;
+                        Utils.closeQuietly((AutoCloseable) previous);
+                    }
+                }
+            }
+            super.setReadOnly(readOnly);
+        }
+
+        @Override
+        public void setSchema(final String schema) throws SQLException {
+            super.setSchema(schema);
+            recordSessionSetting("schema", c -> c.setSchema(schema));
+        }
+
+        @Override
+        public void setTransactionIsolation(final int level) throws SQLException {
+            super.setTransactionIsolation(level);
+            recordSessionSetting("transactionIsolation", c -> c.setTransactionIsolation(level));
+        }
+    }
+
+    private static final int CHECKER_KEEP_ALIVE_SECONDS = 60;
+
+    private final BasicDataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final List<BasicDataSource> replicaDataSources;
+
+    /** Rotates the first replica considered, spreading reads across replicas with as many active connections. */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private volatile Duration replicaCheckInterval = Duration.ofSeconds(5);
+
+    private volatile String replicaLagQuery;
+
+    private volatile Duration maxReplicaLag = Duration.ofSeconds(10);
+
+    private volatile Duration validationTimeout = Duration.ofSeconds(5);
+
+    private ThreadPoolExecutor checker;
+
+    private boolean closed;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param primary the data source of the primary, for writes.
+     * @param replicas the data sources of the replicas, for reads.
+     */
+    public ReadWriteSplitDataSource(final BasicDataSource primary, final List<BasicDataSource> replicas) {
+        this.primary = Objects.requireNonNull(primary, "primary");
+        this.replicaDataSources = Collections.unmodifiableList(new ArrayList<>(replicas));
+        final List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach(r -> list.add(new Replica(Objects.requireNonNull(r, "replica"))));
+        this.replicas = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Checks the health and lag of a replica, taking it out of rotation or putting it back.
+     */
+    private void check(final Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            final String lagQuery = replicaLagQuery;
+            if (lagQuery == null) {
+                replica.available = connection.isValid((int) Math.max(1, validationTimeout.getSeconds()));
+            } else {
+                boolean measured = false;
+                try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    if (resultSet.next()) {
+                        final double lagSeconds = resultSet.getDouble(1);
+                        if (!resultSet.wasNull()) {
+                            replica.lag = Duration.ofNanos((long) (lagSeconds * TimeUnit.SECONDS.toNanos(1)));
+                            measured = true;
+                        }
+                    }
+                }
+                // No row or a NULL lag, as when the replica is not replicating, takes the replica out of rotation.
+                replica.available = measured && replica.lag.compareTo(maxReplicaLag) <= 0;
+            }
+        } catch (final SQLException | RuntimeException e) {
+            replica.available = false;
+        } finally {
+            replica.lastCheckNanos = System.nanoTime();
+            replica.checked = true;
+        }
+    }
+
+    /**
+     * Runs the first health check of the given replica on the current thread, unless one is running.
+     */
+    private void checkFirst(final Replica replica) {
+        if (replica.checking.compareAndSet(false, true)) {
+            try {
+                check(replica);
+            } finally {
+                replica.checking.set(false);
+            }
+        }
+    }
+
+    /**
+     * Checks the health and lag of every replica now, on the current thread.
+     */
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    /**
+     * Chooses the available replica with the fewest active connections, scheduling the checks that are due. When a
+     * {@link #setReplicaLagQuery(String) replicaLagQuery} is set, a replica not checked yet is checked first on the
+     * current thread, so a lagging replica serves no read.
+     *
+     * @param excluded the replicas not to choose.
+     * @return the replica, null if none is available.
+     */
+    private Replica chooseReplica(final Collection<Replica> excluded) {
+        final int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        final long nowNanos = System.nanoTime();
+        final long intervalNanos = replicaCheckInterval.toNanos();
+        final boolean lagChecked = replicaLagQuery != null;
+        final int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            final Replica replica = replicas.get((start + i) % size);
+            if (excluded.contains(replica)) {
+                continue;
+            }
+            if (lagChecked && !replica.checked) {
+                checkFirst(replica);
+            } else if (nowNanos - replica.lastCheckNanos >= intervalNanos) {
+                scheduleCheck(replica);
+            }
+            if (replica.available && (replica.checked || !lagChecked)) {
+                final int active = replica.dataSource.getNumActive();
+                if (active < bestActive) {
+                    best = replica;
+                    bestActive = active;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Closes the primary and replica data sources.
+     *
+     * @throws SQLException if a data source cannot be closed, the first failure with the others suppressed.
+     */
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            closed = true;
+            if (checker != null) {
+                checker.shutdownNow();
+                checker = null;
+            }
+        }
+        SQLException failure = null;
+        for (final BasicDataSource dataSource : getDataSources()) {
+            try {
+                dataSource.close();
+            } catch (final SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Gets a connection of the primary, which switches to a replica when set read-only.
+     * <p>
+     * The connection is borrowed from the primary up front, even if the caller only reads: callers which know they only
+     * read should use {@link #getReadOnlyConnection()}, which does not touch the primary while a replica is available.
+     * </p>
+     *
+     * @return a connection.
+     * @throws SQLException if a connection cannot be obtained from the primary.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new RoutingConnection(primary.getConnection(), null);
+    }
+
+    /**
+     * <strong>ReadWriteSplitDataSource does NOT support this method.</strong>
+     *
+     * @param user Database user on whose behalf the Connection is being made
+     * @param pass The database user's password
+     * @throws UnsupportedOperationException always thrown.
+     * @throws SQLException if a database access error occurs
+     * @return nothing - always throws UnsupportedOperationException
+     */
+    @Override
+    public Connection getConnection(final String user, final String pass) throws SQLException {
+        throw new UnsupportedOperationException("Not supported by ReadWriteSplitDataSource");
+    }
+
+    private List<BasicDataSource> getDataSources() {
+        final List<BasicDataSource> dataSources = new ArrayList<>(replicaDataSources.size() + 1);
+        dataSources.add(primary);
+        dataSources.addAll(replicaDataSources);
+        return dataSources;
+    }
+
+    /**
+     * Gets the login timeout of the primary.
+     */
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    /**
+     * Gets the log writer of the primary.
+     */
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    /**
+     * Gets the replica lag above which a replica is taken out of rotation.
+     *
+     * @return the maximum replica lag.
+     */
+    public Duration getMaxReplicaLag() {
+        return maxReplicaLag;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    /**
+     * Gets the data source of the primary.
+     *
+     * @return the data source of the primary.
+     */
+    public BasicDataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Gets a read-only connection of the available replica with the fewest active connections, or of the primary when
+     * no replica is available.
+     *
+     * @return a read-only connection.
+     * @throws SQLException if a connection cannot be obtained.
+     */
+    public Connection getReadOnlyConnection() throws SQLException {
+        final List<Replica> tried = new ArrayList<>();
+        Replica replica;
+        while ((replica = chooseReplica(tried)) != null) {
+            final Connection connection = getReplicaConnection(replica);
+            if (connection != null) {
+                final RoutingConnection routingConnection = new RoutingConnection(connection, replica);
+                routingConnection.setReadOnly(true);
+                return routingConnection;
+            }
+            tried.add(replica);
+        }
+        final RoutingConnection routingConnection = new RoutingConnection(primary.getConnection(), null);
+        routingConnection.setReadOnly(true);
+        return routingConnection;
+    }
+
+    /**
+     * Gets a connection of the given replica, taking the replica out of rotation if it fails to connect or validate. A
+     * replica whose pool is only exhausted stays in rotation.
+     *
+     * @return a connection, null if none could be obtained.
+     */
+    private Connection getReplicaConnection(final Replica replica) {
+        try {
+            return replica.dataSource.getConnection();
+        } catch (final SQLException e) {
+            if (!(e.getCause() instanceof NoSuchElementException)) {
+                replica.available = false;
+                replica.lastCheckNanos = System.nanoTime();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Gets the minimum interval between two health checks of a replica.
+     *
+     * @return the replica check interval.
+     */
+    public Duration getReplicaCheckInterval() {
+        return replicaCheckInterval;
+    }
+
+    /**
+     * Gets the lag of the given replica measured by its last health check.
+     *
+     * @param index the index of the replica.
+     * @return the replica lag, zero if no {@link #setReplicaLagQuery(String) replicaLagQuery} is set.
+     */
+    public Duration getReplicaLag(final int index) {
+        return replicas.get(index).lag;
+    }
+
+    /**
+     * Gets the query returning the lag of a replica in seconds.
+     *
+     * @return the replica lag query, null if not set.
+     */
+    public String getReplicaLagQuery() {
+        return replicaLagQuery;
+    }
+
+    /**
+     * Gets the data sources of the replicas.
+     *
+     * @return the data sources of the replicas.
+     */
+    public List<BasicDataSource> getReplicas() {
+        return replicaDataSources;
+    }
+
+    /**
+     * Tests whether the given replica is in rotation.
+     *
+     * @param index the index of the replica.
+     * @return whether the replica is in rotation.
+     */
+    public boolean isReplicaAvailable(final int index) {
+        return replicas.get(index).available;
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+        return iface != null && iface.isInstance(this);
+    }
+
+    /**
+     * Runs a health check of the given replica in the background, unless one is running.
+     */
+    private void scheduleCheck(final Replica replica) {
+        if (!replica.checking.compareAndSet(false, true)) {
+            return;
+        }
+        final Runnable check = () -> {
+            try {
+                check(replica);
+            } finally {
+                replica.checking.set(false);
+            }
+        };
+        synchronized (this) {
+            try {
+                if (closed) {
+                    replica.checking.set(false);
+                    return;
+                }
+                if (checker == null) {
+                    checker = new ThreadPoolExecutor(1, 1, CHECKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        final Thread thread = new Thread(runnable, "commons-dbcp2-replica-checker");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    checker.allowCoreThreadTimeOut(true);
+                }
+                checker.execute(check);
+            } catch (final RejectedExecutionException e) {
+                replica.checking.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sets the login timeout of the primary and replica data sources.
+     */
+    @Override
+    public void setLoginTimeout(final int loginTimeout) throws SQLException {
+        for (final BasicDataSource dataSource : getDataSources()) {
+            dataSource.setLoginTimeout(loginTimeout);
+        }
+    }
+
+    /**
+     * Sets the log writer of the primary and replica data sources.
+     */
+    @Override
+    public void setLogWriter(final PrintWriter logWriter) throws SQLException {
+        for (final BasicDataSource dataSource : getDataSources()) {
+            dataSource.setLogWriter(logWriter);
+        }
+    }
+
+    /**
+     * Sets the replica lag above which a replica is taken out of rotation, only used with a
+     * {@link #setReplicaLagQuery(String) replicaLagQuery}. The default value is 10 seconds.
+     *
+     * @param maxReplicaLag the maximum replica lag.
+     */
+    public void setMaxReplicaLag(final Duration maxReplicaLag) {
+        this.maxReplicaLag = Objects.requireNonNull(maxReplicaLag, "maxReplicaLag");
+    }
+
+    /**
+     * Sets the minimum interval between two health checks of a replica. The default value is 5 seconds.
+     *
+     * @param replicaCheckInterval the replica check interval.
+     */
+    public void setReplicaCheckInterval(final Duration replicaCheckInterval) {
+        this.replicaCheckInterval = Objects.requireNonNull(replicaCheckInterval, "replicaCheckInterval");
+    }
+
+    /**
+     * Sets the query returning the lag of a replica in seconds, as a number in the first column of its first row. When
+     * not set, the health check only validates a connection.
+     *
+     * @param replicaLagQuery the replica lag query, null for none.
+     */
+    public void setReplicaLagQuery(final String replicaLagQuery) {
+        this.replicaLagQuery = replicaLagQuery;
+    }
+
+    /**
+     * Sets the timeout of the connection validation of a health check when no
+     * {@link #setReplicaLagQuery(String) replicaLagQuery} is set. The default value is 5 seconds.
+     *
+     * @param validationTimeout the validation timeout.
+     */
+    public void setValidationTimeout(final Duration validationTimeout) {
+        this.validationTimeout = Objects.requireNonNull(validationTimeout, "validationTimeout");
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [primary=" + primary + ", replicas=" + replicaDataSources + "]";
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (isWrapperFor(iface)) {
+            return iface.cast(this);
+        }
+        throw new SQLException(this + " is not a wrapper for " + iface);
+    }
+}
@@ -314,4 +314,28 @@ final class ConnectionImpl extends DelegatingConnection<Connection> {
         }
     }
 
+    /**
+     * Sets the catalog and forgets the one cached to build statement keys.
+     */
+    @Override
+    public void setCatalog(final String catalog) throws SQLException {
+        try {
+            super.setCatalog(catalog);
+        } finally {
+            pooledConnection.clearCachedState();
+        }
+    }
+
+    /**
+     * Sets the schema and forgets the one cached to build statement keys.
+     */
+    @Override
+    public void setSchema(final String schema) throws SQLException {
+        try {
+            super.setSchema(schema);
+        } finally {
+            pooledConnection.clearCachedState();
+        }
+    }
+
 }
@@ -26,6 +26,7 @@ import java.sql.SQLFeatureNotSupportedException;
 import java.time.Duration;
 import java.util.Hashtable;
 import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 import javax.naming.Context;
@@ -79,7 +80,7 @@ import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
  *
  * @since 2.0
  */
-public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceable, Serializable, ObjectFactory {
+public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceable, Serializable, ObjectFactory, DriverAdapterCPDSMXBean {
 
     private static final String KEY_MIN_EVICTABLE_IDLE_DURATION = "minEvictableIdleDuration";
 
@@ -107,6 +108,8 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
 
     private static final String KEY_POOL_PREPARED_STATEMENTS = "poolPreparedStatements";
 
+    private static final String KEY_CACHE_STATE = "cacheState";
+
     private static final long serialVersionUID = -4820523787212147844L;
 
     private static final String GET_CONNECTION_CALLED = "A PooledConnection was already requested from this source, further initialization is not allowed.";
@@ -155,6 +158,9 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
     /** Maximum number of prepared statements, defaults to -1, meaning no limit. */
     private volatile int maxPreparedStatements = -1;
 
+    /** Whether pooled connections read the catalog and schema once per logical connection, defaults to false. */
+    private volatile boolean cacheState;
+
     /** Whether or not getConnection has been called */
     private volatile boolean getConnectionCalled;
 
@@ -166,6 +172,12 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
      */
     private boolean accessToUnderlyingConnectionAllowed;
 
+    /** Counts prepared statements served from the statement pools of all pooled connections. */
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    /** Counts prepared statements created by the statement pools of all pooled connections. */
+    private final LongAdder statementCacheMisses = new LongAdder();
+
     /**
      * Default no-argument constructor for Serialization
      */
@@ -371,6 +383,11 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
                     setAccessToUnderlyingConnectionAllowed(getBooleanContentString(ra));
                 }
 
+                ra = ref.get(KEY_CACHE_STATE);
+                if (isNotEmpty(ra)) {
+                    setCacheState(getBooleanContentString(ra));
+                }
+
                 cpds = this;
             }
         }
@@ -453,6 +470,7 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
             @SuppressWarnings("resource") // PooledConnectionImpl closes
             final KeyedObjectPool<PStmtKey, DelegatingPreparedStatement> stmtPool = new GenericKeyedObjectPool<>(pooledConnection, config);
             pooledConnection.setStatementPool(stmtPool);
+            pooledConnection.setStatementCacheCounters(statementCacheHits, statementCacheMisses);
         }
         return pooledConnection;
     }
@@ -466,6 +484,7 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
             pooledConnection = new PooledConnectionImpl(DriverManager.getConnection(getUrl(), pooledUserName, pooledUserPassword));
         }
         pooledConnection.setAccessToUnderlyingConnectionAllowed(isAccessToUnderlyingConnectionAllowed());
+        pooledConnection.setCacheState(isCacheState());
         return pooledConnection;
     }
 
@@ -490,6 +509,7 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
         ref.add(new StringRefAddr(KEY_MAX_IDLE, String.valueOf(getMaxIdle())));
         ref.add(new StringRefAddr(KEY_NUM_TESTS_PER_EVICTION_RUN, String.valueOf(getNumTestsPerEvictionRun())));
         ref.add(new StringRefAddr(KEY_MAX_PREPARED_STATEMENTS, String.valueOf(getMaxPreparedStatements())));
+        ref.add(new StringRefAddr(KEY_CACHE_STATE, String.valueOf(isCacheState())));
         //
         // Pair of current and deprecated.
         ref.add(new StringRefAddr(KEY_DURATION_BETWEEN_EVICTION_RUNS, String.valueOf(getDurationBetweenEvictionRuns())));
@@ -519,6 +539,16 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
         return durationBetweenEvictionRuns.toMillis();
     }
 
+    @Override
+    public long getStatementCacheHitCount() {
+        return statementCacheHits.sum();
+    }
+
+    @Override
+    public long getStatementCacheMissCount() {
+        return statementCacheMisses.sum();
+    }
+
     /**
      * Gets the value of connection string used to locate the database for this data source.
      *
@@ -546,6 +576,18 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
         return this.accessToUnderlyingConnectionAllowed;
     }
 
+    /**
+     * Tests whether pooled connections read the catalog and schema once per logical connection to build the keys of
+     * pooled statements.
+     *
+     * @return whether the catalog and schema are cached.
+     * @see #setCacheState(boolean)
+     * @since 2.15.0
+     */
+    public boolean isCacheState() {
+        return cacheState;
+    }
+
     private boolean isNotEmpty(final RefAddr ra) {
         return ra != null && ra.getContent() != null;
     }
@@ -569,6 +611,26 @@ public class DriverAdapterCPDS implements ConnectionPoolDataSource, Referenceabl
         this.accessToUnderlyingConnectionAllowed = allow;
     }
 
+    /**
+     * Sets whether pooled connections read the catalog and schema once per logical connection to build the keys of
+     * pooled statements, instead of asking the driver on each prepared statement. (Default: false)
+     * <p>
+     * Only changes made through {@link Connection#setCatalog(String)} and {@link Connection#setSchema(String)} of the
+     * logical connection clear the cache. If the catalog or schema is changed any other way, for example by executing
+     * {@code USE other_db} or {@code SET search_path}, or through the underlying connection, the statement pool keeps
+     * returning statements prepared against the previous catalog or schema until the logical connection is closed.
+     * Enable this only if the application never does so.
+     * </p>
+     *
+     * @param cacheState whether to cache the catalog and schema.
+     * @throws IllegalStateException if {@link #getPooledConnection()} has been called
+     * @since 2.15.0
+     */
+    public void setCacheState(final boolean cacheState) {
+        assertInitializationAllowed();
+        this.cacheState = cacheState;
+    }
+
     /**
      * Sets the connection properties passed to the JDBC driver.
      * <p>
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2.cpdsadapter;
+
+/**
+ * Defines the statement pool metrics exposed via JMX for {@link DriverAdapterCPDS} instances. A {@link DriverAdapterCPDS}
+ * does not register itself, register it with an {@link javax.management.MBeanServer} to monitor it.
+ *
+ * @since 2.15.0
+ */
+public interface DriverAdapterCPDSMXBean {
+
+    /**
+     * Gets the number of prepared statements served from the statement pools of the pooled connections created by this
+     * instance.
+     *
+     * @return the number of statement pool hits.
+     */
+    long getStatementCacheHitCount();
+
+    /**
+     * Gets the number of prepared statements the statement pools of the pooled connections created by this instance
+     * had to prepare on their connection.
+     *
+     * @return the number of statement pool misses.
+     */
+    long getStatementCacheMissCount();
+}
@@ -22,9 +22,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList; // Keep for other potential uses if not fully replaced, but FastList is preferred for the identified issues.
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.sql.ConnectionEvent;
 import javax.sql.ConnectionEventListener;
@@ -43,7 +42,6 @@ import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.KeyedPooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
-import org.eclipse.collections.impl.list.mutable.FastList; // Added import for FastList
 
 /**
  * Implements {@link PooledConnection} that is returned by {@link DriverAdapterCPDS}.
@@ -71,14 +69,14 @@ final class PooledConnectionImpl
     private Connection logicalConnection;
 
     /**
-     * ConnectionEventListeners.
+     * ConnectionEventListeners, copied on write so events are sent without locking.
      */
-    private final List<ConnectionEventListener> eventListeners;
+    private final CopyOnWriteArrayList<ConnectionEventListener> eventListeners = new CopyOnWriteArrayList<>();
 
     /**
-     * StatementEventListeners.
+     * StatementEventListeners, copied on write so events are sent without locking.
      */
-    private final List<StatementEventListener> statementEventListeners = Collections.synchronizedList(new FastList<>());
+    private final CopyOnWriteArrayList<StatementEventListener> statementEventListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Flag set to true, once {@link #close()} is called.
@@ -93,6 +91,31 @@ final class PooledConnectionImpl
      */
     private boolean accessToUnderlyingConnectionAllowed;
 
+    /**
+     * Whether to read the catalog and schema once per logical connection to build statement keys.
+     */
+    private boolean cacheState;
+
+    /**
+     * The catalog of the connection, read once per logical connection to build statement keys.
+     */
+    private String cachedCatalog;
+
+    private boolean catalogCached;
+
+    /**
+     * The schema of the connection, read once per logical connection to build statement keys.
+     */
+    private String cachedSchema;
+
+    private boolean schemaCached;
+
+    /** Counts statements served from the statement pool, may be null. */
+    private LongAdder statementCacheHits;
+
+    /** Counts statements prepared on the connection, may be null. */
+    private LongAdder statementCacheMisses;
+
     /**
      * Wraps a real connection.
      *
@@ -106,7 +129,6 @@ final class PooledConnectionImpl
         } else {
             this.delegatingConnection = new DelegatingConnection<>(connection);
         }
-        eventListeners = Collections.synchronizedList(new FastList<>());
         closed = false;
     }
 
@@ -119,6 +141,11 @@ final class PooledConnectionImpl
     public void activateObject(final PStmtKey key, final PooledObject<DelegatingPreparedStatement> pooledObject)
             throws SQLException {
         pooledObject.getObject().activate();
+        // The pool counts the borrow before activating, the first borrow follows makeObject.
+        final LongAdder counter = pooledObject.getBorrowedCount() > 1 ? statementCacheHits : statementCacheMisses;
+        if (counter != null) {
+            counter.increment();
+        }
     }
 
     /**
@@ -126,16 +153,12 @@ final class PooledConnectionImpl
      */
     @Override
     public void addConnectionEventListener(final ConnectionEventListener listener) {
-        if (!eventListeners.contains(listener)) {
-            eventListeners.add(listener);
-        }
+        eventListeners.addIfAbsent(listener);
     }
 
     @Override
     public void addStatementEventListener(final StatementEventListener listener) {
-        if (!statementEventListeners.contains(listener)) {
-            statementEventListeners.add(listener);
-        }
+        statementEventListeners.addIfAbsent(listener);
     }
 
     /**
@@ -362,9 +385,24 @@ final class PooledConnectionImpl
         }
     }
 
+    /**
+     * Forgets the cached catalog and schema, read again when the next statement key is built.
+     */
+    void clearCachedState() {
+        catalogCached = false;
+        cachedCatalog = null;
+        schemaCached = false;
+        cachedSchema = null;
+    }
+
     private String getCatalogOrNull() {
+        if (catalogCached) {
+            return cachedCatalog;
+        }
         try {
-            return connection == null ? null : connection.getCatalog();
+            cachedCatalog = connection == null ? null : connection.getCatalog();
+            catalogCached = cacheState && connection != null;
+            return cachedCatalog;
         } catch (final SQLException e) {
             return null;
         }
@@ -387,6 +425,8 @@ final class PooledConnectionImpl
             throw new SQLException("PooledConnection was reused, without its previous Connection being closed.");
         }
 
+        // The catalog and schema may have been changed through the previous logical connection's delegate.
+        clearCachedState();
         // the spec requires that this return a new Connection instance.
         logicalConnection = new ConnectionImpl(this, connection, isAccessToUnderlyingConnectionAllowed());
         return logicalConnection;
@@ -398,8 +438,13 @@ final class PooledConnectionImpl
     }
 
     private String getSchemaOrNull() {
+        if (schemaCached) {
+            return cachedSchema;
+        }
         try {
-            return connection == null ? null : Jdbc41Bridge.getSchema(connection);
+            cachedSchema = connection == null ? null : Jdbc41Bridge.getSchema(connection);
+            schemaCached = cacheState && connection != null;
+            return cachedSchema;
         } catch (final SQLException e) {
             return null;
         }
@@ -445,7 +490,7 @@ final class PooledConnectionImpl
      */
     void notifyListeners() {
         final ConnectionEvent event = new ConnectionEvent(this);
-        new FastList<>(eventListeners).forEach(listener -> listener.connectionClosed(event));
+        eventListeners.forEach(listener -> listener.connectionClosed(event));
     }
 
     /**
@@ -713,6 +758,27 @@ final class PooledConnectionImpl
         this.accessToUnderlyingConnectionAllowed = allow;
     }
 
+    /**
+     * Sets whether to read the catalog and schema once per logical connection to build statement keys, instead of on
+     * each statement.
+     *
+     * @param cacheState whether to cache the catalog and schema.
+     */
+    void setCacheState(final boolean cacheState) {
+        this.cacheState = cacheState;
+    }
+
+    /**
+     * Sets the counters of statements served from the statement pool and prepared on the connection.
+     *
+     * @param hits counts statements served from the statement pool.
+     * @param misses counts statements prepared on the connection.
+     */
+    void setStatementCacheCounters(final LongAdder hits, final LongAdder misses) {
+        this.statementCacheHits = hits;
+        this.statementCacheMisses = misses;
+    }
+
     public void setStatementPool(final KeyedObjectPool<PStmtKey, DelegatingPreparedStatement> statementPool) {
         stmtPool = statementPool;
     }
@@ -19,6 +19,10 @@ package org.apache.commons.dbcp2.datasources;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.sql.ConnectionEvent;
 import javax.sql.ConnectionEventListener;
@@ -30,6 +34,7 @@ import org.apache.commons.pool2.ObjectPool;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.PooledObjectFactory;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
 
 /**
  * A {@link PooledObjectFactory} that creates {@link org.apache.commons.dbcp2.PoolableConnection PoolableConnection}s.
@@ -42,7 +47,16 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
     private static final String NO_KEY_MESSAGE = "close() was called on a Connection, but I have no record of the underlying PooledConnection.";
 
     private ObjectPool<PooledConnectionAndInfo> pool;
-    private UserPassKey userPassKey;
+    private volatile UserPassKey userPassKey;
+    private volatile long lastUsedNanos = System.nanoTime();
+    private ConnectionBudget budget;
+    private Duration budgetMaxWait = Duration.ofMillis(-1);
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * The pooled objects wrapping the connections, to close idle ones for the connection budget.
+     */
+    private final Map<PooledConnection, PooledObject<PooledConnectionAndInfo>> pooledObjects = new ConcurrentHashMap<>();
 
     /**
      * Creates a new {@link PoolableConnectionFactory}.
@@ -81,10 +95,13 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
      */
     @Override
     public void closePool(final String userName) throws SQLException {
-        synchronized (this) {
+        lock.lock();
+        try {
             if (userName == null || !userName.equals(this.userPassKey.getUserName())) {
                 return;
             }
+        } finally {
+            lock.unlock();
         }
         try {
             pool.close();
@@ -109,6 +126,7 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
                 throw new IllegalStateException(NO_KEY_MESSAGE);
             }
 
+            lastUsedNanos = System.nanoTime();
             try {
                 pool.returnObject(pci);
             } catch (final Exception e) {
@@ -158,8 +176,53 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
     private void doDestroyObject(final PooledConnectionAndInfo pci) throws SQLException {
         final PooledConnection pc = pci.getPooledConnection();
         pc.removeConnectionEventListener(this);
-        pcMap.remove(pc);
-        pc.close();
+        final boolean tracked = pcMap.remove(pc) != null;
+        pooledObjects.remove(pc);
+        try {
+            pc.close();
+        } finally {
+            if (tracked && budget != null) {
+                budget.release(pci.getUserName());
+            }
+        }
+    }
+
+    /**
+     * Closes one idle connection of the pool without borrowing it, leaving the borrow statistics of the pool and its
+     * time of last use alone.
+     *
+     * @return whether a connection was closed.
+     */
+    boolean destroyIdleObject() {
+        for (final PooledObject<PooledConnectionAndInfo> p : pooledObjects.values()) {
+            // Claims the idle connection as the evictor does, a borrower skips it
+            if (p.startEvictionTest()) {
+                try {
+                    pool.invalidateObject(p.getObject());
+                } catch (final Exception e) {
+                    // The connection is out of the pool even if it failed to close.
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} at which a connection of this factory was last borrowed or returned by a
+     * client. The evictor testing idle connections does not count as a use.
+     *
+     * @return the time of last use in nanoseconds.
+     */
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    /**
+     * Records that a client borrowed a connection of this factory.
+     */
+    void markUsed() {
+        lastUsedNanos = System.nanoTime();
     }
 
     /**
@@ -200,8 +263,41 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
         }
     }
 
+    /**
+     * Tests whether the given connection was made with a password other than the current one.
+     */
+    private boolean isRetired(final PooledConnectionAndInfo info) {
+        return !userPassKey.matchesPassword(info.getPassword());
+    }
+
     @Override
-    public synchronized PooledObject<PooledConnectionAndInfo> makeObject() throws SQLException {
+    public boolean isRotatedTo(final PooledConnectionAndInfo info, final String password) {
+        return isRetired(info) && userPassKey.matchesPassword(password);
+    }
+
+    @Override
+    public PooledObject<PooledConnectionAndInfo> makeObject() throws SQLException {
+        if (budget == null) {
+            return doMakeObject();
+        }
+        final String userName = userPassKey.getUserName();
+        try {
+            budget.acquire(userName, budgetMaxWait);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the connection budget", e);
+        }
+        try {
+            return doMakeObject();
+        } catch (final SQLException | RuntimeException e) {
+            budget.release(userName);
+            throw e;
+        }
+    }
+
+    private PooledObject<PooledConnectionAndInfo> doMakeObject() throws SQLException {
+        // Connect without the lock, connections of the pool are made concurrently.
+        final UserPassKey userPassKey = this.userPassKey;
         PooledConnection pc = null;
         if (userPassKey.getUserName() == null) {
             pc = cpds.getPooledConnection();
@@ -211,17 +307,52 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
         if (pc == null) {
             throw new IllegalStateException("Connection pool data source returned null from getPooledConnection");
         }
-        // should we add this object as a listener or the pool.
-        // consider the validateObject method in decision
-        pc.addConnectionEventListener(this);
-        final PooledConnectionAndInfo pci = new PooledConnectionAndInfo(pc, userPassKey);
-        pcMap.put(pc, pci);
-        return new DefaultPooledObject<>(pci);
+        lock.lock();
+        try {
+            // should we add this object as a listener or the pool.
+            // consider the validateObject method in decision
+            pc.addConnectionEventListener(this);
+            final PooledConnectionAndInfo pci = new PooledConnectionAndInfo(pc, userPassKey);
+            pcMap.put(pc, pci);
+            final PooledObject<PooledConnectionAndInfo> pooledObject = new DefaultPooledObject<>(pci);
+            pooledObjects.put(pc, pooledObject);
+            return pooledObject;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void passivateObject(final PooledObject<PooledConnectionAndInfo> p) throws SQLException {
         validateLifetime(p);
+        if (isRetired(p.getObject())) {
+            throw new SQLException("Connection retired by a password rotation");
+        }
+    }
+
+    @Override
+    public void rotatePassword(final String userName, final String password) throws SQLException {
+        setPassword(password);
+        if (pool instanceof GenericObjectPool) {
+            try {
+                for (int i = 0; i < ((GenericObjectPool<?>) pool).getMinIdle(); i++) {
+                    pool.addObject();
+                }
+            } catch (final Exception e) {
+                throw new SQLException("Error preparing connections with the rotated password", e);
+            }
+        }
+    }
+
+    /**
+     * Sets the budget from which new connections take their capacity.
+     *
+     * @param budget the budget shared with other users' pools, null for none.
+     * @param maxWait the maximum duration to wait for the budget, a negative value to wait forever.
+     */
+    void setConnectionBudget(final ConnectionBudget budget, final Duration maxWait) {
+        this.budget = budget;
+        this.budgetMaxWait = maxWait;
     }
 
     /**
@@ -231,8 +362,13 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
      *            new password
      */
     @Override
-    public synchronized void setPassword(final char[] userPassword) {
-        this.userPassKey = new UserPassKey(userPassKey.getUserName(), userPassword);
+    public void setPassword(final char[] userPassword) {
+        lock.lock();
+        try {
+            this.userPassKey = new UserPassKey(userPassKey.getUserName(), userPassword);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -242,8 +378,13 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
      *            new password
      */
     @Override
-    public synchronized void setPassword(final String userPassword) {
-        this.userPassKey = new UserPassKey(userPassKey.getUserName(), userPassword);
+    public void setPassword(final String userPassword) {
+        lock.lock();
+        try {
+            this.userPassKey = new UserPassKey(userPassKey.getUserName(), userPassword);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -259,25 +400,30 @@ final class CPDSConnectionFactory extends AbstractConnectionFactory
      * @since 2.6.0
      */
     @Override
-    public synchronized String toString() {
-        final StringBuilder builder = new StringBuilder(super.toString());
-        builder.append("[cpds=");
-        builder.append(cpds);
-        builder.append(", validationQuery=");
-        builder.append(validationQuery);
-        builder.append(", validationQueryTimeoutDuration=");
-        builder.append(validationQueryTimeoutDuration);
-        builder.append(", rollbackAfterValidation=");
-        builder.append(rollbackAfterValidation);
-        builder.append(", pool=");
-        builder.append(pool);
-        builder.append(", maxConnDuration=");
-        builder.append(maxConnDuration);
-        builder.append(", validatingSet=");
-        builder.append(validatingSet);
-        builder.append(", pcMap=");
-        builder.append(pcMap);
-        builder.append("]");
-        return builder.toString();
+    public String toString() {
+        lock.lock();
+        try {
+            final StringBuilder builder = new StringBuilder(super.toString());
+            builder.append("[cpds=");
+            builder.append(cpds);
+            builder.append(", validationQuery=");
+            builder.append(validationQuery);
+            builder.append(", validationQueryTimeoutDuration=");
+            builder.append(validationQueryTimeoutDuration);
+            builder.append(", rollbackAfterValidation=");
+            builder.append(rollbackAfterValidation);
+            builder.append(", pool=");
+            builder.append(pool);
+            builder.append(", maxConnDuration=");
+            builder.append(maxConnDuration);
+            builder.append(", validatingSet=");
+            builder.append(validatingSet);
+            builder.append(", pcMap=");
+            builder.append(pcMap);
+            builder.append("]");
+            return builder.toString();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -87,6 +87,26 @@ final class CharArray implements Serializable {
         return Utils.clone(chars);
     }
 
+    /**
+     * Tests whether the given string has the same characters, in a time that only depends on its length.
+     *
+     * @param string the string to test, may be null.
+     * @return whether the given string has the same characters.
+     */
+    boolean matches(final String string) {
+        if (chars == null || string == null) {
+            return chars == null && string == null;
+        }
+        if (chars.length != string.length()) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < chars.length; i++) {
+            diff |= chars[i] ^ string.charAt(i);
+        }
+        return diff == 0;
+    }
+
     @Override
     public int hashCode() {
         return Arrays.hashCode(chars);
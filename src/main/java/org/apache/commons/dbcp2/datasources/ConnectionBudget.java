@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2.datasources;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of physical connections held by all the user pools of a {@link PerUserPoolDataSource}.
+ * <p>
+ * Each user has a weight, 1 unless configured otherwise. While the budget has room, any user may open connections,
+ * beyond its weighted share if others do not need theirs. Once the budget is exhausted:
+ * </p>
+ * <ul>
+ * <li>a user needing a connection closes an idle connection of the user holding the most connections relative to its
+ * weight, provided that user holds more than the requesting user would after the grant, relative to their weights;</li>
+ * <li>otherwise it waits, and released capacity goes to the waiting user holding the fewest connections relative to
+ * its weight.</li>
+ * </ul>
+ * <p>
+ * Wait times are recorded per user.
+ * </p>
+ *
+ * @see PerUserPoolDataSource#setMaxTotalConnections(int)
+ * @since 2.15.0
+ */
+public final class ConnectionBudget {
+
+    /**
+     * Tracks the connections of one user.
+     */
+    private static final class Account {
+
+        private int weight = 1;
+        private CPDSConnectionFactory factory;
+        private int held;
+        private int waiting;
+        private long grantCount;
+        private long timeoutCount;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+    }
+
+    /** Set while closing an idle connection of another user, so that its pool does not create one instead. */
+    private static final ThreadLocal<Boolean> RECLAIMING = new ThreadLocal<>();
+
+    /** Compares held / weight of two accounts, the first with the given extra connections. */
+    private static int compareLoad(final Account a, final int extra, final Account b) {
+        return Long.compare((long) (a.held + extra) * b.weight, (long) b.held * a.weight);
+    }
+
+    private final int maxTotal;
+
+    /** Accounts by user name, the null user included. */
+    private final Map<String, Account> accounts = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private int total;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxTotal the maximum number of connections across all users.
+     */
+    ConnectionBudget(final int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Acquires the capacity for one new connection of the given user, closing an idle connection of another user or
+     * waiting if needed.
+     *
+     * @param userName the user name, may be null.
+     * @param maxWait the maximum duration to wait, a negative value to wait forever.
+     * @throws NoSuchElementException if the wait timed out, or if called while closing an idle connection.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    void acquire(final String userName, final Duration maxWait) throws InterruptedException {
+        if (RECLAIMING.get() != null) {
+            throw new NoSuchElementException("Connection budget exhausted");
+        }
+        final boolean forever = maxWait.isNegative();
+        long remainingNanos = forever ? 0 : maxWait.toNanos();
+        final long startNanos = System.nanoTime();
+        lock.lock();
+        try {
+            final Account account = getAccount(userName);
+            account.waiting++;
+            try {
+                while (true) {
+                    if (total < maxTotal && !hasLessLoadedWaiter(account)) {
+                        total++;
+                        account.held++;
+                        final long waitNanos = System.nanoTime() - startNanos;
+                        account.grantCount++;
+                        account.totalWaitNanos += waitNanos;
+                        account.maxWaitNanos = Math.max(account.maxWaitNanos, waitNanos);
+                        return;
+                    }
+                    final CPDSConnectionFactory victim = findVictim(account);
+                    if (victim != null) {
+                        final boolean reclaimed;
+                        lock.unlock();
+                        try {
+                            reclaimed = reclaim(victim);
+                        } finally {
+                            lock.lock();
+                        }
+                        if (reclaimed) {
+                            continue;
+                        }
+                    }
+                    if (forever) {
+                        released.await();
+                    } else if (remainingNanos <= 0) {
+                        account.timeoutCount++;
+                        account.maxWaitNanos = Math.max(account.maxWaitNanos, System.nanoTime() - startNanos);
+                        throw new NoSuchElementException("Timeout waiting for the connection budget, maxTotalConnections " + maxTotal);
+                    } else {
+                        remainingNanos = released.awaitNanos(remainingNanos);
+                    }
+                }
+            } finally {
+                account.waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Associates a user with the factory of its pool, whose idle connections other users may close.
+     *
+     * @param userName the user name, may be null.
+     * @param factory the factory of the user's pool.
+     */
+    void bind(final String userName, final CPDSConnectionFactory factory) {
+        lock.lock();
+        try {
+            getAccount(userName).factory = factory;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds the pool factory of the most loaded user with idle connections, if it is more loaded than the given account
+     * would be after a grant. Call with the lock held.
+     */
+    private CPDSConnectionFactory findVictim(final Account account) {
+        Account victim = null;
+        for (final Account candidate : accounts.values()) {
+            if (candidate != account && candidate.factory != null && candidate.factory.getPool().getNumIdle() > 0
+                    && (victim == null || compareLoad(candidate, 0, victim) > 0)) {
+                victim = candidate;
+            }
+        }
+        return victim != null && compareLoad(account, 1, victim) < 0 ? victim.factory : null;
+    }
+
+    /**
+     * Dissociates a user from the factory of its closed pool.
+     *
+     * @param userName the user name, may be null.
+     * @param factory the factory of the user's closed pool.
+     */
+    void unbind(final String userName, final CPDSConnectionFactory factory) {
+        lock.lock();
+        try {
+            final Account account = accounts.get(userName);
+            if (account != null && account.factory == factory) {
+                account.factory = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Account getAccount(final String userName) {
+        return accounts.computeIfAbsent(userName, k -> new Account());
+    }
+
+    /**
+     * Gets the number of connections currently held by the given user.
+     *
+     * @param userName the user name, may be null.
+     * @return the number of connections currently held.
+     */
+    public int getHeld(final String userName) {
+        lock.lock();
+        try {
+            final Account account = accounts.get(userName);
+            return account == null ? 0 : account.held;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the longest time the given user waited for the budget, timed out waits included.
+     *
+     * @param userName the user name, may be null.
+     * @return the longest wait.
+     */
+    public Duration getMaxWaitDuration(final String userName) {
+        lock.lock();
+        try {
+            final Account account = accounts.get(userName);
+            return account == null ? Duration.ZERO : Duration.ofNanos(account.maxWaitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the maximum number of connections across all users.
+     *
+     * @return the maximum number of connections.
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Gets the mean time the given user waited for the budget.
+     *
+     * @param userName the user name, may be null.
+     * @return the mean wait.
+     */
+    public Duration getMeanWaitDuration(final String userName) {
+        lock.lock();
+        try {
+            final Account account = accounts.get(userName);
+            return account == null || account.grantCount == 0 ? Duration.ZERO : Duration.ofNanos(account.totalWaitNanos / account.grantCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of times the given user timed out waiting for the budget.
+     *
+     * @param userName the user name, may be null.
+     * @return the number of timeouts.
+     */
+    public long getTimeoutCount(final String userName) {
+        lock.lock();
+        try {
+            final Account account = accounts.get(userName);
+            return account == null ? 0 : account.timeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connections currently held across all users.
+     *
+     * @return the number of connections currently held.
+     */
+    public int getTotal() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of threads of the given user currently waiting for the budget.
+     *
+     * @param userName the user name, may be null.
+     * @return the number of waiting threads.
+     */
+    public int getWaiting(final String userName) {
+        lock.lock();
+        try {
+            final Account account = accounts.get(userName);
+            return account == null ? 0 : account.waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tests whether a waiting user other than the given one holds fewer connections relative to its weight. Call with
+     * the lock held.
+     */
+    private boolean hasLessLoadedWaiter(final Account account) {
+        for (final Account other : accounts.values()) {
+            if (other != account && other.waiting > 0 && compareLoad(other, 0, account) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes an idle connection of the given pool factory, which releases its capacity. The connection is taken from
+     * the idle ones without borrowing it, so the statistics of the pool and its time of last use are left alone.
+     *
+     * @return whether a connection was closed.
+     */
+    private boolean reclaim(final CPDSConnectionFactory factory) {
+        RECLAIMING.set(Boolean.TRUE);
+        try {
+            return factory.destroyIdleObject();
+        } finally {
+            RECLAIMING.remove();
+        }
+    }
+
+    /**
+     * Releases the capacity of a closed connection of the given user.
+     *
+     * @param userName the user name, may be null.
+     */
+    void release(final String userName) {
+        lock.lock();
+        try {
+            total--;
+            getAccount(userName).held--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the weight of a user.
+     *
+     * @param userName the user name, may be null.
+     * @param weight the weight, at least 1.
+     */
+    void setWeight(final String userName, final int weight) {
+        lock.lock();
+        try {
+            getAccount(userName).weight = Math.max(1, weight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            final StringBuilder builder = new StringBuilder(getClass().getSimpleName()).append(" [maxTotal=").append(maxTotal).append(", total=")
+                    .append(total);
+            accounts.forEach((userName, account) -> builder.append(", ").append(userName).append("[weight=").append(account.weight)
+                    .append(", held=").append(account.held).append(", waiting=").append(account.waiting).append(']'));
+            return builder.append(']').toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
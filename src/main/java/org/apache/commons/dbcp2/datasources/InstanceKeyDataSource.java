@@ -250,8 +250,8 @@ public abstract class InstanceKeyDataSource implements DataSource, Referenceable
             throw new SQLException("Cannot borrow connection from pool", e);
         }
 
-        // Password on PooledConnectionAndInfo does not match
-        if (!(null == userPassword ? null == info.getPassword() : userPassword.equals(info.getPassword()))) {
+        // Password on PooledConnectionAndInfo does not match, and was not rotated to the given one
+        if (!info.matchesPassword(userPassword) && !getConnectionManager(info.getUserPassKey()).isRotatedTo(info, userPassword)) {
             try { // See if password has changed by attempting connection
                 testCPDS(userName, userPassword);
             } catch (final SQLException ex) {
@@ -271,7 +271,7 @@ public abstract class InstanceKeyDataSource implements DataSource, Referenceable
             // Destroy and remove from pool
             manager.invalidate(info.getPooledConnection());
             // Reset the password on the factory if using CPDSConnectionFactory
-            manager.setPassword(upkey.getPasswordCharArray());
+            manager.setPassword(userPassword);
             info = null;
             for (int i = 0; i < 10; i++) { // Bound the number of retries - only needed if bad instances return
                 try {
@@ -283,7 +283,7 @@ public abstract class InstanceKeyDataSource implements DataSource, Referenceable
                     closeDueToException(info);
                     throw new SQLException("Cannot borrow connection from pool", e);
                 }
-                if (info != null && userPassword != null && userPassword.equals(info.getPassword())) {
+                if (info != null && userPassword != null && info.matchesPassword(userPassword)) {
                     break;
                 }
                 if (info != null) {
@@ -744,6 +744,34 @@ public abstract class InstanceKeyDataSource implements DataSource, Referenceable
         return iface.isInstance(this);
     }
 
+    /**
+     * Switches the given user to a new database password without closing the pool.
+     * <p>
+     * This method first opens a connection with the new password, failing if that fails. Connections of the user made
+     * with the previous password then keep serving borrowers presenting the new password, instead of being closed when
+     * borrowed as they are when the password changes unannounced, and are closed when returned. The user's pool is
+     * refilled up to its minimum idle count with connections made with the new password. Only the pool of the given
+     * user is affected; nothing is done if that user has not requested a connection yet. A {@link SharedPoolDataSource}
+     * then refuses borrowers presenting another password for the user, until the next rotation.
+     * </p>
+     *
+     * @param userName the user name, may be null for the default user of the back end data source.
+     * @param password the new password.
+     * @throws SQLException if a connection cannot be opened with the new password.
+     * @since 2.15.0
+     */
+    public void rotatePassword(final String userName, final String password) throws SQLException {
+        try {
+            testCPDS(userName, password);
+        } catch (final javax.naming.NamingException e) {
+            throw new SQLException("NamingException encountered connecting to database", e);
+        }
+        final PooledConnectionManager manager = getConnectionManager(new UserPassKey(userName, password));
+        if (manager != null) {
+            manager.rotatePassword(userName, password);
+        }
+    }
+
     /**
      * Sets the back end ConnectionPoolDataSource. This property should not be set if using JNDI to access the
      * data source.
@@ -19,6 +19,10 @@ package org.apache.commons.dbcp2.datasources;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.sql.ConnectionEvent;
 import javax.sql.ConnectionEventListener;
@@ -30,6 +34,7 @@ import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.KeyedPooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 
 /**
  * A {@link KeyedPooledObjectFactory} that creates {@link PoolableConnection}s.
@@ -41,6 +46,12 @@ final class KeyedCPDSConnectionFactory extends AbstractConnectionFactory
 
     private static final String NO_KEY_MESSAGE = "close() was called on a Connection, but I have no record of the underlying PooledConnection.";
     private KeyedObjectPool<UserPassKey, PooledConnectionAndInfo> pool;
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * The key holding the current password of each user whose password was rotated, by user name.
+     */
+    private final Map<UserPassKey, UserPassKey> rotatedKeys = new ConcurrentHashMap<>();
 
     /**
      * Creates a new {@code KeyedCPDSConnectionFactory}.
@@ -175,6 +186,31 @@ final class KeyedCPDSConnectionFactory extends AbstractConnectionFactory
         }
     }
 
+    /**
+     * Tests whether the given connection was made with a password other than the one its user was rotated to.
+     */
+    private boolean isRetired(final PooledConnectionAndInfo info) {
+        return isStalePassword(info.getUserPassKey());
+    }
+
+    /**
+     * Tests whether the user of the given key had its password rotated to another password than the key's, connections
+     * made with the key would be retired as soon as returned.
+     *
+     * @param userPassKey the user name and password given by a borrower.
+     * @return whether the password is stale.
+     */
+    boolean isStalePassword(final UserPassKey userPassKey) {
+        final UserPassKey rotated = rotatedKeys.get(userPassKey);
+        return rotated != null && !rotated.matchesPassword(userPassKey.getPassword());
+    }
+
+    @Override
+    public boolean isRotatedTo(final PooledConnectionAndInfo info, final String password) {
+        final UserPassKey rotated = rotatedKeys.get(info.getUserPassKey());
+        return rotated != null && !rotated.matchesPassword(info.getPassword()) && rotated.matchesPassword(password);
+    }
+
     /**
      * Creates a new {@code PooledConnectionAndInfo} from the given {@code UserPassKey}.
      *
@@ -185,7 +221,8 @@ final class KeyedCPDSConnectionFactory extends AbstractConnectionFactory
      * @see org.apache.commons.pool2.KeyedPooledObjectFactory#makeObject(Object)
      */
     @Override
-    public synchronized PooledObject<PooledConnectionAndInfo> makeObject(final UserPassKey userPassKey) throws SQLException {
+    public PooledObject<PooledConnectionAndInfo> makeObject(final UserPassKey userPassKey) throws SQLException {
+        // Connect without the lock, connections of the pool are made concurrently.
         PooledConnection pooledConnection = null;
         final String userName = userPassKey.getUserName();
         final String password = userPassKey.getPassword();
@@ -197,17 +234,41 @@ final class KeyedCPDSConnectionFactory extends AbstractConnectionFactory
         if (pooledConnection == null) {
             throw new IllegalStateException("Connection pool data source returned null from getPooledConnection");
         }
-        // should we add this object as a listener or the pool.
-        // consider the validateObject method in decision
-        pooledConnection.addConnectionEventListener(this);
-        final PooledConnectionAndInfo pci = new PooledConnectionAndInfo(pooledConnection, userPassKey);
-        pcMap.put(pooledConnection, pci);
-        return new DefaultPooledObject<>(pci);
+        lock.lock();
+        try {
+            // should we add this object as a listener or the pool.
+            // consider the validateObject method in decision
+            pooledConnection.addConnectionEventListener(this);
+            final PooledConnectionAndInfo pci = new PooledConnectionAndInfo(pooledConnection, userPassKey);
+            pcMap.put(pooledConnection, pci);
+            return new DefaultPooledObject<>(pci);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void passivateObject(final UserPassKey ignored, final PooledObject<PooledConnectionAndInfo> pooledObject) throws SQLException {
         validateLifetime(pooledObject);
+        if (isRetired(pooledObject.getObject())) {
+            throw new SQLException("Connection retired by a password rotation");
+        }
+    }
+
+    @Override
+    public void rotatePassword(final String userName, final String password) throws SQLException {
+        final UserPassKey key = new UserPassKey(userName, password);
+        // Keys are equal by user name, replace the value only.
+        rotatedKeys.put(key, key);
+        if (pool instanceof GenericKeyedObjectPool) {
+            try {
+                for (int i = 0; i < ((GenericKeyedObjectPool<?, ?>) pool).getMinIdlePerKey(); i++) {
+                    pool.addObject(key);
+                }
+            } catch (final Exception e) {
+                throw new SQLException("Error preparing connections with the rotated password", e);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2.datasources;
+
+import java.time.Duration;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+/**
+ * The configuration of one user's pool in a {@link PerUserPoolDataSource}, resolved once from the per-user values and
+ * the data source defaults.
+ * <p>
+ * A {@link PerUserPoolDataSource} cannot be reconfigured once a connection was requested, so a snapshot taken after
+ * that never goes stale.
+ * </p>
+ *
+ * @since 2.15.0
+ */
+final class PerUserPoolConfig {
+
+    private final boolean blockWhenExhausted;
+    private final String evictionPolicyClassName;
+    private final boolean lifo;
+    private final int maxIdle;
+    private final int maxTotal;
+    private final Duration maxWait;
+    private final Duration minEvictableIdleDuration;
+    private final int minIdle;
+    private final int numTestsPerEvictionRun;
+    private final Duration softMinEvictableIdleDuration;
+    private final boolean testOnCreate;
+    private final boolean testOnBorrow;
+    private final boolean testOnReturn;
+    private final boolean testWhileIdle;
+    private final Duration durationBetweenEvictionRuns;
+    private final Boolean defaultAutoCommit;
+    private final Boolean defaultReadOnly;
+    private final int defaultTransactionIsolation;
+
+    /**
+     * Resolves the configuration of the given user's pool.
+     *
+     * @param dataSource the data source.
+     * @param userName the user name, may be null.
+     */
+    PerUserPoolConfig(final PerUserPoolDataSource dataSource, final String userName) {
+        this.blockWhenExhausted = dataSource.getPerUserBlockWhenExhausted(userName);
+        this.evictionPolicyClassName = dataSource.getPerUserEvictionPolicyClassName(userName);
+        this.lifo = dataSource.getPerUserLifo(userName);
+        this.maxIdle = dataSource.getPerUserMaxIdle(userName);
+        this.maxTotal = dataSource.getPerUserMaxTotal(userName);
+        this.maxWait = dataSource.getPerUserMaxWaitDuration(userName);
+        this.minEvictableIdleDuration = dataSource.getPerUserMinEvictableIdleDuration(userName);
+        this.minIdle = dataSource.getPerUserMinIdle(userName);
+        this.numTestsPerEvictionRun = dataSource.getPerUserNumTestsPerEvictionRun(userName);
+        this.softMinEvictableIdleDuration = dataSource.getPerUserSoftMinEvictableIdleDuration(userName);
+        this.testOnCreate = dataSource.getPerUserTestOnCreate(userName);
+        this.testOnBorrow = dataSource.getPerUserTestOnBorrow(userName);
+        this.testOnReturn = dataSource.getPerUserTestOnReturn(userName);
+        this.testWhileIdle = dataSource.getPerUserTestWhileIdle(userName);
+        this.durationBetweenEvictionRuns = dataSource.getPerUserDurationBetweenEvictionRuns(userName);
+        final Boolean userAutoCommit = userName != null ? dataSource.getPerUserDefaultAutoCommit(userName) : null;
+        this.defaultAutoCommit = userAutoCommit != null ? userAutoCommit : dataSource.isDefaultAutoCommit();
+        final Boolean userReadOnly = userName != null ? dataSource.getPerUserDefaultReadOnly(userName) : null;
+        this.defaultReadOnly = userReadOnly != null ? userReadOnly : dataSource.isDefaultReadOnly();
+        final Integer userTransactionIsolation = userName != null ? dataSource.getPerUserDefaultTransactionIsolation(userName) : null;
+        this.defaultTransactionIsolation = userTransactionIsolation != null ? userTransactionIsolation : dataSource.getDefaultTransactionIsolation();
+    }
+
+    /**
+     * Applies the pool settings to the given pool.
+     *
+     * @param pool the pool to configure.
+     */
+    void configure(final GenericObjectPool<?> pool) {
+        pool.setBlockWhenExhausted(blockWhenExhausted);
+        pool.setEvictionPolicyClassName(evictionPolicyClassName);
+        pool.setLifo(lifo);
+        pool.setMaxIdle(maxIdle);
+        pool.setMaxTotal(maxTotal);
+        pool.setMaxWait(maxWait);
+        pool.setMinEvictableIdleDuration(minEvictableIdleDuration);
+        pool.setMinIdle(minIdle);
+        pool.setNumTestsPerEvictionRun(numTestsPerEvictionRun);
+        pool.setSoftMinEvictableIdleDuration(softMinEvictableIdleDuration);
+        pool.setTestOnCreate(testOnCreate);
+        pool.setTestOnBorrow(testOnBorrow);
+        pool.setTestOnReturn(testOnReturn);
+        pool.setTestWhileIdle(testWhileIdle);
+        pool.setDurationBetweenEvictionRuns(durationBetweenEvictionRuns);
+    }
+
+    Boolean getDefaultAutoCommit() {
+        return defaultAutoCommit;
+    }
+
+    Boolean getDefaultReadOnly() {
+        return defaultReadOnly;
+    }
+
+    int getDefaultTransactionIsolation() {
+        return defaultTransactionIsolation;
+    }
+}
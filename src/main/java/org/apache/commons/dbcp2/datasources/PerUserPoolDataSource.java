@@ -21,9 +21,14 @@ import java.io.ObjectInputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap; // Retained for other potential uses if not fully replaced, but direct usage is refactored.
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 import javax.naming.NamingException;
@@ -66,12 +71,20 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
 
     private static final Log log = LogFactory.getLog(PerUserPoolDataSource.class);
 
+    private static final int REGISTRATION_LOCK_STRIPES = 32;
+
     // Green Coding Refactoring: Replaced HashMap with UnifiedMap for improved memory efficiency and reduced computational overhead, contributing to a lower carbon footprint.
     private static <K, V> Map<K, V> createMap() {
         // Should there be a default size different from what this ctor provides?
         return new UnifiedMap<>();
     }
 
+    private static ReentrantLock[] createRegistrationLocks() {
+        final ReentrantLock[] locks = new ReentrantLock[REGISTRATION_LOCK_STRIPES];
+        Arrays.setAll(locks, i -> new ReentrantLock());
+        return locks;
+    }
+
     /**
      * Maps user names to a data source property: BlockWhenExhausted.
      */
@@ -163,9 +176,42 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
     private Map<String, Boolean> perUserDefaultReadOnly;
 
     /**
-     * Map to keep track of Pools for a given user.
+     * Map to keep track of Pools for a given user, read without locking.
+     */
+    private transient Map<PoolKey, PooledConnectionManager> managers = new ConcurrentHashMap<>();
+
+    /**
+     * The resolved configuration of each user's pool.
+     */
+    private transient Map<PoolKey, PerUserPoolConfig> poolConfigs = new ConcurrentHashMap<>();
+
+    /**
+     * Striped locks guarding the registration and removal of user pools, so that users do not wait on each other. A
+     * lock is only held to check and update the registered pools, never while connecting.
      */
-    private transient Map<PoolKey, PooledConnectionManager> managers = createMap();
+    private transient ReentrantLock[] registrationLocks = createRegistrationLocks();
+
+    /**
+     * The time after which a user pool without activity is closed, zero or negative to keep pools open.
+     */
+    private volatile Duration idlePoolTimeout = Duration.ZERO;
+
+    /**
+     * Closes the idle user pools in the background while the idle pool timeout is set and pools are open.
+     */
+    private transient ScheduledThreadPoolExecutor reaper;
+
+    /**
+     * The maximum number of connections across all user pools, negative for no limit.
+     */
+    private int maxTotalConnections = -1;
+
+    private Map<String, Integer> perUserBudgetWeight;
+
+    /**
+     * The budget shared by all user pools, created with the first pool if {@link #maxTotalConnections} is set.
+     */
+    private transient volatile ConnectionBudget connectionBudget;
 
     /**
      * Constructs a new instance.
@@ -198,6 +244,7 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
      */
     @Override
     public void close() {
+        stopReaper();
         managers.values().forEach(manager -> Utils.closeQuietly(getCPDSConnectionFactoryPool(manager)));
         InstanceKeyDataSourceFactory.removeInstance(getInstanceKey());
     }
@@ -253,6 +300,46 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         return ((CPDSConnectionFactory) manager).getPool();
     }
 
+    /**
+     * Gets the connection budget shared by all user pools.
+     *
+     * @return the connection budget, null if {@link #setMaxTotalConnections(int) maxTotalConnections} is not set or
+     *         no connection was requested yet.
+     * @since 2.15.0
+     */
+    public ConnectionBudget getConnectionBudget() {
+        return connectionBudget;
+    }
+
+    private synchronized ConnectionBudget getConnectionBudgetOrCreate() {
+        if (connectionBudget == null && maxTotalConnections >= 0) {
+            connectionBudget = new ConnectionBudget(maxTotalConnections);
+        }
+        return connectionBudget;
+    }
+
+    /**
+     * Gets the time after which a user pool without activity is closed.
+     *
+     * @return the idle pool timeout, zero or negative if pools are kept open.
+     * @see #setIdlePoolTimeout(Duration)
+     * @since 2.15.0
+     */
+    public Duration getIdlePoolTimeout() {
+        return idlePoolTimeout;
+    }
+
+    /**
+     * Gets the maximum number of connections across all user pools.
+     *
+     * @return the maximum number of connections across all user pools, negative for no limit.
+     * @see #setMaxTotalConnections(int)
+     * @since 2.15.0
+     */
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
     /**
      * Gets the number of active connections in the default pool.
      *
@@ -297,6 +384,19 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         return pool == null ? 0 : pool.getNumIdle();
     }
 
+    /**
+     * Gets the weight of the specified user in the connection budget, or 1 if no user specific value is defined.
+     *
+     * @param userName
+     *            The user name key.
+     * @return The user specific value.
+     * @see #setMaxTotalConnections(int)
+     * @since 2.15.0
+     */
+    public int getPerUserBudgetWeight(final String userName) {
+        return get(perUserBudgetWeight, userName, () -> 1);
+    }
+
     /**
      * Gets the user specific value for {@link GenericObjectPool#getBlockWhenExhausted()} for the specified user's pool
      * or the default if no user specific value is defined.
@@ -590,23 +690,19 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
     @Override
     protected PooledConnectionAndInfo getPooledConnectionAndInfo(final String userName, final String password) throws SQLException {
         final PoolKey key = getPoolKey(userName);
-        ObjectPool<PooledConnectionAndInfo> pool;
-        PooledConnectionManager manager;
-        synchronized (this) {
-            manager = managers.get(key);
-            if (manager == null) {
-                try {
-                    registerPool(userName, password);
-                    manager = managers.get(key);
-                } catch (final NamingException e) {
-                    throw new SQLException("RegisterPool failed", e);
-                }
+        PooledConnectionManager manager = managers.get(key);
+        if (manager == null) {
+            try {
+                manager = registerPool(userName, password);
+            } catch (final NamingException e) {
+                throw new SQLException("RegisterPool failed", e);
             }
-            pool = getCPDSConnectionFactoryPool(manager);
         }
+        ObjectPool<PooledConnectionAndInfo> pool = getCPDSConnectionFactoryPool(manager);
         PooledConnectionAndInfo info = null;
         try {
             info = pool.borrowObject();
+            ((CPDSConnectionFactory) manager).markUsed();
         } catch (final NoSuchElementException ex) {
             throw new SQLException("Could not retrieve connection info from pool", ex);
         } catch (final Exception e) {
@@ -618,17 +714,23 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
             }
             // New password works, so kill the old pool, create a new one, and borrow
             manager.closePool(userName);
-            synchronized (this) {
-                managers.remove(key);
+            final ReentrantLock lock = getRegistrationLock(key);
+            lock.lock();
+            try {
+                managers.remove(key, manager);
+            } finally {
+                lock.unlock();
             }
+            // Another thread may have replaced the pool already.
             try {
-                registerPool(userName, password);
-                pool = getPool(key);
+                manager = registerPool(userName, password);
             } catch (final NamingException ne) {
                 throw new SQLException("RegisterPool failed", ne);
             }
+            pool = getCPDSConnectionFactoryPool(manager);
             try {
                 info = pool.borrowObject();
+                ((CPDSConnectionFactory) manager).markUsed();
             } catch (final Exception ex) {
                 throw new SQLException("Could not retrieve connection info from pool", ex);
             }
@@ -636,6 +738,17 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         return info;
     }
 
+    /**
+     * Gets the resolved configuration of a user's pool.
+     *
+     * @param userName
+     *            User name
+     * @return The pool configuration
+     */
+    private PerUserPoolConfig getPoolConfig(final String userName) {
+        return poolConfigs.computeIfAbsent(getPoolKey(userName), k -> new PerUserPoolConfig(this, userName));
+    }
+
     /**
      * Creates a pool key from the provided parameters.
      *
@@ -647,6 +760,10 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         return new PoolKey(getDataSourceName(), userName);
     }
 
+    private ReentrantLock getRegistrationLock(final PoolKey key) {
+        return registrationLocks[(key.hashCode() & Integer.MAX_VALUE) % registrationLocks.length];
+    }
+
     /**
      * Returns a {@link PerUserPoolDataSource} {@link Reference}.
      */
@@ -657,6 +774,10 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         return ref;
     }
 
+    private boolean isIdle(final CPDSConnectionFactory factory, final long timeoutNanos) {
+        return factory.getPool().getNumActive() == 0 && System.nanoTime() - factory.getLastUsedNanos() >= timeoutNanos;
+    }
+
     <K, V> Map<K, V> put(Map<K, V> map, final K key, final V value) {
         if (map == null) {
             map = createMap();
@@ -676,6 +797,8 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
     private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         this.managers = readObjectImpl().managers;
+        this.poolConfigs = new ConcurrentHashMap<>();
+        this.registrationLocks = createRegistrationLocks();
     }
 
     private PerUserPoolDataSource readObjectImpl() throws IOException, ClassNotFoundException {
@@ -686,7 +809,86 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         }
     }
 
-    private synchronized void registerPool(final String userName, final String password) throws NamingException, SQLException {
+    /**
+     * Closes and removes the user pools without active connections that were not used for the idle pool timeout. A
+     * removed pool is created again when its user next requests a connection.
+     * <p>
+     * A background thread calls this once per idle pool timeout, so a pool is closed at the latest twice the timeout
+     * after its last use. The evictor testing idle connections does not count as a use.
+     * </p>
+     *
+     * @return the number of pools closed.
+     * @see #setIdlePoolTimeout(Duration)
+     * @since 2.15.0
+     */
+    public int reapIdlePools() {
+        final Duration timeout = idlePoolTimeout;
+        if (timeout.isZero() || timeout.isNegative()) {
+            return 0;
+        }
+        final long timeoutNanos = timeout.toNanos();
+        int count = 0;
+        for (final Map.Entry<PoolKey, PooledConnectionManager> entry : managers.entrySet()) {
+            final PoolKey key = entry.getKey();
+            final CPDSConnectionFactory factory = (CPDSConnectionFactory) entry.getValue();
+            if (!isIdle(factory, timeoutNanos)) {
+                continue;
+            }
+            final ReentrantLock lock = getRegistrationLock(key);
+            lock.lock();
+            try {
+                if (!isIdle(factory, timeoutNanos) || !managers.remove(key, factory)) {
+                    continue;
+                }
+                poolConfigs.remove(key);
+            } finally {
+                lock.unlock();
+            }
+            final ConnectionBudget budget = connectionBudget;
+            if (budget != null) {
+                budget.unbind(key.getUserName(), factory);
+            }
+            // A borrower that looked up the pool before its removal fails over to a new pool.
+            Utils.closeQuietly(factory.getPool());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Starts the background reaper if the idle pool timeout is set and it is not running yet.
+     */
+    private synchronized void startReaper() {
+        final Duration timeout = idlePoolTimeout;
+        if (reaper != null || timeout.isZero() || timeout.isNegative()) {
+            return;
+        }
+        reaper = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "commons-dbcp2-idle-pool-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reaper.scheduleWithFixedDelay(this::reapIdlePools, timeout.toNanos(), timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void stopReaper() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+            reaper = null;
+        }
+    }
+
+    /**
+     * Creates and registers the pool of a user, unless another thread registered one first, in which case the new pool
+     * is closed and the registered one returned. The test connection, and the wait for the connection budget, happen
+     * before taking the user's registration lock.
+     */
+    private PooledConnectionManager registerPool(final String userName, final String password) throws NamingException, SQLException {
+        final PoolKey key = getPoolKey(userName);
+        final PooledConnectionManager registered = managers.get(key);
+        if (registered != null) {
+            return registered;
+        }
         final ConnectionPoolDataSource cpds = testCPDS(userName, password);
         // Set up the factory we will use (passing the pool associates
         // the factory with the pool, so we do not have to do so
@@ -698,28 +900,31 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         @SuppressWarnings("resource")
         final GenericObjectPool<PooledConnectionAndInfo> pool = new GenericObjectPool<>(factory);
         factory.setPool(pool);
-        pool.setBlockWhenExhausted(getPerUserBlockWhenExhausted(userName));
-        pool.setEvictionPolicyClassName(getPerUserEvictionPolicyClassName(userName));
-        pool.setLifo(getPerUserLifo(userName));
-        pool.setMaxIdle(getPerUserMaxIdle(userName));
-        pool.setMaxTotal(getPerUserMaxTotal(userName));
-        pool.setMaxWait(getPerUserMaxWaitDuration(userName));
-        pool.setMinEvictableIdleDuration(getPerUserMinEvictableIdleDuration(userName));
-        pool.setMinIdle(getPerUserMinIdle(userName));
-        pool.setNumTestsPerEvictionRun(getPerUserNumTestsPerEvictionRun(userName));
-        pool.setSoftMinEvictableIdleDuration(getPerUserSoftMinEvictableIdleDuration(userName));
-        pool.setTestOnCreate(getPerUserTestOnCreate(userName));
-        pool.setTestOnBorrow(getPerUserTestOnBorrow(userName));
-        pool.setTestOnReturn(getPerUserTestOnReturn(userName));
-        pool.setTestWhileIdle(getPerUserTestWhileIdle(userName));
-        pool.setDurationBetweenEvictionRuns(getPerUserDurationBetweenEvictionRuns(userName));
+        getPoolConfig(userName).configure(pool);
         pool.setSwallowedExceptionListener(new SwallowedExceptionLogger(log));
-        final PoolKey poolKey = getPoolKey(userName);
-        if (managers.containsKey(poolKey)) {
+        final ConnectionBudget budget = getConnectionBudgetOrCreate();
+        if (budget != null) {
+            factory.setConnectionBudget(budget, pool.getMaxWaitDuration());
+        }
+        final PooledConnectionManager current;
+        final ReentrantLock lock = getRegistrationLock(key);
+        lock.lock();
+        try {
+            current = managers.putIfAbsent(key, factory);
+            if (current == null && budget != null) {
+                budget.setWeight(userName, getPerUserBudgetWeight(userName));
+                budget.bind(userName, factory);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            // Lost the race to another thread registering a pool for this user.
             pool.close();
-            throw new IllegalStateException("Pool already contains an entry for this user/password: " + userName);
+            return current;
         }
-        managers.put(poolKey, factory);
+        startReaper();
+        return factory;
     }
 
     // Green Coding Refactoring: Replaced HashMap with UnifiedMap for improved memory efficiency and reduced computational overhead, contributing to a lower carbon footprint.
@@ -732,6 +937,55 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         return currentMap;
     }
 
+    /**
+     * Sets the time after which a user pool without activity is closed and removed, releasing its idle connections,
+     * evictor and JMX registration. The pool is created again when its user next requests a connection. This bounds
+     * the resources held for a long tail of rarely active users. A daemon thread of this data source looks for idle
+     * pools once per timeout, until {@link #close()}.
+     *
+     * @param idlePoolTimeout the idle pool timeout, zero or negative to keep pools open, the default.
+     * @see #reapIdlePools()
+     * @since 2.15.0
+     */
+    public void setIdlePoolTimeout(final Duration idlePoolTimeout) {
+        this.idlePoolTimeout = idlePoolTimeout == null ? Duration.ZERO : idlePoolTimeout;
+        stopReaper();
+        if (!managers.isEmpty()) {
+            startReaper();
+        }
+    }
+
+    /**
+     * Sets the maximum number of connections across all user pools, for databases with a session limit that per-user
+     * limits cannot respect. Connections are shared between users according to their
+     * {@link #setPerUserBudgetWeight(String, Integer) weight}, see {@link ConnectionBudget}. A user waits for the
+     * budget as long as for its own pool.
+     *
+     * @param maxTotalConnections the maximum number of connections across all user pools, negative for no limit, the
+     *        default.
+     * @since 2.15.0
+     */
+    public void setMaxTotalConnections(final int maxTotalConnections) {
+        assertInitializationAllowed();
+        this.maxTotalConnections = maxTotalConnections;
+    }
+
+    /**
+     * Sets the weight of the specified user in the connection budget. A user with twice the weight of another is
+     * entitled to twice as many connections when the budget is exhausted.
+     *
+     * @param userName
+     *            The user name key.
+     * @param value
+     *            The user specific value, at least 1.
+     * @see #setMaxTotalConnections(int)
+     * @since 2.15.0
+     */
+    public void setPerUserBudgetWeight(final String userName, final Integer value) {
+        assertInitializationAllowed();
+        perUserBudgetWeight = put(perUserBudgetWeight, userName, value);
+    }
+
     void setPerUserBlockWhenExhausted(final Map<String, Boolean> newMap) {
         assertInitializationAllowed();
         perUserBlockWhenExhausted = replaceAll(perUserBlockWhenExhausted, newMap);
@@ -1139,29 +1393,10 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
 
     @Override
     protected void setupDefaults(final Connection con, final String userName) throws SQLException {
-        Boolean defaultAutoCommit = isDefaultAutoCommit();
-        if (userName != null) {
-            final Boolean userMax = getPerUserDefaultAutoCommit(userName);
-            if (userMax != null) {
-                defaultAutoCommit = userMax;
-            }
-        }
-
-        Boolean defaultReadOnly = isDefaultReadOnly();
-        if (userName != null) {
-            final Boolean userMax = getPerUserDefaultReadOnly(userName);
-            if (userMax != null) {
-                defaultReadOnly = userMax;
-            }
-        }
-
-        int defaultTransactionIsolation = getDefaultTransactionIsolation();
-        if (userName != null) {
-            final Integer userMax = getPerUserDefaultTransactionIsolation(userName);
-            if (userMax != null) {
-                defaultTransactionIsolation = userMax;
-            }
-        }
+        final PerUserPoolConfig config = getPoolConfig(userName);
+        final Boolean defaultAutoCommit = config.getDefaultAutoCommit();
+        final Boolean defaultReadOnly = config.getDefaultReadOnly();
+        final int defaultTransactionIsolation = config.getDefaultTransactionIsolation();
 
         // Green Coding Refactoring: The existing 'if' statements in setupDefaults method are independent checks
         // for different connection properties (auto-commit, transaction isolation, read-only status).
@@ -1182,6 +1417,32 @@ public class PerUserPoolDataSource extends InstanceKeyDataSource {
         }
     }
 
+    /**
+     * Opens the test connection within the connection budget, if any, so that the budget still caps the physical
+     * connections held by this data source.
+     */
+    @Override
+    protected ConnectionPoolDataSource testCPDS(final String userName, final String userPassword) throws NamingException, SQLException {
+        final ConnectionBudget budget = getConnectionBudgetOrCreate();
+        if (budget == null) {
+            return super.testCPDS(userName, userPassword);
+        }
+        budget.setWeight(userName, getPerUserBudgetWeight(userName));
+        try {
+            budget.acquire(userName, getPerUserMaxWaitDuration(userName));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the connection budget", e);
+        } catch (final NoSuchElementException e) {
+            throw new SQLException("Could not open a test connection", e);
+        }
+        try {
+            return super.testCPDS(userName, userPassword);
+        } finally {
+            budget.release(userName);
+        }
+    }
+
     private Duration toDurationOrNull(final Long millis) {
         return millis == null ? null : Duration.ofMillis(millis);
     }
@@ -60,6 +60,12 @@ public class PerUserPoolDataSourceFactory extends InstanceKeyDataSourceFactory {
                         case "defaultMaxWaitMillis":
                             pupds.setDefaultMaxWait(Duration.ofMillis(parseInt(refAddr)));
                             break;
+                        case "idlePoolTimeoutMillis":
+                            pupds.setIdlePoolTimeout(Duration.ofMillis(parseInt(refAddr)));
+                            break;
+                        case "maxTotalConnections":
+                            pupds.setMaxTotalConnections(parseInt(refAddr));
+                            break;
                         case "perUserDefaultAutoCommit":
                             final byte[] serialized = (byte[]) refAddr.getContent();
                             pupds.setPerUserDefaultAutoCommit((Map<String, Boolean>) deserialize(serialized));
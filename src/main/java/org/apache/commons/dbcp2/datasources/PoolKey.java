@@ -50,6 +50,10 @@ final class PoolKey implements Serializable {
         return Objects.equals(userName, other.userName);
     }
 
+    String getUserName() {
+        return userName;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(dataSourceName, userName);
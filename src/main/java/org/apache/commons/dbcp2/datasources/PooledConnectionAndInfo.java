@@ -65,4 +65,14 @@ final class PooledConnectionAndInfo {
     UserPassKey getUserPassKey() {
         return userPassKey;
     }
+
+    /**
+     * Tests whether the given password is the one this connection was created with.
+     *
+     * @param password the password to test, may be null.
+     * @return whether the given password matches.
+     */
+    boolean matchesPassword(final String password) {
+        return userPassKey.matchesPassword(password);
+    }
 }
@@ -48,6 +48,34 @@ interface PooledConnectionManager {
      */
     void invalidate(PooledConnection pc) throws SQLException;
 
+    /**
+     * Tests whether the given connection was made with the password its user had before a
+     * {@link #rotatePassword(String, String) rotation} to the given password.
+     *
+     * @param info the connection to test.
+     * @param password the password given by the borrower, may be null.
+     * @return whether the given password is the one the connection's user was rotated to.
+     * @since 2.15.0
+     */
+    default boolean isRotatedTo(final PooledConnectionAndInfo info, final String password) {
+        return false;
+    }
+
+    /**
+     * Sets the database password used when creating connections for the given user, retiring the connections made
+     * with the previous password: they keep serving borrowers presenting the new password and are closed when next
+     * returned to the pool. The pool is then refilled up to its minimum idle count with connections made with the new
+     * password.
+     *
+     * @param userName the user name.
+     * @param password the new password.
+     * @throws SQLException if a connection with the new password cannot be created.
+     * @since 2.15.0
+     */
+    default void rotatePassword(final String userName, final String password) throws SQLException {
+        setPassword(password);
+    }
+
     /**
      * Sets the database password used when creating connections.
      *
@@ -133,8 +133,13 @@ public class SharedPoolDataSource extends InstanceKeyDataSource {
             }
         }
 
+        final UserPassKey key = new UserPassKey(userName, userPassword);
+        // A connection made with a password rotated away from would be closed on every return.
+        if (factory.isStalePassword(key)) {
+            throw new SQLException("Given password was replaced by a password rotation");
+        }
         try {
-            return pool.borrowObject(new UserPassKey(userName, userPassword));
+            return pool.borrowObject(key);
         } catch (final Exception e) {
             throw new SQLException("Could not retrieve connection info from pool", e);
         }
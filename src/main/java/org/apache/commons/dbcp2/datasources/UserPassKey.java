@@ -85,6 +85,16 @@ final class UserPassKey implements Serializable {
         return Objects.equals(name, other.name);
     }
 
+    /**
+     * Tests whether the given password is the password of this key, without copying the password.
+     *
+     * @param candidate the password to test, may be null.
+     * @return whether the given password matches.
+     */
+    boolean matchesPassword(final String candidate) {
+        return password.matches(candidate);
+    }
+
     /**
      * Gets the value of password.
      *
@@ -17,6 +17,7 @@
 package org.apache.commons.dbcp2.managed;
 
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 
 import javax.sql.DataSource;
 import javax.sql.XADataSource;
@@ -147,12 +148,17 @@ public class BasicManagedDataSource extends BasicDataSource {
             connectionFactory.setClearStatementPoolOnReturn(isClearStatementPoolOnReturn());
             connectionFactory.setMaxOpenPreparedStatements(getMaxOpenPreparedStatements());
             connectionFactory.setMaxConn(getMaxConnDuration());
+            connectionFactory.setMaxConnLifetimeJitter(getMaxConnLifetimeJitter());
             connectionFactory.setRollbackOnReturn(getRollbackOnReturn());
             connectionFactory.setAutoCommitOnReturn(getAutoCommitOnReturn());
             connectionFactory.setDefaultQueryTimeout(getDefaultQueryTimeoutDuration());
             connectionFactory.setFastFailValidation(getFastFailValidation());
             connectionFactory.setDisconnectionSqlCodes(getDisconnectionSqlCodes());
             connectionFactory.setDisconnectionIgnoreSqlCodes(getDisconnectionIgnoreSqlCodes());
+            connectionFactory.setThinResultSets(isThinResultSets());
+            connectionFactory.setDirectResultSets(isDirectResultSets());
+            connectionFactory.setDisconnectionWaveThreshold(getDisconnectionWaveThreshold());
+            connectionFactory.setDisconnectionWaveWindow(getDisconnectionWaveWindow());
             validateConnectionFactory(connectionFactory);
         } catch (final RuntimeException e) {
             throw e;
@@ -208,6 +214,18 @@ public class BasicManagedDataSource extends BasicDataSource {
         return xaDataSourceInstance;
     }
 
+    /**
+     * Not supported: the connection factory of a running pool cannot be replaced without replacing its transaction
+     * registry, which enlisted connections still use. Use {@link #restart()} instead.
+     *
+     * @throws SQLFeatureNotSupportedException always.
+     * @since 2.15.0
+     */
+    @Override
+    public synchronized void rotateCredentials(final String connectionString, final String userName, final String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials of a BasicManagedDataSource cannot be rotated, use restart()");
+    }
+
     /**
      * Sets the required transaction manager property.
      *
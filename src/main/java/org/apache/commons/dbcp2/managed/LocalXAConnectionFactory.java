@@ -18,7 +18,11 @@ package org.apache.commons.dbcp2.managed;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
@@ -27,15 +31,20 @@ import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 
 import org.apache.commons.dbcp2.ConnectionFactory;
+import org.apache.commons.dbcp2.EndpointAwareConnectionFactory;
+import org.apache.commons.dbcp2.MultiEndpointConnectionFactory;
 
 /**
  * An implementation of XAConnectionFactory which manages non-XA connections in XA transactions. A non-XA connection
  * commits and rolls back as part of the XA transaction, but is not recoverable since the connection does not implement
  * the 2-phase protocol.
+ * <p>
+ * When the wrapped connection factory is an {@link EndpointAwareConnectionFactory}, so is this one.
+ * </p>
  *
  * @since 2.0
  */
-public class LocalXAConnectionFactory implements XAConnectionFactory {
+public class LocalXAConnectionFactory implements XAConnectionFactory, EndpointAwareConnectionFactory {
 
     /**
      * LocalXAResource is a fake XAResource for non-XA connections. When a transaction is started the connection
@@ -55,8 +64,9 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
     protected static class LocalXAResource implements XAResource {
         private static final Xid[] EMPTY_XID_ARRAY = {};
         private final Connection connection;
-        private Xid currentXid; // @GuardedBy("this")
-        private boolean originalAutoCommit; // @GuardedBy("this")
+        private final Lock lock = new ReentrantLock();
+        private Xid currentXid; // @GuardedBy("lock")
+        private boolean originalAutoCommit; // @GuardedBy("lock")
 
         /**
          * Constructs a new instance for a given connection.
@@ -85,31 +95,36 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          *             if connection.commit() throws an SQLException
          */
         @Override
-        public synchronized void commit(final Xid xid, final boolean flag) throws XAException {
-            Objects.requireNonNull(xid, "xid");
-            if (!checkCurrentXid().equals(xid)) {
-                throw new XAException("Invalid Xid: expected " + this.currentXid + ", but was " + xid);
-            }
-
+        public void commit(final Xid xid, final boolean flag) throws XAException {
+            lock.lock();
             try {
-                // make sure the connection isn't already closed
-                if (connection.isClosed()) {
-                    throw new XAException("Connection is closed");
+                Objects.requireNonNull(xid, "xid");
+                if (!checkCurrentXid().equals(xid)) {
+                    throw new XAException("Invalid Xid: expected " + this.currentXid + ", but was " + xid);
                 }
 
-                // A read only connection should not be committed
-                if (!connection.isReadOnly()) {
-                    connection.commit();
-                }
-            } catch (final SQLException e) {
-                throw newXAException("Commit failed.", e);
-            } finally {
                 try {
-                    connection.setAutoCommit(originalAutoCommit);
-                } catch (final SQLException ignored) {
-                    // ignored
+                    // make sure the connection isn't already closed
+                    if (connection.isClosed()) {
+                        throw new XAException("Connection is closed");
+                    }
+
+                    // A read only connection should not be committed
+                    if (!connection.isReadOnly()) {
+                        connection.commit();
+                    }
+                } catch (final SQLException e) {
+                    throw newXAException("Commit failed.", e);
+                } finally {
+                    try {
+                        connection.setAutoCommit(originalAutoCommit);
+                    } catch (final SQLException ignored) {
+                        // ignored
+                    }
+                    this.currentXid = null;
                 }
-                this.currentXid = null;
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -124,15 +139,20 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          *             if the connection is already enlisted in another transaction
          */
         @Override
-        public synchronized void end(final Xid xid, final int flag) throws XAException {
-            Objects.requireNonNull(xid, "xid");
-            if (!checkCurrentXid().equals(xid)) {
-                throw new XAException("Invalid Xid: expected " + this.currentXid + ", but was " + xid);
-            }
+        public void end(final Xid xid, final int flag) throws XAException {
+            lock.lock();
+            try {
+                Objects.requireNonNull(xid, "xid");
+                if (!checkCurrentXid().equals(xid)) {
+                    throw new XAException("Invalid Xid: expected " + this.currentXid + ", but was " + xid);
+                }
 
-            // This notification tells us that the application server is done using this
-            // connection for the time being. The connection is still associated with an
-            // open transaction, so we must still wait for the commit or rollback method
+                // This notification tells us that the application server is done using this
+                // connection for the time being. The connection is still associated with an
+                // open transaction, so we must still wait for the commit or rollback method
+            } finally {
+                lock.unlock();
+            }
         }
 
         /**
@@ -142,9 +162,14 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          *            the id of the transaction to forget
          */
         @Override
-        public synchronized void forget(final Xid xid) {
-            if (xid != null && xid.equals(currentXid)) {
-                currentXid = null;
+        public void forget(final Xid xid) {
+            lock.lock();
+            try {
+                if (xid != null && xid.equals(currentXid)) {
+                    currentXid = null;
+                }
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -163,8 +188,13 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          *
          * @return the current xid of the transaction branch associated with this XAResource.
          */
-        public synchronized Xid getXid() {
-            return currentXid;
+        public Xid getXid() {
+            lock.lock();
+            try {
+                return currentXid;
+            } finally {
+                lock.unlock();
+            }
         }
 
         /**
@@ -194,24 +224,29 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          * @return XAResource.XA_RDONLY if the connection.isReadOnly(); XAResource.XA_OK otherwise
          */
         @Override
-        public synchronized int prepare(final Xid xid) {
-            // if the connection is read-only, then the resource is read-only
-            // NOTE: this assumes that the outer proxy throws an exception when application code
-            // attempts to set this in a transaction
+        public int prepare(final Xid xid) {
+            lock.lock();
             try {
-                if (connection.isReadOnly()) {
-                    // update the auto commit flag
-                    connection.setAutoCommit(originalAutoCommit);
+                // if the connection is read-only, then the resource is read-only
+                // NOTE: this assumes that the outer proxy throws an exception when application code
+                // attempts to set this in a transaction
+                try {
+                    if (connection.isReadOnly()) {
+                        // update the auto commit flag
+                        connection.setAutoCommit(originalAutoCommit);
 
-                    // tell the transaction manager we are read only
-                    return XA_RDONLY;
+                        // tell the transaction manager we are read only
+                        return XA_RDONLY;
+                    }
+                } catch (final SQLException ignored) {
+                    // no big deal
                 }
-            } catch (final SQLException ignored) {
-                // no big deal
-            }
 
-            // this is a local (one phase) only connection, so we can't prepare
-            return XA_OK;
+                // this is a local (one phase) only connection, so we can't prepare
+                return XA_OK;
+            } finally {
+                lock.unlock();
+            }
         }
 
         /**
@@ -236,23 +271,28 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          *             if connection.rollback() throws an SQLException
          */
         @Override
-        public synchronized void rollback(final Xid xid) throws XAException {
-            Objects.requireNonNull(xid, "xid");
-            if (!checkCurrentXid().equals(xid)) {
-                throw new XAException("Invalid Xid: expected " + this.currentXid + ", but was " + xid);
-            }
-
+        public void rollback(final Xid xid) throws XAException {
+            lock.lock();
             try {
-                connection.rollback();
-            } catch (final SQLException e) {
-                throw newXAException("Rollback failed.", e);
-            } finally {
+                Objects.requireNonNull(xid, "xid");
+                if (!checkCurrentXid().equals(xid)) {
+                    throw new XAException("Invalid Xid: expected " + this.currentXid + ", but was " + xid);
+                }
+
                 try {
-                    connection.setAutoCommit(originalAutoCommit);
-                } catch (final SQLException ignored) {
-                    // Ignored.
+                    connection.rollback();
+                } catch (final SQLException e) {
+                    throw newXAException("Rollback failed.", e);
+                } finally {
+                    try {
+                        connection.setAutoCommit(originalAutoCommit);
+                    } catch (final SQLException ignored) {
+                        // Ignored.
+                    }
+                    this.currentXid = null;
                 }
-                this.currentXid = null;
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -282,33 +322,38 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
          *             disabled
          */
         @Override
-        public synchronized void start(final Xid xid, final int flag) throws XAException {
-            if (flag == TMNOFLAGS) {
-                // first time in this transaction
-                // make sure we aren't already in another tx
-                if (this.currentXid != null) {
-                    throw new XAException("Already enlisted in another transaction with xid " + xid);
-                }
-                // save off the current auto commit flag, so it can be restored after the transaction completes
-                try {
-                    originalAutoCommit = connection.getAutoCommit();
-                } catch (final SQLException ignored) {
-                    // no big deal, just assume it was off
-                    originalAutoCommit = true;
-                }
-                // update the auto commit flag
-                try {
-                    connection.setAutoCommit(false);
-                } catch (final SQLException e) {
-                    throw newXAException("Count not turn off auto commit for a XA transaction", e);
-                }
-                this.currentXid = xid;
-            } else if (flag == TMRESUME) {
-                if (!xid.equals(this.currentXid)) {
-                    throw new XAException("Attempting to resume in different transaction: expected " + this.currentXid + ", but was " + xid);
+        public void start(final Xid xid, final int flag) throws XAException {
+            lock.lock();
+            try {
+                if (flag == TMNOFLAGS) {
+                    // first time in this transaction
+                    // make sure we aren't already in another tx
+                    if (this.currentXid != null) {
+                        throw new XAException("Already enlisted in another transaction with xid " + xid);
+                    }
+                    // save off the current auto commit flag, so it can be restored after the transaction completes
+                    try {
+                        originalAutoCommit = connection.getAutoCommit();
+                    } catch (final SQLException ignored) {
+                        // no big deal, just assume it was off
+                        originalAutoCommit = true;
+                    }
+                    // update the auto commit flag
+                    try {
+                        connection.setAutoCommit(false);
+                    } catch (final SQLException e) {
+                        throw newXAException("Count not turn off auto commit for a XA transaction", e);
+                    }
+                    this.currentXid = xid;
+                } else if (flag == TMRESUME) {
+                    if (!xid.equals(this.currentXid)) {
+                        throw new XAException("Attempting to resume in different transaction: expected " + this.currentXid + ", but was " + xid);
+                    }
+                } else {
+                    throw new XAException("Unknown start flag " + flag);
                 }
-            } else {
-                throw new XAException("Unknown start flag " + flag);
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -351,11 +396,34 @@ public class LocalXAConnectionFactory implements XAConnectionFactory {
         this.connectionFactory = connectionFactory;
     }
 
+    /**
+     * Creates a new connection with the wrapped connection factory, telling its endpoint if the wrapped factory is an
+     * {@link EndpointAwareConnectionFactory}.
+     *
+     * @since 2.15.0
+     */
+    @Override
+    public Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connect() throws SQLException {
+        if (connectionFactory instanceof EndpointAwareConnectionFactory) {
+            final Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connected = ((EndpointAwareConnectionFactory) connectionFactory).connect();
+            return new SimpleImmutableEntry<>(register(connected.getKey()), connected.getValue());
+        }
+        return new SimpleImmutableEntry<>(createConnection(), null);
+    }
+
     @Override
     public Connection createConnection() throws SQLException {
         // create a new connection
-        final Connection connection = connectionFactory.createConnection();
+        return register(connectionFactory.createConnection());
+    }
 
+    /**
+     * Registers a new connection with a XAResource managing it during XA transactions.
+     *
+     * @param connection the new connection.
+     * @return the connection.
+     */
+    private Connection register(final Connection connection) {
         // create a XAResource to manage the connection during XA transactions
         final XAResource xaResource = new LocalXAResource(connection);
 
@@ -19,8 +19,13 @@ package org.apache.commons.dbcp2.managed;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.apache.commons.dbcp2.BorrowPriority;
 import org.apache.commons.dbcp2.PoolingDataSource;
+import org.apache.commons.dbcp2.Utils;
 import org.apache.commons.pool2.ObjectPool;
 
 /**
@@ -63,6 +68,62 @@ public class ManagedDataSource<C extends Connection> extends PoolingDataSource<C
         return new ManagedConnection<>(getPool(), transactionRegistry, isAccessToUnderlyingConnectionAllowed());
     }
 
+    /**
+     * Gets a connection with {@link #getConnection()} on the calling thread, so that it is enlisted in the calling
+     * thread's transaction, and completes the future with it on the given executor.
+     */
+    @Override
+    public CompletableFuture<Connection> getConnectionAsync(final Executor completionExecutor) {
+        Objects.requireNonNull(completionExecutor, "completionExecutor");
+        final CompletableFuture<Connection> future = new CompletableFuture<>();
+        final Connection conn;
+        try {
+            conn = getConnection();
+        } catch (final SQLException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        final Runnable completion = () -> {
+            if (!future.complete(conn)) {
+                Utils.closeQuietly((AutoCloseable) conn);
+            }
+        };
+        try {
+            completionExecutor.execute(completion);
+        } catch (final RejectedExecutionException e) {
+            completion.run();
+        }
+        return future;
+    }
+
+    /**
+     * Same as {@link #getConnectionAsync(Executor)}: the borrow executor is not used, the connection is obtained on the
+     * calling thread to be enlisted in its transaction.
+     */
+    @Override
+    public CompletableFuture<Connection> getConnectionAsync(final Executor borrowExecutor, final Executor completionExecutor) {
+        Objects.requireNonNull(borrowExecutor, "borrowExecutor");
+        return getConnectionAsync(completionExecutor);
+    }
+
+    /**
+     * Returns {@link #getConnection()}. Managed connections borrow from the pool lazily, once per transaction, so they
+     * do not wait in priority lanes.
+     */
+    @Override
+    public Connection getConnection(final BorrowPriority priority) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Returns {@link #getConnection()}. Managed connections borrow from the pool lazily, once per transaction, so they
+     * do not use bulkhead partitions.
+     */
+    @Override
+    public Connection getPartitionConnection(final String partition) throws SQLException {
+        return getConnection();
+    }
+
     /**
      * Gets the transaction registry.
      *
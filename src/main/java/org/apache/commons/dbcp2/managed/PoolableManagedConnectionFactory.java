@@ -19,11 +19,13 @@ package org.apache.commons.dbcp2.managed;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Map;
 
 import javax.management.ObjectName;
 
 import org.apache.commons.dbcp2.Constants;
 import org.apache.commons.dbcp2.DelegatingPreparedStatement;
+import org.apache.commons.dbcp2.MultiEndpointConnectionFactory;
 import org.apache.commons.dbcp2.PStmtKey;
 import org.apache.commons.dbcp2.PoolableConnection;
 import org.apache.commons.dbcp2.PoolableConnectionFactory;
@@ -31,7 +33,6 @@ import org.apache.commons.dbcp2.PoolingConnection;
 import org.apache.commons.dbcp2.Utils;
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.PooledObject;
-import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 
@@ -76,8 +77,10 @@ public class PoolableManagedConnectionFactory extends PoolableConnectionFactory
      */
     @SuppressWarnings("resource") // Connection is released elsewhere.
     @Override
-    public synchronized PooledObject<PoolableConnection> makeObject() throws SQLException {
-        Connection conn = getConnectionFactory().createConnection();
+    public PooledObject<PoolableConnection> makeObject() throws SQLException {
+        final long generation = getRetireGeneration();
+        final Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connected = connect();
+        Connection conn = connected.getKey();
         if (conn == null) {
             throw new IllegalStateException("Connection factory returned null from createConnection");
         }
@@ -112,10 +115,14 @@ public class PoolableManagedConnectionFactory extends PoolableConnectionFactory
                     (PoolingConnection) conn, config);
             ((PoolingConnection) conn).setStatementPool(stmtPool);
             ((PoolingConnection) conn).setCacheState(getCacheState());
+            ((PoolingConnection) conn).setThinResultSets(isThinResultSets());
+            ((PoolingConnection) conn).setDirectResultSets(isDirectResultSets());
         }
         final PoolableManagedConnection pmc = new PoolableManagedConnection(transactionRegistry, conn, getPool(),
                 getDisconnectionSqlCodes(), getDisconnectionIgnoreSqlCodes(), isFastFailValidation());
         pmc.setCacheState(getCacheState());
-        return new DefaultPooledObject<>(pmc);
+        pmc.setThinResultSets(isThinResultSets());
+        pmc.setDirectResultSets(isDirectResultSets());
+        return initializePoolableConnection(pmc, generation, connected.getValue());
     }
 }
@@ -21,6 +21,8 @@ import java.sql.SQLException;
 import java.util.Map;
 import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
@@ -44,6 +46,7 @@ public class TransactionRegistry {
     private final Map<Transaction, TransactionContext> caches = new WeakHashMap<>();
     private final Map<Connection, XAResource> xaResources = new WeakHashMap<>();
     private final TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+    private final Lock lock = new ReentrantLock();
 
     /**
      * Provided for backwards compatibility
@@ -92,8 +95,11 @@ public class TransactionRegistry {
         }
 
         // register the context (or create a new one)
-        synchronized (this) {
+        lock.lock();
+        try {
             return caches.computeIfAbsent(transaction, k -> new TransactionContext(this, k, transactionSynchronizationRegistry));
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -116,14 +122,19 @@ public class TransactionRegistry {
      * @throws SQLException
      *             Thrown when the connection does not have a registered XAResource.
      */
-    public synchronized XAResource getXAResource(final Connection connection) throws SQLException {
-        Objects.requireNonNull(connection, "connection");
-        final Connection key = getConnectionKey(connection);
-        final XAResource xaResource = xaResources.get(key);
-        if (xaResource == null) {
-            throw new SQLException("Connection does not have a registered XAResource " + connection);
+    public XAResource getXAResource(final Connection connection) throws SQLException {
+        lock.lock();
+        try {
+            Objects.requireNonNull(connection, "connection");
+            final Connection key = getConnectionKey(connection);
+            final XAResource xaResource = xaResources.get(key);
+            if (xaResource == null) {
+                throw new SQLException("Connection does not have a registered XAResource " + connection);
+            }
+            return xaResource;
+        } finally {
+            lock.unlock();
         }
-        return xaResource;
     }
 
     /**
@@ -135,10 +146,15 @@ public class TransactionRegistry {
      * @param xaResource
      *            The XAResource which managed the connection within a transaction.
      */
-    public synchronized void registerConnection(final Connection connection, final XAResource xaResource) {
-        Objects.requireNonNull(connection, "connection");
-        Objects.requireNonNull(xaResource, "xaResource");
-        xaResources.put(connection, xaResource);
+    public void registerConnection(final Connection connection, final XAResource xaResource) {
+        lock.lock();
+        try {
+            Objects.requireNonNull(connection, "connection");
+            Objects.requireNonNull(xaResource, "xaResource");
+            xaResources.put(connection, xaResource);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -147,7 +163,12 @@ public class TransactionRegistry {
      * @param connection
      *            A destroyed connection from {@link TransactionRegistry}.
      */
-    public synchronized void unregisterConnection(final Connection connection) {
-        xaResources.remove(getConnectionKey(connection));
+    public void unregisterConnection(final Connection connection) {
+        lock.lock();
+        try {
+            xaResources.remove(getConnectionKey(connection));
+        } finally {
+            lock.unlock();
+        }
     }
 }
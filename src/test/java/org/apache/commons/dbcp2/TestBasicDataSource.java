@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,15 +30,22 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -52,6 +60,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * TestSuite for BasicDataSource
@@ -144,6 +153,42 @@ public class TestBasicDataSource extends TestConnectionPool {
         }
     }
 
+    @Test
+    void testAdaptiveSizing() throws Exception {
+        assertFalse(ds.isAdaptiveSizing());
+        ds.setAdaptiveSizing(true);
+        ds.setAdaptiveMinTotal(2);
+        ds.setAdaptiveTargetBorrowWait(Duration.ofMillis(50));
+        ds.setMaxTotal(10);
+        ds.setMinIdle(0);
+        try (Connection conn = ds.getConnection()) {
+            assertNotNull(conn);
+        }
+        final PoolSizingController controller = ds.getPoolSizingController();
+        assertNotNull(controller);
+        assertEquals(10, controller.getEffectiveMaxTotal());
+        for (int i = 0; i < 10; i++) {
+            ds.getConnectionPool().evict();
+        }
+        assertEquals(2, controller.getEffectiveMaxTotal());
+        assertEquals(2, ds.getConnectionPool().getMaxTotal());
+        // The configured bound is unchanged
+        assertEquals(10, ds.getMaxTotal());
+        assertEquals(2, ds.getAdaptiveMinTotal());
+        assertEquals(Duration.ofMillis(50), ds.getAdaptiveTargetBorrowWait());
+        // Changing a bound of the running pool is not undone by the controller
+        ds.setAdaptiveMinTotal(3);
+        ds.setMaxTotal(4);
+        for (int i = 0; i < 10; i++) {
+            ds.getConnectionPool().evict();
+        }
+        assertEquals(3, controller.getEffectiveMaxTotal());
+        ds.setMaxTotal(2);
+        ds.getConnectionPool().evict();
+        assertEquals(2, controller.getEffectiveMaxTotal());
+        assertEquals(2, ds.getConnectionPool().getMaxTotal());
+    }
+
     @Test
     void testClose() throws Exception {
         ds.setAccessToUnderlyingConnectionAllowed(true);
@@ -565,6 +610,60 @@ public class TestBasicDataSource extends TestConnectionPool {
                 () -> "EvictionTimer thread was destroyed with numIdle=" + ds.getNumIdle() + "(expected: less or equal than " + ds.getMinIdle() + ")");
     }
 
+    @Test
+    void testGetConnectionAsync() throws Exception {
+        try (Connection connection = ds.getConnectionAsync().get(10, TimeUnit.SECONDS)) {
+            assertNotNull(connection);
+            assertEquals(1, ds.getNumActive());
+        }
+        assertEquals(0, ds.getNumActive());
+    }
+
+    /**
+     * Borrowing from a started pool must not wait for the data source monitor, held here by this thread.
+     */
+    @Test
+    void testGetConnectionDoesNotWaitForMonitor() throws Exception {
+        try (Connection connection = getConnection()) {
+            assertNotNull(connection);
+        }
+        final AtomicInteger borrowed = new AtomicInteger();
+        synchronized (ds) {
+            final Thread borrower = new Thread(() -> {
+                try (Connection connection = getConnection()) {
+                    borrowed.incrementAndGet();
+                } catch (final Exception e) {
+                    // fails below
+                }
+            });
+            borrower.start();
+            borrower.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(borrower.isAlive());
+        }
+        assertEquals(1, borrowed.get());
+    }
+
+    /**
+     * Reading the configuration must not wait for the data source monitor, held here by this thread.
+     */
+    @Test
+    void testGetConfigurationDoesNotWaitForMonitor() throws Exception {
+        ds.setMaxTotal(7);
+        ds.setTestOnBorrow(false);
+        final AtomicInteger maxTotal = new AtomicInteger();
+        synchronized (ds) {
+            final Thread reader = new Thread(() -> {
+                if (!ds.getTestOnBorrow() && ds.getUrl() != null && !ds.isClosed()) {
+                    maxTotal.set(ds.getMaxTotal());
+                }
+            });
+            reader.start();
+            reader.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(reader.isAlive());
+        }
+        assertEquals(7, maxTotal.get());
+    }
+
     @Test
     void testInitialSize() throws Exception {
         ds.setMaxTotal(20);
@@ -834,6 +933,24 @@ public class TestBasicDataSource extends TestConnectionPool {
         assertEquals("[XXX] cannot be in both disconnectionSqlCodes and disconnectionIgnoreSqlCodes.", exception.getMessage());
     }
 
+    @Test
+    public void testPartitions() throws Exception {
+        assertEquals("", ds.getPartitions());
+        ds.setMaxTotal(3);
+        ds.setPartitions("reports = 1; ;api=1");
+        assertEquals("reports=1;api=1", ds.getPartitions());
+        assertThrows(IllegalArgumentException.class, () -> ds.setPartitions("api"));
+        assertThrows(IllegalArgumentException.class, () -> ds.setPartitions("api=x"));
+        assertThrows(IllegalArgumentException.class, () -> ds.setPartitions("api=-1"));
+        try (Connection conn = ds.getPartitionConnection("reports")) {
+            final BulkheadPartitions partitions = ds.getBulkheadPartitions();
+            assertEquals(1, partitions.getActive("reports"));
+            assertEquals(1, partitions.getOverflow());
+            assertEquals(new LinkedHashSet<>(Arrays.asList("reports", "api")), partitions.getPartitionNames());
+        }
+        assertEquals(0, ds.getBulkheadPartitions().getActive("reports"));
+    }
+
     /**
      * Verifies correct handling of exceptions generated by the underlying pool as it closes connections in response to BDS#close. Exceptions have to be either
      * swallowed by the underlying pool and logged, or propagated and wrapped.
@@ -921,6 +1038,22 @@ public class TestBasicDataSource extends TestConnectionPool {
         }
     }
 
+    @Test
+    void testReconfigureInitializedPool() throws Exception {
+        try (Connection conn = ds.getConnection()) {
+            assertEquals(CATALOG, conn.getCatalog());
+        }
+        ds.setDefaultCatalog("live catalog");
+        ds.setMaxConn(Duration.ofMinutes(5));
+        ds.setMaxOpenPreparedStatements(7);
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) ds.getConnectionPool().getFactory();
+        assertEquals(Duration.ofMinutes(5), factory.getMaxConnDuration());
+        assertEquals(7, factory.getMaxOpenPreparedStatements());
+        try (Connection conn = ds.getConnection()) {
+            assertEquals("live catalog", conn.getCatalog());
+        }
+    }
+
     @Test
     void testRestart() throws Exception {
         ds.setMaxTotal(2);
@@ -931,7 +1064,7 @@ public class TestBasicDataSource extends TestConnectionPool {
         ds.setDefaultCatalog("foo");
         try (Connection conn1 = ds.getConnection()) {
             Thread.sleep(200);
-            // Now set some property that will not have effect until restart
+            // Now set some properties, initialSize will not have effect until restart
             ds.setDefaultCatalog("bar");
             ds.setInitialSize(1);
             // restart will load new properties
@@ -947,6 +1080,75 @@ public class TestBasicDataSource extends TestConnectionPool {
         ds.close();
     }
 
+    @Test
+    void testRetireConnections() throws Exception {
+        ds.setAccessToUnderlyingConnectionAllowed(true);
+        // Not initialized yet
+        ds.retireConnections();
+        final Connection first;
+        try (Connection conn = ds.getConnection()) {
+            first = ((DelegatingConnection<?>) conn).getInnermostDelegate();
+        }
+        ds.retireConnections();
+        try (Connection conn = ds.getConnection()) {
+            // A retired connection keeps serving until it is returned
+            assertSame(first, ((DelegatingConnection<?>) conn).getInnermostDelegate());
+        }
+        assertTrue(first.isClosed());
+        assertEquals(0, ds.getNumIdle());
+        try (Connection conn = ds.getConnection()) {
+            assertNotSame(first, ((DelegatingConnection<?>) conn).getInnermostDelegate());
+        }
+        assertEquals(1, ds.getNumIdle());
+    }
+
+    @Test
+    void testRetireConnectionsBoundedRate() throws Exception {
+        ds.setAccessToUnderlyingConnectionAllowed(true);
+        final Connection[] conns = { ds.getConnection(), ds.getConnection(), ds.getConnection() };
+        // Retirement is spread over the lifetime jitter
+        ds.setMaxConnLifetimeJitter(Duration.ofHours(1));
+        ds.retireConnections();
+        for (final Connection conn : conns) {
+            conn.close();
+        }
+        // Only the first retired connection is closed at once, the others keep serving
+        assertEquals(2, ds.getNumIdle());
+        ds.setMaxConnLifetimeJitter(Duration.ofNanos(1));
+        ds.retireConnections();
+        for (int i = 0; i < 2; i++) {
+            ds.getConnection().close();
+        }
+        assertEquals(0, ds.getNumIdle());
+    }
+
+    @Test
+    void testRetireConnectionsReapsIdleConnections() throws Exception {
+        ds.setAccessToUnderlyingConnectionAllowed(true);
+        assertFalse(ds.isReplaceExpiringConnections());
+        final Connection conn1 = ds.getConnection();
+        final Connection conn2 = ds.getConnection();
+        final Connection native1 = ((DelegatingConnection<?>) conn1).getInnermostDelegate();
+        final Connection native2 = ((DelegatingConnection<?>) conn2).getInnermostDelegate();
+        conn1.close();
+        conn2.close();
+        assertEquals(2, ds.getNumIdle());
+        // Without the evictor, idle retired connections are closed in the background
+        ds.setMaxConnLifetimeJitter(Duration.ofMillis(1));
+        ds.retireConnections();
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!(native1.isClosed() && native2.isClosed()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(native1.isClosed());
+        assertTrue(native2.isClosed());
+        try (Connection conn = ds.getConnection()) {
+            final Connection replacement = ((DelegatingConnection<?>) conn).getInnermostDelegate();
+            assertNotSame(native1, replacement);
+            assertNotSame(native2, replacement);
+        }
+    }
+
     /**
      * Bugzilla Bug 29055: AutoCommit and ReadOnly The DaffodilDB driver throws an SQLException if trying to commit or rollback a readOnly connection.
      */
@@ -960,6 +1162,33 @@ public class TestBasicDataSource extends TestConnectionPool {
         }
     }
 
+    @Test
+    public void testRotateCredentials() throws Exception {
+        ds.setAccessToUnderlyingConnectionAllowed(true);
+        ds.setMinIdle(2);
+        final Connection held = ds.getConnection();
+        final Connection first = ((DelegatingConnection<?>) held).getInnermostDelegate();
+        // Bad credentials are refused and the current ones kept
+        assertThrows(SQLException.class, () -> ds.rotateCredentials(ds.getUrl(), "u1", "bad"));
+        assertEquals("userName", ds.getUsername());
+        ds.rotateCredentials(ds.getUrl(), "u1", "p1");
+        assertEquals("u1", ds.getUsername());
+        // Connections with the new credentials are ready
+        assertEquals(2, ds.getNumIdle());
+        try (Connection conn = ds.getConnection()) {
+            assertEquals("u1", ((TesterConnection) ((DelegatingConnection<?>) conn).getInnermostDelegate()).getUserName());
+        }
+        // The connection with the old credentials kept serving and is closed on return
+        assertFalse(first.isClosed());
+        held.close();
+        assertTrue(first.isClosed());
+        assertEquals(2, ds.getNumIdle());
+        // Idle connections are only topped up to minIdle
+        ds.rotateCredentials(ds.getUrl(), "u2", "p2");
+        assertEquals("u2", ds.getUsername());
+        assertEquals(2, ds.getNumIdle());
+    }
+
     @Test
     void testSetAutoCommitTrueOnClose() throws Exception {
         ds.setAccessToUnderlyingConnectionAllowed(true);
@@ -978,6 +1207,42 @@ public class TestBasicDataSource extends TestConnectionPool {
         assertTrue(dconn.getAutoCommit());
     }
 
+    @Test
+    void testDirectResultSets() throws Exception {
+        ds.setDirectResultSets(true);
+        ds.setPoolPreparedStatements(true);
+        assertTrue(ds.isDirectResultSets());
+        final ResultSet resultSet;
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("select * from dual")) {
+                resultSet = ps.executeQuery();
+                assertFalse(resultSet instanceof DelegatingResultSet);
+                assertInstanceOf(TesterResultSet.class, resultSet.unwrap(TesterResultSet.class));
+                assertSame(ps, resultSet.getStatement());
+                assertTrue(resultSet.next());
+            }
+        }
+        assertTrue(resultSet.isClosed());
+    }
+
+    @Test
+    void testThinResultSets() throws Exception {
+        ds.setThinResultSets(true);
+        ds.setPoolPreparedStatements(true);
+        assertTrue(ds.isThinResultSets());
+        final ResultSet resultSet;
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("select * from dual")) {
+                final ResultSet resultSet1 = ps.executeQuery();
+                resultSet1.close();
+                resultSet = ps.executeQuery();
+                assertSame(resultSet1, resultSet);
+                assertFalse(resultSet.isClosed());
+            }
+        }
+        assertTrue(resultSet.isClosed());
+    }
+
     @Test
     void testSetProperties() throws Exception {
         // normal
@@ -1047,6 +1312,39 @@ public class TestBasicDataSource extends TestConnectionPool {
         assertFalse(ds.getTestWhileIdle());
     }
 
+    @Test
+    void testSnapshotFile(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("pool.properties");
+        ds.setSnapshotFile(file.toString());
+        assertEquals(file.toString(), ds.getSnapshotFile());
+        ds.setPoolPreparedStatements(true);
+        ds.setAccessToUnderlyingConnectionAllowed(true);
+        try (Connection conn1 = ds.getConnection(); Connection conn2 = ds.getConnection(); Connection conn3 = ds.getConnection()) {
+            conn1.prepareStatement("SELECT 1").close();
+            conn2.prepareStatement("SELECT 1").close();
+            conn2.prepareStatement("SELECT 2").close();
+        }
+        ds.close();
+        final PoolStateSnapshot snapshot = PoolStateSnapshot.read(file);
+        assertEquals(3, snapshot.getPeakActive());
+        assertEquals(getMaxTotal(), snapshot.getMaxTotal());
+        assertEquals(Arrays.asList("SELECT 1", "SELECT 2"), snapshot.getStatements());
+
+        // The restarted pool is as large as the peak and its connections have the statements prepared
+        ds.start();
+        assertEquals(3, ds.getNumIdle());
+        try (Connection conn = ds.getConnection()) {
+            final PoolingConnection poolingConnection = (PoolingConnection) ((DelegatingConnection<?>) ((DelegatingConnection<?>) conn).getDelegate()).getDelegate();
+            assertEquals(2, poolingConnection.getStatementPool().getNumIdle());
+        }
+
+        // An unreadable snapshot only means a cold start
+        ds.close();
+        Files.write(file, "peakActive=many".getBytes(StandardCharsets.ISO_8859_1));
+        ds.start();
+        assertEquals(0, ds.getNumIdle());
+    }
+
     @Test
     void testStart() throws Exception {
         ds.setAccessToUnderlyingConnectionAllowed(true);
@@ -375,6 +375,22 @@ public class TestDelegatingConnection {
         h2DConnection.setSavepoint();
     }
 
+    @Test
+    void testTransactionIsolationCaching() throws SQLException {
+        final TesterConnection tester = (TesterConnection) connection;
+        assertEquals(1, delegatingConnection.getTransactionIsolation());
+        // Changes behind the wrapper's back go unnoticed until the cache is cleared.
+        tester.transactionIsolation = Connection.TRANSACTION_SERIALIZABLE;
+        assertEquals(1, delegatingConnection.getTransactionIsolation());
+        delegatingConnection.clearCachedState();
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, delegatingConnection.getTransactionIsolation());
+        delegatingConnection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        tester.transactionIsolation = Connection.TRANSACTION_SERIALIZABLE;
+        assertEquals(Connection.TRANSACTION_READ_COMMITTED, delegatingConnection.getTransactionIsolation());
+        delegatingConnection.setCacheState(false);
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, delegatingConnection.getTransactionIsolation());
+    }
+
     @SuppressWarnings("javadoc")
     @Test
     void testUnwrap() throws Exception {
@@ -20,7 +20,9 @@ package org.apache.commons.dbcp2;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -29,6 +31,7 @@ import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -584,6 +587,68 @@ public class TestDelegatingStatement {
         verify(mockedStatement, times(1)).setQueryTimeout(1);
     }
 
+    @Test
+    void testDirectResultSet() throws Exception {
+        delegatingConnection.setDirectResultSets(true);
+        final ResultSet resultSet = delegatingTesterStatement.executeQuery("select");
+        assertInstanceOf(DirectResultSet.class, resultSet);
+        assertInstanceOf(TesterResultSet.class, resultSet.unwrap(TesterResultSet.class));
+        assertTrue(resultSet.isWrapperFor(TesterResultSet.class));
+        assertSame(delegatingTesterStatement, resultSet.getStatement());
+        assertTrue(resultSet.next());
+        assertEquals(resultSet, resultSet);
+        resultSet.close();
+        assertTrue(resultSet.isClosed());
+        assertTrue(delegatingTesterStatement.getTrace().isEmpty());
+    }
+
+    @Test
+    void testDirectResultSetClosedWithStatement() throws Exception {
+        delegatingConnection.setDirectResultSets(true);
+        final ResultSet resultSet = delegatingTesterStatement.executeQuery("select");
+        delegatingTesterStatement.close();
+        assertTrue(resultSet.isClosed());
+    }
+
+    @Test
+    void testDirectResultSetException() throws Exception {
+        delegatingConnection.setDirectResultSets(true);
+        final ResultSet resultSet = delegatingTesterStatement.executeQuery("select");
+        resultSet.close();
+        assertThrows(SQLException.class, resultSet::next);
+    }
+
+    @Test
+    void testThinResultSetClosedWithStatement() throws Exception {
+        delegatingConnection.setThinResultSets(true);
+        final ResultSet resultSet = delegatingTesterStatement.executeQuery("select");
+        delegatingTesterStatement.close();
+        assertTrue(resultSet.isClosed());
+    }
+
+    @Test
+    void testThinResultSetRecycled() throws Exception {
+        delegatingConnection.setThinResultSets(true);
+        final ResultSet resultSet1 = delegatingTesterStatement.executeQuery("select");
+        resultSet1.close();
+        final ResultSet resultSet2 = delegatingTesterStatement.executeQuery("select");
+        assertSame(resultSet1, resultSet2);
+        assertFalse(resultSet2.isClosed());
+        // Still open, the next result set gets its own wrapper.
+        final ResultSet resultSet3 = delegatingTesterStatement.executeQuery("select");
+        assertNotSame(resultSet2, resultSet3);
+        assertTrue(delegatingTesterStatement.getTrace().contains(resultSet3));
+        assertFalse(delegatingTesterStatement.getTrace().contains(resultSet2));
+    }
+
+    @Test
+    void testThinResultSetsDisabled() throws Exception {
+        final ResultSet resultSet1 = delegatingTesterStatement.executeQuery("select");
+        resultSet1.close();
+        final ResultSet resultSet2 = delegatingTesterStatement.executeQuery("select");
+        assertNotSame(resultSet1, resultSet2);
+    }
+
     @Test
     void testWrap() throws SQLException {
         assertEquals(delegatingStatement, delegatingStatement.unwrap(Statement.class));
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MultiEndpointConnectionFactory.
+ */
+public class TestMultiEndpointConnectionFactory {
+
+    private static final String GOOD = "jdbc:apache:commons:testdriver";
+
+    private static final String BAD = "jdbc:apache:commons:unknown";
+
+    /**
+     * Takes 20 milliseconds to connect to connection strings ending with "/slow".
+     */
+    private static final class SlowDriver extends TesterDriver {
+
+        @Override
+        public Connection connect(final String url, final Properties info) throws SQLException {
+            if (url.endsWith("/slow")) {
+                try {
+                    Thread.sleep(20);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.connect(url, info);
+        }
+    }
+
+    @Test
+    void testAllEndpointsFail() {
+        final MultiEndpointConnectionFactory cf = new MultiEndpointConnectionFactory(new TesterDriver(), Arrays.asList(BAD, BAD + "2"), null);
+        final SQLException e = assertThrows(SQLException.class, cf::createConnection);
+        assertEquals(1, e.getSuppressed().length);
+        // Endpoints cooling down are still tried when all are
+        assertThrows(SQLException.class, cf::createConnection);
+        assertEquals(2, cf.getEndpoints().get(0).getFailureCount());
+    }
+
+    @Test
+    void testBasicDataSource() throws Exception {
+        try (BasicDataSource ds = new BasicDataSource()) {
+            ds.setDriverClassName(TesterDriver.class.getName());
+            ds.setConnectionFactoryClassName(MultiEndpointConnectionFactory.class.getName());
+            ds.setUrl(GOOD + "/a " + GOOD + "/b");
+            ds.setUsername("userName");
+            ds.setPassword("password");
+            ds.setAccessToUnderlyingConnectionAllowed(true);
+            try (Connection conn = ds.getConnection()) {
+                // The data source validated its connection factory with a connection to the first endpoint
+                assertEquals(GOOD + "/b", ((PoolableConnection) ((DelegatingConnection<?>) conn).getDelegate()).getEndpoint());
+            }
+        }
+    }
+
+    @Test
+    void testFailover() throws SQLException {
+        final MultiEndpointConnectionFactory cf = new MultiEndpointConnectionFactory(new TesterDriver(), BAD + " " + GOOD, null);
+        final MultiEndpointConnectionFactory.Endpoint bad = cf.getEndpoints().get(0);
+        final Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connected = cf.connect();
+        connected.getKey().close();
+        assertEquals(GOOD, connected.getValue().getConnectionString());
+        assertFalse(bad.isAvailable());
+        assertTrue(bad.getErrorRate() > 0);
+        // The failed endpoint is avoided during its cooldown
+        try (Connection conn = cf.createConnection()) {
+            assertNotNull(conn);
+        }
+        assertEquals(1, bad.getFailureCount());
+    }
+
+    @Test
+    void testFailureClosesOnlyTheEndpointConnections() throws Exception {
+        final MultiEndpointConnectionFactory cf = new MultiEndpointConnectionFactory(new TesterDriver(), Arrays.asList(GOOD + "/a", GOOD + "/b"), null);
+        final PoolableConnectionFactory pcf = new PoolableConnectionFactory(cf, null);
+        try (GenericObjectPool<PoolableConnection> pool = new GenericObjectPool<>(pcf)) {
+            pcf.setPool(pool);
+            final PoolableConnection a = pool.borrowObject();
+            final PoolableConnection b = pool.borrowObject();
+            assertEquals(GOOD + "/a", a.getEndpoint());
+            assertEquals(GOOD + "/b", b.getEndpoint());
+            cf.getEndpoints().get(0).failed();
+            a.close();
+            b.close();
+            assertEquals(1, pool.getDestroyedCount());
+            assertEquals(1, pool.getNumIdle());
+            // New connections go to the endpoint not cooling down
+            final PoolableConnection c = pool.borrowObject();
+            final PoolableConnection d = pool.borrowObject();
+            assertEquals(GOOD + "/b", c.getEndpoint());
+            assertEquals(GOOD + "/b", d.getEndpoint());
+            c.close();
+            d.close();
+        }
+    }
+
+    @Test
+    void testFatalExceptionFailsEndpoint() throws Exception {
+        final MultiEndpointConnectionFactory cf = new MultiEndpointConnectionFactory(new TesterDriver(), GOOD, null);
+        cf.setDisconnectionThreshold(2);
+        final PoolableConnectionFactory pcf = new PoolableConnectionFactory(cf, null);
+        try (GenericObjectPool<PoolableConnection> pool = new GenericObjectPool<>(pcf)) {
+            pcf.setPool(pool);
+            final PoolableConnection first = pool.borrowObject();
+            final PoolableConnection second = pool.borrowObject();
+            // Repeated exceptions from one connection count once
+            for (int i = 0; i < 2; i++) {
+                assertThrows(SQLException.class, () -> first.handleException(new SQLException("Disconnected", "08S01")));
+            }
+            assertEquals(0, cf.getEndpoints().get(0).getFailureCount());
+            assertTrue(cf.getEndpoints().get(0).isAvailable());
+            assertThrows(SQLException.class, () -> second.handleException(new SQLException("Disconnected", "08S01")));
+            assertEquals(1, cf.getEndpoints().get(0).getFailureCount());
+            assertFalse(cf.getEndpoints().get(0).isAvailable());
+        }
+    }
+
+    @Test
+    void testRoutesToFastestEndpoint() throws SQLException {
+        final MultiEndpointConnectionFactory cf = new MultiEndpointConnectionFactory(new SlowDriver(), Arrays.asList(GOOD + "/slow", GOOD + "/fast"), null);
+        // Each endpoint is tried once, then the fastest is preferred
+        Map.Entry<Connection, MultiEndpointConnectionFactory.Endpoint> connected = cf.connect();
+        connected.getKey().close();
+        assertEquals(GOOD + "/slow", connected.getValue().getConnectionString());
+        for (int i = 0; i < 3; i++) {
+            connected = cf.connect();
+            connected.getKey().close();
+            assertEquals(GOOD + "/fast", connected.getValue().getConnectionString());
+        }
+        assertTrue(cf.getEndpoints().get(0).getConnectDuration().toMillis() >= 20);
+    }
+
+    @Test
+    void testToString() {
+        final MultiEndpointConnectionFactory cf = new MultiEndpointConnectionFactory(new TesterDriver(), GOOD + "/a " + GOOD + "/b", null);
+        final String toString = cf.toString();
+        assertTrue(toString.contains(GOOD + "/a"));
+        assertTrue(toString.contains(GOOD + "/b"));
+    }
+}
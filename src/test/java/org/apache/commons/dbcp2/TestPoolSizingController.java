@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.dbcp2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PoolSizingController}.
+ */
+public class TestPoolSizingController {
+
+    private static final Duration TARGET_WAIT = Duration.ofMillis(10);
+
+    private GenericObjectPool<PoolableConnection> pool;
+
+    private final List<PoolableConnection> borrowed = new ArrayList<>();
+
+    private void borrow(final int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            borrowed.add(pool.borrowObject());
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        final Properties properties = new Properties();
+        properties.setProperty(Constants.KEY_USER, "userName");
+        properties.setProperty(Constants.KEY_PASSWORD, "password");
+        final PoolableConnectionFactory factory = new PoolableConnectionFactory(
+                new DriverConnectionFactory(new TesterDriver(), "jdbc:apache:commons:testdriver", properties), null);
+        pool = new GenericObjectPool<>(factory);
+        factory.setPool(pool);
+        pool.setMaxTotal(10);
+        pool.setMaxIdle(8);
+        pool.setMaxWait(Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        borrowed.forEach(pool::returnObject);
+        pool.close();
+    }
+
+    @Test
+    void testGrowsUnderLoad() throws Exception {
+        final PoolSizingController controller = new PoolSizingController(2, 10, 0, 8, TARGET_WAIT);
+        for (int i = 0; i < 10; i++) {
+            controller.adjust(pool, Duration.ZERO);
+        }
+        assertEquals(2, controller.getEffectiveMaxTotal());
+        borrow(2);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(3, controller.getEffectiveMaxTotal());
+        assertEquals(3, pool.getMaxTotal());
+        assertEquals(1, controller.getGrowCount());
+        borrow(1);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(4, controller.getEffectiveMaxTotal());
+        borrow(1);
+        // Never grows beyond the configured maxTotal
+        for (int i = 0; i < 10; i++) {
+            borrow(pool.getMaxTotal() - pool.getNumActive());
+            controller.adjust(pool, Duration.ZERO);
+        }
+        assertEquals(10, controller.getEffectiveMaxTotal());
+    }
+
+    @Test
+    void testIdleHeadroom() throws Exception {
+        borrow(8);
+        final PoolSizingController controller = new PoolSizingController(1, 10, 0, -1, TARGET_WAIT);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(1, pool.getMinIdle());
+        assertEquals(4, pool.getMaxIdle());
+        // Slow connection creation keeps more connections warm
+        controller.adjust(pool, TARGET_WAIT.multipliedBy(2));
+        assertEquals(2, pool.getMinIdle());
+        assertEquals(4, pool.getMaxIdle());
+    }
+
+    @Test
+    void testMaxIdleFollowsSmoothedLoad() throws Exception {
+        final PoolSizingController controller = new PoolSizingController(10, 10, 0, -1, TARGET_WAIT);
+        borrow(8);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(4, pool.getMaxIdle());
+        // A single quiet sample does not release the idle connections at once
+        borrowed.forEach(pool::returnObject);
+        borrowed.clear();
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(4, pool.getMaxIdle());
+        for (int i = 0; i < 20; i++) {
+            controller.adjust(pool, Duration.ZERO);
+        }
+        assertEquals(0, pool.getMaxIdle());
+        // Load increases are followed at once
+        borrow(6);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(3, pool.getMaxIdle());
+    }
+
+    @Test
+    void testSetBounds() throws Exception {
+        final PoolSizingController controller = new PoolSizingController(2, 10, 0, 8, TARGET_WAIT);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(9, pool.getMaxTotal());
+        // New bounds apply from the next adjustment
+        controller.setBounds(2, 5, 0, 2, TARGET_WAIT);
+        borrow(4);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(5, controller.getEffectiveMaxTotal());
+        assertEquals(5, pool.getMaxTotal());
+        assertEquals(2, pool.getMaxIdle());
+        controller.setBounds(2, 20, 0, 8, TARGET_WAIT);
+        borrow(1);
+        controller.adjust(pool, Duration.ZERO);
+        assertTrue(controller.getEffectiveMaxTotal() > 5);
+    }
+
+    @Test
+    void testShrinksWhenIdle() {
+        pool.setMinIdle(1);
+        final PoolSizingController controller = new PoolSizingController(4, 10, 1, 8, TARGET_WAIT);
+        assertEquals(10, controller.getEffectiveMaxTotal());
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(9, controller.getEffectiveMaxTotal());
+        assertEquals(9, pool.getMaxTotal());
+        for (int i = 0; i < 10; i++) {
+            controller.adjust(pool, Duration.ZERO);
+        }
+        assertEquals(4, controller.getEffectiveMaxTotal());
+        assertEquals(4, pool.getMaxTotal());
+        assertEquals(1, pool.getMinIdle());
+        assertEquals(1, pool.getMaxIdle());
+        assertEquals(6, controller.getShrinkCount());
+        assertEquals(0, controller.getGrowCount());
+    }
+
+    @Test
+    void testUnlimitedMaxTotal() throws Exception {
+        pool.setMaxTotal(-1);
+        final PoolSizingController controller = new PoolSizingController(1, -1, 0, -1, TARGET_WAIT);
+        borrow(20);
+        controller.adjust(pool, Duration.ZERO);
+        assertEquals(-1, controller.getEffectiveMaxTotal());
+        assertEquals(-1, pool.getMaxTotal());
+        assertEquals(2, pool.getMinIdle());
+        assertEquals(10, pool.getMaxIdle());
+    }
+}
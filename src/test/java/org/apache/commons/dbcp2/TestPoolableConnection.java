@@ -19,10 +19,15 @@ package org.apache.commons.dbcp2;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -56,6 +61,29 @@ public class TestPoolableConnection {
         pool.close();
     }
 
+    @Test
+    void testCheckClosedOnReturnDisabled() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setCheckClosedOnReturn(false);
+        factory.setCacheState(true);
+        pool.borrowObject().close();
+        // Without the driver check, a dead connection goes back to the pool and is left to validation.
+        PoolableConnection conn = pool.borrowObject();
+        final TesterConnection nativeConnection = (TesterConnection) conn.getInnermostDelegateInternal();
+        nativeConnection.close();
+        conn.close();
+        assertEquals(1, pool.getNumIdle());
+        assertEquals(0, pool.getDestroyedCount());
+        // A fatal exception still destroys the connection on return.
+        conn = pool.borrowObject();
+        assertSame(nativeConnection, conn.getInnermostDelegateInternal());
+        nativeConnection.setFailure(new SQLException("Fatal connection error.", "08S01"));
+        assertThrows(SQLException.class, conn::createStatement);
+        conn.close();
+        assertEquals(0, pool.getNumIdle());
+        assertEquals(1, pool.getDestroyedCount());
+    }
+
     @Test
     void testClosingWrappedInDelegate() throws Exception {
         Assertions.assertEquals(0, pool.getNumActive());
@@ -110,6 +138,105 @@ public class TestPoolableConnection {
         assertEquals(1, pool.getNumIdle(), "The pool should have one idle connection");
     }
 
+    @Test
+    void testDisconnectionWave() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setDisconnectionWaveThreshold(2);
+        final PoolableConnection failing1 = pool.borrowObject();
+        final PoolableConnection failing2 = pool.borrowObject();
+        final PoolableConnection healthy = pool.borrowObject();
+        pool.addObject();
+        assertEquals(1, pool.getNumIdle());
+
+        final TesterConnection native1 = (TesterConnection) failing1.getInnermostDelegate();
+        native1.setFailure(new SQLException("Fatal connection error.", "08S01"));
+        assertThrows(SQLException.class, failing1::createStatement);
+        // One connection is below the threshold, however many fatal exceptions it throws
+        assertThrows(SQLException.class, failing1::createStatement);
+        assertEquals(0, factory.getDisconnectionWaveCount());
+        assertEquals(1, pool.getNumIdle());
+
+        final TesterConnection native2 = (TesterConnection) failing2.getInnermostDelegate();
+        native2.setFailure(new SQLException("Fatal connection error.", "08S01"));
+        assertThrows(SQLException.class, failing2::createStatement);
+        // The wave replaces the idle connections in the background
+        assertEquals(1, factory.getDisconnectionWaveCount());
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getDestroyedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, pool.getDestroyedCount());
+        assertEquals(1, pool.getNumIdle());
+
+        // Connections created before the wave are validated when borrowed again
+        native1.setFailure(null);
+        failing1.close();
+        final PoolableConnection next = pool.borrowObject();
+        assertNotSame(native1, next.getInnermostDelegate());
+        next.close();
+        // A connection which passes validation is kept
+        final Connection healthyNative = healthy.getInnermostDelegate();
+        healthy.close();
+        try (PoolableConnection conn = pool.borrowObject()) {
+            assertSame(healthyNative, conn.getInnermostDelegate());
+        }
+        native2.setFailure(null);
+        failing2.close();
+    }
+
+    @Test
+    void testDisconnectionWaveKeepsNewerConnections() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setDisconnectionWaveThreshold(1);
+        final PoolableConnection failing = pool.borrowObject();
+        final PoolableConnection older = pool.borrowObject();
+        final PoolableConnection newer = pool.borrowObject();
+        // Simulate a connection created after the wave starts, before the wave reaches it
+        newer.setDisconnectionWaveGeneration(1);
+        final Connection olderNative = older.getInnermostDelegate();
+        final Connection newerNative = newer.getInnermostDelegate();
+        older.close();
+        newer.close();
+        assertEquals(2, pool.getNumIdle());
+
+        final TesterConnection failingNative = (TesterConnection) failing.getInnermostDelegate();
+        failingNative.setFailure(new SQLException("Fatal connection error.", "08S01"));
+        assertThrows(SQLException.class, failing::createStatement);
+        assertEquals(1, factory.getDisconnectionWaveCount());
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getDestroyedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Only the idle connection older than the wave is destroyed, the borrowed one is left to its borrower
+        assertEquals(1, pool.getDestroyedCount());
+        assertEquals(1, pool.getNumActive());
+        assertEquals(2, pool.getNumIdle());
+        final PoolableConnection conn1 = pool.borrowObject();
+        final PoolableConnection conn2 = pool.borrowObject();
+        assertTrue(conn1.getInnermostDelegate() == newerNative || conn2.getInnermostDelegate() == newerNative);
+        assertNotSame(olderNative, conn1.getInnermostDelegate());
+        assertNotSame(olderNative, conn2.getInnermostDelegate());
+        conn1.close();
+        conn2.close();
+        failingNative.setFailure(null);
+        failing.close();
+    }
+
+    @Test
+    void testDisconnectionWaveDisabled() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        final PoolableConnection[] conns = { pool.borrowObject(), pool.borrowObject(), pool.borrowObject() };
+        pool.addObject();
+        for (final PoolableConnection conn : conns) {
+            final TesterConnection nativeConnection = (TesterConnection) conn.getInnermostDelegate();
+            nativeConnection.setFailure(new SQLException("Fatal connection error.", "08S01"));
+            assertThrows(SQLException.class, conn::createStatement);
+            nativeConnection.setFailure(null);
+        }
+        assertEquals(0, factory.getDisconnectionWaveCount());
+        assertEquals(1, pool.getNumIdle());
+    }
+
     @Test
     void testFastFailValidation() throws Exception {
         pool.setTestOnReturn(true);
@@ -180,6 +307,59 @@ public class TestPoolableConnection {
         assertFalse(((PoolableConnection) conn).isFatalException(rootException));
     }
 
+    @Test
+    void testLifetimeEvictionPolicy() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setMaxConn(Duration.ofMillis(200));
+        pool.setMinIdle(1);
+        pool.setEvictionPolicy(new LifetimeEvictionPolicy(pool.getEvictionPolicy(), factory));
+        pool.addObject();
+        pool.evict();
+        assertEquals(0, pool.getDestroyedByEvictorCount());
+        Thread.sleep(250);
+        pool.evict();
+        // The expired connection is retired after its replacement is created
+        assertEquals(1, pool.getDestroyedByEvictorCount());
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getNumIdle());
+    }
+
+    @Test
+    void testLifetimeEvictionPolicyLongEvictionInterval() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setMaxConn(Duration.ofMillis(400));
+        // An eviction interval longer than the lifetime must not retire every new connection
+        pool.setDurationBetweenEvictionRuns(Duration.ofHours(1));
+        pool.setEvictionPolicy(new LifetimeEvictionPolicy(pool.getEvictionPolicy(), factory));
+        pool.addObject();
+        pool.evict();
+        assertEquals(0, pool.getDestroyedByEvictorCount());
+        Thread.sleep(250);
+        pool.evict();
+        assertEquals(1, pool.getDestroyedByEvictorCount());
+    }
+
+    @Test
+    void testMaxConnLifetimeJitter() throws Exception {
+        pool.setTestOnReturn(true);
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setMaxConn(Duration.ofMillis(400));
+        factory.setMaxConnLifetimeJitter(Duration.ofMillis(100));
+        final PoolableConnection jittered = pool.borrowObject();
+        final long jitterNanos = jittered.getLifetimeJitterNanos();
+        assertTrue(jitterNanos >= 0 && jitterNanos <= Duration.ofMillis(100).toNanos(), () -> "jitter " + jitterNanos);
+        factory.setMaxConnLifetimeJitter(Duration.ZERO);
+        final PoolableConnection plain = pool.borrowObject();
+        assertEquals(0, plain.getLifetimeJitterNanos());
+        // Jitter shortens the lifetime by at most half
+        jittered.setLifetimeJitterNanos(Duration.ofSeconds(10).toNanos());
+        Thread.sleep(250);
+        jittered.close();
+        plain.close();
+        assertEquals(1, pool.getNumIdle());
+        assertEquals(1, pool.getDestroyedCount());
+    }
+
     /**
      * Tests if the {@link PoolableConnectionMXBean} interface is a valid MXBean interface.
      */
@@ -188,6 +368,43 @@ public class TestPoolableConnection {
         TestBasicDataSourceMXBean.testMXBeanCompliance(PoolableConnectionMXBean.class);
     }
 
+    @Test
+    void testPassivateSkipsUnneededResets() throws Exception {
+        final PoolableConnectionFactory factory = (PoolableConnectionFactory) pool.getFactory();
+        factory.setDefaultReadOnly(Boolean.FALSE);
+        factory.setDefaultAutoCommit(Boolean.FALSE);
+        factory.setAutoCommitOnReturn(false);
+        final TesterConnection tester;
+        // The first return resets a new connection fully.
+        try (PoolableConnection conn = pool.borrowObject()) {
+            tester = (TesterConnection) conn.getInnermostDelegateInternal();
+        }
+        assertEquals(1, tester.rollbackCount);
+        assertEquals(1, tester.clearWarningsCount);
+        // Unused connections need no reset.
+        pool.borrowObject().close();
+        assertEquals(1, tester.rollbackCount);
+        assertEquals(1, tester.clearWarningsCount);
+        // Creating a statement may open a transaction.
+        try (PoolableConnection conn = pool.borrowObject()) {
+            conn.createStatement().close();
+        }
+        assertEquals(2, tester.rollbackCount);
+        assertEquals(2, tester.clearWarningsCount);
+        // Setting a session property may add warnings.
+        try (PoolableConnection conn = pool.borrowObject()) {
+            conn.setCatalog("other");
+        }
+        assertEquals(2, tester.rollbackCount);
+        assertEquals(3, tester.clearWarningsCount);
+        // Handing out the delegate loses track of its use.
+        try (PoolableConnection conn = pool.borrowObject()) {
+            assertNotNull(conn.getDelegate());
+        }
+        assertEquals(3, tester.rollbackCount);
+        assertEquals(4, tester.clearWarningsCount);
+    }
+
     // Bugzilla Bug 33591: PoolableConnection leaks connections if the
     // delegated connection closes itself.
     @Test
@@ -213,4 +430,25 @@ public class TestPoolableConnection {
 
         assertEquals(0, pool.getNumActive(), "The pool should have no active connections");
     }
+
+    @Test
+    void testRestoresHoldabilityAndNetworkTimeout() throws Exception {
+        PoolableConnection conn = pool.borrowObject();
+        final Connection physical = conn.getInnermostDelegate();
+        assertEquals(ResultSet.HOLD_CURSORS_OVER_COMMIT, conn.getHoldability());
+        assertEquals(0, conn.getNetworkTimeout());
+        conn.setHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT);
+        conn.setNetworkTimeout(Runnable::run, 1000);
+        conn.setNetworkTimeout(Runnable::run, 2000);
+        conn.close();
+
+        // The next borrower gets the same physical connection with the values it was made with.
+        conn = pool.borrowObject();
+        assertSame(physical, conn.getInnermostDelegate());
+        assertEquals(ResultSet.HOLD_CURSORS_OVER_COMMIT, conn.getHoldability());
+        assertEquals(ResultSet.HOLD_CURSORS_OVER_COMMIT, physical.getHoldability());
+        assertEquals(0, conn.getNetworkTimeout());
+        assertEquals(0, physical.getNetworkTimeout());
+        conn.close();
+    }
 }
@@ -21,14 +21,28 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.pool2.impl.AbandonedConfig;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -127,6 +141,111 @@ public class TestPoolingDataSource extends TestConnectionPool {
         ds.getConnection();
     }
 
+    @Test
+    void testGetConnectionAsync() throws Exception {
+        pool.setMaxTotal(1);
+        pool.setMaxWait(Duration.ofSeconds(10));
+        final Connection first = ds.getConnectionAsync().get(10, TimeUnit.SECONDS);
+        final CompletableFuture<Connection> cancelled = ds.getConnectionAsync();
+        final CompletableFuture<Connection> second = ds.getConnectionAsync();
+        assertFalse(second.isDone());
+        // Cancelling drops the queued borrow
+        cancelled.cancel(false);
+        first.close();
+        try (Connection connection = second.get(10, TimeUnit.SECONDS)) {
+            assertFalse(connection.isClosed());
+        }
+        assertEquals(0, pool.getNumActive());
+    }
+
+    @Test
+    void testGetConnectionAsyncQueuedInOrder() throws Exception {
+        pool.setMaxTotal(1);
+        pool.setMaxWait(Duration.ofSeconds(10));
+        final Connection first = ds.getConnection();
+        final CompletableFuture<Connection> second = ds.getConnectionAsync(Runnable::run);
+        final CompletableFuture<Connection> third = ds.getConnectionAsync(Runnable::run);
+        assertFalse(second.isDone());
+        assertFalse(third.isDone());
+        // Queued borrows do not hold a thread each
+        assertTrue(Thread.getAllStackTraces().keySet().stream().noneMatch(t -> t.getName().equals("commons-dbcp2-async-borrower")));
+        first.close();
+        try (Connection connection = second.get(10, TimeUnit.SECONDS)) {
+            assertFalse(third.isDone());
+        }
+        third.get(10, TimeUnit.SECONDS).close();
+        assertEquals(0, pool.getNumActive());
+    }
+
+    @Test
+    void testGetConnectionAsyncBorrowExecutor() throws Exception {
+        final ExecutorService borrowExecutor = Executors.newSingleThreadExecutor();
+        final List<Runnable> borrows = new CopyOnWriteArrayList<>();
+        try {
+            final CompletableFuture<Connection> future = ds.getConnectionAsync(borrow -> {
+                borrows.add(borrow);
+                borrowExecutor.execute(borrow);
+            }, Runnable::run);
+            try (Connection connection = future.get(10, TimeUnit.SECONDS)) {
+                assertFalse(connection.isClosed());
+            }
+            assertEquals(1, borrows.size());
+            assertEquals(0, pool.getNumActive());
+        } finally {
+            borrowExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testGetConnectionAsyncBlockedPartition() throws Exception {
+        pool.setMaxTotal(2);
+        pool.setMaxWait(Duration.ofMillis(-1));
+        final Map<String, Integer> shares = new LinkedHashMap<>();
+        shares.put("a", 1);
+        shares.put("b", 1);
+        ds.setPartitions(shares);
+        try (Connection a1 = ds.getPartitionConnection("a")) {
+            final CompletableFuture<Connection> a2;
+            final CompletableFuture<Connection> b1;
+            try {
+                BulkheadPartitions.setCurrentPartition("a");
+                a2 = ds.getConnectionAsync();
+                BulkheadPartitions.setCurrentPartition("b");
+                b1 = ds.getConnectionAsync();
+            } finally {
+                BulkheadPartitions.setCurrentPartition(null);
+            }
+            // A borrow blocked in one partition does not hold up another
+            try (Connection connection = b1.get(10, TimeUnit.SECONDS)) {
+                assertEquals(1, ds.getBulkheadPartitions().getActive("b"));
+            }
+            assertFalse(a2.isDone());
+            a2.cancel(false);
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (ds.getBulkheadPartitions().getWaiting("a") > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, ds.getBulkheadPartitions().getWaiting("a"));
+        }
+    }
+
+    @Test
+    void testGetConnectionAsyncClosed() throws Exception {
+        ds.close();
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> ds.getConnectionAsync().get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+
+    @Test
+    void testGetConnectionAsyncTimeout() throws Exception {
+        pool.setMaxTotal(1);
+        pool.setMaxWait(Duration.ofMillis(100));
+        try (Connection connection = ds.getConnection()) {
+            final ExecutionException e = assertThrows(ExecutionException.class, () -> ds.getConnectionAsync().get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+
     @Test
     void testIsWrapperFor() throws Exception {
         assertTrue(ds.isWrapperFor(PoolingDataSource.class));
@@ -135,6 +254,95 @@ public class TestPoolingDataSource extends TestConnectionPool {
         assertFalse(ds.isWrapperFor(null));
     }
 
+    @Test
+    void testPartitions() throws Exception {
+        pool.setMaxTotal(3);
+        pool.setMaxWait(Duration.ofMillis(50));
+        final Map<String, Integer> shares = new LinkedHashMap<>();
+        shares.put("a", 1);
+        shares.put("b", 1);
+        ds.setPartitions(shares);
+        final BulkheadPartitions partitions = ds.getBulkheadPartitions();
+        assertEquals(1, partitions.getOverflow());
+        try (Connection a1 = ds.getPartitionConnection("a");
+                Connection a2 = ds.getPartitionConnection("a")) {
+            assertEquals(2, partitions.getActive("a"));
+            assertEquals(1, partitions.getOverflowActive());
+            // "a" used its share and the overflow, "b" still gets its share
+            assertThrows(SQLException.class, () -> ds.getPartitionConnection("a"));
+            assertThrows(SQLException.class, ds::getConnection);
+            assertEquals(1, partitions.getTimeoutCount("a"));
+            assertEquals(1, partitions.getTimeoutCount(null));
+            try (Connection b1 = ds.getPartitionConnection("b")) {
+                assertEquals(1, partitions.getActive("b"));
+            }
+        }
+        assertEquals(0, partitions.getActive("a"));
+        assertEquals(0, partitions.getOverflowActive());
+        BulkheadPartitions.setCurrentPartition("b");
+        try (Connection b1 = ds.getConnection()) {
+            assertEquals(1, partitions.getActive("b"));
+            assertEquals(0, partitions.getOverflowActive());
+        } finally {
+            BulkheadPartitions.setCurrentPartition(null);
+        }
+        assertNull(BulkheadPartitions.getCurrentPartition());
+        assertEquals(0, pool.getNumActive());
+    }
+
+    @Test
+    void testPartitionsAbandonedConnection() throws Exception {
+        pool.setMaxTotal(1);
+        pool.setMaxWait(Duration.ofMillis(50));
+        final AbandonedConfig abandonedConfig = new AbandonedConfig();
+        abandonedConfig.setRemoveAbandonedOnMaintenance(true);
+        abandonedConfig.setRemoveAbandonedTimeout(Duration.ofMillis(1));
+        pool.setAbandonedConfig(abandonedConfig);
+        ds.setPartitions(Collections.singletonMap("a", 1));
+        final BulkheadPartitions partitions = ds.getBulkheadPartitions();
+        @SuppressWarnings("unused")
+        final Connection leaked = ds.getPartitionConnection("a");
+        assertEquals(1, partitions.getActive("a"));
+        Thread.sleep(10);
+        pool.evict();
+        assertEquals(0, partitions.getActive("a"));
+        ds.getPartitionConnection("a").close();
+    }
+
+    @Test
+    void testPartitionsHandOffToWaiter() throws Exception {
+        pool.setMaxTotal(2);
+        pool.setMaxWait(Duration.ofSeconds(10));
+        ds.setPartitions(Collections.singletonMap("a", 1));
+        final BulkheadPartitions partitions = ds.getBulkheadPartitions();
+        final Connection a1 = ds.getPartitionConnection("a");
+        final Connection a2 = ds.getPartitionConnection("a");
+        final CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try (Connection conn = ds.getPartitionConnection("a")) {
+                assertNotNull(conn);
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (partitions.getWaiting("a") == 0) {
+            Thread.sleep(1);
+        }
+        // Frees an overflow slot, which goes to the waiter
+        a2.close();
+        waiter.get(10, TimeUnit.SECONDS);
+        a1.close();
+        assertEquals(0, partitions.getActive("a"));
+        assertEquals(0, partitions.getOverflowActive());
+    }
+
+    @Test
+    void testPartitionsInvalidShare() {
+        assertThrows(IllegalArgumentException.class, () -> ds.setPartitions(Collections.singletonMap("a", 0)));
+        pool.setMaxTotal(2);
+        assertThrows(IllegalArgumentException.class, () -> ds.setPartitions(Collections.singletonMap("a", 3)));
+        assertNull(ds.getBulkheadPartitions());
+    }
+
     @Test
     void testPoolGuardConnectionWrapperEqualInnermost() throws Exception {
         ds.setAccessToUnderlyingConnectionAllowed(true);
@@ -208,6 +416,105 @@ public class TestPoolingDataSource extends TestConnectionPool {
         con1.close();
     }
 
+    @Test
+    void testPriorityLanes() throws Exception {
+        pool.setMaxTotal(1);
+        ds.setPriorityLanes(true);
+        final BorrowLanes lanes = ds.getBorrowLanes();
+        assertNotNull(lanes);
+        final List<BorrowPriority> served = new CopyOnWriteArrayList<>();
+        final Connection held = ds.getConnection();
+        assertEquals(1, lanes.getActive());
+        final Thread low = startBorrower(BorrowPriority.LOW, served);
+        waitForWaiting(lanes, BorrowPriority.LOW);
+        final Thread high = startBorrower(BorrowPriority.HIGH, served);
+        waitForWaiting(lanes, BorrowPriority.HIGH);
+        held.close();
+        low.join();
+        high.join();
+        assertEquals(Arrays.asList(BorrowPriority.HIGH, BorrowPriority.LOW), served);
+        assertEquals(0, lanes.getActive());
+        assertEquals(1, lanes.getBorrowCount(BorrowPriority.HIGH));
+        assertEquals(1, lanes.getBorrowCount(BorrowPriority.LOW));
+        assertEquals(1, lanes.getBorrowCount(BorrowPriority.NORMAL));
+        assertTrue(lanes.getMaxWaitDuration(BorrowPriority.LOW).compareTo(lanes.getMaxWaitDuration(BorrowPriority.HIGH)) >= 0);
+    }
+
+    @Test
+    void testPriorityLanesCurrentThread() throws Exception {
+        ds.setPriorityLanes(true);
+        BorrowPriority.setCurrent(BorrowPriority.LOW);
+        try {
+            ds.getConnection().close();
+        } finally {
+            BorrowPriority.setCurrent(null);
+        }
+        assertEquals(BorrowPriority.NORMAL, BorrowPriority.current());
+        assertEquals(1, ds.getBorrowLanes().getBorrowCount(BorrowPriority.LOW));
+        assertEquals(0, ds.getBorrowLanes().getActive());
+    }
+
+    @Test
+    void testPriorityLanesDisabled() throws Exception {
+        assertNull(ds.getBorrowLanes());
+        ds.getConnection(BorrowPriority.HIGH).close();
+    }
+
+    @Test
+    void testPriorityLanesTimeout() throws Exception {
+        pool.setMaxTotal(1);
+        pool.setMaxWait(Duration.ofMillis(50));
+        ds.setPriorityLanes(true);
+        final BorrowLanes lanes = ds.getBorrowLanes();
+        try (Connection held = ds.getConnection()) {
+            assertThrows(SQLException.class, () -> ds.getConnection(BorrowPriority.HIGH));
+            assertEquals(1, lanes.getTimeoutCount(BorrowPriority.HIGH));
+            assertEquals(0, lanes.getWaiting(BorrowPriority.HIGH));
+            assertEquals(1, lanes.getActive());
+        }
+        assertEquals(0, lanes.getActive());
+        ds.getConnection(BorrowPriority.LOW).close();
+    }
+
+    @Test
+    void testPriorityLanesAbandonedConnection() throws Exception {
+        pool.setMaxTotal(1);
+        pool.setMaxWait(Duration.ofMillis(50));
+        final AbandonedConfig abandonedConfig = new AbandonedConfig();
+        abandonedConfig.setRemoveAbandonedOnMaintenance(true);
+        abandonedConfig.setRemoveAbandonedTimeout(Duration.ofMillis(1));
+        pool.setAbandonedConfig(abandonedConfig);
+        ds.setPriorityLanes(true);
+        final BorrowLanes lanes = ds.getBorrowLanes();
+        @SuppressWarnings("unused")
+        final Connection leaked = ds.getConnection();
+        assertEquals(1, lanes.getActive());
+        Thread.sleep(10);
+        pool.evict();
+        // The pool reclaimed the connection without its guard being closed
+        assertEquals(0, pool.getNumActive());
+        assertEquals(0, lanes.getActive());
+        ds.getConnection().close();
+    }
+
+    private Thread startBorrower(final BorrowPriority priority, final List<BorrowPriority> served) {
+        final Thread thread = new Thread(() -> {
+            try (Connection conn = ds.getConnection(priority)) {
+                served.add(priority);
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void waitForWaiting(final BorrowLanes lanes, final BorrowPriority priority) throws InterruptedException {
+        while (lanes.getWaiting(priority) == 0) {
+            Thread.sleep(5);
+        }
+    }
+
     @Test
     void testUnwrap() throws Exception {
         assertSame(ds.unwrap(PoolingDataSource.class), ds);
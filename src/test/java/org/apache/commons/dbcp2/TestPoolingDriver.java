@@ -22,6 +22,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -34,6 +36,8 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.sql.DataSource;
 
@@ -129,6 +133,37 @@ public class TestPoolingDriver extends TestConnectionPool {
         assertThrows(SQLException.class, () -> DriverManager.getConnection("jdbc:apache:commons:dbcp:test"));
     }
 
+    @Test
+    void testConcurrentConnect() throws Exception {
+        final int threadCount = 8;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final String name = "concurrent" + i;
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 100; j++) {
+                        // Registry changes from other threads must not disturb lookups of the shared pool
+                        driver.registerPool(name, new GenericObjectPool<>(new PoolableConnectionFactory(
+                                new DriverConnectionFactory(new TesterDriver(), "jdbc:apache:commons:testdriver", null), null)));
+                        try (Connection conn = DriverManager.getConnection("jdbc:apache:commons:dbcp:test")) {
+                            assertNotNull(conn);
+                        }
+                        driver.closePool(name);
+                    }
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals(0, driver.getConnectionPool("test").getNumActive());
+    }
+
     @Test
     void testInvalidateConnection() throws Exception {
         final Connection conn = DriverManager.getConnection("jdbc:apache:commons:dbcp:test");
@@ -145,6 +180,30 @@ public class TestPoolingDriver extends TestConnectionPool {
         assertTrue(conn.isClosed());
     }
 
+    @Test
+    void testLegacyPoolsMap() throws Exception {
+        final PoolableConnectionFactory pcf = new PoolableConnectionFactory(
+                new DriverConnectionFactory(new TesterDriver(), "jdbc:apache:commons:testdriver", null), null);
+        final GenericObjectPool<PoolableConnection> legacy = new GenericObjectPool<>(pcf);
+        pcf.setPool(legacy);
+        // A subclass registering through the deprecated map is still found
+        new PoolingDriver(false) {
+            @SuppressWarnings("deprecation")
+            void register() {
+                synchronized (pools) {
+                    pools.put("legacy", legacy);
+                }
+            }
+        }.register();
+        try (Connection conn = DriverManager.getConnection("jdbc:apache:commons:dbcp:legacy")) {
+            assertEquals(1, legacy.getNumActive());
+        }
+        assertSame(legacy, driver.getConnectionPool("legacy"));
+        assertTrue(Arrays.asList(driver.getPoolNames()).contains("legacy"));
+        driver.closePool("legacy");
+        assertThrows(SQLException.class, () -> driver.getConnectionPool("legacy"));
+    }
+
     @Test
     void testLogWriter() throws Exception {
         final PrintStream ps = new PrintStream(new ByteArrayOutputStream(), false, StandardCharsets.UTF_8.name());
@@ -189,6 +248,24 @@ public class TestPoolingDriver extends TestConnectionPool {
         ex.printStackTrace(pw);
     }
 
+    @Test
+    void testRegisterPoolReplacesCachedPool() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:apache:commons:dbcp:test")) {
+            assertNotNull(conn);
+        }
+        final ObjectPool<? extends Connection> pool = driver.getConnectionPool("test");
+        final PoolableConnectionFactory pcf = new PoolableConnectionFactory(
+                new DriverConnectionFactory(new TesterDriver(), "jdbc:apache:commons:testdriver", null), null);
+        final GenericObjectPool<PoolableConnection> replacement = new GenericObjectPool<>(pcf);
+        pcf.setPool(replacement);
+        driver.registerPool("test", replacement);
+        try (Connection conn = DriverManager.getConnection("jdbc:apache:commons:dbcp:test")) {
+            assertEquals(1, replacement.getNumActive());
+            assertEquals(0, pool.getNumActive());
+        }
+        pool.close();
+    }
+
     /** "https://issues.apache.org/bugzilla/show_bug.cgi?id=12400" */
     @Test
     void testReportedBug12400() throws Exception {
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbcp2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ReadWriteSplitDataSource.
+ */
+public class TestReadWriteSplitDataSource {
+
+    private static BasicDataSource createDataSource(final String userName, final String password) {
+        final BasicDataSource ds = new BasicDataSource();
+        ds.setDriverClassName(TesterDriver.class.getName());
+        ds.setUrl("jdbc:apache:commons:testdriver");
+        ds.setUsername(userName);
+        ds.setPassword(password);
+        ds.setAccessToUnderlyingConnectionAllowed(true);
+        return ds;
+    }
+
+    private static String getUserName(final Connection conn) {
+        return ((TesterConnection) ((DelegatingConnection<?>) conn).getInnermostDelegate()).getUserName();
+    }
+
+    private ReadWriteSplitDataSource ds;
+
+    @BeforeEach
+    public void setUp() {
+        ds = new ReadWriteSplitDataSource(createDataSource("userName", "password"),
+                Arrays.asList(createDataSource("u1", "p1"), createDataSource("u2", "p2")));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        ds.close();
+    }
+
+    @Test
+    void testBalancesByActiveConnections() throws Exception {
+        try (Connection first = ds.getReadOnlyConnection(); Connection second = ds.getReadOnlyConnection()) {
+            assertTrue(first.isReadOnly());
+            assertTrue(second.isReadOnly());
+            // One connection on each replica
+            assertEquals(1, ds.getReplicas().get(0).getNumActive());
+            assertEquals(1, ds.getReplicas().get(1).getNumActive());
+            assertEquals(0, ds.getPrimary().getNumActive());
+        }
+    }
+
+    @Test
+    void testDoesNotSwitchWithOpenStatement() throws Exception {
+        try (Connection conn = ds.getConnection(); Statement statement = conn.createStatement()) {
+            conn.setReadOnly(true);
+            assertEquals("userName", getUserName(conn));
+        }
+    }
+
+    @Test
+    void testExhaustedReplicaStaysInRotation() throws Exception {
+        for (final BasicDataSource replica : ds.getReplicas()) {
+            replica.setMaxTotal(1);
+            replica.setMaxWait(Duration.ofMillis(10));
+        }
+        try (Connection first = ds.getReadOnlyConnection(); Connection second = ds.getReadOnlyConnection()) {
+            try (Connection conn = ds.getReadOnlyConnection()) {
+                // Falls back to the primary
+                assertEquals("userName", getUserName(conn));
+            }
+            assertTrue(ds.isReplicaAvailable(0));
+            assertTrue(ds.isReplicaAvailable(1));
+        }
+    }
+
+    @Test
+    void testFailedReplicaLeavesRotation() throws Exception {
+        ds.getReplicas().get(0).setPassword("bad");
+        ds.getReplicas().get(1).setPassword("bad");
+        try (Connection conn = ds.getReadOnlyConnection()) {
+            // Falls back to the primary
+            assertEquals("userName", getUserName(conn));
+            assertTrue(conn.isReadOnly());
+        }
+        assertFalse(ds.isReplicaAvailable(0));
+        assertFalse(ds.isReplicaAvailable(1));
+        ds.getReplicas().get(1).setPassword("p2");
+        ds.getReplicas().get(1).restart();
+        ds.checkReplicas();
+        assertFalse(ds.isReplicaAvailable(0));
+        assertTrue(ds.isReplicaAvailable(1));
+        try (Connection conn = ds.getReadOnlyConnection()) {
+            assertEquals("u2", getUserName(conn));
+        }
+    }
+
+    @Test
+    void testLaggingReplicaLeavesRotation() throws Exception {
+        // The tester result set returns 1 for the first column
+        ds.setReplicaLagQuery("SELECT lag");
+        ds.setMaxReplicaLag(Duration.ofMillis(500));
+        ds.checkReplicas();
+        assertEquals(Duration.ofSeconds(1), ds.getReplicaLag(0));
+        assertFalse(ds.isReplicaAvailable(0));
+        assertFalse(ds.isReplicaAvailable(1));
+        try (Connection conn = ds.getReadOnlyConnection()) {
+            assertEquals("userName", getUserName(conn));
+        }
+        ds.setMaxReplicaLag(Duration.ofSeconds(2));
+        ds.checkReplicas();
+        assertTrue(ds.isReplicaAvailable(0));
+        assertTrue(ds.isReplicaAvailable(1));
+    }
+
+    @Test
+    void testLaggingReplicaCheckedBeforeFirstUse() throws Exception {
+        ds.setReplicaLagQuery("SELECT lag");
+        ds.setMaxReplicaLag(Duration.ofMillis(500));
+        try (Connection conn = ds.getReadOnlyConnection()) {
+            assertEquals("userName", getUserName(conn));
+        }
+        assertFalse(ds.isReplicaAvailable(0));
+        assertFalse(ds.isReplicaAvailable(1));
+    }
+
+    @Test
+    void testNullReplicaLagLeavesRotation() throws Exception {
+        ds.setReplicaLagQuery("select null");
+        ds.checkReplicas();
+        assertFalse(ds.isReplicaAvailable(0));
+        ds.setReplicaLagQuery("SELECT lag");
+        ds.setMaxReplicaLag(Duration.ofSeconds(2));
+        ds.checkReplicas();
+        assertTrue(ds.isReplicaAvailable(0));
+        ds.setReplicaLagQuery("select no rows");
+        ds.checkReplicas();
+        assertFalse(ds.isReplicaAvailable(0));
+    }
+
+    @Test
+    void testReadOnlySwitchesToReplica() throws Exception {
+        try (Connection conn = ds.getConnection()) {
+            assertEquals("userName", getUserName(conn));
+            assertEquals(1, ds.getPrimary().getNumActive());
+            conn.setReadOnly(true);
+            assertTrue(getUserName(conn).startsWith("u"));
+            assertTrue(conn.isReadOnly());
+            // The primary connection went back to its pool
+            assertEquals(0, ds.getPrimary().getNumActive());
+            conn.setReadOnly(false);
+            assertEquals("userName", getUserName(conn));
+            assertFalse(conn.isReadOnly());
+        }
+        assertEquals(0, ds.getPrimary().getNumActive());
+        assertEquals(0, ds.getReplicas().get(0).getNumActive() + ds.getReplicas().get(1).getNumActive());
+    }
+
+    @Test
+    void testSwitchKeepsSessionState() throws Exception {
+        try (Connection conn = ds.getConnection()) {
+            conn.setCatalog("catalog");
+            conn.setSchema("schema");
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            conn.setReadOnly(true);
+            assertTrue(getUserName(conn).startsWith("u"));
+            final Connection replica = ((DelegatingConnection<?>) conn).getInnermostDelegate();
+            assertEquals("catalog", replica.getCatalog());
+            assertEquals("schema", replica.getSchema());
+            assertEquals(Connection.TRANSACTION_SERIALIZABLE, replica.getTransactionIsolation());
+            conn.setReadOnly(false);
+            assertEquals("userName", getUserName(conn));
+            assertEquals("catalog", ((DelegatingConnection<?>) conn).getInnermostDelegate().getCatalog());
+        }
+    }
+}
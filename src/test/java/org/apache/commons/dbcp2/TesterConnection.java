@@ -25,6 +25,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.NClob;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
@@ -44,6 +45,8 @@ public class TesterConnection extends AbandonedTrace implements Connection {
     protected boolean aborted;
     protected boolean autoCommit = true;
     protected int transactionIsolation = 1;
+    protected int holdability = ResultSet.HOLD_CURSORS_OVER_COMMIT;
+    protected int networkTimeout;
     protected final DatabaseMetaData metaData = new TesterDatabaseMetaData();
     protected String catalog;
     protected String schema;
@@ -53,6 +56,8 @@ public class TesterConnection extends AbandonedTrace implements Connection {
     protected final String userName;
     protected Exception failure;
     protected boolean sqlExceptionOnClose;
+    protected int clearWarningsCount;
+    protected int rollbackCount;
 
     TesterConnection(final String userName, @SuppressWarnings("unused") final String password) {
         this.userName = userName;
@@ -84,6 +89,7 @@ public class TesterConnection extends AbandonedTrace implements Connection {
     @Override
     public void clearWarnings() throws SQLException {
         checkOpen();
+        clearWarningsCount++;
         warnings = null;
     }
 
@@ -172,7 +178,8 @@ public class TesterConnection extends AbandonedTrace implements Connection {
 
     @Override
     public int getHoldability() throws SQLException {
-        throw new SQLException("Not implemented.");
+        checkOpen();
+        return holdability;
     }
 
     @Override
@@ -183,7 +190,8 @@ public class TesterConnection extends AbandonedTrace implements Connection {
 
     @Override
     public int getNetworkTimeout() throws SQLException {
-        throw new SQLException("Not implemented.");
+        checkOpen();
+        return networkTimeout;
     }
 
     @Override
@@ -326,6 +334,7 @@ public class TesterConnection extends AbandonedTrace implements Connection {
     @Override
     public void rollback() throws SQLException {
         checkOpen();
+        rollbackCount++;
         if (isReadOnly()) {
             throw new SQLException("Cannot rollback a readonly connection");
         }
@@ -367,12 +376,14 @@ public class TesterConnection extends AbandonedTrace implements Connection {
 
     @Override
     public void setHoldability(final int holdability) throws SQLException {
-        throw new SQLException("Not implemented.");
+        checkOpen();
+        this.holdability = holdability;
     }
 
     @Override
     public void setNetworkTimeout(final Executor executor, final int milliseconds) throws SQLException {
-        throw new SQLException("Not implemented.");
+        checkOpen();
+        this.networkTimeout = milliseconds;
     }
 
     @Override
@@ -50,6 +50,7 @@ public class TesterResultSet extends AbandonedTrace implements ResultSet {
     protected int rowsLeft = 2;
     protected boolean open = true;
     protected boolean sqlExceptionOnClose;
+    protected boolean wasNull;
 
     public TesterResultSet(final Statement statement) {
         this.statement = statement;
@@ -308,6 +309,11 @@ public class TesterResultSet extends AbandonedTrace implements ResultSet {
     @Override
     public double getDouble(final int columnIndex) throws SQLException {
         checkOpen();
+        if (data != null) {
+            final Object value = data[currentRow][columnIndex - 1];
+            wasNull = value == null;
+            return value == null ? 0 : ((Number) value).doubleValue();
+        }
         return columnIndex;
     }
 
@@ -1163,6 +1169,6 @@ public class TesterResultSet extends AbandonedTrace implements ResultSet {
     @Override
     public boolean wasNull() throws SQLException {
         checkOpen();
-        return false;
+        return wasNull;
     }
 }
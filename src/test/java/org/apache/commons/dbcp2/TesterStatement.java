@@ -190,6 +190,12 @@ public class TesterStatement extends AbandonedTrace implements Statement {
             throw new SQLException("invalid query");
         case "broken":
             throw new SQLException("broken connection");
+        case "select no rows":
+            return new TesterResultSet(this, new Object[0][]);
+        case "select null": {
+            final Object[][] data = { { null } };
+            return new TesterResultSet(this, data);
+        }
         case "select username": {
             final String userName = ((TesterConnection) connection).getUserName();
             final Object[][] data = { { userName } };
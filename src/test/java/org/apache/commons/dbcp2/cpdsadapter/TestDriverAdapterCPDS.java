@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -33,17 +34,25 @@ import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.time.Duration;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.naming.NamingException;
 import javax.naming.Reference;
 import javax.naming.StringRefAddr;
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
 import javax.sql.DataSource;
+import javax.sql.PooledConnection;
 
 import org.apache.commons.dbcp2.Constants;
+import org.apache.commons.dbcp2.DelegatingConnection;
 import org.apache.commons.dbcp2.DelegatingPreparedStatement;
 import org.apache.commons.dbcp2.DelegatingStatement;
 import org.apache.commons.dbcp2.PStmtKey;
 import org.apache.commons.dbcp2.PoolablePreparedStatement;
+import org.apache.commons.dbcp2.TestBasicDataSourceMXBean;
 import org.apache.commons.dbcp2.TestUtils;
 import org.apache.commons.dbcp2.datasources.SharedPoolDataSource;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
@@ -171,6 +180,36 @@ public class TestDriverAdapterCPDS {
     /**
      * Tests https://issues.apache.org/jira/browse/DBCP-376
      */
+    @Test
+    void testConnectionEventListeners() throws Exception {
+        final PooledConnection pooledConnection = pcds.getPooledConnection();
+        try {
+            final AtomicInteger closedCount = new AtomicInteger();
+            final ConnectionEventListener listener = new ConnectionEventListener() {
+
+                @Override
+                public void connectionClosed(final ConnectionEvent event) {
+                    closedCount.incrementAndGet();
+                    // Listeners may unregister while an event is sent.
+                    pooledConnection.removeConnectionEventListener(this);
+                }
+
+                @Override
+                public void connectionErrorOccurred(final ConnectionEvent event) {
+                    // ignore
+                }
+            };
+            pooledConnection.addConnectionEventListener(listener);
+            pooledConnection.addConnectionEventListener(listener);
+            pooledConnection.getConnection().close();
+            assertEquals(1, closedCount.get());
+            pooledConnection.getConnection().close();
+            assertEquals(1, closedCount.get());
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
     @Test
     void testDbcp367() throws Exception {
         final ThreadDbcp367[] threads = new ThreadDbcp367[200];
@@ -434,6 +473,88 @@ public class TestDriverAdapterCPDS {
         checkAfterClose(connCheck, pStmtKey);
     }
 
+    private PStmtKey prepareAndGetKey(final Connection conn) throws SQLException {
+        try (final PreparedStatement stmt = conn.prepareStatement("select * from dual")) {
+            return TestUtils.getPStmtKey((PoolablePreparedStatement) ((DelegatingStatement) stmt).getDelegate());
+        }
+    }
+
+    @Test
+    void testStatementCache() throws Exception {
+        final PooledConnection pooledConnection = pcds.getPooledConnection();
+        try {
+            try (final Connection conn = pooledConnection.getConnection()) {
+                assertNull(prepareAndGetKey(conn).getCatalog());
+                assertNull(prepareAndGetKey(conn).getCatalog());
+                assertEquals(1, pcds.getStatementCacheMissCount());
+                assertEquals(1, pcds.getStatementCacheHitCount());
+                // Changing the catalog changes the key of the next statement.
+                conn.setCatalog("other");
+                assertEquals("other", prepareAndGetKey(conn).getCatalog());
+                assertEquals(2, pcds.getStatementCacheMissCount());
+            }
+            try (final Connection conn = pooledConnection.getConnection()) {
+                assertEquals("other", prepareAndGetKey(conn).getCatalog());
+                assertEquals(2, pcds.getStatementCacheMissCount());
+                assertEquals(2, pcds.getStatementCacheHitCount());
+            }
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
+    @Test
+    void testStatementCacheCacheState() throws Exception {
+        pcds.setCacheState(true);
+        pcds.setAccessToUnderlyingConnectionAllowed(true);
+        final PooledConnection pooledConnection = pcds.getPooledConnection();
+        try (final Connection conn = pooledConnection.getConnection()) {
+            assertNull(prepareAndGetKey(conn).getCatalog());
+            // A change behind the logical connection's back is not seen
+            ((DelegatingConnection<?>) conn).getInnermostDelegate().setCatalog("other");
+            assertNull(prepareAndGetKey(conn).getCatalog());
+            conn.setCatalog("other");
+            assertEquals("other", prepareAndGetKey(conn).getCatalog());
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
+    @Test
+    void testStatementCacheMXBean() throws Exception {
+        TestBasicDataSourceMXBean.testMXBeanCompliance(DriverAdapterCPDSMXBean.class);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = new ObjectName("org.apache.commons.dbcp2:type=DriverAdapterCPDS,name=test");
+        server.registerMBean(pcds, objectName);
+        try {
+            final PooledConnection pooledConnection = pcds.getPooledConnection();
+            try (final Connection conn = pooledConnection.getConnection()) {
+                prepareAndGetKey(conn);
+                prepareAndGetKey(conn);
+            } finally {
+                pooledConnection.close();
+            }
+            assertEquals(1L, server.getAttribute(objectName, "StatementCacheHitCount"));
+            assertEquals(1L, server.getAttribute(objectName, "StatementCacheMissCount"));
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Test
+    void testStatementCacheUnderlyingCatalogChange() throws Exception {
+        pcds.setAccessToUnderlyingConnectionAllowed(true);
+        final PooledConnection pooledConnection = pcds.getPooledConnection();
+        try (final Connection conn = pooledConnection.getConnection()) {
+            assertNull(prepareAndGetKey(conn).getCatalog());
+            // Without the cache, a change made without the logical connection is seen
+            ((DelegatingConnection<?>) conn).getInnermostDelegate().setCatalog("other");
+            assertEquals("other", prepareAndGetKey(conn).getCatalog());
+        } finally {
+            pooledConnection.close();
+        }
+    }
+
     @Test
     void testToStringWithoutConnectionProperties() throws ClassNotFoundException {
         final DriverAdapterCPDS cleanCpds = new DriverAdapterCPDS();
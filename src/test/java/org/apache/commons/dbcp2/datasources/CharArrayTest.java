@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -58,6 +59,16 @@ class CharArrayTest {
         assertNotEquals(new CharArray("foo").hashCode(), new CharArray("bar").hashCode());
     }
 
+    @Test
+    void testMatches() {
+        assertTrue(new CharArray("foo").matches("foo"));
+        assertFalse(new CharArray("foo").matches("fob"));
+        assertFalse(new CharArray("foo").matches("fo"));
+        assertFalse(new CharArray("foo").matches(null));
+        assertTrue(new CharArray((String) null).matches(null));
+        assertFalse(new CharArray((String) null).matches(""));
+    }
+
     @Test
     void testToString() {
         assertFalse(new CharArray("foo").toString().contains("foo"));
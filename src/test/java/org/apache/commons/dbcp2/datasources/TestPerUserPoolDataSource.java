@@ -36,12 +36,14 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.TestConnectionPool;
 import org.apache.commons.dbcp2.TesterDriver;
 import org.apache.commons.dbcp2.cpdsadapter.DriverAdapterCPDS;
+import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -168,6 +170,90 @@ public class TestPerUserPoolDataSource extends TestConnectionPool {
         }
     }
 
+    @Test
+    void testConnectionBudget() throws Exception {
+        final PerUserPoolDataSource tds = (PerUserPoolDataSource) ds;
+        tds.setMaxTotalConnections(2);
+        tds.setPerUserBudgetWeight("u2", 2);
+        tds.setDefaultMaxWait(Duration.ofMillis(100));
+        final Connection c1 = ds.getConnection("u1", "p1");
+        ds.getConnection("u1", "p1").close();
+        c1.close();
+        final ConnectionBudget budget = tds.getConnectionBudget();
+        assertNotNull(budget);
+        assertEquals(2, budget.getTotal());
+        final GenericObjectPool<?> u1Pool = (GenericObjectPool<?>) ((CPDSConnectionFactory) tds.getConnectionManager(new UserPassKey("u1"))).getPool();
+        final long u1Borrowed = u1Pool.getBorrowedCount();
+        // u2 closes an idle connection of u1, which holds more than its share
+        try (Connection d1 = ds.getConnection("u2", "p2")) {
+            // without borrowing it
+            assertEquals(u1Borrowed, u1Pool.getBorrowedCount());
+            assertEquals(1, budget.getHeld("u1"));
+            assertEquals(1, budget.getHeld("u2"));
+            assertEquals(1, tds.getNumIdle("u1"));
+            // Another one would leave u2 above its share
+            assertThrows(SQLException.class, () -> ds.getConnection("u2", "p2"));
+            assertEquals(1, budget.getTimeoutCount("u2"));
+            assertTrue(budget.getMaxWaitDuration("u2").compareTo(Duration.ofMillis(100)) >= 0);
+            ds.getConnection("u1", "p1").close();
+        }
+        assertEquals(2, budget.getTotal());
+        assertEquals(0, budget.getWaiting("u2"));
+    }
+
+    @Test
+    void testConnectionBudgetTestConnection() throws Exception {
+        final PerUserPoolDataSource tds = (PerUserPoolDataSource) ds;
+        tds.setMaxTotalConnections(1);
+        tds.setPerUserBudgetWeight("u2", 2);
+        tds.setDefaultMaxWait(Duration.ofMillis(100));
+        try (Connection c1 = ds.getConnection("u1", "p1")) {
+            // The connection testing the credentials of a new user counts too
+            assertThrows(SQLException.class, () -> ds.getConnection("u2", "p2"));
+            assertEquals(1, tds.getConnectionBudget().getTimeoutCount("u2"));
+            assertEquals(1, tds.getConnectionBudget().getTotal());
+        }
+        // Once idle, the connection of u1 makes room for both
+        try (Connection c2 = ds.getConnection("u2", "p2")) {
+            assertEquals(1, tds.getConnectionBudget().getTotal());
+            assertEquals(0, tds.getNumIdle("u1"));
+        }
+    }
+
+    @Test
+    void testConnectionBudgetWaitDoesNotBlockRegistration() throws Exception {
+        final PerUserPoolDataSource tds = (PerUserPoolDataSource) ds;
+        // "tQ" and "u2" have the same hash code, so their pools share a registration lock
+        assertEquals("u2".hashCode(), "tQ".hashCode());
+        TesterDriver.addUser("tQ", "pQ");
+        tds.setMaxTotalConnections(1);
+        tds.setDefaultMaxWait(Duration.ofSeconds(3));
+        tds.setPerUserMaxWait("tQ", Duration.ofMillis(100));
+        final Connection c1 = ds.getConnection("u1", "p1");
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread waiting = new Thread(() -> {
+            try (Connection c2 = ds.getConnection("u2", "p2")) {
+                assertNotNull(c2);
+            } catch (final Throwable t) {
+                failure.set(t);
+            }
+        });
+        waiting.start();
+        final ConnectionBudget budget = tds.getConnectionBudget();
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (budget.getWaiting("u2") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, budget.getWaiting("u2"));
+        // The test connection of u2 waits for the budget without holding the registration lock
+        assertThrows(SQLException.class, () -> ds.getConnection("tQ", "pQ"));
+        assertEquals(1, budget.getTimeoutCount("tQ"));
+        assertEquals(1, budget.getWaiting("u2"));
+        waiting.join();
+        assertTrue(failure.get() instanceof SQLException);
+        c1.close();
+    }
+
     /**
      * Tests https://issues.apache.org/jira/browse/DBCP-597
      */
@@ -334,6 +420,29 @@ public class TestPerUserPoolDataSource extends TestConnectionPool {
     /**
      * Verify that defaultMaxWaitMillis = 0 means immediate failure when pool is exhausted.
      */
+    @Test
+    void testIdlePoolReaping() throws Exception {
+        final PerUserPoolDataSource tds = (PerUserPoolDataSource) ds;
+        assertEquals(0, tds.reapIdlePools());
+        tds.setIdlePoolTimeout(Duration.ofMillis(50));
+        // The evictor testing idle connections does not keep a pool alive
+        tds.setPerUserTestWhileIdle("u1", Boolean.TRUE);
+        tds.setPerUserDurationBetweenEvictionRuns("u1", Duration.ofMillis(10));
+        ds.getConnection("u1", "p1").close();
+        try (Connection conn = ds.getConnection("u2", "p2")) {
+            final long deadline = System.currentTimeMillis() + 5_000;
+            while (tds.getNumIdle("u1") > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // The pool of u1 is closed in the background, the pool of u2 is in use
+            assertEquals(0, tds.getNumIdle("u1"));
+            assertEquals(1, tds.getNumActive("u2"));
+        }
+        // The pool is created again on demand
+        ds.getConnection("u1", "p1").close();
+        assertEquals(1, tds.getNumIdle("u1"));
+    }
+
     @Test
     void testMaxWaitMillisZero() throws Exception {
         final PerUserPoolDataSource tds = (PerUserPoolDataSource) ds;
@@ -344,6 +453,40 @@ public class TestPerUserPoolDataSource extends TestConnectionPool {
         }
     }
 
+    @Test
+    void testMultipleUsersConcurrently() throws Exception {
+        final PerUserPoolDataSource tds = (PerUserPoolDataSource) ds;
+        tds.setPerUserMaxTotal("u1", 3);
+        tds.setPerUserDefaultAutoCommit("u2", Boolean.FALSE);
+        final String[][] credentials = { { user, "bar" }, { "u1", "p1" }, { "u2", "p2" } };
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread[] threads = new Thread[12];
+        for (int i = 0; i < threads.length; i++) {
+            final String[] credential = credentials[i % credentials.length];
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 20; j++) {
+                        try (Connection conn = ds.getConnection(credential[0], credential[1])) {
+                            assertEquals(!"u2".equals(credential[0]), conn.getAutoCommit());
+                        }
+                    }
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        for (final String[] credential : credentials) {
+            assertEquals(0, tds.getNumActive(credential[0]));
+            assertTrue(tds.getNumIdle(credential[0]) > 0);
+        }
+        assertTrue(tds.getNumIdle("u1") <= 3);
+    }
+
     @Test
     void testMultipleThreads1() throws Exception {
         // Override wait time in order to allow for Thread.sleep(1) sometimes taking a lot longer on
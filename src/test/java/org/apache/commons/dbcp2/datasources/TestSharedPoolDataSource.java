@@ -351,6 +351,33 @@ public class TestSharedPoolDataSource extends TestConnectionPool {
         }
     }
 
+    @Test
+    void testRotatePassword() throws Exception {
+        final SharedPoolDataSource tds = (SharedPoolDataSource) ds;
+        tds.setDefaultMinIdle(1);
+        final Connection held = ds.getConnection("foo", "bar");
+        TesterDriver.addUser("foo", "bay");
+        try {
+            // An unknown password is refused
+            assertThrows(SQLException.class, () -> tds.rotatePassword("foo", "baz"));
+            tds.rotatePassword("foo", "bay");
+            // A connection with the new password is ready
+            assertEquals(1, tds.getNumIdle());
+            ds.getConnection("foo", "bay").close();
+            assertEquals(1, tds.getNumIdle());
+            // The old password is refused rather than making a connection closed on return
+            assertThrows(SQLException.class, () -> ds.getConnection("foo", "bar"));
+            assertEquals(1, tds.getNumIdle());
+            assertEquals(1, tds.getNumActive());
+            // The connection with the old password is closed on return
+            held.close();
+            assertEquals(1, tds.getNumIdle());
+            assertEquals(0, tds.getNumActive());
+        } finally {
+            TesterDriver.addUser("foo", "bar");
+        }
+    }
+
     /**
      * Tests pool close. Illustrates BZ 37359.
      *
@@ -19,7 +19,9 @@ package org.apache.commons.dbcp2.datasources;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.commons.dbcp2.Utils;
 import org.apache.commons.lang3.SerializationUtils;
@@ -64,6 +66,20 @@ public class TestUserPassKey {
         assertNotEquals(userPassKey.hashCode(), anotherUserPassKey.hashCode());
     }
 
+    @Test
+    void testMatchesPassword() {
+        assertTrue(userPassKey.matchesPassword("pass"));
+        assertTrue(userPassKey.matchesPassword(new String("pass")));
+        assertFalse(userPassKey.matchesPassword("pas"));
+        assertFalse(userPassKey.matchesPassword("pasS"));
+        assertFalse(userPassKey.matchesPassword(null));
+        assertTrue(new UserPassKey("user").matchesPassword(null));
+        assertFalse(anotherUserPassKey.matchesPassword(null));
+        assertTrue(anotherUserPassKey.matchesPassword(""));
+        userPassKey.clear();
+        assertFalse(userPassKey.matchesPassword("pass"));
+    }
+
     @Test
     void testSerialization() {
         assertEquals(userPassKey, SerializationUtils.roundtrip(userPassKey));
@@ -26,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 
 import javax.sql.XADataSource;
 import javax.transaction.TransactionManager;
@@ -33,6 +34,9 @@ import javax.transaction.TransactionSynchronizationRegistry;
 import javax.transaction.xa.XAException;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.apache.commons.dbcp2.MultiEndpointConnectionFactory;
+import org.apache.commons.dbcp2.PoolableConnection;
 import org.apache.commons.dbcp2.TestBasicDataSource;
 import org.apache.geronimo.transaction.manager.TransactionManagerImpl;
 import org.h2.Driver;
@@ -77,6 +81,37 @@ public class TestBasicManagedDataSource extends TestBasicDataSource {
         }
     }
 
+    @Test
+    void testMultiEndpointConnectionFactory() throws Exception {
+        try (BasicManagedDataSource basicManagedDataSource = new BasicManagedDataSource()) {
+            basicManagedDataSource.setTransactionManager(new TransactionManagerImpl());
+            basicManagedDataSource.setDriverClassName("org.apache.commons.dbcp2.TesterDriver");
+            basicManagedDataSource.setConnectionFactoryClassName(MultiEndpointConnectionFactory.class.getName());
+            basicManagedDataSource.setUrl("jdbc:apache:commons:testdriver/a jdbc:apache:commons:testdriver/b");
+            basicManagedDataSource.setUsername("userName");
+            basicManagedDataSource.setPassword("password");
+            basicManagedDataSource.setAccessToUnderlyingConnectionAllowed(true);
+            try (Connection conn = basicManagedDataSource.getConnection()) {
+                // The endpoint is recorded through the LocalXAConnectionFactory wrapping the multi-endpoint factory
+                final PoolableConnection pooled = (PoolableConnection) ((DelegatingConnection<?>) conn).getDelegate();
+                assertEquals("jdbc:apache:commons:testdriver/b", pooled.getEndpoint());
+            }
+        }
+    }
+
+    /**
+     * Managed connections borrow lazily per transaction and do not use bulkhead partitions.
+     */
+    @Override
+    @Test
+    public void testPartitions() throws Exception {
+        ds.setPartitions("reports=1");
+        try (Connection conn = ds.getPartitionConnection("reports")) {
+            assertNotNull(conn);
+            assertNull(ds.getBulkheadPartitions());
+        }
+    }
+
     /**
      * JIRA: DBCP-294
      * Verify that PoolableConnections created by BasicManagedDataSource unregister themselves
@@ -103,6 +138,15 @@ public class TestBasicManagedDataSource extends TestBasicDataSource {
         }
     }
 
+    /**
+     * Managed data sources cannot replace the connection factory of a running pool.
+     */
+    @Override
+    @Test
+    public void testRotateCredentials() throws Exception {
+        assertThrows(SQLFeatureNotSupportedException.class, () -> ds.rotateCredentials(ds.getUrl(), "u1", "p1"));
+    }
+
     @Test
     void testRuntimeExceptionsAreRethrown() throws SQLException, XAException {
         try (final BasicManagedDataSource basicManagedDataSource = new BasicManagedDataSource()) {
@@ -27,9 +27,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.sql.Connection;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.transaction.TransactionManager;
 
+import org.apache.commons.dbcp2.BorrowPriority;
 import org.apache.commons.dbcp2.ConnectionFactory;
 import org.apache.commons.dbcp2.Constants;
 import org.apache.commons.dbcp2.DelegatingConnection;
@@ -239,6 +241,34 @@ public class TestManagedDataSource extends TestConnectionPool {
         }
     }
 
+    /**
+     * A borrow with a priority must be enlisted in the transaction like any other.
+     */
+    @Test
+    void testPriorityConnectionIsManaged() throws Exception {
+        ds.setPriorityLanes(true);
+        transactionManager.begin();
+        try (DelegatingConnection<?> connectionA = (DelegatingConnection<?>) ds.getConnection(BorrowPriority.HIGH);
+                DelegatingConnection<?> connectionB = (DelegatingConnection<?>) newConnection()) {
+            assertTrue(connectionA instanceof ManagedConnection);
+            // Both share the transaction's connection
+            assertTrue(connectionA.innermostDelegateEquals(connectionB.getInnermostDelegate()));
+        }
+        transactionManager.commit();
+    }
+
+    @Test
+    void testGetConnectionAsyncIsManaged() throws Exception {
+        transactionManager.begin();
+        try (DelegatingConnection<?> connectionA = (DelegatingConnection<?>) ds.getConnectionAsync().get(10, TimeUnit.SECONDS);
+                DelegatingConnection<?> connectionB = (DelegatingConnection<?>) newConnection()) {
+            assertTrue(connectionA instanceof ManagedConnection);
+            // Both share the transaction's connection
+            assertTrue(connectionA.innermostDelegateEquals(connectionB.getInnermostDelegate()));
+        }
+        transactionManager.commit();
+    }
+
     @Test
     void testSetNullTransactionRegistry() throws Exception {
         try (ManagedDataSource<?> ds = new ManagedDataSource<>(pool, null)) {
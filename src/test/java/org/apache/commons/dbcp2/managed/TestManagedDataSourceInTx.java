@@ -32,10 +32,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
 
 import javax.transaction.Synchronization;
 import javax.transaction.Transaction;
 
+import org.apache.commons.dbcp2.BorrowPriority;
 import org.apache.commons.dbcp2.DelegatingConnection;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -236,6 +238,17 @@ public class TestManagedDataSourceInTx extends TestManagedDataSource {
         transactionManager.commit();
     }
 
+    @Override
+    @Test
+    void testGetConnectionAsyncIsManaged() throws Exception {
+        // The transaction is already active
+        try (DelegatingConnection<?> connectionA = (DelegatingConnection<?>) ds.getConnectionAsync().get(10, TimeUnit.SECONDS);
+                DelegatingConnection<?> connectionB = (DelegatingConnection<?>) newConnection()) {
+            assertTrue(connectionA instanceof ManagedConnection);
+            assertTrue(connectionA.innermostDelegateEquals(connectionB.getInnermostDelegate()));
+        }
+    }
+
     @Test
     void testGetConnectionInAfterCompletion() throws Exception {
         try (DelegatingConnection<?> connection = (DelegatingConnection<?>) newConnection()) {
@@ -312,6 +325,18 @@ public class TestManagedDataSourceInTx extends TestManagedDataSource {
         // Not supported
     }
 
+    @Override
+    @Test
+    void testPriorityConnectionIsManaged() throws Exception {
+        ds.setPriorityLanes(true);
+        // The transaction is already active
+        try (DelegatingConnection<?> connectionA = (DelegatingConnection<?>) ds.getConnection(BorrowPriority.HIGH);
+                DelegatingConnection<?> connectionB = (DelegatingConnection<?>) newConnection()) {
+            assertTrue(connectionA instanceof ManagedConnection);
+            assertTrue(connectionA.innermostDelegateEquals(connectionB.getInnermostDelegate()));
+        }
+    }
+
     @Test
     void testReadOnly() throws Exception {
         try (Connection connection = newConnection()) {